@@ -0,0 +1,20 @@
+package pe.edu.vallegrande.msdistribution.application.services;
+
+import pe.edu.vallegrande.msdistribution.domain.enums.EntityType;
+import pe.edu.vallegrande.msdistribution.domain.models.CollectionVersion;
+import reactor.core.publisher.Mono;
+
+public interface CollectionVersionService {
+
+    /**
+     * Versión actual de la colección; una sola lectura por _id, sin tocar los datos.
+     */
+    Mono<CollectionVersion> current(EntityType type);
+
+    /**
+     * Completa cuando los $inc de todos los cambios notificados hasta ahora ya están en Mongo.
+     * Las escrituras lo esperan antes de responder para que un GET condicional posterior no
+     * reciba 304 con el ETag anterior.
+     */
+    Mono<Void> settled();
+}
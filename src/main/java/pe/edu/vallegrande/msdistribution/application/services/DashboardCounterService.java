@@ -0,0 +1,17 @@
+package pe.edu.vallegrande.msdistribution.application.services;
+
+import pe.edu.vallegrande.msdistribution.domain.models.DashboardCounter;
+import reactor.core.publisher.Mono;
+
+public interface DashboardCounterService {
+
+    /**
+     * Contadores de una organización, o la suma de todas si {@code organizationId} es null.
+     */
+    Mono<DashboardCounter> getCounters(String organizationId);
+
+    /**
+     * Reconstruye los contadores desde agregaciones sobre program, route, schedule y fare.
+     */
+    Mono<Void> reconcile();
+}
@@ -3,6 +3,9 @@ package pe.edu.vallegrande.msdistribution.application.services;
 import pe.edu.vallegrande.msdistribution.infrastructure.dto.request.DistributionProgramCreateRequest;
 import pe.edu.vallegrande.msdistribution.infrastructure.dto.response.DistributionProgramResponse;
 import pe.edu.vallegrande.msdistribution.infrastructure.dto.response.enriched.EnrichedDistributionProgramResponse;
+import pe.edu.vallegrande.msdistribution.infrastructure.dto.request.CursorPageRequest;
+import pe.edu.vallegrande.msdistribution.infrastructure.dto.response.BulkItemResult;
+import pe.edu.vallegrande.msdistribution.infrastructure.dto.response.CursorPage;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
@@ -13,8 +16,14 @@ public interface DistributionProgramService {
     Mono<DistributionProgramResponse> getById(String id);
     
     Mono<DistributionProgramResponse> save(DistributionProgramCreateRequest request);
+
+    // Alta masiva: un resultado por elemento, en el orden de entrada
+    Flux<BulkItemResult<DistributionProgramResponse>> saveAll(Flux<DistributionProgramCreateRequest> requests);
     
     Mono<DistributionProgramResponse> update(String id, DistributionProgramCreateRequest request);
+
+    // expectedVersion: versión del If-Match (null = sin condición)
+    Mono<DistributionProgramResponse> update(String id, DistributionProgramCreateRequest request, Long expectedVersion);
     
     Mono<Void> delete(String id);
     
@@ -35,4 +44,9 @@ public interface DistributionProgramService {
     
     // Method to get programs by organization ID
     Flux<DistributionProgramResponse> getByOrganizationId(String organizationId);
+
+    // Paginación por cursor (keyset)
+    Mono<CursorPage<DistributionProgramResponse>> getPage(CursorPageRequest request);
+
+    Mono<CursorPage<EnrichedDistributionProgramResponse>> getEnrichedPage(CursorPageRequest request);
 }
\ No newline at end of file
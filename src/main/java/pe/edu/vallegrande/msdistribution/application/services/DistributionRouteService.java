@@ -4,6 +4,9 @@ import pe.edu.vallegrande.msdistribution.domain.models.DistributionRoute;
 import pe.edu.vallegrande.msdistribution.infrastructure.dto.request.DistributionRouteCreateRequest;
 import pe.edu.vallegrande.msdistribution.infrastructure.dto.response.DistributionRouteResponse;
 import pe.edu.vallegrande.msdistribution.infrastructure.dto.response.enriched.EnrichedDistributionRouteResponse;
+import pe.edu.vallegrande.msdistribution.infrastructure.dto.request.CursorPageRequest;
+import pe.edu.vallegrande.msdistribution.infrastructure.dto.response.BulkItemResult;
+import pe.edu.vallegrande.msdistribution.infrastructure.dto.response.CursorPage;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
@@ -12,16 +15,25 @@ public interface DistributionRouteService {
     Flux<DistributionRoute> getAll();
     
     Flux<DistributionRoute> getAllActive();
+
+    // Activos de una organización (organizationId null = todas), servidos desde la instantánea en memoria
+    Flux<DistributionRoute> getActiveByOrganization(String organizationId);
     
     Flux<DistributionRoute> getAllInactive();
     
     Mono<DistributionRoute> getById(String id);
     
     Mono<DistributionRouteResponse> save(DistributionRouteCreateRequest request);
+
+    // Alta masiva: un resultado por elemento, en el orden de entrada
+    Flux<BulkItemResult<DistributionRouteResponse>> saveAll(Flux<DistributionRouteCreateRequest> requests);
     
     Mono<DistributionRoute> update(String id, DistributionRoute route);
     
     Mono<DistributionRouteResponse> update(String id, DistributionRouteCreateRequest request);
+
+    // expectedVersion: versión del If-Match (null = sin condición)
+    Mono<DistributionRouteResponse> update(String id, DistributionRouteCreateRequest request, Long expectedVersion);
     
     Mono<Void> delete(String id);
     
@@ -37,4 +49,7 @@ public interface DistributionRouteService {
     Flux<EnrichedDistributionRouteResponse> getAllActiveEnriched();
     
     Flux<EnrichedDistributionRouteResponse> getAllInactiveEnriched();
+
+    // Paginación por cursor (keyset)
+    Mono<CursorPage<DistributionRoute>> getPage(CursorPageRequest request);
 }
\ No newline at end of file
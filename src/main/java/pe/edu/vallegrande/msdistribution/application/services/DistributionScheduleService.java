@@ -4,6 +4,9 @@ import pe.edu.vallegrande.msdistribution.domain.models.DistributionSchedule;
 import pe.edu.vallegrande.msdistribution.infrastructure.dto.request.DistributionScheduleCreateRequest;
 import pe.edu.vallegrande.msdistribution.infrastructure.dto.response.DistributionScheduleResponse;
 import pe.edu.vallegrande.msdistribution.infrastructure.dto.response.enriched.EnrichedDistributionScheduleResponse;
+import pe.edu.vallegrande.msdistribution.infrastructure.dto.request.CursorPageRequest;
+import pe.edu.vallegrande.msdistribution.infrastructure.dto.response.BulkItemResult;
+import pe.edu.vallegrande.msdistribution.infrastructure.dto.response.CursorPage;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
@@ -12,16 +15,25 @@ public interface DistributionScheduleService {
     Flux<DistributionSchedule> getAll();
     
     Flux<DistributionSchedule> getAllActive();
+
+    // Activos de una organización (organizationId null = todas), servidos desde la instantánea en memoria
+    Flux<DistributionSchedule> getActiveByOrganization(String organizationId);
     
     Flux<DistributionSchedule> getAllInactive();
     
     Mono<DistributionSchedule> getById(String id);
     
     Mono<DistributionScheduleResponse> save(DistributionScheduleCreateRequest request);
+
+    // Alta masiva: un resultado por elemento, en el orden de entrada
+    Flux<BulkItemResult<DistributionScheduleResponse>> saveAll(Flux<DistributionScheduleCreateRequest> requests);
     
     Mono<DistributionSchedule> update(String id, DistributionSchedule schedule);
     
     Mono<DistributionScheduleResponse> update(String id, DistributionScheduleCreateRequest request);
+
+    // expectedVersion: versión del If-Match (null = sin condición)
+    Mono<DistributionScheduleResponse> update(String id, DistributionScheduleCreateRequest request, Long expectedVersion);
     
     Mono<Void> delete(String id);
     
@@ -40,4 +52,7 @@ public interface DistributionScheduleService {
     
     // New method for saving and returning enriched response
     Mono<EnrichedDistributionScheduleResponse> saveAndEnrich(DistributionScheduleCreateRequest request);
+
+    // Paginación por cursor (keyset)
+    Mono<CursorPage<DistributionSchedule>> getPage(CursorPageRequest request);
 }
\ No newline at end of file
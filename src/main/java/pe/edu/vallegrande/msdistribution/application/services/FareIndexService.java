@@ -0,0 +1,30 @@
+package pe.edu.vallegrande.msdistribution.application.services;
+
+import pe.edu.vallegrande.msdistribution.domain.models.Fare;
+import reactor.core.publisher.Mono;
+
+import java.time.Instant;
+
+/**
+ * Índice en memoria de las tarifas de cada organización, ordenadas por fecha de vigencia.
+ * Las consultas no hacen I/O; solo {@link #reload()} lee de Mongo.
+ */
+public interface FareIndexService {
+
+    /**
+     * Tarifa en vigor en {@code at}, pasado o futuro: la de mayor effectiveDate que no sea posterior
+     * a {@code at}, en cualquier estado (la regla con la que FareSchedulerService deja una tarifa
+     * ACTIVE); si no hay, la tarifa activa sin fecha de vigencia.
+     */
+    Mono<Fare> at(String organizationId, Instant at);
+
+    /**
+     * false hasta completar la primera carga; mientras tanto las consultas deben ir a Mongo.
+     */
+    boolean isLoaded();
+
+    /**
+     * Reconstruye el índice desde Mongo sin perder los cambios recibidos durante la carga.
+     */
+    Mono<Void> reload();
+}
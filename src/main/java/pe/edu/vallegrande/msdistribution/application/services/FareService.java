@@ -4,9 +4,14 @@ import pe.edu.vallegrande.msdistribution.domain.models.Fare;
 import pe.edu.vallegrande.msdistribution.infrastructure.dto.request.FareCreateRequest;
 import pe.edu.vallegrande.msdistribution.infrastructure.dto.response.FareResponse;
 import pe.edu.vallegrande.msdistribution.infrastructure.dto.response.enriched.EnrichedFareResponse;
+import pe.edu.vallegrande.msdistribution.infrastructure.dto.request.CursorPageRequest;
+import pe.edu.vallegrande.msdistribution.infrastructure.dto.response.BulkItemResult;
+import pe.edu.vallegrande.msdistribution.infrastructure.dto.response.CursorPage;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
+import java.time.Instant;
+
 public interface FareService {
     
     Flux<FareResponse> getAllF();
@@ -18,8 +23,14 @@ public interface FareService {
     Mono<FareResponse> getByIdF(String id);
     
     Mono<FareResponse> saveF(FareCreateRequest request);
+
+    // Alta masiva: un resultado por elemento, en el orden de entrada
+    Flux<BulkItemResult<FareResponse>> saveAllF(Flux<FareCreateRequest> requests);
     
     Mono<FareResponse> updateF(String id, FareCreateRequest request);
+
+    // expectedVersion: versión del If-Match (null = sin condición)
+    Mono<FareResponse> updateF(String id, FareCreateRequest request, Long expectedVersion);
     
     Mono<Void> deleteF(String id);
     
@@ -39,9 +50,16 @@ public interface FareService {
     // Method to get current active fare based on effective date
     Mono<Fare> getCurrentActiveFare(String organizationId);
     
+    // Tarifa en vigor para una organización (índice en memoria): la de mayor effectiveDate no
+    // posterior a at, también para instantes pasados; at null = ahora, igual que getCurrentActiveFare
+    Mono<FareResponse> getFareInForce(String organizationId, Instant at);
+    
     // Method to get fares by organization ID
     Flux<Fare> getByOrganizationId(String organizationId);
     
     // Method to manually trigger fare transitions processing
     void triggerFareTransitions();
+
+    // Paginación por cursor (keyset)
+    Mono<CursorPage<FareResponse>> getPageF(CursorPageRequest request);
 }
\ No newline at end of file
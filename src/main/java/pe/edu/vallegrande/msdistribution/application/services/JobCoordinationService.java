@@ -0,0 +1,36 @@
+package pe.edu.vallegrande.msdistribution.application.services;
+
+import pe.edu.vallegrande.msdistribution.domain.models.JobAssignment;
+import pe.edu.vallegrande.msdistribution.domain.models.Lease;
+import reactor.core.publisher.Mono;
+
+/**
+ * Coordinación de jobs programados entre réplicas mediante leases en Mongo.
+ */
+public interface JobCoordinationService {
+
+    /**
+     * Toma o renueva el lease del job. Vacío si otra réplica lo tiene vigente. Mientras se tenga,
+     * se renueva automáticamente.
+     */
+    Mono<Lease> acquire(String job);
+
+    /**
+     * Fencing: true si el lease sigue siendo de esta réplica con el mismo token. Debe consultarse
+     * justo antes de escribir para que un líder desplazado (pausa de GC, red) no pise al nuevo.
+     */
+    Mono<Boolean> isCurrent(Lease lease);
+
+    /**
+     * Trabajo que le corresponde a esta réplica: con particionado habilitado, su partición entre
+     * las réplicas vivas; si no, todo el trabajo si obtiene el lease. Vacío si no le toca nada.
+     */
+    Mono<JobAssignment> assignment(String job);
+
+    /**
+     * {@link #isCurrent(Lease)} para asignaciones con lease; las particionadas siempre son válidas.
+     */
+    Mono<Boolean> isCurrent(JobAssignment assignment);
+
+    Mono<Void> release(String job);
+}
@@ -0,0 +1,48 @@
+package pe.edu.vallegrande.msdistribution.application.services;
+
+import pe.edu.vallegrande.msdistribution.domain.models.Organization;
+import pe.edu.vallegrande.msdistribution.domain.models.Street;
+import pe.edu.vallegrande.msdistribution.domain.models.Zone;
+import pe.edu.vallegrande.msdistribution.infrastructure.client.dto.ExternalUser;
+import reactor.core.publisher.Mono;
+
+import java.util.Collection;
+import java.util.Optional;
+
+/**
+ * Directorio local de organizaciones, zonas y calles (colecciones {@code organization},
+ * {@code zone} y {@code street}) servido desde memoria: valida ids al crear o actualizar y
+ * resuelve nombres en las respuestas enriquecidas sin llamadas remotas.
+ */
+public interface OrganizationDirectoryService {
+
+    Optional<Organization> organization(String id);
+
+    Optional<Zone> zone(String id);
+
+    Optional<Street> street(String id);
+
+    boolean isLoaded();
+
+    /**
+     * Lanza CustomException (400) si una referencia conocida está inactiva o pertenece a otra
+     * organización / zona. Los ids aún desconocidos se aceptan salvo en modo estricto.
+     */
+    void validate(String organizationId, Collection<String> zoneIds, String streetId);
+
+    /**
+     * Registra la organización, zona y calle embebidas en usuarios de ms-users, con su relación.
+     */
+    Mono<Void> collect(Collection<ExternalUser> users);
+
+    /**
+     * Trae de los otros microservicios las referencias usadas por programas, rutas y horarios que
+     * faltan o están vencidas.
+     */
+    Mono<Void> sync();
+
+    /**
+     * Recarga la memoria desde Mongo (cambios sincronizados por otra réplica).
+     */
+    Mono<Void> reload();
+}
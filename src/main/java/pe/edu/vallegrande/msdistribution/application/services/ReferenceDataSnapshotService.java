@@ -0,0 +1,33 @@
+package pe.edu.vallegrande.msdistribution.application.services;
+
+import pe.edu.vallegrande.msdistribution.domain.models.DistributionRoute;
+import pe.edu.vallegrande.msdistribution.domain.models.DistributionSchedule;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Instantánea en memoria, por organización, de las rutas y horarios ACTIVE.
+ * Las consultas no hacen I/O ni toman bloqueos; solo {@link #reload()} lee de Mongo.
+ */
+public interface ReferenceDataSnapshotService {
+
+    /**
+     * Rutas activas de la organización; organizationId null = todas las organizaciones.
+     */
+    Flux<DistributionRoute> activeRoutes(String organizationId);
+
+    /**
+     * Horarios activos de la organización; organizationId null = todas las organizaciones.
+     */
+    Flux<DistributionSchedule> activeSchedules(String organizationId);
+
+    /**
+     * false hasta completar la primera carga; mientras tanto las consultas deben ir a Mongo.
+     */
+    boolean isLoaded();
+
+    /**
+     * Reconstruye la instantánea desde Mongo sin perder los cambios recibidos durante la carga.
+     */
+    Mono<Void> reload();
+}
@@ -0,0 +1,28 @@
+package pe.edu.vallegrande.msdistribution.application.services;
+
+import org.springframework.dao.DuplicateKeyException;
+import pe.edu.vallegrande.msdistribution.domain.enums.SequenceType;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.util.retry.Retry;
+
+public interface SequenceService {
+
+    // Siguiente código para el tipo indicado (ej. PRG014)
+    Mono<String> nextCode(SequenceType type, String organizationId);
+
+    // count códigos consecutivos reservados con una sola escritura (altas masivas)
+    Flux<String> nextCodes(SequenceType type, String organizationId, int count);
+
+    // Descarta los códigos reservados en memoria y reinicializa el contador con $max en el próximo uso
+    void reseed(SequenceType type, String organizationId);
+
+    // Reintento de un alta individual cuyo código rechazó el índice único: reinicializa el contador
+    // y vuelve a suscribir (nextCode + save); agotados los intentos propaga el DuplicateKeyException
+    static Retry retryOnDuplicateCode(SequenceService sequenceService, SequenceType type, String organizationId) {
+        return Retry.max(2)
+                .filter(DuplicateKeyException.class::isInstance)
+                .doBeforeRetry(signal -> sequenceService.reseed(type, organizationId))
+                .onRetryExhaustedThrow((spec, signal) -> signal.failure());
+    }
+}
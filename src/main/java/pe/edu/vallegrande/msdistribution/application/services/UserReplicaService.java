@@ -0,0 +1,22 @@
+package pe.edu.vallegrande.msdistribution.application.services;
+
+import reactor.core.publisher.Mono;
+
+/**
+ * Réplica local (colección {@code user}) de los usuarios de ms-users que interesan a cada
+ * organización: sus administradores y los responsables referenciados por programas y rutas.
+ */
+public interface UserReplicaService {
+
+    /**
+     * Sincroniza las organizaciones que le tocan a esta réplica, empezando por las de
+     * sincronización más antigua.
+     */
+    Mono<Void> sync();
+
+    /**
+     * Sincroniza una organización. Si alguna consulta a ms-users falla no escribe nada.
+     * Devuelve los usuarios escritos (insertados o cambiados).
+     */
+    Mono<Long> syncOrganization(String organizationId);
+}
@@ -0,0 +1,148 @@
+package pe.edu.vallegrande.msdistribution.application.services.impl;
+
+import lombok.Builder;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import pe.edu.vallegrande.msdistribution.application.services.SequenceService;
+import pe.edu.vallegrande.msdistribution.domain.enums.SequenceType;
+import pe.edu.vallegrande.msdistribution.infrastructure.dto.ErrorMessage;
+import pe.edu.vallegrande.msdistribution.infrastructure.dto.response.BulkItemResult;
+import pe.edu.vallegrande.msdistribution.infrastructure.exception.CustomException;
+import pe.edu.vallegrande.msdistribution.infrastructure.repository.BulkInsertRepository;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.util.function.Tuple2;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.BiFunction;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * Altas masivas comunes a programas, rutas, horarios y tarifas. La entrada se procesa en lotes de
+ * {@code bulk.chunk-size}: cada lote se valida contra el directorio local, reserva sus códigos con
+ * un solo $inc por organización y se escribe con un insertMany no ordenado. Un elemento inválido o
+ * rechazado no detiene al resto; el resultado de cada uno se emite en el orden de entrada.
+ */
+@Component
+@Slf4j
+public class BulkImporter {
+
+    private final SequenceService sequenceService;
+    private final BulkInsertRepository bulkInserts;
+    private final int chunkSize;
+
+    public BulkImporter(SequenceService sequenceService,
+                        BulkInsertRepository bulkInserts,
+                        @Value("${bulk.chunk-size:500}") int chunkSize) {
+        this.sequenceService = sequenceService;
+        this.bulkInserts = bulkInserts;
+        this.chunkSize = Math.max(1, chunkSize);
+    }
+
+    /**
+     * Cómo se valida, construye y publica cada tipo de entidad.
+     *
+     * @param <R> petición de alta
+     * @param <E> documento
+     * @param <D> respuesta
+     */
+    @Getter
+    @Builder
+    public static class Spec<R, E, D> {
+        private final SequenceType sequence;
+        private final Class<E> entityClass;
+        private final Function<R, String> organization;
+        /** Lanza CustomException si la petición no es válida; por defecto no valida nada. */
+        @Builder.Default
+        private final Consumer<R> validate = request -> { };
+        /** Documento a partir de la petición y del código reservado. */
+        private final BiFunction<R, String, E> build;
+        private final Consumer<E> onCreated;
+        /** Efectos posteriores a la inserción de cada lote (p. ej. desplazar tarifas activas). */
+        @Builder.Default
+        private final Function<List<E>, Mono<Void>> afterInsert = inserted -> Mono.empty();
+        private final Function<E, D> toResponse;
+    }
+
+    public <R, E, D> Flux<BulkItemResult<D>> importAll(Flux<R> requests, Spec<R, E, D> spec) {
+        return requests.index()
+                .buffer(chunkSize)
+                .concatMap(chunk -> importChunk(chunk, spec)
+                        .onErrorResume(error -> {
+                            log.error("Error importando un lote de {} {}: ", chunk.size(),
+                                    spec.getSequence(), error);
+                            return Flux.fromIterable(chunk)
+                                    .map(item -> BulkItemResult.<D>failed(item.getT1(), errorOf(error)));
+                        }));
+    }
+
+    private <R, E, D> Flux<BulkItemResult<D>> importChunk(List<Tuple2<Long, R>> chunk, Spec<R, E, D> spec) {
+        List<BulkItemResult<D>> results = new ArrayList<>(Collections.nCopies(chunk.size(), null));
+        Map<String, List<Integer>> validByOrganization = new LinkedHashMap<>();
+        for (int position = 0; position < chunk.size(); position++) {
+            Tuple2<Long, R> item = chunk.get(position);
+            try {
+                spec.getValidate().accept(item.getT2());
+                validByOrganization.computeIfAbsent(spec.getOrganization().apply(item.getT2()),
+                        organizationId -> new ArrayList<>()).add(position);
+            } catch (CustomException e) {
+                results.set(position, BulkItemResult.failed(item.getT1(), e.getErrorMessage()));
+            }
+        }
+
+        List<Integer> positions = new ArrayList<>();
+        List<E> documents = new ArrayList<>();
+        return Flux.fromIterable(validByOrganization.entrySet())
+                .concatMap(group -> sequenceService.nextCodes(spec.getSequence(), group.getKey(),
+                                group.getValue().size())
+                        .collectList()
+                        .doOnNext(codes -> {
+                            for (int i = 0; i < codes.size(); i++) {
+                                int position = group.getValue().get(i);
+                                positions.add(position);
+                                documents.add(spec.getBuild().apply(chunk.get(position).getT2(), codes.get(i)));
+                            }
+                        }))
+                .then(Mono.defer(() -> bulkInserts.insert(spec.getEntityClass(), documents)))
+                .flatMap(rejected -> {
+                    List<E> inserted = new ArrayList<>();
+                    for (int i = 0; i < documents.size(); i++) {
+                        int position = positions.get(i);
+                        long index = chunk.get(position).getT1();
+                        CustomException error = rejected.get(i);
+                        if (error != null) {
+                            results.set(position, BulkItemResult.failed(index, error.getErrorMessage()));
+                        } else {
+                            E document = documents.get(i);
+                            inserted.add(document);
+                            spec.getOnCreated().accept(document);
+                            results.set(position, BulkItemResult.created(index, spec.getToResponse().apply(document)));
+                        }
+                    }
+                    log.info("Lote de {} importado: {} creados, {} rechazados", spec.getSequence(),
+                            inserted.size(), chunk.size() - inserted.size());
+                    // los documentos ya existen: un fallo aquí no convierte sus altas en errores
+                    return spec.getAfterInsert().apply(inserted)
+                            .onErrorResume(error -> {
+                                log.error("Error tras importar un lote de {}: ", spec.getSequence(), error);
+                                return Mono.empty();
+                            });
+                })
+                .thenMany(Flux.defer(() -> Flux.fromIterable(results)));
+    }
+
+    private static ErrorMessage errorOf(Throwable error) {
+        if (error instanceof CustomException) {
+            return ((CustomException) error).getErrorMessage();
+        }
+        return CustomException.internalServerError("Error al importar el lote", error.getMessage())
+                .getErrorMessage();
+    }
+}
@@ -0,0 +1,156 @@
+package pe.edu.vallegrande.msdistribution.application.services.impl;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Service;
+import pe.edu.vallegrande.msdistribution.application.services.CollectionVersionService;
+import pe.edu.vallegrande.msdistribution.domain.enums.EntityType;
+import pe.edu.vallegrande.msdistribution.domain.events.CacheInvalidationEvent;
+import pe.edu.vallegrande.msdistribution.domain.events.EntityChangedEvent;
+import pe.edu.vallegrande.msdistribution.domain.models.CollectionVersion;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+import reactor.util.retry.Retry;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Mantiene {@code collection_versions} con $inc a partir de las escrituras locales
+ * ({@link EntityChangedEvent}) y de las detectadas por change streams en otras réplicas o
+ * directamente en Mongo ({@link CacheInvalidationEvent}). Una escritura local puede contarse dos
+ * veces (evento y change stream); eso solo cuesta una respuesta completa de más, nunca un 304 erróneo.
+ *
+ * Las ráfagas (p. ej. transiciones masivas de tarifas) se agrupan: mientras un $inc está en curso
+ * los eventos siguientes se acumulan en uno solo, que se lanza al terminar. Un $inc fallido se
+ * reintenta hasta aplicarse: sin él los clientes seguirían recibiendo 304 con datos viejos.
+ */
+@Service
+@Slf4j
+@RequiredArgsConstructor
+public class CollectionVersionServiceImpl implements CollectionVersionService {
+
+    static final Duration RETRY_BACKOFF = Duration.ofMillis(200);
+    static final Duration MAX_RETRY_BACKOFF = Duration.ofSeconds(30);
+
+    private final ReactiveMongoTemplate mongoTemplate;
+
+    private final Map<EntityType, AtomicInteger> pending = pendingCounters();
+
+    /** Cambios notificados por colección y, en {@link #applied}, hasta cuál cubre el último $inc. */
+    private final Map<EntityType, AtomicLong> requested = requestedCounters();
+    private final Map<EntityType, Sinks.Many<Long>> applied = appliedMarks();
+
+    @Override
+    public Mono<CollectionVersion> current(EntityType type) {
+        return mongoTemplate.findById(type.getCollection(), CollectionVersion.class)
+                // primer uso: se crea el contador en 0 para fijar su fecha de inicio
+                .switchIfEmpty(Mono.defer(() -> mongoTemplate.findAndModify(byId(type),
+                        new Update().setOnInsert("version", 0L).setOnInsert("since", Instant.now()),
+                        FindAndModifyOptions.options().upsert(true).returnNew(true), CollectionVersion.class)));
+    }
+
+    @Override
+    public Mono<Void> settled() {
+        return Flux.fromArray(EntityType.values())
+                .flatMap(type -> {
+                    long target = requested.get(type).get();
+                    return target == 0
+                            ? Mono.empty()
+                            : applied.get(type).asFlux().filter(covered -> covered >= target).next();
+                })
+                .then();
+    }
+
+    @EventListener
+    public void onEntityChanged(EntityChangedEvent event) {
+        bump(event.getType());
+    }
+
+    @EventListener
+    public void onCacheInvalidation(CacheInvalidationEvent event) {
+        for (EntityType type : EntityType.values()) {
+            if (event.covers(type)) {
+                bump(type);
+            }
+        }
+    }
+
+    void bump(EntityType type) {
+        requested.get(type).incrementAndGet();
+        if (pending.get(type).getAndIncrement() == 0) {
+            drain(type);
+        }
+    }
+
+    private void drain(EntityType type) {
+        AtomicInteger counter = pending.get(type);
+        int seen = counter.get();
+        // cambios ya escritos al empezar: este $inc los cubre
+        long covered = requested.get(type).get();
+        Mono.defer(() -> increment(type))
+                .retryWhen(Retry.backoff(Long.MAX_VALUE, RETRY_BACKOFF)
+                        .maxBackoff(MAX_RETRY_BACKOFF)
+                        .doBeforeRetry(signal -> log.warn("No se pudo actualizar la versión de '{}', reintentando: {}",
+                                type.getCollection(), signal.failure().getMessage())))
+                .doOnSuccess(unused -> applied.get(type).tryEmitNext(covered))
+                .doFinally(signal -> {
+                    // eventos llegados durante el $inc: uno más que los cubra a todos
+                    if (counter.addAndGet(-seen) > 0) {
+                        drain(type);
+                    }
+                })
+                .subscribe(
+                        null,
+                        error -> log.warn("No se pudo actualizar la versión de '{}': {}",
+                                type.getCollection(), error.getMessage()));
+    }
+
+    Mono<Void> increment(EntityType type) {
+        Instant now = Instant.now();
+        Update update = new Update()
+                .inc("version", 1)
+                .set("updatedAt", now)
+                .setOnInsert("since", now);
+        return mongoTemplate.upsert(byId(type), update, CollectionVersion.class).then();
+    }
+
+    private static Query byId(EntityType type) {
+        return Query.query(Criteria.where("_id").is(type.getCollection()));
+    }
+
+    private static Map<EntityType, AtomicInteger> pendingCounters() {
+        Map<EntityType, AtomicInteger> counters = new EnumMap<>(EntityType.class);
+        for (EntityType type : EntityType.values()) {
+            counters.put(type, new AtomicInteger());
+        }
+        return counters;
+    }
+
+    private static Map<EntityType, AtomicLong> requestedCounters() {
+        Map<EntityType, AtomicLong> counters = new EnumMap<>(EntityType.class);
+        for (EntityType type : EntityType.values()) {
+            counters.put(type, new AtomicLong());
+        }
+        return counters;
+    }
+
+    private static Map<EntityType, Sinks.Many<Long>> appliedMarks() {
+        Map<EntityType, Sinks.Many<Long>> marks = new EnumMap<>(EntityType.class);
+        for (EntityType type : EntityType.values()) {
+            marks.put(type, Sinks.many().replay().latest());
+        }
+        return marks;
+    }
+}
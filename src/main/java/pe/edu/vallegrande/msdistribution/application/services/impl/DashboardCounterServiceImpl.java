@@ -0,0 +1,241 @@
+package pe.edu.vallegrande.msdistribution.application.services.impl;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.Document;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import pe.edu.vallegrande.msdistribution.application.services.DashboardCounterService;
+import pe.edu.vallegrande.msdistribution.application.services.JobCoordinationService;
+import pe.edu.vallegrande.msdistribution.domain.enums.EntityType;
+import pe.edu.vallegrande.msdistribution.domain.events.EntityChangedEvent;
+import pe.edu.vallegrande.msdistribution.domain.models.DashboardCounter;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Mantiene la colección {@code dashboard_counters} (un documento por organización) con $inc
+ * a partir de los {@link EntityChangedEvent} de los servicios, de modo que el dashboard se
+ * responde con una sola lectura pequeña. Un job de reconciliación los reconstruye desde
+ * agregaciones para corregir cualquier deriva (escrituras directas en Mongo, fallos de $inc).
+ * La reconciliación escribe cada documento condicionado a la versión que leyó antes de agregar:
+ * si un $inc llegó en medio, esa organización se vuelve a agregar en lugar de pisar el $inc.
+ */
+@Service
+@Slf4j
+@RequiredArgsConstructor
+public class DashboardCounterServiceImpl implements DashboardCounterService {
+
+    static final String NO_ORGANIZATION = "_none";
+    static final String NO_STATUS = "UNKNOWN";
+
+    static final String JOB_RECONCILE = "dashboard-reconcile";
+
+    /** Pasadas por reconciliación sobre las organizaciones que recibieron $inc mientras se agregaba. */
+    static final int RECONCILE_ATTEMPTS = 3;
+
+    private final ReactiveMongoTemplate mongoTemplate;
+    private final JobCoordinationService coordination;
+
+    @EventListener
+    public void onEntityChanged(EntityChangedEvent event) {
+        apply(event).subscribe(
+                null,
+                error -> log.warn("No se pudieron actualizar los contadores para {}: {}", event, error.getMessage()));
+    }
+
+    Mono<Void> apply(EntityChangedEvent event) {
+        if (event.getAction() == EntityChangedEvent.Action.UPDATED
+                && !event.statusChanged() && !event.organizationChanged()) {
+            return Mono.empty();
+        }
+        String field = event.getType().getCollection();
+        Map<String, Map<String, Long>> deltas = new LinkedHashMap<>();
+        if (event.getAction() != EntityChangedEvent.Action.CREATED) {
+            addDelta(deltas, event.getPreviousOrganizationId(), field, event.getPreviousStatus(), -1);
+        }
+        if (event.getAction() != EntityChangedEvent.Action.DELETED) {
+            addDelta(deltas, event.getOrganizationId(), field, event.getStatus(), 1);
+        }
+
+        return Flux.fromIterable(deltas.entrySet())
+                .concatMap(entry -> {
+                    Update update = new Update();
+                    entry.getValue().forEach((path, delta) -> {
+                        if (delta != 0) {
+                            update.inc(path, delta);
+                        }
+                    });
+                    if (update.getUpdateObject().isEmpty()) {
+                        return Mono.empty();
+                    }
+                    update.inc(DashboardCounter.VERSION, 1);
+                    return mongoTemplate.upsert(byId(entry.getKey()), update, DashboardCounter.class);
+                })
+                .then();
+    }
+
+    private static void addDelta(Map<String, Map<String, Long>> deltas, String organizationId,
+                                 String field, String status, long delta) {
+        Map<String, Long> paths = deltas.computeIfAbsent(organizationKey(organizationId), k -> new HashMap<>());
+        paths.merge(field + "." + DashboardCounter.TOTAL, delta, Long::sum);
+        paths.merge(field + "." + statusKey(status), delta, Long::sum);
+    }
+
+    @Override
+    public Mono<DashboardCounter> getCounters(String organizationId) {
+        if (organizationId != null) {
+            return mongoTemplate.findById(organizationId, DashboardCounter.class)
+                    .defaultIfEmpty(DashboardCounter.builder().id(organizationId).build());
+        }
+        return mongoTemplate.findAll(DashboardCounter.class)
+                .reduceWith(() -> DashboardCounter.builder().build(), DashboardCounter::merge);
+    }
+
+    @Override
+    public Mono<Void> reconcile() {
+        return reconcile(null, 1);
+    }
+
+    /**
+     * Una pasada sobre {@code organizations} (null = todas): lee los contadores, agrega y escribe
+     * cada organización solo si su versión sigue igual. Las que cambiaron se reintentan; un cambio
+     * ya guardado cuyo $inc aún no llegó al agregar se corrige en la siguiente reconciliación.
+     */
+    private Mono<Void> reconcile(Set<String> organizations, int attempt) {
+        Map<String, DashboardCounter> rebuilt = new HashMap<>();
+        Set<String> conflicts = new HashSet<>();
+        Instant now = Instant.now();
+        Query existing = organizations == null
+                ? new Query()
+                : Query.query(Criteria.where("_id").in(organizations));
+
+        return mongoTemplate.find(existing, DashboardCounter.class)
+                .collectMap(DashboardCounter::getId)
+                .flatMap(read -> Flux.fromArray(EntityType.values())
+                        .concatMap(type -> countByOrganizationAndStatus(type, organizations)
+                                .doOnNext(doc -> {
+                                    Document key = doc.get("_id", Document.class);
+                                    String organizationId = organizationKey(key != null ? key.getString("organizationId") : null);
+                                    String status = statusKey(key != null ? key.getString("status") : null);
+                                    long count = ((Number) doc.get("count")).longValue();
+
+                                    DashboardCounter counter = rebuilt.computeIfAbsent(organizationId,
+                                            id -> DashboardCounter.builder().id(id).reconciledAt(now).build());
+                                    counter.countsOf(type).merge(DashboardCounter.TOTAL, count, Long::sum);
+                                    counter.countsOf(type).merge(status, count, Long::sum);
+                                }))
+                        .thenMany(Flux.defer(() -> Flux.fromIterable(rebuilt.values())))
+                        .concatMap(counter -> write(counter, read.get(counter.getId()))
+                                .filter(written -> !written)
+                                .doOnNext(conflict -> conflicts.add(counter.getId())))
+                        .thenMany(Flux.defer(() -> Flux.fromIterable(read.values())))
+                        .filter(stale -> !rebuilt.containsKey(stale.getId()))
+                        .concatMap(stale -> mongoTemplate.remove(unchanged(stale), DashboardCounter.class)
+                                .filter(result -> result.getDeletedCount() == 0)
+                                .doOnNext(conflict -> conflicts.add(stale.getId())))
+                        .then())
+                .then(Mono.defer(() -> {
+                    log.info("Contadores del dashboard reconciliados para {} organizaciones; {} cambiaron durante la pasada {}",
+                            rebuilt.size(), conflicts.size(), attempt);
+                    if (conflicts.isEmpty()) {
+                        return Mono.empty();
+                    }
+                    if (attempt >= RECONCILE_ATTEMPTS) {
+                        log.warn("Contadores de {} sin reconciliar: se corregirán en la próxima ejecución", conflicts);
+                        return Mono.empty();
+                    }
+                    return reconcile(conflicts, attempt + 1);
+                }));
+    }
+
+    private Flux<Document> countByOrganizationAndStatus(EntityType type, Set<String> organizations) {
+        Aggregation aggregation = organizations == null
+                ? Aggregation.newAggregation(
+                        Aggregation.group("organizationId", "status").count().as("count"))
+                : Aggregation.newAggregation(
+                        Aggregation.match(Criteria.where("organizationId").in(organizations.stream()
+                                .map(key -> NO_ORGANIZATION.equals(key) ? null : key)
+                                .collect(Collectors.toList()))),
+                        Aggregation.group("organizationId", "status").count().as("count"));
+        return mongoTemplate.aggregate(aggregation, type.getCollection(), Document.class);
+    }
+
+    /**
+     * true si se escribió; false si otra escritura tocó el documento desde que se leyó.
+     */
+    private Mono<Boolean> write(DashboardCounter counter, DashboardCounter read) {
+        if (read == null) {
+            counter.setVersion(0L);
+            return mongoTemplate.insert(counter)
+                    .thenReturn(true)
+                    .onErrorResume(DuplicateKeyException.class, e -> Mono.just(false));
+        }
+        Update update = new Update()
+                .set("reconciledAt", counter.getReconciledAt())
+                .inc(DashboardCounter.VERSION, 1);
+        for (EntityType type : EntityType.values()) {
+            update.set(type.getCollection(), counter.countsOf(type));
+        }
+        return mongoTemplate.updateFirst(unchanged(read), update, DashboardCounter.class)
+                .map(result -> result.getMatchedCount() > 0);
+    }
+
+    @Scheduled(cron = "${dashboard.counters.reconcile-cron:0 15 3 * * ?}")
+    public void scheduledReconcile() {
+        // una sola réplica reconcilia
+        coordination.acquire(JOB_RECONCILE)
+                .flatMap(lease -> reconcile())
+                .subscribe(
+                        null,
+                        error -> log.error("Error reconciliando contadores del dashboard: ", error));
+    }
+
+    /**
+     * Primer arranque: si la colección está vacía se construye desde los datos existentes, en la
+     * réplica que tome el lease del job de reconciliación.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void initialize() {
+        coordination.acquire(JOB_RECONCILE)
+                .flatMap(lease -> mongoTemplate.count(new Query(), DashboardCounter.class))
+                .filter(count -> count == 0)
+                .flatMap(empty -> reconcile())
+                .subscribe(
+                        null,
+                        error -> log.error("Error inicializando contadores del dashboard: ", error));
+    }
+
+    private static Query unchanged(DashboardCounter counter) {
+        return Query.query(Criteria.where("_id").is(counter.getId())
+                .and(DashboardCounter.VERSION).is(counter.getVersion()));
+    }
+
+    private static Query byId(String organizationId) {
+        return Query.query(Criteria.where("_id").is(organizationId));
+    }
+
+    private static String organizationKey(String organizationId) {
+        return organizationId != null ? organizationId : NO_ORGANIZATION;
+    }
+
+    private static String statusKey(String status) {
+        return status != null ? status : NO_STATUS;
+    }
+}
@@ -3,27 +3,60 @@ package pe.edu.vallegrande.msdistribution.application.services.impl;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import pe.edu.vallegrande.msdistribution.application.services.DistributionProgramService;
+import pe.edu.vallegrande.msdistribution.application.services.OrganizationDirectoryService;
+import pe.edu.vallegrande.msdistribution.application.services.SequenceService;
+import pe.edu.vallegrande.msdistribution.domain.enums.EntityType;
+import pe.edu.vallegrande.msdistribution.domain.enums.SequenceType;
+import pe.edu.vallegrande.msdistribution.domain.events.EntityChangedEvent;
 import pe.edu.vallegrande.msdistribution.domain.models.DistributionProgram;
+import pe.edu.vallegrande.msdistribution.domain.models.DistributionRoute;
+import pe.edu.vallegrande.msdistribution.domain.models.DistributionSchedule;
+import pe.edu.vallegrande.msdistribution.infrastructure.cache.EntityCache;
+import pe.edu.vallegrande.msdistribution.infrastructure.dto.request.CursorPageRequest;
 import pe.edu.vallegrande.msdistribution.infrastructure.dto.request.DistributionProgramCreateRequest;
+import pe.edu.vallegrande.msdistribution.infrastructure.dto.response.BulkItemResult;
+import pe.edu.vallegrande.msdistribution.infrastructure.dto.response.CursorPage;
 import pe.edu.vallegrande.msdistribution.infrastructure.dto.response.DistributionProgramResponse;
 import pe.edu.vallegrande.msdistribution.infrastructure.dto.response.enriched.EnrichedDistributionProgramResponse;
+import pe.edu.vallegrande.msdistribution.infrastructure.dto.response.enriched.ReferenceSummary;
 import pe.edu.vallegrande.msdistribution.infrastructure.repository.DistributionProgramRepository;
+import pe.edu.vallegrande.msdistribution.infrastructure.repository.KeysetPageRepository;
+import pe.edu.vallegrande.msdistribution.infrastructure.repository.StatusTransitionRepository;
+import pe.edu.vallegrande.msdistribution.infrastructure.repository.VersionedUpdateRepository;
+import pe.edu.vallegrande.msdistribution.infrastructure.service.EnrichmentBatchLoader;
 
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
 import java.time.Instant;
+import java.util.Collections;
+import java.util.List;
 
 @Service
 @RequiredArgsConstructor
 @Slf4j
 public class DistributionProgramServiceImpl implements DistributionProgramService {
 
+    /**
+     * Campos que reemplaza un PUT; programCode, status y createdAt no se tocan.
+     */
+    private static final List<String> UPDATABLE_FIELDS = List.of("organizationId", "scheduleId", "routeId",
+            "zoneId", "streetId", "programDate", "plannedStartTime", "plannedEndTime", "responsibleUserId",
+            "observations");
+
     private final DistributionProgramRepository repository;
-    
-    private static final String PROGRAM_PREFIX = "PRG";
+    private final SequenceService sequenceService;
+    private final ApplicationEventPublisher eventPublisher;
+    private final KeysetPageRepository pageRepository;
+    private final StatusTransitionRepository statusTransitions;
+    private final VersionedUpdateRepository versionedUpdates;
+    private final EntityCache entityCache;
+    private final EnrichmentBatchLoader enrichmentLoader;
+    private final OrganizationDirectoryService directory;
+    private final BulkImporter bulkImporter;
 
     @Override
     public Flux<DistributionProgramResponse> getAll() {
@@ -33,8 +66,7 @@ public class DistributionProgramServiceImpl implements DistributionProgramServic
     
     @Override
     public Flux<EnrichedDistributionProgramResponse> getAllEnriched() {
-        return repository.findAll()
-                .map(this::toEnrichedResponse);
+        return enrich(repository.findAll());
     }
     
     @Override
@@ -55,88 +87,157 @@ public class DistributionProgramServiceImpl implements DistributionProgramServic
                 .map(this::toResponse);
     }
 
+    @Override
+    public Mono<CursorPage<DistributionProgramResponse>> getPage(CursorPageRequest request) {
+        return pageRepository.findPage(EntityType.PROGRAM, DistributionProgram.class, request)
+                .map(page -> page.map(this::toResponse));
+    }
+
+    @Override
+    public Mono<CursorPage<EnrichedDistributionProgramResponse>> getEnrichedPage(CursorPageRequest request) {
+        return pageRepository.findPage(EntityType.PROGRAM, DistributionProgram.class, request)
+                .flatMap(page -> enrich(Flux.fromIterable(page.getItems()))
+                        .collectList()
+                        .map(page::withItems));
+    }
+
     @Override
     public Mono<DistributionProgramResponse> getById(String id) {
-        return repository.findById(id)
+        return findCached(id)
                 .map(this::toResponse);
     }
 
     @Override
     public Mono<DistributionProgramResponse> save(DistributionProgramCreateRequest request) {
-        return generateNextProgramCode()
-                .flatMap(generatedCode -> {
-                    DistributionProgram program = DistributionProgram.builder()
-                            .organizationId(request.getOrganizationId())
-                            .programCode(generatedCode) // Usar el código generado automáticamente
-                            .scheduleId(request.getScheduleId())
-                            .routeId(request.getRouteId())
-                            .zoneId(request.getZoneId())
-                            .streetId(request.getStreetId())
-                            .programDate(request.getProgramDate())
-                            .plannedStartTime(request.getPlannedStartTime())
-                            .plannedEndTime(request.getPlannedEndTime())
-                            .actualStartTime(request.getActualStartTime())
-                            .actualEndTime(request.getActualEndTime())
-                            .status(request.getActualStartTime() != null || request.getActualEndTime() != null ? "IN_PROGRESS" : "PLANNED")
-                            .responsibleUserId(request.getResponsibleUserId())
-                            .observations(request.getObservations())
-                            .createdAt(Instant.now())
-                            .build();
-
-                    return repository.save(program)
-                            .map(this::toResponse);
-                });
+        return validateReferences(request)
+                .then(Mono.defer(() -> insertWithNextCode(request)))
+                .doOnNext(this::publishCreated)
+                .map(this::toResponse);
+    }
+
+    @Override
+    public Flux<BulkItemResult<DistributionProgramResponse>> saveAll(Flux<DistributionProgramCreateRequest> requests) {
+        return bulkImporter.importAll(requests,
+                BulkImporter.Spec.<DistributionProgramCreateRequest, DistributionProgram, DistributionProgramResponse>builder()
+                        .sequence(SequenceType.PROGRAM)
+                        .entityClass(DistributionProgram.class)
+                        .organization(DistributionProgramCreateRequest::getOrganizationId)
+                        .validate(request -> directory.validate(request.getOrganizationId(),
+                                Collections.singletonList(request.getZoneId()), request.getStreetId()))
+                        .build(this::newProgram)
+                        .onCreated(this::publishCreated)
+                        .toResponse(this::toResponse)
+                        .build());
+    }
+
+    private DistributionProgram newProgram(DistributionProgramCreateRequest request, String generatedCode) {
+        return DistributionProgram.builder()
+                .organizationId(request.getOrganizationId())
+                .programCode(generatedCode) // Usar el código generado automáticamente
+                .scheduleId(request.getScheduleId())
+                .routeId(request.getRouteId())
+                .zoneId(request.getZoneId())
+                .streetId(request.getStreetId())
+                .programDate(request.getProgramDate())
+                .plannedStartTime(request.getPlannedStartTime())
+                .plannedEndTime(request.getPlannedEndTime())
+                .actualStartTime(request.getActualStartTime())
+                .actualEndTime(request.getActualEndTime())
+                .status(request.getActualStartTime() != null || request.getActualEndTime() != null ? "IN_PROGRESS" : "PLANNED")
+                .responsibleUserId(request.getResponsibleUserId())
+                .observations(request.getObservations())
+                .createdAt(Instant.now())
+                .build();
     }
 
     @Override
     public Mono<DistributionProgramResponse> update(String id, DistributionProgramCreateRequest request) {
-        return repository.findById(id)
-                .flatMap(existing -> {
-                    existing.setOrganizationId(request.getOrganizationId());
-                    // No actualizar programCode ya que se genera automáticamente
-                    existing.setScheduleId(request.getScheduleId());
-                    existing.setRouteId(request.getRouteId());
-                    existing.setZoneId(request.getZoneId());
-                    existing.setStreetId(request.getStreetId());
-                    existing.setProgramDate(request.getProgramDate());
-                    existing.setPlannedStartTime(request.getPlannedStartTime());
-                    existing.setPlannedEndTime(request.getPlannedEndTime());
-                    existing.setResponsibleUserId(request.getResponsibleUserId());
-                    existing.setObservations(request.getObservations());
-                    
-                    return repository.save(existing);
-                })
-                .map(this::toResponse);
+        return update(id, request, null);
+    }
+
+    @Override
+    public Mono<DistributionProgramResponse> update(String id, DistributionProgramCreateRequest request,
+                                                    Long expectedVersion) {
+        // No actualizar programCode ya que se genera automáticamente
+        DistributionProgram changes = DistributionProgram.builder()
+                .organizationId(request.getOrganizationId())
+                .scheduleId(request.getScheduleId())
+                .routeId(request.getRouteId())
+                .zoneId(request.getZoneId())
+                .streetId(request.getStreetId())
+                .programDate(request.getProgramDate())
+                .plannedStartTime(request.getPlannedStartTime())
+                .plannedEndTime(request.getPlannedEndTime())
+                .responsibleUserId(request.getResponsibleUserId())
+                .observations(request.getObservations())
+                .build();
+        return validateReferences(request)
+                .then(Mono.defer(() -> versionedUpdates.update(EntityType.PROGRAM, DistributionProgram.class, id,
+                        expectedVersion, changes, UPDATABLE_FIELDS)))
+                .map(change -> {
+                    DistributionProgram updated = change.getCurrent();
+                    publishUpdated(updated, change.getPrevious().getOrganizationId(), updated.getStatus());
+                    return toResponse(updated);
+                });
     }
 
     @Override
     public Mono<Void> delete(String id) {
-        return repository.deleteById(id);
+        return repository.findById(id)
+                .flatMap(program -> repository.delete(program)
+                        .doOnSuccess(unused -> publishDeleted(program)));
     }
 
     @Override
     public Mono<DistributionProgramResponse> activate(String id) {
-        return repository.findById(id)
-                .flatMap(program -> {
-                    program.setStatus("ACTIVE");
-                    return repository.save(program);
-                })
-                .map(this::toResponse);
+        return changeStatus(id, "ACTIVE");
     }
 
     @Override
     public Mono<DistributionProgramResponse> desactivate(String id) {
-        return repository.findById(id)
-                .flatMap(program -> {
-                    program.setStatus("INACTIVE");
-                    return repository.save(program);
-                })
-                .map(this::toResponse);
+        return changeStatus(id, "INACTIVE");
+    }
+
+    /**
+     * Un solo findAndModify condicionado; si ya estaba en ese estado se responde sin escribir.
+     */
+    private Mono<DistributionProgramResponse> changeStatus(String id, String status) {
+        return statusTransitions.transition(EntityType.PROGRAM, DistributionProgram.class, id, status)
+                .map(transition -> {
+                    DistributionProgram program = transition.getDocument();
+                    if (transition.isChanged()) {
+                        publishUpdated(program, program.getOrganizationId(), transition.getPreviousStatus());
+                    }
+                    return toResponse(program);
+                });
     }
 
     @Override
     public Mono<Void> physicalDelete(String id) {
-        return repository.deleteById(id);
+        return delete(id);
+    }
+
+    /**
+     * Lectura por id a través de la caché de entidades.
+     */
+    private Mono<DistributionProgram> findCached(String id) {
+        return entityCache.get(EntityType.PROGRAM, id, () -> repository.findById(id));
+    }
+
+    private void publishCreated(DistributionProgram program) {
+        eventPublisher.publishEvent(EntityChangedEvent.created(
+                EntityType.PROGRAM, program.getId(), program.getOrganizationId(), program.getStatus(), program));
+    }
+
+    private void publishUpdated(DistributionProgram program, String previousOrganizationId, String previousStatus) {
+        eventPublisher.publishEvent(EntityChangedEvent.updated(
+                EntityType.PROGRAM, program.getId(), previousOrganizationId, previousStatus,
+                program.getOrganizationId(), program.getStatus(), program));
+    }
+
+    private void publishDeleted(DistributionProgram program) {
+        eventPublisher.publishEvent(EntityChangedEvent.deleted(
+                EntityType.PROGRAM, program.getId(), program.getOrganizationId(), program.getStatus(), program));
     }
 
     private DistributionProgramResponse toResponse(DistributionProgram program) {
@@ -157,6 +258,8 @@ public class DistributionProgramServiceImpl implements DistributionProgramServic
                 .responsibleUserId(program.getResponsibleUserId())
                 .observations(program.getObservations())
                 .createdAt(program.getCreatedAt())
+                .updatedAt(program.getUpdatedAt())
+                .version(program.getVersion())
                 .build();
     }
     
@@ -164,46 +267,67 @@ public class DistributionProgramServiceImpl implements DistributionProgramServic
     
     @Override
     public Mono<EnrichedDistributionProgramResponse> getEnrichedById(String id) {
-        return repository.findById(id)
-                .map(this::toEnrichedResponse);
+        return enrichmentLoader.enrichOne(findCached(id), this::enrichmentKeys, this::toEnrichedResponse);
     }
     
     @Override
     public Mono<EnrichedDistributionProgramResponse> saveAndEnrich(DistributionProgramCreateRequest request) {
-        return generateNextProgramCode()
-                .flatMap(generatedCode -> {
-                    DistributionProgram program = DistributionProgram.builder()
-                            .organizationId(request.getOrganizationId())
-                            .programCode(generatedCode) // Usar el código generado automáticamente
-                            .scheduleId(request.getScheduleId())
-                            .routeId(request.getRouteId())
-                            .zoneId(request.getZoneId())
-                            .streetId(request.getStreetId())
-                            .programDate(request.getProgramDate())
-                            .plannedStartTime(request.getPlannedStartTime())
-                            .plannedEndTime(request.getPlannedEndTime())
-                            .actualStartTime(request.getActualStartTime())
-                            .actualEndTime(request.getActualEndTime())
-                            .status(request.getActualStartTime() != null || request.getActualEndTime() != null ? "IN_PROGRESS" : "PLANNED")
-                            .responsibleUserId(request.getResponsibleUserId())
-                            .observations(request.getObservations())
-                            .createdAt(Instant.now())
-                            .build();
-
-                    return repository.save(program)
-                            .map(this::toEnrichedResponse);
-                });
+        return validateReferences(request)
+                .then(Mono.defer(() -> enrichmentLoader.enrichOne(insertWithNextCode(request).doOnNext(this::publishCreated),
+                        this::enrichmentKeys, this::toEnrichedResponse)));
+    }
+
+    /**
+     * Inserta con el siguiente código; si el índice único lo rechaza se reintenta con uno nuevo.
+     */
+    private Mono<DistributionProgram> insertWithNextCode(DistributionProgramCreateRequest request) {
+        return Mono.defer(() -> sequenceService.nextCode(SequenceType.PROGRAM, request.getOrganizationId()))
+                .flatMap(generatedCode -> repository.save(newProgram(request, generatedCode)))
+                .retryWhen(SequenceService.retryOnDuplicateCode(sequenceService, SequenceType.PROGRAM,
+                        request.getOrganizationId()));
     }
     
-    private EnrichedDistributionProgramResponse toEnrichedResponse(DistributionProgram program) {
+    /**
+     * Organización, zona y calle contra el directorio local, sin llamadas remotas.
+     */
+    private Mono<Void> validateReferences(DistributionProgramCreateRequest request) {
+        return Mono.fromRunnable(() -> directory.validate(request.getOrganizationId(),
+                Collections.singletonList(request.getZoneId()), request.getStreetId()));
+    }
+
+    /**
+     * Respuestas enriquecidas en el mismo orden; las referencias se resuelven por lotes.
+     */
+    private Flux<EnrichedDistributionProgramResponse> enrich(Flux<DistributionProgram> programs) {
+        return enrichmentLoader.enrich(programs, this::enrichmentKeys, this::toEnrichedResponse);
+    }
+
+    private EnrichmentBatchLoader.Keys enrichmentKeys(DistributionProgram program) {
+        return EnrichmentBatchLoader.Keys.builder()
+                .userId(program.getResponsibleUserId())
+                .organizationId(program.getOrganizationId())
+                .scheduleId(program.getScheduleId())
+                .routeId(program.getRouteId())
+                .zoneId(program.getZoneId())
+                .streetId(program.getStreetId())
+                .build();
+    }
+
+    private EnrichedDistributionProgramResponse toEnrichedResponse(DistributionProgram program,
+                                                                   EnrichmentBatchLoader.Resolved resolved) {
         return EnrichedDistributionProgramResponse.builder()
                 .id(program.getId())
                 .organizationId(program.getOrganizationId())
+                .organization(resolved.organization())
                 .programCode(program.getProgramCode())
                 .scheduleId(program.getScheduleId())
+                .schedule(summary(resolved.schedule()))
                 .routeId(program.getRouteId())
+                .route(summary(resolved.route()))
                 .zoneId(program.getZoneId())
+                .zone(resolved.zone())
                 .streetId(program.getStreetId())
+                .street(resolved.street())
                 .programDate(program.getProgramDate())
                 .plannedStartTime(program.getPlannedStartTime())
                 .plannedEndTime(program.getPlannedEndTime())
@@ -211,21 +335,28 @@ public class DistributionProgramServiceImpl implements DistributionProgramServic
                 .actualEndTime(program.getActualEndTime())
                 .status(program.getStatus())
                 .responsibleUserId(program.getResponsibleUserId())
+                .responsibleUser(resolved.user())
                 .observations(program.getObservations())
                 .createdAt(program.getCreatedAt())
+                .degraded(resolved.degraded())
                 .build();
     }
-    
-    private Mono<String> generateNextProgramCode() {
-        return repository.findTopByOrderByProgramCodeDesc()
-                .map(last -> {
-                    String lastCode = last.getProgramCode();
-                    int number = 0;
-                    try {
-                        number = Integer.parseInt(lastCode.replace(PROGRAM_PREFIX, ""));
-                    } catch (NumberFormatException ignored) {}
-                    return String.format(PROGRAM_PREFIX + "%03d", number + 1);
-                })
-                .defaultIfEmpty(PROGRAM_PREFIX + "001");
+
+    private static ReferenceSummary summary(DistributionSchedule schedule) {
+        return schedule == null ? null : ReferenceSummary.builder()
+                .id(schedule.getId())
+                .code(schedule.getScheduleCode())
+                .name(schedule.getScheduleName())
+                .status(schedule.getStatus())
+                .build();
+    }
+
+    private static ReferenceSummary summary(DistributionRoute route) {
+        return route == null ? null : ReferenceSummary.builder()
+                .id(route.getId())
+                .code(route.getRouteCode())
+                .name(route.getRouteName())
+                .status(route.getStatus())
+                .build();
     }
 }
\ No newline at end of file
@@ -2,17 +2,33 @@ package pe.edu.vallegrande.msdistribution.application.services.impl;
 
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DuplicateKeyException;
 import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
 
 import pe.edu.vallegrande.msdistribution.application.services.DistributionRouteService;
+import pe.edu.vallegrande.msdistribution.application.services.OrganizationDirectoryService;
+import pe.edu.vallegrande.msdistribution.application.services.ReferenceDataSnapshotService;
+import pe.edu.vallegrande.msdistribution.application.services.SequenceService;
 import pe.edu.vallegrande.msdistribution.domain.models.DistributionRoute;
 import pe.edu.vallegrande.msdistribution.domain.enums.Constants;
+import pe.edu.vallegrande.msdistribution.domain.enums.EntityType;
+import pe.edu.vallegrande.msdistribution.domain.enums.SequenceType;
+import pe.edu.vallegrande.msdistribution.domain.events.EntityChangedEvent;
+import pe.edu.vallegrande.msdistribution.infrastructure.cache.EntityCache;
+import pe.edu.vallegrande.msdistribution.infrastructure.dto.request.CursorPageRequest;
 import pe.edu.vallegrande.msdistribution.infrastructure.dto.request.DistributionRouteCreateRequest;
+import pe.edu.vallegrande.msdistribution.infrastructure.dto.response.BulkItemResult;
+import pe.edu.vallegrande.msdistribution.infrastructure.dto.response.CursorPage;
 import pe.edu.vallegrande.msdistribution.infrastructure.dto.response.DistributionRouteResponse;
 import pe.edu.vallegrande.msdistribution.infrastructure.dto.response.enriched.EnrichedDistributionRouteResponse;
 import pe.edu.vallegrande.msdistribution.infrastructure.exception.CustomException;
 import pe.edu.vallegrande.msdistribution.infrastructure.repository.DistributionRouteRepository;
+import pe.edu.vallegrande.msdistribution.infrastructure.repository.KeysetPageRepository;
+import pe.edu.vallegrande.msdistribution.infrastructure.repository.StatusTransitionRepository;
+import pe.edu.vallegrande.msdistribution.infrastructure.repository.VersionedUpdateRepository;
+import pe.edu.vallegrande.msdistribution.infrastructure.service.EnrichmentBatchLoader;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
@@ -22,9 +38,47 @@ import java.time.Instant;
 @Slf4j
 public class DistributionRouteServiceImpl implements DistributionRouteService {
 
+    /**
+     * Campos que reemplaza un PUT; routeCode, status y createdAt no se tocan.
+     */
+    private static final java.util.List<String> UPDATABLE_FIELDS = java.util.List.of(
+            "routeName", "zones", "totalEstimatedDuration", "responsibleUserId", "organizationId");
+    private static final java.util.List<String> LEGACY_UPDATABLE_FIELDS = java.util.List.of(
+            "routeName", "zones", "totalEstimatedDuration", "responsibleUserId");
+
     @Autowired
     private DistributionRouteRepository repository;
 
+    @Autowired
+    private SequenceService sequenceService;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Autowired
+    private KeysetPageRepository pageRepository;
+
+    @Autowired
+    private StatusTransitionRepository statusTransitions;
+
+    @Autowired
+    private VersionedUpdateRepository versionedUpdates;
+
+    @Autowired
+    private EntityCache entityCache;
+
+    @Autowired
+    private ReferenceDataSnapshotService referenceData;
+
+    @Autowired
+    private EnrichmentBatchLoader enrichmentLoader;
+
+    @Autowired
+    private OrganizationDirectoryService directory;
+
+    @Autowired
+    private BulkImporter bulkImporter;
+
     @Override
     public Flux<DistributionRoute> getAll() {
         return repository.findAll();
@@ -32,7 +86,17 @@ public class DistributionRouteServiceImpl implements DistributionRouteService {
 
     @Override
     public Flux<DistributionRoute> getAllActive() {
-        return repository.findAllByStatus(Constants.ACTIVE.name());
+        return getActiveByOrganization(null);
+    }
+
+    @Override
+    public Flux<DistributionRoute> getActiveByOrganization(String organizationId) {
+        if (referenceData.isLoaded()) {
+            return referenceData.activeRoutes(organizationId);
+        }
+        return organizationId == null
+                ? repository.findAllByStatus(Constants.ACTIVE.name())
+                : repository.findAllByOrganizationIdAndStatus(organizationId, Constants.ACTIVE.name());
     }
 
     @Override
@@ -40,9 +104,14 @@ public class DistributionRouteServiceImpl implements DistributionRouteService {
         return repository.findAllByStatus(Constants.INACTIVE.name());
     }
 
+    @Override
+    public Mono<CursorPage<DistributionRoute>> getPage(CursorPageRequest request) {
+        return pageRepository.findPage(EntityType.ROUTE, DistributionRoute.class, request);
+    }
+
     @Override
     public Mono<DistributionRoute> getById(String id) {
-        return repository.findById(id)
+        return findCached(id)
                 .switchIfEmpty(Mono.error(new CustomException(
                         HttpStatus.NOT_FOUND.value(),
                         "Route not found",
@@ -51,106 +120,47 @@ public class DistributionRouteServiceImpl implements DistributionRouteService {
 
     @Override
     public Mono<DistributionRouteResponse> save(DistributionRouteCreateRequest request) {
-        return generateNextRouteCode()
-                .flatMap(generatedCode ->
-                        repository.existsByRouteCode(generatedCode)
-                                .flatMap(exists -> {
-                                    if (exists) {
-                                        return Mono.error(new CustomException(
-                                                HttpStatus.BAD_REQUEST.value(),
-                                                "Route code already exists",
-                                                "Route code " + generatedCode + " already exists"));
-                                    }
-
-                                    // Convertir las zonas del DTO al modelo
-                                    java.util.List<DistributionRoute.ZoneOrder> zoneOrders = 
-                                        java.util.Collections.emptyList();
-                                    if (request.getZones() != null) {
-                                        zoneOrders = request.getZones().stream()
-                                            .map(zone -> new DistributionRoute.ZoneOrder(
-                                                zone.getZoneId(),
-                                                zone.getOrder() != null ? zone.getOrder() : 0,
-                                                zone.getEstimatedDuration() != null ? zone.getEstimatedDuration() : 0))
-                                            .collect(java.util.stream.Collectors.toList());
-                                    }
-
-                                    DistributionRoute route = DistributionRoute.builder()
-                                            .organizationId(request.getOrganizationId())
-                                            .routeCode(generatedCode)
-                                            .routeName(request.getRouteName())
-                                            .zones(zoneOrders)
-                                            .totalEstimatedDuration(request.getTotalEstimatedDuration() != null ? 
-                                                request.getTotalEstimatedDuration() : 0)
-                                            .responsibleUserId(request.getResponsibleUserId())
-                                            .status(Constants.ACTIVE.name())
-                                            .createdAt(Instant.now())
-                                            .build();
-
-                                    return repository.save(route)
-                                            .map(saved -> {
-                                                // Convertir las zonas para la respuesta
-                                                String firstZoneId = null;
-                                                java.util.List<DistributionRouteResponse.ZoneDetail> zoneDetails = 
-                                                    java.util.Collections.emptyList();
-                                                    
-                                                if (saved.getZones() != null && !saved.getZones().isEmpty()) {
-                                                    // Primer zoneId para compatibilidad
-                                                    firstZoneId = saved.getZones().get(0).getZoneId();
-                                                    
-                                                    // Lista completa de zonas
-                                                    zoneDetails = saved.getZones().stream()
-                                                        .map(zone -> new DistributionRouteResponse.ZoneDetail(
-                                                            zone.getZoneId(),
-                                                            zone.getOrder(),
-                                                            zone.getEstimatedDuration()))
-                                                        .collect(java.util.stream.Collectors.toList());
-                                                }
-                                                
-                                                return DistributionRouteResponse.builder()
-                                                        .id(saved.getId())
-                                                        .organizationId(saved.getOrganizationId())
-                                                        .routeCode(saved.getRouteCode())
-                                                        .routeName(saved.getRouteName())
-                                                        .zoneId(firstZoneId)
-                                                        .zones(zoneDetails)
-                                                        .totalEstimatedDuration(saved.getTotalEstimatedDuration())
-                                                        .responsibleUserId(saved.getResponsibleUserId())
-                                                        .status(saved.getStatus())
-                                                        .createdAt(saved.getCreatedAt())
-                                                        .build();
-                                            });
-                                })
-                );
-    }
-
-    private static final String ROUTE_PREFIX = "RUT";
-
-    private Mono<String> generateNextRouteCode() {
-        return repository.findTopByOrderByRouteCodeDesc()
-                .map(last -> {
-                    String lastCode = last.getRouteCode();
-                    int number = 0;
-                    try {
-                        number = Integer.parseInt(lastCode.replace(ROUTE_PREFIX, ""));
-                    } catch (NumberFormatException ignored) {}
-                    return String.format(ROUTE_PREFIX + "%03d", number + 1);
-                })
-                .defaultIfEmpty(ROUTE_PREFIX + "001");
+        return validateReferences(request.getOrganizationId(), request.getZones())
+                .then(Mono.defer(() -> sequenceService.nextCode(SequenceType.ROUTE, request.getOrganizationId())))
+                .flatMap(generatedCode -> repository.save(newRoute(request, generatedCode)))
+                // Código ya usado (contador atrasado): se reinicializa el contador y se pide otro
+                .retryWhen(SequenceService.retryOnDuplicateCode(sequenceService, SequenceType.ROUTE,
+                        request.getOrganizationId()))
+                .onErrorMap(DuplicateKeyException.class, e -> new CustomException(
+                        HttpStatus.BAD_REQUEST.value(),
+                        "Route code already exists",
+                        "Generated route code already exists: " + e.getMostSpecificCause().getMessage()))
+                .doOnNext(saved -> eventPublisher.publishEvent(EntityChangedEvent.created(
+                        EntityType.ROUTE, saved.getId(), saved.getOrganizationId(), saved.getStatus(), saved)))
+                .map(this::toResponse);
     }
 
     @Override
     public Mono<DistributionRoute> update(String id, DistributionRoute route) {
-        return repository.findById(id)
+        DistributionRoute changes = DistributionRoute.builder()
+                .routeName(route.getRouteName())
+                .zones(route.getZones())
+                .totalEstimatedDuration(route.getTotalEstimatedDuration())
+                .responsibleUserId(route.getResponsibleUserId())
+                .build();
+        return findCached(id)
                 .switchIfEmpty(Mono.error(new CustomException(
                         HttpStatus.NOT_FOUND.value(),
                         "Route not found",
                         "No route found with id " + id)))
                 .flatMap(existing -> {
-                    existing.setRouteName(route.getRouteName());
-                    existing.setZones(route.getZones());
-                    existing.setTotalEstimatedDuration(route.getTotalEstimatedDuration());
-                    existing.setResponsibleUserId(route.getResponsibleUserId());
-                    return repository.save(existing);
+                    if (route.getZones() != null) {
+                        directory.validate(existing.getOrganizationId(), route.getZones().stream()
+                                .map(DistributionRoute.ZoneOrder::getZoneId)
+                                .collect(java.util.stream.Collectors.toList()), null);
+                    }
+                    return versionedUpdates.update(EntityType.ROUTE, DistributionRoute.class, id, null,
+                            changes, LEGACY_UPDATABLE_FIELDS);
+                })
+                .map(change -> {
+                    DistributionRoute updated = change.getCurrent();
+                    publishUpdated(updated, updated.getOrganizationId(), updated.getStatus());
+                    return updated;
                 });
     }
 
@@ -161,7 +171,9 @@ public class DistributionRouteServiceImpl implements DistributionRouteService {
                         HttpStatus.NOT_FOUND.value(),
                         "Route not found",
                         "Cannot delete route with id " + id)))
-                .flatMap(repository::delete);
+                .flatMap(route -> repository.delete(route)
+                        .doOnSuccess(unused -> eventPublisher.publishEvent(EntityChangedEvent.deleted(
+                                EntityType.ROUTE, route.getId(), route.getOrganizationId(), route.getStatus(), route))));
     }
 
     @Override
@@ -174,49 +186,176 @@ public class DistributionRouteServiceImpl implements DistributionRouteService {
         return changeStatus(id, Constants.INACTIVE.name());
     }
 
+    /**
+     * Un solo findAndModify condicionado; si ya estaba en ese estado se responde sin escribir.
+     */
     private Mono<DistributionRoute> changeStatus(String id, String status) {
-        return repository.findById(id)
+        return statusTransitions.transition(EntityType.ROUTE, DistributionRoute.class, id, status)
                 .switchIfEmpty(Mono.error(new CustomException(
                         HttpStatus.NOT_FOUND.value(),
                         "Route not found",
                         "Cannot change status of route with id " + id)))
-                .flatMap(route -> {
-                    route.setStatus(status);
-                    return repository.save(route);
+                .map(transition -> {
+                    DistributionRoute route = transition.getDocument();
+                    if (transition.isChanged()) {
+                        publishUpdated(route, route.getOrganizationId(), transition.getPreviousStatus());
+                    }
+                    return route;
                 });
     }
+
+    @Override
+    public Flux<BulkItemResult<DistributionRouteResponse>> saveAll(Flux<DistributionRouteCreateRequest> requests) {
+        return bulkImporter.importAll(requests,
+                BulkImporter.Spec.<DistributionRouteCreateRequest, DistributionRoute, DistributionRouteResponse>builder()
+                        .sequence(SequenceType.ROUTE)
+                        .entityClass(DistributionRoute.class)
+                        .organization(DistributionRouteCreateRequest::getOrganizationId)
+                        .validate(request -> directory.validate(request.getOrganizationId(),
+                                zoneIds(request.getZones()), null))
+                        .build(this::newRoute)
+                        .onCreated(saved -> eventPublisher.publishEvent(EntityChangedEvent.created(
+                                EntityType.ROUTE, saved.getId(), saved.getOrganizationId(), saved.getStatus(), saved)))
+                        .toResponse(this::toResponse)
+                        .build());
+    }
+
+    private DistributionRoute newRoute(DistributionRouteCreateRequest request, String generatedCode) {
+        return DistributionRoute.builder()
+                .organizationId(request.getOrganizationId())
+                .routeCode(generatedCode)
+                .routeName(request.getRouteName())
+                .zones(zoneOrders(request))
+                .totalEstimatedDuration(request.getTotalEstimatedDuration() != null ?
+                    request.getTotalEstimatedDuration() : 0)
+                .responsibleUserId(request.getResponsibleUserId())
+                .status(Constants.ACTIVE.name())
+                .createdAt(Instant.now())
+                .build();
+    }
+
+    // Convertir las zonas del DTO al modelo
+    private static java.util.List<DistributionRoute.ZoneOrder> zoneOrders(DistributionRouteCreateRequest request) {
+        if (request.getZones() == null) {
+            return java.util.Collections.emptyList();
+        }
+        return request.getZones().stream()
+            .map(zone -> new DistributionRoute.ZoneOrder(
+                zone.getZoneId(),
+                zone.getOrder() != null ? zone.getOrder() : 0,
+                zone.getEstimatedDuration() != null ? zone.getEstimatedDuration() : 0))
+            .collect(java.util.stream.Collectors.toList());
+    }
+
+    private DistributionRouteResponse toResponse(DistributionRoute route) {
+        // Convertir las zonas para la respuesta
+        String firstZoneId = null;
+        java.util.List<DistributionRouteResponse.ZoneDetail> zoneDetails = java.util.Collections.emptyList();
+
+        if (route.getZones() != null && !route.getZones().isEmpty()) {
+            // Primer zoneId para compatibilidad
+            firstZoneId = route.getZones().get(0).getZoneId();
+
+            // Lista completa de zonas
+            zoneDetails = route.getZones().stream()
+                .map(zone -> new DistributionRouteResponse.ZoneDetail(
+                    zone.getZoneId(),
+                    zone.getOrder(),
+                    zone.getEstimatedDuration()))
+                .collect(java.util.stream.Collectors.toList());
+        }
+
+        return DistributionRouteResponse.builder()
+                .id(route.getId())
+                .organizationId(route.getOrganizationId())
+                .routeCode(route.getRouteCode())
+                .routeName(route.getRouteName())
+                .zoneId(firstZoneId)
+                .zones(zoneDetails)
+                .totalEstimatedDuration(route.getTotalEstimatedDuration())
+                .responsibleUserId(route.getResponsibleUserId())
+                .status(route.getStatus())
+                .createdAt(route.getCreatedAt())
+                .updatedAt(route.getUpdatedAt())
+                .version(route.getVersion())
+                .build();
+    }
+
+    /**
+     * Organización y zonas contra el directorio local, sin llamadas remotas.
+     */
+    private Mono<Void> validateReferences(String organizationId,
+                                          java.util.List<DistributionRouteCreateRequest.ZoneEntry> zones) {
+        return Mono.fromRunnable(() -> directory.validate(organizationId, zoneIds(zones), null));
+    }
+
+    private static java.util.List<String> zoneIds(java.util.List<DistributionRouteCreateRequest.ZoneEntry> zones) {
+        return zones == null
+                ? java.util.Collections.emptyList()
+                : zones.stream()
+                        .map(DistributionRouteCreateRequest.ZoneEntry::getZoneId)
+                        .collect(java.util.stream.Collectors.toList());
+    }
+
+    /**
+     * Lectura por id a través de la caché de entidades.
+     */
+    private Mono<DistributionRoute> findCached(String id) {
+        return entityCache.get(EntityType.ROUTE, id, () -> repository.findById(id));
+    }
+
+    private void publishUpdated(DistributionRoute route, String previousOrganizationId, String previousStatus) {
+        eventPublisher.publishEvent(EntityChangedEvent.updated(
+                EntityType.ROUTE, route.getId(), previousOrganizationId, previousStatus,
+                route.getOrganizationId(), route.getStatus(), route));
+    }
     
     // New methods for enriched distribution route data
     
     @Override
     public Mono<EnrichedDistributionRouteResponse> getEnrichedById(String id) {
-        return repository.findById(id)
+        Mono<DistributionRoute> route = findCached(id)
                 .switchIfEmpty(Mono.error(new CustomException(
                         HttpStatus.NOT_FOUND.value(),
                         "Route not found",
-                        "No route found with id " + id)))
-                .map(this::toEnrichedResponse);
+                        "No route found with id " + id)));
+        return enrichmentLoader.enrichOne(route, this::enrichmentKeys, this::toEnrichedResponse);
     }
     
     @Override
     public Flux<EnrichedDistributionRouteResponse> getAllEnriched() {
-        return repository.findAll()
-                .map(this::toEnrichedResponse);
+        return enrich(repository.findAll());
     }
     
     @Override
     public Flux<EnrichedDistributionRouteResponse> getAllActiveEnriched() {
-        return repository.findAllByStatus(Constants.ACTIVE.name())
-                .map(this::toEnrichedResponse);
+        return enrich(repository.findAllByStatus(Constants.ACTIVE.name()));
     }
     
     @Override
     public Flux<EnrichedDistributionRouteResponse> getAllInactiveEnriched() {
-        return repository.findAllByStatus(Constants.INACTIVE.name())
-                .map(this::toEnrichedResponse);
+        return enrich(repository.findAllByStatus(Constants.INACTIVE.name()));
     }
     
-    private EnrichedDistributionRouteResponse toEnrichedResponse(DistributionRoute route) {
+    /**
+     * Respuestas enriquecidas en el mismo orden; las referencias se resuelven por lotes.
+     */
+    private Flux<EnrichedDistributionRouteResponse> enrich(Flux<DistributionRoute> routes) {
+        return enrichmentLoader.enrich(routes, this::enrichmentKeys, this::toEnrichedResponse);
+    }
+
+    private EnrichmentBatchLoader.Keys enrichmentKeys(DistributionRoute route) {
+        EnrichmentBatchLoader.Keys.KeysBuilder keys = EnrichmentBatchLoader.Keys.builder()
+                .userId(route.getResponsibleUserId())
+                .organizationId(route.getOrganizationId());
+        if (route.getZones() != null) {
+            route.getZones().forEach(zone -> keys.zoneId(zone.getZoneId()));
+        }
+        return keys.build();
+    }
+
+    private EnrichedDistributionRouteResponse toEnrichedResponse(DistributionRoute route,
+                                                                 EnrichmentBatchLoader.Resolved resolved) {
         // Convertir las zonas para la respuesta (usar el primer zoneId)
         String firstZoneId = null;
         java.util.List<EnrichedDistributionRouteResponse.ZoneDetail> zoneDetails = 
@@ -228,87 +367,61 @@ public class DistributionRouteServiceImpl implements DistributionRouteService {
             
             // Lista completa de zonas
             zoneDetails = route.getZones().stream()
-                .map(zone -> new EnrichedDistributionRouteResponse.ZoneDetail(
-                    zone.getZoneId(),
-                    zone.getOrder(),
-                    zone.getEstimatedDuration()))
+                .map(zone -> EnrichedDistributionRouteResponse.ZoneDetail.builder()
+                    .zoneId(zone.getZoneId())
+                    .zone(resolved.zone(zone.getZoneId()))
+                    .order(zone.getOrder())
+                    .estimatedDuration(zone.getEstimatedDuration())
+                    .build())
                 .collect(java.util.stream.Collectors.toList());
         }
         
         return EnrichedDistributionRouteResponse.builder()
                 .id(route.getId())
                 .organizationId(route.getOrganizationId())
+                .organization(resolved.organization())
                 .routeCode(route.getRouteCode())
                 .routeName(route.getRouteName())
                 .zoneId(firstZoneId)
                 .zones(zoneDetails) // Agregar la lista de zonas
                 .totalEstimatedDuration(route.getTotalEstimatedDuration())
                 .responsibleUserId(route.getResponsibleUserId())
+                .responsibleUser(resolved.user())
                 .status(route.getStatus())
                 .createdAt(route.getCreatedAt())
+                .degraded(resolved.degraded())
                 .build();
     }
 
     @Override
     public Mono<DistributionRouteResponse> update(String id, DistributionRouteCreateRequest request) {
-        return repository.findById(id)
+        return update(id, request, null);
+    }
+
+    @Override
+    public Mono<DistributionRouteResponse> update(String id, DistributionRouteCreateRequest request,
+                                                  Long expectedVersion) {
+        DistributionRoute changes = DistributionRoute.builder()
+                .routeName(request.getRouteName())
+                .zones(zoneOrders(request))
+                .totalEstimatedDuration(request.getTotalEstimatedDuration() != null ?
+                    request.getTotalEstimatedDuration() : 0)
+                .responsibleUserId(request.getResponsibleUserId())
+                .organizationId(request.getOrganizationId())
+                .build();
+
+        return validateReferences(request.getOrganizationId(), request.getZones())
+                .then(Mono.defer(() -> versionedUpdates.update(EntityType.ROUTE, DistributionRoute.class, id,
+                        expectedVersion, changes, UPDATABLE_FIELDS)))
                 .switchIfEmpty(Mono.error(new CustomException(
                         HttpStatus.NOT_FOUND.value(),
                         "Route not found",
                         "No route found with id " + id)))
-                .flatMap(existing -> {
-                    // Convertir las zonas del DTO al modelo
-                    java.util.List<DistributionRoute.ZoneOrder> zoneOrders = 
-                        java.util.Collections.emptyList();
-                    if (request.getZones() != null) {
-                        zoneOrders = request.getZones().stream()
-                            .map(zone -> new DistributionRoute.ZoneOrder(
-                                zone.getZoneId(),
-                                zone.getOrder() != null ? zone.getOrder() : 0,
-                                zone.getEstimatedDuration() != null ? zone.getEstimatedDuration() : 0))
-                            .collect(java.util.stream.Collectors.toList());
-                    }
-                    
-                    existing.setRouteName(request.getRouteName());
-                    existing.setZones(zoneOrders);
-                    existing.setTotalEstimatedDuration(request.getTotalEstimatedDuration() != null ? 
-                        request.getTotalEstimatedDuration() : 0);
-                    existing.setResponsibleUserId(request.getResponsibleUserId());
-                    existing.setOrganizationId(request.getOrganizationId());
-                    
-                    return repository.save(existing)
-                            .map(updated -> {
-                                // Convertir las zonas para la respuesta
-                                String firstZoneId = null;
-                                java.util.List<DistributionRouteResponse.ZoneDetail> zoneDetails = 
-                                    java.util.Collections.emptyList();
-                                    
-                                if (updated.getZones() != null && !updated.getZones().isEmpty()) {
-                                    // Primer zoneId para compatibilidad
-                                    firstZoneId = updated.getZones().get(0).getZoneId();
-                                    
-                                    // Lista completa de zonas
-                                    zoneDetails = updated.getZones().stream()
-                                        .map(zone -> new DistributionRouteResponse.ZoneDetail(
-                                            zone.getZoneId(),
-                                            zone.getOrder(),
-                                            zone.getEstimatedDuration()))
-                                        .collect(java.util.stream.Collectors.toList());
-                                }
-                                
-                                return DistributionRouteResponse.builder()
-                                        .id(updated.getId())
-                                        .organizationId(updated.getOrganizationId())
-                                        .routeCode(updated.getRouteCode())
-                                        .routeName(updated.getRouteName())
-                                        .zoneId(firstZoneId)
-                                        .zones(zoneDetails)
-                                        .totalEstimatedDuration(updated.getTotalEstimatedDuration())
-                                        .responsibleUserId(updated.getResponsibleUserId())
-                                        .status(updated.getStatus())
-                                        .createdAt(updated.getCreatedAt())
-                                        .build();
-                            });
-                });
+                .map(change -> {
+                    publishUpdated(change.getCurrent(), change.getPrevious().getOrganizationId(),
+                            change.getCurrent().getStatus());
+                    return change.getCurrent();
+                })
+                .map(this::toResponse);
     }
-}
\ No newline at end of file
+}
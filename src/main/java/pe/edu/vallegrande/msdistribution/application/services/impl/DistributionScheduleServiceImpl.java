@@ -2,29 +2,85 @@ package pe.edu.vallegrande.msdistribution.application.services.impl;
 
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DuplicateKeyException;
 import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
 
 import pe.edu.vallegrande.msdistribution.application.services.DistributionScheduleService;
+import pe.edu.vallegrande.msdistribution.application.services.OrganizationDirectoryService;
+import pe.edu.vallegrande.msdistribution.application.services.ReferenceDataSnapshotService;
+import pe.edu.vallegrande.msdistribution.application.services.SequenceService;
 import pe.edu.vallegrande.msdistribution.domain.models.DistributionSchedule;
 import pe.edu.vallegrande.msdistribution.domain.enums.Constants;
+import pe.edu.vallegrande.msdistribution.domain.enums.EntityType;
+import pe.edu.vallegrande.msdistribution.domain.enums.SequenceType;
+import pe.edu.vallegrande.msdistribution.domain.events.EntityChangedEvent;
+import pe.edu.vallegrande.msdistribution.infrastructure.cache.EntityCache;
+import pe.edu.vallegrande.msdistribution.infrastructure.dto.request.CursorPageRequest;
 import pe.edu.vallegrande.msdistribution.infrastructure.dto.request.DistributionScheduleCreateRequest;
+import pe.edu.vallegrande.msdistribution.infrastructure.dto.response.BulkItemResult;
+import pe.edu.vallegrande.msdistribution.infrastructure.dto.response.CursorPage;
 import pe.edu.vallegrande.msdistribution.infrastructure.dto.response.DistributionScheduleResponse;
 import pe.edu.vallegrande.msdistribution.infrastructure.dto.response.enriched.EnrichedDistributionScheduleResponse;
 import pe.edu.vallegrande.msdistribution.infrastructure.exception.CustomException;
 import pe.edu.vallegrande.msdistribution.infrastructure.repository.DistributionScheduleRepository;
+import pe.edu.vallegrande.msdistribution.infrastructure.repository.KeysetPageRepository;
+import pe.edu.vallegrande.msdistribution.infrastructure.repository.StatusTransitionRepository;
+import pe.edu.vallegrande.msdistribution.infrastructure.repository.VersionedUpdateRepository;
+import pe.edu.vallegrande.msdistribution.infrastructure.service.EnrichmentBatchLoader;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
 import java.time.Instant;
+import java.util.Collections;
+import java.util.List;
 
 @Service
 @Slf4j
 public class DistributionScheduleServiceImpl implements DistributionScheduleService {
 
+    /**
+     * Campos que reemplaza un PUT; scheduleCode, status y createdAt no se tocan.
+     */
+    private static final List<String> UPDATABLE_FIELDS = List.of("scheduleName", "daysOfWeek", "startTime",
+            "endTime", "durationHours", "zoneId", "streetId", "organizationId");
+    private static final List<String> LEGACY_UPDATABLE_FIELDS = List.of("scheduleName", "daysOfWeek", "startTime",
+            "endTime", "durationHours");
+
     @Autowired
     private DistributionScheduleRepository repository;
 
+    @Autowired
+    private SequenceService sequenceService;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Autowired
+    private KeysetPageRepository pageRepository;
+
+    @Autowired
+    private StatusTransitionRepository statusTransitions;
+
+    @Autowired
+    private VersionedUpdateRepository versionedUpdates;
+
+    @Autowired
+    private EntityCache entityCache;
+
+    @Autowired
+    private ReferenceDataSnapshotService referenceData;
+
+    @Autowired
+    private EnrichmentBatchLoader enrichmentLoader;
+
+    @Autowired
+    private OrganizationDirectoryService directory;
+
+    @Autowired
+    private BulkImporter bulkImporter;
+
     @Override
     public Flux<DistributionSchedule> getAll() {
         return repository.findAll();
@@ -32,7 +88,17 @@ public class DistributionScheduleServiceImpl implements DistributionScheduleServ
 
     @Override
     public Flux<DistributionSchedule> getAllActive() {
-        return repository.findAllByStatus(Constants.ACTIVE.name());
+        return getActiveByOrganization(null);
+    }
+
+    @Override
+    public Flux<DistributionSchedule> getActiveByOrganization(String organizationId) {
+        if (referenceData.isLoaded()) {
+            return referenceData.activeSchedules(organizationId);
+        }
+        return organizationId == null
+                ? repository.findAllByStatus(Constants.ACTIVE.name())
+                : repository.findAllByOrganizationIdAndStatus(organizationId, Constants.ACTIVE.name());
     }
 
     @Override
@@ -40,92 +106,137 @@ public class DistributionScheduleServiceImpl implements DistributionScheduleServ
         return repository.findAllByStatus(Constants.INACTIVE.name());
     }
 
+    @Override
+    public Mono<CursorPage<DistributionSchedule>> getPage(CursorPageRequest request) {
+        return pageRepository.findPage(EntityType.SCHEDULE, DistributionSchedule.class, request);
+    }
+
     @Override
     public Mono<DistributionSchedule> getById(String id) {
-        return repository.findById(id)
+        return findCached(id)
                 .switchIfEmpty(Mono.error(new CustomException(
                         HttpStatus.NOT_FOUND.value(),
                         "Schedule not found",
                         "No schedule found with id " + id)));
     }
 
-@Override
-public Mono<DistributionScheduleResponse> save(DistributionScheduleCreateRequest request) {
-    return generateNextScheduleCode() // ← usamos el generador
-        .flatMap(generatedCode ->
-            repository.existsByScheduleCode(generatedCode)
-                .flatMap(exists -> {
-                    if (exists) {
-                        return Mono.error(new CustomException(
-                                HttpStatus.BAD_REQUEST.value(),
-                                "Schedule code already exists",
-                                "Schedule code " + generatedCode + " already exists"));
-                    }
+    @Override
+    public Mono<DistributionScheduleResponse> save(DistributionScheduleCreateRequest request) {
+        return validateReferences(request)
+            .then(Mono.defer(() -> insertWithNextCode(request)))
+            .doOnNext(this::publishCreated)
+            .map(this::toResponse);
+    }
 
-                    DistributionSchedule schedule = DistributionSchedule.builder()
-                            .organizationId(request.getOrganizationId())
-                            .scheduleCode(generatedCode) // ← usamos el código generado
-                            .zoneId(request.getZoneId())
-                            .streetId(request.getStreetId())
-                            .scheduleName(request.getScheduleName())
-                            .daysOfWeek(request.getDaysOfWeek())
-                            .startTime(request.getStartTime())
-                            .endTime(request.getEndTime())
-                            .durationHours(request.getDurationHours())
-                            .status(Constants.ACTIVE.name())
-                            .createdAt(Instant.now())
-                            .build();
-
-                    return repository.save(schedule)
-                            .map(saved -> DistributionScheduleResponse.builder()
-                                    .id(saved.getId())
-                                    .organizationId(saved.getOrganizationId())
-                                    .scheduleCode(saved.getScheduleCode())
-                                    .scheduleName(saved.getScheduleName())
-                                    .zoneId(saved.getZoneId())
-                                    .streetId(saved.getStreetId()) // Fixed: was incorrectly using getZoneId()
-                                    .daysOfWeek(saved.getDaysOfWeek())
-                                    .startTime(saved.getStartTime())
-                                    .endTime(saved.getEndTime())
-                                    .durationHours(saved.getDurationHours())
-                                    .status(saved.getStatus())
-                                    .createdAt(saved.getCreatedAt())
-                                    .build());
-                })
-        );
-}
+    @Override
+    public Flux<BulkItemResult<DistributionScheduleResponse>> saveAll(Flux<DistributionScheduleCreateRequest> requests) {
+        return bulkImporter.importAll(requests,
+                BulkImporter.Spec.<DistributionScheduleCreateRequest, DistributionSchedule, DistributionScheduleResponse>builder()
+                        .sequence(SequenceType.SCHEDULE)
+                        .entityClass(DistributionSchedule.class)
+                        .organization(DistributionScheduleCreateRequest::getOrganizationId)
+                        .validate(request -> directory.validate(request.getOrganizationId(),
+                                Collections.singletonList(request.getZoneId()), request.getStreetId()))
+                        .build(this::newSchedule)
+                        .onCreated(this::publishCreated)
+                        .toResponse(this::toResponse)
+                        .build());
+    }
 
+    private DistributionSchedule newSchedule(DistributionScheduleCreateRequest request, String generatedCode) {
+        return DistributionSchedule.builder()
+                .organizationId(request.getOrganizationId())
+                .scheduleCode(generatedCode) // ← usamos el código generado
+                .zoneId(request.getZoneId())
+                .streetId(request.getStreetId())
+                .scheduleName(request.getScheduleName())
+                .daysOfWeek(request.getDaysOfWeek())
+                .startTime(request.getStartTime())
+                .endTime(request.getEndTime())
+                .durationHours(request.getDurationHours())
+                .status(Constants.ACTIVE.name())
+                .createdAt(Instant.now())
+                .build();
+    }
 
-    private static final String SCHEDULE_PREFIX = "HOR";
+    private DistributionScheduleResponse toResponse(DistributionSchedule schedule) {
+        return DistributionScheduleResponse.builder()
+                .id(schedule.getId())
+                .organizationId(schedule.getOrganizationId())
+                .scheduleCode(schedule.getScheduleCode())
+                .scheduleName(schedule.getScheduleName())
+                .zoneId(schedule.getZoneId())
+                .streetId(schedule.getStreetId())
+                .daysOfWeek(schedule.getDaysOfWeek())
+                .startTime(schedule.getStartTime())
+                .endTime(schedule.getEndTime())
+                .durationHours(schedule.getDurationHours())
+                .status(schedule.getStatus())
+                .createdAt(schedule.getCreatedAt())
+                .updatedAt(schedule.getUpdatedAt())
+                .version(schedule.getVersion())
+                .build();
+    }
 
-private Mono<String> generateNextScheduleCode() {
-    return repository.findTopByOrderByScheduleCodeDesc()
-            .map(last -> {
-                String lastCode = last.getScheduleCode(); // ej. HOR007
-                int number = 0;
-                try {
-                    number = Integer.parseInt(lastCode.replace(SCHEDULE_PREFIX, ""));
-                } catch (NumberFormatException ignored) {}
-                return String.format(SCHEDULE_PREFIX + "%03d", number + 1);
-            })
-            .defaultIfEmpty(SCHEDULE_PREFIX + "001");
-}
+    /**
+     * Organización, zona y calle contra el directorio local, sin llamadas remotas.
+     */
+    private Mono<Void> validateReferences(DistributionScheduleCreateRequest request) {
+        return Mono.fromRunnable(() -> directory.validate(request.getOrganizationId(),
+                Collections.singletonList(request.getZoneId()), request.getStreetId()));
+    }
 
+    /**
+     * Inserta con el siguiente código; si el índice único lo rechaza se reintenta con uno nuevo.
+     */
+    private Mono<DistributionSchedule> insertWithNextCode(DistributionScheduleCreateRequest request) {
+        return Mono.defer(() -> sequenceService.nextCode(SequenceType.SCHEDULE, request.getOrganizationId()))
+                .flatMap(generatedCode -> repository.save(newSchedule(request, generatedCode)))
+                .retryWhen(SequenceService.retryOnDuplicateCode(sequenceService, SequenceType.SCHEDULE,
+                        request.getOrganizationId()))
+                .onErrorMap(DuplicateKeyException.class, e -> new CustomException(
+                        HttpStatus.BAD_REQUEST.value(),
+                        "Schedule code already exists",
+                        "Generated schedule code already exists: " + e.getMostSpecificCause().getMessage()));
+    }
+
+    /**
+     * Lectura por id a través de la caché de entidades.
+     */
+    private Mono<DistributionSchedule> findCached(String id) {
+        return entityCache.get(EntityType.SCHEDULE, id, () -> repository.findById(id));
+    }
+
+    private void publishCreated(DistributionSchedule schedule) {
+        eventPublisher.publishEvent(EntityChangedEvent.created(
+                EntityType.SCHEDULE, schedule.getId(), schedule.getOrganizationId(), schedule.getStatus(), schedule));
+    }
+
+    private void publishUpdated(DistributionSchedule schedule, String previousOrganizationId, String previousStatus) {
+        eventPublisher.publishEvent(EntityChangedEvent.updated(
+                EntityType.SCHEDULE, schedule.getId(), previousOrganizationId, previousStatus,
+                schedule.getOrganizationId(), schedule.getStatus(), schedule));
+    }
 
     @Override
     public Mono<DistributionSchedule> update(String id, DistributionSchedule schedule) {
-        return repository.findById(id)
+        DistributionSchedule changes = DistributionSchedule.builder()
+                .scheduleName(schedule.getScheduleName())
+                .daysOfWeek(schedule.getDaysOfWeek())
+                .startTime(schedule.getStartTime())
+                .endTime(schedule.getEndTime())
+                .durationHours(schedule.getDurationHours())
+                .build();
+        return versionedUpdates.update(EntityType.SCHEDULE, DistributionSchedule.class, id, null,
+                        changes, LEGACY_UPDATABLE_FIELDS)
                 .switchIfEmpty(Mono.error(new CustomException(
                         HttpStatus.NOT_FOUND.value(),
                         "Schedule not found",
                         "No schedule found with id " + id)))
-                .flatMap(existing -> {
-                    existing.setScheduleName(schedule.getScheduleName());
-                    existing.setDaysOfWeek(schedule.getDaysOfWeek());
-                    existing.setStartTime(schedule.getStartTime());
-                    existing.setEndTime(schedule.getEndTime());
-                    existing.setDurationHours(schedule.getDurationHours());
-                    return repository.save(existing);
+                .map(change -> {
+                    DistributionSchedule updated = change.getCurrent();
+                    publishUpdated(updated, updated.getOrganizationId(), updated.getStatus());
+                    return updated;
                 });
     }
 
@@ -136,7 +247,10 @@ private Mono<String> generateNextScheduleCode() {
                         HttpStatus.NOT_FOUND.value(),
                         "Schedule not found",
                         "Cannot delete schedule with id " + id)))
-                .flatMap(repository::delete);
+                .flatMap(schedule -> repository.delete(schedule)
+                        .doOnSuccess(unused -> eventPublisher.publishEvent(EntityChangedEvent.deleted(
+                                EntityType.SCHEDULE, schedule.getId(), schedule.getOrganizationId(),
+                                schedule.getStatus(), schedule))));
     }
 
     @Override
@@ -149,15 +263,21 @@ private Mono<String> generateNextScheduleCode() {
         return changeStatus(id, Constants.INACTIVE.name());
     }
 
+    /**
+     * Un solo findAndModify condicionado; si ya estaba en ese estado se responde sin escribir.
+     */
     private Mono<DistributionSchedule> changeStatus(String id, String status) {
-        return repository.findById(id)
+        return statusTransitions.transition(EntityType.SCHEDULE, DistributionSchedule.class, id, status)
                 .switchIfEmpty(Mono.error(new CustomException(
                         HttpStatus.NOT_FOUND.value(),
                         "Schedule not found",
                         "Cannot change status of schedule with id " + id)))
-                .flatMap(schedule -> {
-                    schedule.setStatus(status);
-                    return repository.save(schedule);
+                .map(transition -> {
+                    DistributionSchedule schedule = transition.getDocument();
+                    if (transition.isChanged()) {
+                        publishUpdated(schedule, schedule.getOrganizationId(), transition.getPreviousStatus());
+                    }
+                    return schedule;
                 });
     }
     
@@ -165,113 +285,103 @@ private Mono<String> generateNextScheduleCode() {
     
     @Override
     public Mono<EnrichedDistributionScheduleResponse> getEnrichedById(String id) {
-        return repository.findById(id)
+        Mono<DistributionSchedule> schedule = findCached(id)
                 .switchIfEmpty(Mono.error(new CustomException(
                         HttpStatus.NOT_FOUND.value(),
                         "Schedule not found",
-                        "No schedule found with id " + id)))
-                .map(this::toEnrichedResponse);
+                        "No schedule found with id " + id)));
+        return enrichmentLoader.enrichOne(schedule, this::enrichmentKeys, this::toEnrichedResponse);
     }
     
     @Override
     public Flux<EnrichedDistributionScheduleResponse> getAllEnriched() {
-        return repository.findAll()
-                .map(this::toEnrichedResponse);
+        return enrich(repository.findAll());
     }
     
     @Override
     public Flux<EnrichedDistributionScheduleResponse> getAllActiveEnriched() {
-        return repository.findAllByStatus(Constants.ACTIVE.name())
-                .map(this::toEnrichedResponse);
+        return enrich(repository.findAllByStatus(Constants.ACTIVE.name()));
     }
     
     @Override
     public Flux<EnrichedDistributionScheduleResponse> getAllInactiveEnriched() {
-        return repository.findAllByStatus(Constants.INACTIVE.name())
-                .map(this::toEnrichedResponse);
+        return enrich(repository.findAllByStatus(Constants.INACTIVE.name()));
     }
     
     @Override
     public Mono<EnrichedDistributionScheduleResponse> saveAndEnrich(DistributionScheduleCreateRequest request) {
-        return generateNextScheduleCode()
-            .flatMap(generatedCode ->
-                repository.existsByScheduleCode(generatedCode)
-                    .flatMap(exists -> {
-                        if (exists) {
-                            return Mono.error(new CustomException(
-                                    HttpStatus.BAD_REQUEST.value(),
-                                    "Schedule code already exists",
-                                    "Schedule code " + generatedCode + " already exists"));
-                        }
-
-                        DistributionSchedule schedule = DistributionSchedule.builder()
-                                .organizationId(request.getOrganizationId())
-                                .scheduleCode(generatedCode)
-                                .zoneId(request.getZoneId())
-                                .streetId(request.getStreetId())
-                                .scheduleName(request.getScheduleName())
-                                .daysOfWeek(request.getDaysOfWeek())
-                                .startTime(request.getStartTime())
-                                .endTime(request.getEndTime())
-                                .durationHours(request.getDurationHours())
-                                .status(Constants.ACTIVE.name())
-                                .createdAt(Instant.now())
-                                .build();
-
-                        return repository.save(schedule)
-                                .map(this::toEnrichedResponse);
-                    })
-            );
+        return validateReferences(request)
+            .then(Mono.defer(() -> enrichmentLoader.enrichOne(insertWithNextCode(request)
+                            .doOnNext(this::publishCreated),
+                    this::enrichmentKeys, this::toEnrichedResponse)));
     }
     
-    private EnrichedDistributionScheduleResponse toEnrichedResponse(DistributionSchedule schedule) {
+    /**
+     * Respuestas enriquecidas en el mismo orden; las referencias se resuelven por lotes.
+     */
+    private Flux<EnrichedDistributionScheduleResponse> enrich(Flux<DistributionSchedule> schedules) {
+        return enrichmentLoader.enrich(schedules, this::enrichmentKeys, this::toEnrichedResponse);
+    }
+
+    private EnrichmentBatchLoader.Keys enrichmentKeys(DistributionSchedule schedule) {
+        return EnrichmentBatchLoader.Keys.builder()
+                .organizationId(schedule.getOrganizationId())
+                .zoneId(schedule.getZoneId())
+                .streetId(schedule.getStreetId())
+                .build();
+    }
+
+    private EnrichedDistributionScheduleResponse toEnrichedResponse(DistributionSchedule schedule,
+                                                                    EnrichmentBatchLoader.Resolved resolved) {
         return EnrichedDistributionScheduleResponse.builder()
                 .id(schedule.getId())
                 .organizationId(schedule.getOrganizationId())
+                .organization(resolved.organization())
                 .scheduleCode(schedule.getScheduleCode())
                 .scheduleName(schedule.getScheduleName())
                 .zoneId(schedule.getZoneId())
+                .zone(resolved.zone())
                 .streetId(schedule.getStreetId())
+                .street(resolved.street())
                 .daysOfWeek(schedule.getDaysOfWeek())
                 .startTime(schedule.getStartTime())
                 .endTime(schedule.getEndTime())
                 .durationHours(schedule.getDurationHours())
                 .status(schedule.getStatus())
                 .createdAt(schedule.getCreatedAt())
+                .degraded(resolved.degraded())
                 .build();
     }
 
     @Override
     public Mono<DistributionScheduleResponse> update(String id, DistributionScheduleCreateRequest request) {
-        return repository.findById(id)
+        return update(id, request, null);
+    }
+
+    @Override
+    public Mono<DistributionScheduleResponse> update(String id, DistributionScheduleCreateRequest request,
+                                                     Long expectedVersion) {
+        DistributionSchedule changes = DistributionSchedule.builder()
+                .scheduleName(request.getScheduleName())
+                .daysOfWeek(request.getDaysOfWeek())
+                .startTime(request.getStartTime())
+                .endTime(request.getEndTime())
+                .durationHours(request.getDurationHours())
+                .zoneId(request.getZoneId())
+                .streetId(request.getStreetId())
+                .organizationId(request.getOrganizationId())
+                .build();
+        return validateReferences(request)
+                .then(Mono.defer(() -> versionedUpdates.update(EntityType.SCHEDULE, DistributionSchedule.class, id,
+                        expectedVersion, changes, UPDATABLE_FIELDS)))
                 .switchIfEmpty(Mono.error(new CustomException(
                         HttpStatus.NOT_FOUND.value(),
                         "Schedule not found",
                         "No schedule found with id " + id)))
-                .flatMap(existing -> {
-                    existing.setScheduleName(request.getScheduleName());
-                    existing.setDaysOfWeek(request.getDaysOfWeek());
-                    existing.setStartTime(request.getStartTime());
-                    existing.setEndTime(request.getEndTime());
-                    existing.setDurationHours(request.getDurationHours());
-                    existing.setZoneId(request.getZoneId());
-                    existing.setStreetId(request.getStreetId());
-                    existing.setOrganizationId(request.getOrganizationId());
-                    return repository.save(existing)
-                            .map(saved -> DistributionScheduleResponse.builder()
-                                    .id(saved.getId())
-                                    .organizationId(saved.getOrganizationId())
-                                    .scheduleCode(saved.getScheduleCode())
-                                    .scheduleName(saved.getScheduleName())
-                                    .zoneId(saved.getZoneId())
-                                    .streetId(saved.getStreetId())
-                                    .daysOfWeek(saved.getDaysOfWeek())
-                                    .startTime(saved.getStartTime())
-                                    .endTime(saved.getEndTime())
-                                    .durationHours(saved.getDurationHours())
-                                    .status(saved.getStatus())
-                                    .createdAt(saved.getCreatedAt())
-                                    .build());
+                .map(change -> {
+                    DistributionSchedule saved = change.getCurrent();
+                    publishUpdated(saved, change.getPrevious().getOrganizationId(), saved.getStatus());
+                    return toResponse(saved);
                 });
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,258 @@
+package pe.edu.vallegrande.msdistribution.application.services.impl;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import pe.edu.vallegrande.msdistribution.application.services.FareIndexService;
+import pe.edu.vallegrande.msdistribution.domain.enums.Constants;
+import pe.edu.vallegrande.msdistribution.domain.enums.EntityType;
+import pe.edu.vallegrande.msdistribution.domain.events.CacheInvalidationEvent;
+import pe.edu.vallegrande.msdistribution.domain.events.EntityChangedEvent;
+import pe.edu.vallegrande.msdistribution.domain.models.Fare;
+import pe.edu.vallegrande.msdistribution.infrastructure.repository.FareRepository;
+import reactor.core.publisher.Mono;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.NavigableMap;
+import java.util.Optional;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Mantiene por organización un {@link NavigableMap} effectiveDate → tarifa con todas sus tarifas,
+ * también las INACTIVE, para responder qué tarifa estaba en vigor en cualquier instante.
+ * Se carga al arrancar y se actualiza con los {@link EntityChangedEvent} que publican FareServiceImpl
+ * y FareSchedulerService, y con los {@link CacheInvalidationEvent} de cambios hechos por otras réplicas.
+ * Cada organización es una instantánea inmutable que se reemplaza en cada escritura, así las lecturas
+ * (floorEntry / lastEntry, O(log n)) no necesitan bloqueo.
+ */
+@Service
+@Slf4j
+@RequiredArgsConstructor
+public class FareIndexServiceImpl implements FareIndexService {
+
+    private final FareRepository fareRepository;
+
+    private volatile Map<String, OrganizationFares> index = new ConcurrentHashMap<>();
+    private volatile boolean loaded;
+
+    /**
+     * Un búfer por recarga en curso con los eventos recibidos desde que empezó; cada recarga los
+     * reaplica sobre su índice antes de publicarlo. Las recargas pueden solaparse (arranque, flush
+     * de invalidación, cron), por eso ninguna comparte búfer con otra. Protegido por this.
+     */
+    private final List<List<EntityChangedEvent>> pending = new ArrayList<>();
+
+    @Override
+    public Mono<Fare> at(String organizationId, Instant at) {
+        return Mono.justOrEmpty(fares(organizationId).at(at));
+    }
+
+    @Override
+    public boolean isLoaded() {
+        return loaded;
+    }
+
+    @EventListener
+    public void onEntityChanged(EntityChangedEvent event) {
+        if (event.getType() != EntityType.FARE) {
+            return;
+        }
+        synchronized (this) {
+            apply(index, event);
+            pending.forEach(buffer -> buffer.add(event));
+        }
+    }
+
+    /**
+     * Cambios de tarifas hechos fuera de esta réplica: se relee la tarifa (o todo el índice si se
+     * invalidó el tipo completo) y se aplica como un cambio local más.
+     */
+    @EventListener
+    public void onInvalidation(CacheInvalidationEvent event) {
+        if (!event.covers(EntityType.FARE)) {
+            return;
+        }
+        if (event.isFlush()) {
+            scheduledReload();
+            return;
+        }
+        String id = event.getId();
+        fareRepository.findById(id)
+                .map(Optional::of)
+                .defaultIfEmpty(Optional.empty())
+                .subscribe(
+                        fare -> refresh(id, fare.orElse(null)),
+                        error -> log.warn("No se pudo refrescar la tarifa {} en el índice: {}", id, error.getMessage()));
+    }
+
+    synchronized void refresh(String id, Fare fare) {
+        String indexedIn = index.entrySet().stream()
+                .filter(entry -> entry.getValue().contains(id))
+                .map(Entry::getKey)
+                .findFirst()
+                .orElse(null);
+        onEntityChanged(fare != null
+                ? EntityChangedEvent.updated(EntityType.FARE, id, indexedIn, null,
+                        fare.getOrganizationId(), fare.getStatus(), fare)
+                : EntityChangedEvent.deleted(EntityType.FARE, id, indexedIn, null, null));
+    }
+
+    @Override
+    public Mono<Void> reload() {
+        return Mono.defer(() -> {
+            List<EntityChangedEvent> buffer = new ArrayList<>();
+            synchronized (this) {
+                pending.add(buffer);
+            }
+            return fareRepository.findAll()
+                    .collectList()
+                    .doOnNext(fares -> {
+                        Map<String, OrganizationFares> rebuilt = build(fares);
+                        synchronized (this) {
+                            buffer.forEach(event -> apply(rebuilt, event));
+                            index = rebuilt;
+                            loaded = true;
+                        }
+                        log.info("Índice de tarifas cargado: {} tarifas en {} organizaciones",
+                                fares.size(), rebuilt.size());
+                    })
+                    .doFinally(signal -> {
+                        synchronized (this) {
+                            // por identidad: dos búferes vacíos son equals()
+                            pending.removeIf(registered -> registered == buffer);
+                        }
+                    })
+                    .then();
+        });
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void initialize() {
+        scheduledReload();
+    }
+
+    @Scheduled(cron = "${fare.index.reload-cron:0 30 3 * * ?}")
+    public void scheduledReload() {
+        reload().subscribe(
+                null,
+                error -> log.error("Error cargando el índice de tarifas: ", error));
+    }
+
+    private OrganizationFares fares(String organizationId) {
+        return organizationId == null
+                ? OrganizationFares.EMPTY
+                : index.getOrDefault(organizationId, OrganizationFares.EMPTY);
+    }
+
+    static Map<String, OrganizationFares> build(List<Fare> fares) {
+        Map<String, Map<String, Fare>> byOrganization = new HashMap<>();
+        for (Fare fare : fares) {
+            if (fare.getOrganizationId() != null && fare.getId() != null) {
+                byOrganization.computeIfAbsent(fare.getOrganizationId(), k -> new HashMap<>()).put(fare.getId(), fare);
+            }
+        }
+        Map<String, OrganizationFares> rebuilt = new ConcurrentHashMap<>();
+        byOrganization.forEach((organizationId, byId) -> rebuilt.put(organizationId, new OrganizationFares(byId)));
+        return rebuilt;
+    }
+
+    /**
+     * Quita la tarifa de su organización anterior y actual y, salvo que se haya eliminado, la vuelve
+     * a indexar con su estado nuevo.
+     */
+    static void apply(Map<String, OrganizationFares> index, EntityChangedEvent event) {
+        String id = event.getId();
+        for (String organizationId : new String[] { event.getPreviousOrganizationId(), event.getOrganizationId() }) {
+            if (organizationId != null) {
+                index.computeIfPresent(organizationId, (k, fares) -> {
+                    OrganizationFares updated = fares.without(id);
+                    return updated.isEmpty() ? null : updated;
+                });
+            }
+        }
+        if (event.getAction() != EntityChangedEvent.Action.DELETED
+                && event.getEntity() instanceof Fare fare
+                && fare.getOrganizationId() != null) {
+            index.merge(fare.getOrganizationId(), OrganizationFares.EMPTY.with(fare),
+                    (existing, ignored) -> existing.with(fare));
+        }
+    }
+
+    /**
+     * Tarifas de una organización. Inmutable: cada cambio produce una nueva instancia. Si varias
+     * tarifas comparten effectiveDate prevalece la creada más recientemente, como en el scheduler;
+     * de las tarifas sin fecha de vigencia solo cuenta la ACTIVE, que el scheduler no mueve.
+     */
+    static final class OrganizationFares {
+
+        static final OrganizationFares EMPTY = new OrganizationFares(Collections.emptyMap());
+
+        private static final Comparator<Fare> NEWEST = Comparator.comparing(Fare::getCreatedAt,
+                Comparator.nullsFirst(Comparator.naturalOrder()));
+
+        private final Map<String, Fare> byId;
+        private final NavigableMap<Instant, Fare> byEffectiveDate = new TreeMap<>();
+        private final Fare undated;
+
+        OrganizationFares(Map<String, Fare> byId) {
+            this.byId = byId;
+            Fare newestUndated = null;
+            for (Fare fare : byId.values()) {
+                if (fare.getEffectiveDate() == null) {
+                    if (Constants.ACTIVE.name().equals(fare.getStatus())) {
+                        newestUndated = newer(newestUndated, fare);
+                    }
+                } else {
+                    byEffectiveDate.merge(fare.getEffectiveDate().toInstant(), fare, OrganizationFares::newer);
+                }
+            }
+            this.undated = newestUndated;
+        }
+
+        OrganizationFares with(Fare fare) {
+            Map<String, Fare> copy = new HashMap<>(byId);
+            copy.put(fare.getId(), fare);
+            return new OrganizationFares(copy);
+        }
+
+        OrganizationFares without(String id) {
+            if (!byId.containsKey(id)) {
+                return this;
+            }
+            Map<String, Fare> copy = new HashMap<>(byId);
+            copy.remove(id);
+            return new OrganizationFares(copy);
+        }
+
+        boolean contains(String id) {
+            return byId.containsKey(id);
+        }
+
+        boolean isEmpty() {
+            return byId.isEmpty();
+        }
+
+        Fare at(Instant at) {
+            Entry<Instant, Fare> floor = byEffectiveDate.floorEntry(at);
+            return floor != null ? floor.getValue() : undated;
+        }
+
+        private static Fare newer(Fare a, Fare b) {
+            if (a == null) {
+                return b;
+            }
+            return NEWEST.compare(b, a) >= 0 ? b : a;
+        }
+    }
+}
@@ -2,14 +2,30 @@ package pe.edu.vallegrande.msdistribution.application.services.impl;
 
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
+import pe.edu.vallegrande.msdistribution.application.services.JobCoordinationService;
 import pe.edu.vallegrande.msdistribution.domain.models.Fare;
+import pe.edu.vallegrande.msdistribution.domain.models.JobAssignment;
 import pe.edu.vallegrande.msdistribution.domain.enums.Constants;
+import pe.edu.vallegrande.msdistribution.domain.enums.EntityType;
+import pe.edu.vallegrande.msdistribution.domain.events.EntityChangedEvent;
 import pe.edu.vallegrande.msdistribution.infrastructure.repository.FareRepository;
+import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
 import java.util.Date;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
 
 @Service
 @Slf4j
@@ -21,22 +37,35 @@ public class FareSchedulerService {
     @Autowired
     private FareServiceImpl fareService;
 
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Autowired
+    private JobCoordinationService coordination;
+
+    static final String JOB_FARE_TRANSITIONS = "fare-transitions";
+    static final String JOB_FARE_SWEEP = "fare-sweep";
+
+    private static final Comparator<Fare> NEWEST_EFFECTIVE = Comparator
+            .comparing(Fare::getEffectiveDate)
+            .thenComparing(Fare::getCreatedAt, Comparator.nullsFirst(Comparator.naturalOrder()));
+
     /**
-     * Scheduled task that runs every hour to check for fare transitions
-     * This will activate/deactivate fares based on their effective dates
+     * Barrido de respaldo (por defecto cada 6 horas). Cada tarifa se transiciona a su hora exacta
+     * desde {@link FareTransitionQueue}; este barrido solo cubre lo que la cola no vio
+     * (escrituras directas en Mongo, reinicios).
      */
-    @Scheduled(cron = "0 0 * * * ?") // cada hora
+    @Scheduled(cron = "${fare.transitions.sweep-cron:0 0 */6 * * ?}")
     public void processFareTransitions() {
         log.info("Processing fare transitions...");
         
         Date now = new Date();
         
         // Process automatic fare transitions (deactivate old fares after Nov 1st)
-        fareService.processAutomaticFareTransitions();
+        processAutomaticTransitionsIfLeader();
         
         // Activar tarifas cuya vigencia comenzó
-        activateScheduledFares(now)
-                .then(deactivateExpiredFares(now))
+        runTransitions(now)
                 .subscribe(
                     unused -> log.info("Fare transition processing completed."),
                     error -> log.error("Error processing fare transitions: ", error)
@@ -53,49 +82,135 @@ public class FareSchedulerService {
         Date now = new Date();
         
         // Process automatic fare transitions (deactivate old fares after Nov 1st)
-        fareService.processAutomaticFareTransitions();
+        processAutomaticTransitionsIfLeader();
         
         // Activar tarifas cuya vigencia comenzó
-        activateScheduledFares(now)
-                .then(deactivateExpiredFares(now))
+        runTransitions(now)
                 .subscribe(
                     unused -> log.info("Manual fare transition processing completed."),
                     error -> log.error("Error processing manual fare transitions: ", error)
                 );
     }
 
-    private Mono<Void> activateScheduledFares(Date now) {
-        return fareRepository.findAllByStatus(Constants.INACTIVE.name())
-                .filter(fare -> fare.getEffectiveDate() != null &&
-                            (fare.getEffectiveDate().before(now) || fare.getEffectiveDate().equals(now)))
-                .flatMap(fare -> {
-                    fare.setStatus(Constants.ACTIVE.name());
-                    return fareRepository.save(fare)
-                            .flatMap(this::handleFareActivation);
-                })
-                .then();
+    /**
+     * Deja ACTIVE, por organización, la tarifa en vigor a {@code now}: la de mayor effectiveDate
+     * que ya comenzó (a igual fecha, la creada después), sea cual sea su estado actual.
+     */
+    public Mono<Void> runTransitions(Date now) {
+        return coordination.assignment(JOB_FARE_TRANSITIONS)
+                .flatMap(assignment -> startedFares(now, assignment)
+                        .flatMap(started -> applyFaresInForce(started, assignment)));
+    }
+
+    private void processAutomaticTransitionsIfLeader() {
+        coordination.acquire(JOB_FARE_SWEEP).subscribe(
+                lease -> fareService.processAutomaticFareTransitions(),
+                error -> log.error("Error obteniendo el lease '{}': ", JOB_FARE_SWEEP, error));
+    }
+
+    /**
+     * Tarifas ACTIVE e INACTIVE cuya vigencia ya comenzó, filtradas en Mongo por estado y fecha.
+     */
+    private Mono<List<Fare>> startedFares(Date now, JobAssignment assignment) {
+        return Flux.concat(
+                        fareRepository.findByStatusAndEffectiveDateLessThanEqual(Constants.INACTIVE.name(), now),
+                        fareRepository.findByStatusAndEffectiveDateLessThanEqual(Constants.ACTIVE.name(), now))
+                .filter(fare -> assignment.owns(fare.getOrganizationId()))
+                .collectList();
+    }
+
+    /**
+     * Activa la tarifa en vigor de cada organización y deja INACTIVE al resto de sus tarifas ACTIVE
+     * ya vigentes; si la tarifa en vigor cambia, también las ACTIVE con vigencia futura (una sola
+     * activa por organización). Como la tarifa en vigor se elige entre las ACTIVE y las INACTIVE,
+     * nunca se activa una más antigua que la activa actual y repetir la ejecución no cambia nada.
+     * Como máximo un updateMany por sentido de la transición.
+     */
+    Mono<Void> applyFaresInForce(List<Fare> started, JobAssignment assignment) {
+        Map<String, Fare> inForceByOrganization = new HashMap<>();
+        started.stream()
+                .filter(fare -> fare.getOrganizationId() != null)
+                .forEach(fare -> inForceByOrganization.merge(fare.getOrganizationId(), fare,
+                        (a, b) -> NEWEST_EFFECTIVE.compare(a, b) >= 0 ? a : b));
+        List<Fare> toActivate = inForceByOrganization.values().stream()
+                .filter(fare -> Constants.INACTIVE.name().equals(fare.getStatus()))
+                .collect(Collectors.toList());
+        Map<String, Fare> toDeactivate = new LinkedHashMap<>();
+        started.stream()
+                .filter(fare -> Constants.ACTIVE.name().equals(fare.getStatus()))
+                .filter(fare -> !isInForce(fare, inForceByOrganization))
+                .forEach(fare -> toDeactivate.put(fare.getId(), fare));
+
+        Mono<Void> displaceFuture = toActivate.isEmpty()
+                ? Mono.empty()
+                : fareRepository.findByOrganizationIdInAndStatus(
+                                toActivate.stream().map(Fare::getOrganizationId).collect(Collectors.toSet()),
+                                Constants.ACTIVE.name())
+                        .filter(fare -> !isInForce(fare, inForceByOrganization))
+                        .doOnNext(fare -> toDeactivate.putIfAbsent(fare.getId(), fare))
+                        .then();
+        return displaceFuture
+                .then(Mono.defer(() -> transition(toActivate, Constants.INACTIVE.name(), Constants.ACTIVE.name(), assignment)))
+                .then(Mono.defer(() -> transition(new ArrayList<>(toDeactivate.values()),
+                        Constants.ACTIVE.name(), Constants.INACTIVE.name(), assignment)));
+    }
+
+    private static boolean isInForce(Fare fare, Map<String, Fare> inForceByOrganization) {
+        Fare inForce = inForceByOrganization.get(fare.getOrganizationId());
+        return inForce != null && inForce.getId().equals(fare.getId());
     }
 
-    private Mono<Void> deactivateExpiredFares(Date now) {
-        return fareRepository.findAllByStatus(Constants.ACTIVE.name())
-                .filter(fare -> fare.getEffectiveDate() != null && 
-                       fare.getEffectiveDate().before(now) && 
-                       !fare.getEffectiveDate().equals(now))
-                .flatMap(fare -> {
-                    fare.setStatus(Constants.INACTIVE.name());
-                    return fareRepository.save(fare);
+    /**
+     * Un updateMany condicionado a {@code fromStatus}. Solo se publican eventos de las tarifas que
+     * cambiaron: si el updateMany modificó menos de las leídas (otra escritura se adelantó), se
+     * releen para saber cuáles pasaron a {@code toStatus} desde que se leyeron.
+     */
+    private Mono<Void> transition(List<Fare> fares, String fromStatus, String toStatus, JobAssignment assignment) {
+        if (fares.isEmpty()) {
+            return Mono.empty();
+        }
+        List<String> ids = fares.stream().map(Fare::getId).collect(Collectors.toList());
+        Map<String, Long> versionsRead = new HashMap<>();
+        fares.forEach(fare -> versionsRead.put(fare.getId(), fare.getVersion()));
+        return fenced(assignment, () -> fareRepository.updateStatus(ids, fromStatus, toStatus))
+                .flatMap(modified -> {
+                    log.info("Tarifas {} -> {}: {}", fromStatus, toStatus, modified);
+                    if (modified == fares.size()) {
+                        return Mono.just(fares);
+                    }
+                    if (modified == 0) {
+                        return Mono.just(Collections.<Fare>emptyList());
+                    }
+                    return fareRepository.findAllById(ids)
+                            .filter(fare -> toStatus.equals(fare.getStatus())
+                                    && !Objects.equals(fare.getVersion(), versionsRead.get(fare.getId())))
+                            .collectList();
                 })
+                .doOnNext(changed -> changed.forEach(fare -> {
+                    fare.setStatus(toStatus);
+                    publishStatusChange(fare, fromStatus);
+                }))
                 .then();
     }
 
-    private Mono<Fare> handleFareActivation(Fare activatedFare) {
-        return fareRepository.findByOrganizationIdAndStatusOrderByEffectiveDateDesc(
-                        activatedFare.getOrganizationId(), Constants.ACTIVE.name())
-                .filter(fare -> !fare.getId().equals(activatedFare.getId()))
-                .flatMap(fare -> {
-                    fare.setStatus(Constants.INACTIVE.name());
-                    return fareRepository.save(fare);
-                })
-                .then(Mono.just(activatedFare));
+    /**
+     * Comprueba el fencing token justo antes de escribir: si esta réplica perdió el lease
+     * (pausa larga, red), la escritura se descarta en lugar de competir con el nuevo líder.
+     */
+    private <T> Mono<T> fenced(JobAssignment assignment, Supplier<Mono<T>> write) {
+        return coordination.isCurrent(assignment)
+                .flatMap(current -> {
+                    if (!current) {
+                        log.warn("Lease '{}' ya no es vigente en esta réplica; se omite la escritura", assignment.getJob());
+                        return Mono.<T>empty();
+                    }
+                    return write.get();
+                });
+    }
+
+    private void publishStatusChange(Fare fare, String previousStatus) {
+        eventPublisher.publishEvent(EntityChangedEvent.updated(
+                EntityType.FARE, fare.getId(), fare.getOrganizationId(), previousStatus,
+                fare.getOrganizationId(), fare.getStatus(), fare));
     }
 }
\ No newline at end of file
@@ -2,27 +2,64 @@ package pe.edu.vallegrande.msdistribution.application.services.impl;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DuplicateKeyException;
 import org.springframework.stereotype.Service;
 import pe.edu.vallegrande.msdistribution.infrastructure.dto.response.enriched.EnrichedFareResponse;
+import pe.edu.vallegrande.msdistribution.application.services.FareIndexService;
 import pe.edu.vallegrande.msdistribution.application.services.FareService;
+import pe.edu.vallegrande.msdistribution.application.services.SequenceService;
 import pe.edu.vallegrande.msdistribution.domain.models.Fare;
 import pe.edu.vallegrande.msdistribution.domain.enums.Constants;
+import pe.edu.vallegrande.msdistribution.domain.enums.EntityType;
+import pe.edu.vallegrande.msdistribution.domain.enums.SequenceType;
+import pe.edu.vallegrande.msdistribution.domain.events.EntityChangedEvent;
+import pe.edu.vallegrande.msdistribution.infrastructure.cache.EntityCache;
+import pe.edu.vallegrande.msdistribution.infrastructure.dto.request.CursorPageRequest;
 import pe.edu.vallegrande.msdistribution.infrastructure.dto.request.FareCreateRequest;
+import pe.edu.vallegrande.msdistribution.infrastructure.dto.response.BulkItemResult;
+import pe.edu.vallegrande.msdistribution.infrastructure.dto.response.CursorPage;
 import pe.edu.vallegrande.msdistribution.infrastructure.dto.response.FareResponse;
 import pe.edu.vallegrande.msdistribution.infrastructure.exception.CustomException;
 import pe.edu.vallegrande.msdistribution.infrastructure.repository.FareRepository;
+import pe.edu.vallegrande.msdistribution.infrastructure.repository.KeysetPageRepository;
+import pe.edu.vallegrande.msdistribution.infrastructure.repository.StatusTransitionRepository;
+import pe.edu.vallegrande.msdistribution.infrastructure.repository.VersionedUpdateRepository;
+import pe.edu.vallegrande.msdistribution.infrastructure.service.EnrichmentBatchLoader;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
 import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.ArrayList;
 import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
 @Slf4j
 public class FareServiceImpl implements FareService {
 
+    /**
+     * Campos que reemplaza siempre un PUT; effectiveDate y status solo si llega fecha de vigencia
+     * (sin ella, el estado se recalcula después con la fecha guardada).
+     */
+    private static final List<String> UPDATABLE_FIELDS = List.of("organizationId", "fareName", "fareType",
+            "fareAmount");
+
     private final FareRepository fareRepository;
+    private final SequenceService sequenceService;
+    private final ApplicationEventPublisher eventPublisher;
+    private final KeysetPageRepository pageRepository;
+    private final StatusTransitionRepository statusTransitions;
+    private final VersionedUpdateRepository versionedUpdates;
+    private final FareIndexService fareIndex;
+    private final EntityCache entityCache;
+    private final EnrichmentBatchLoader enrichmentLoader;
+    private final BulkImporter bulkImporter;
 
     @Override
     public Flux<FareResponse> getAllF() {
@@ -43,59 +80,82 @@ public class FareServiceImpl implements FareService {
                 .map(this::toResponse);
     }
 
+    @Override
+    public Mono<CursorPage<FareResponse>> getPageF(CursorPageRequest request) {
+        return pageRepository.findPage(EntityType.FARE, Fare.class, request)
+                .map(page -> page.map(this::toResponse));
+    }
+
     @Override
     public Mono<FareResponse> getByIdF(String id) {
-        return fareRepository.findById(id)
+        return findCached(id)
                 .map(this::toResponse)
                 .switchIfEmpty(Mono.error(CustomException.notFound("Fare", id)));
     }
 
     @Override
     public Mono<FareResponse> saveF(FareCreateRequest request) {
-        return generateNextFareCode()
-                .flatMap(generatedCode -> fareRepository.existsByFareCode(generatedCode)
-                        .flatMap(exists -> {
-                            if (exists) {
-                                return Mono.error(CustomException.conflict("Fare code already exists"));
-                            }
-
-                            Date now = new Date();
-                            // Set fare amount based on current date
-                            // Before November 1st: 15 soles, After November 1st: 20 soles
-                            java.util.Calendar nov1 = java.util.Calendar.getInstance();
-                            nov1.set(2025, java.util.Calendar.NOVEMBER, 1, 0, 0, 0);
-                            nov1.set(java.util.Calendar.MILLISECOND, 0);
-                            Date novFirst = nov1.getTime();
-
-                            BigDecimal fareAmount = "MENSUAL".equalsIgnoreCase(request.getFareType())
-                                    ? (now.before(novFirst)  // Before November 1st
-                                        ? BigDecimal.valueOf(15.00)
-                                        : BigDecimal.valueOf(20.00))
-                                    : request.getFareAmount();
-
-                            // Effective date is always November 1st for new fares
-                            Date effectiveDate = novFirst;
-
-                            // ⚡ Estado inicial según fecha de vigencia
-                            String status = now.before(effectiveDate) || now.equals(effectiveDate)
-                                    ? Constants.ACTIVE.name()
-                                    : Constants.INACTIVE.name();
-
-                            Fare fare = Fare.builder()
-                                .organizationId(request.getOrganizationId())
-                                .fareCode(generatedCode)
-                                .fareName(request.getFareName())
-                                .fareType(request.getFareType())
-                                .fareAmount(fareAmount)
-                                .effectiveDate(effectiveDate)
-                                .status(status)
-                                .createdAt(now.toInstant())
-                                .build();
-
-                            return fareRepository.save(fare)
-                                    .flatMap(this::handleTimeBasedFareActivation)
-                                    .map(this::toResponse);
-                        }));
+        return Mono.defer(() -> sequenceService.nextCode(SequenceType.FARE, request.getOrganizationId()))
+                .flatMap(generatedCode -> fareRepository.save(newFare(request, generatedCode)))
+                // Código ya usado (contador atrasado): se reinicializa el contador y se pide otro
+                .retryWhen(SequenceService.retryOnDuplicateCode(sequenceService, SequenceType.FARE,
+                        request.getOrganizationId()))
+                .onErrorMap(DuplicateKeyException.class,
+                        e -> CustomException.conflict("Fare code already exists"))
+                .doOnNext(saved -> eventPublisher.publishEvent(EntityChangedEvent.created(
+                        EntityType.FARE, saved.getId(), saved.getOrganizationId(), saved.getStatus(), saved)))
+                .flatMap(this::handleTimeBasedFareActivation)
+                .map(this::toResponse);
+    }
+
+    @Override
+    public Flux<BulkItemResult<FareResponse>> saveAllF(Flux<FareCreateRequest> requests) {
+        return bulkImporter.importAll(requests,
+                BulkImporter.Spec.<FareCreateRequest, Fare, FareResponse>builder()
+                        .sequence(SequenceType.FARE)
+                        .entityClass(Fare.class)
+                        .organization(FareCreateRequest::getOrganizationId)
+                        .build(this::newFare)
+                        .onCreated(saved -> eventPublisher.publishEvent(EntityChangedEvent.created(
+                                EntityType.FARE, saved.getId(), saved.getOrganizationId(), saved.getStatus(), saved)))
+                        .afterInsert(this::displaceActiveFares)
+                        .toResponse(this::toResponse)
+                        .build());
+    }
+
+    private Fare newFare(FareCreateRequest request, String generatedCode) {
+        Date now = new Date();
+        // Set fare amount based on current date
+        // Before November 1st: 15 soles, After November 1st: 20 soles
+        java.util.Calendar nov1 = java.util.Calendar.getInstance();
+        nov1.set(2025, java.util.Calendar.NOVEMBER, 1, 0, 0, 0);
+        nov1.set(java.util.Calendar.MILLISECOND, 0);
+        Date novFirst = nov1.getTime();
+
+        BigDecimal fareAmount = "MENSUAL".equalsIgnoreCase(request.getFareType())
+                ? (now.before(novFirst)  // Before November 1st
+                    ? BigDecimal.valueOf(15.00)
+                    : BigDecimal.valueOf(20.00))
+                : request.getFareAmount();
+
+        // Effective date is always November 1st for new fares
+        Date effectiveDate = novFirst;
+
+        // ⚡ Estado inicial según fecha de vigencia
+        String status = now.before(effectiveDate) || now.equals(effectiveDate)
+                ? Constants.ACTIVE.name()
+                : Constants.INACTIVE.name();
+
+        return Fare.builder()
+                .organizationId(request.getOrganizationId())
+                .fareCode(generatedCode)
+                .fareName(request.getFareName())
+                .fareType(request.getFareType())
+                .fareAmount(fareAmount)
+                .effectiveDate(effectiveDate)
+                .status(status)
+                .createdAt(now.toInstant())
+                .build();
     }
 
     /**
@@ -107,81 +167,121 @@ public class FareServiceImpl implements FareService {
         // For simplicity, we'll deactivate all active fares for the same organization
         // In a more complex system, you might want to filter by fare type or other criteria
         // But exclude the newly created fare
-        return fareRepository.findAllByStatus(Constants.ACTIVE.name())
-                .filter(fare -> fare.getOrganizationId().equals(newFare.getOrganizationId()))
+        return fareRepository.findByOrganizationIdAndStatusOrderByEffectiveDateDesc(
+                        newFare.getOrganizationId(), Constants.ACTIVE.name())
                 .filter(fare -> !fare.getId().equals(newFare.getId())) // Exclude the new fare
-                .flatMap(fare -> {
-                    // Deactivate the current fare
-                    fare.setStatus(Constants.INACTIVE.name());
-                    return fareRepository.save(fare);
-                })
+                // Deactivate the current fare (conditional update: skipped if it already changed)
+                .flatMap(fare -> statusTransitions.transition(EntityType.FARE, Fare.class, fare.getId(),
+                        Constants.INACTIVE.name()))
+                .filter(StatusTransitionRepository.Transition::isChanged)
+                .doOnNext(transition -> publishUpdated(transition.getDocument(),
+                        transition.getDocument().getOrganizationId(), transition.getPreviousStatus()))
                 .then(Mono.just(newFare));
     }
 
-    private static final String FARE_PREFIX = "TAR";
-
-    private Mono<String> generateNextFareCode() {
-        return fareRepository.findTopByOrderByFareCodeDesc()
-                .map(last -> {
-                    String lastCode = last.getFareCode(); // ej. "TAR003"
-                    int number = 0;
-                    try {
-                        number = Integer.parseInt(lastCode.replace(FARE_PREFIX, ""));
-                    } catch (NumberFormatException e) {
-                        // Si el código no sigue el patrón, asumimos 0
-                    }
-                    return String.format(FARE_PREFIX + "%03d", number + 1);
-                })
-                .defaultIfEmpty(FARE_PREFIX + "001");
+    /**
+     * handleTimeBasedFareActivation para un lote importado: en cada organización solo puede seguir
+     * activa la última tarifa importada, igual que tras guardarlas una a una. Un updateMany por
+     * organización en un único bulk; los eventos se publican con las tarifas leídas antes.
+     */
+    private Mono<Void> displaceActiveFares(List<Fare> inserted) {
+        Map<String, String> keepByOrganization = new HashMap<>();
+        inserted.forEach(fare -> keepByOrganization.put(fare.getOrganizationId(), fare.getId()));
+        if (keepByOrganization.isEmpty()) {
+            return Mono.empty();
+        }
+        return fareRepository.findByOrganizationIdInAndStatus(keepByOrganization.keySet(), Constants.ACTIVE.name())
+                .filter(fare -> !fare.getId().equals(keepByOrganization.get(fare.getOrganizationId())))
+                .collectList()
+                .flatMap(displaced -> fareRepository.deactivateActiveExcept(keepByOrganization)
+                        .doOnNext(modified -> displaced.forEach(fare -> {
+                            fare.setStatus(Constants.INACTIVE.name());
+                            publishUpdated(fare, fare.getOrganizationId(), Constants.ACTIVE.name());
+                        })))
+                .then();
     }
 
     @Override
     public Mono<FareResponse> updateF(String id, FareCreateRequest request) {
-        return fareRepository.findById(id)
+        return updateF(id, request, null);
+    }
+
+    @Override
+    public Mono<FareResponse> updateF(String id, FareCreateRequest request, Long expectedVersion) {
+        Date now = new Date();
+
+        // 💰 Recalcular monto automático si es MENSUAL
+        // Set fare amount based on current date
+        // Before November 1st: 15 soles, After November 1st: 20 soles
+        java.util.Calendar nov1 = java.util.Calendar.getInstance();
+        nov1.set(2025, java.util.Calendar.NOVEMBER, 1, 0, 0, 0);
+        nov1.set(java.util.Calendar.MILLISECOND, 0);
+        Date novFirst = nov1.getTime();
+
+        BigDecimal fareAmount = "MENSUAL".equalsIgnoreCase(request.getFareType())
+                ? (now.before(novFirst)  // Before November 1st
+                    ? BigDecimal.valueOf(15.00)
+                    : BigDecimal.valueOf(20.00))
+                : request.getFareAmount();
+
+        Fare changes = Fare.builder()
+                .organizationId(request.getOrganizationId())
+                .fareName(request.getFareName())
+                .fareType(request.getFareType())
+                .fareAmount(fareAmount)
+                .build();
+        List<String> fields = new ArrayList<>(UPDATABLE_FIELDS);
+
+        Date effectiveDate = request.getEffectiveDate();
+        if (effectiveDate != null) {
+            changes.setEffectiveDate(effectiveDate);
+            // 🟢 Actualizar estado según la fecha de vigencia
+            changes.setStatus(statusFor(effectiveDate, now));
+            fields.add("effectiveDate");
+            fields.add("status");
+        }
+
+        return versionedUpdates.update(EntityType.FARE, Fare.class, id, expectedVersion, changes, fields)
                 .switchIfEmpty(Mono.error(CustomException.notFound("Fare", id)))
-                .flatMap(existingFare -> {
-                    Date now = new Date();
-                    existingFare.setOrganizationId(request.getOrganizationId());
-                    existingFare.setFareName(request.getFareName());
-                    existingFare.setFareType(request.getFareType());
-                    
-                    // 💰 Recalcular monto automático si es MENSUAL
-                    // Set fare amount based on current date
-                    // Before November 1st: 15 soles, After November 1st: 20 soles
-                    java.util.Calendar nov1 = java.util.Calendar.getInstance();
-                    nov1.set(2025, java.util.Calendar.NOVEMBER, 1, 0, 0, 0);
-                    nov1.set(java.util.Calendar.MILLISECOND, 0);
-                    Date novFirst = nov1.getTime();
-                    
-                    BigDecimal fareAmount = "MENSUAL".equalsIgnoreCase(request.getFareType())
-                            ? (now.before(novFirst)  // Before November 1st
-                                ? BigDecimal.valueOf(15.00)
-                                : BigDecimal.valueOf(20.00))
-                            : request.getFareAmount();
-                    existingFare.setFareAmount(fareAmount);
-
-                    // 📅 Actualizar fecha de vigencia (mantener la anterior si no se envía)
-                    Date effectiveDate = (request.getEffectiveDate() != null)
-                            ? request.getEffectiveDate()
-                            : existingFare.getEffectiveDate();
-                    existingFare.setEffectiveDate(effectiveDate);
-
-                    // 🟢 Actualizar estado según la fecha de vigencia
-                    existingFare.setStatus(now.before(effectiveDate) || now.equals(effectiveDate)
-                            ? Constants.ACTIVE.name()
-                            : Constants.INACTIVE.name());
-
-                    return fareRepository.save(existingFare)
-                        .flatMap(this::handleTimeBasedFareActivation)
-                        .map(this::toResponse);
-                });
+                .flatMap(change -> recomputeStoredStatus(change.getCurrent(), effectiveDate, now)
+                        .flatMap(updated -> {
+                            publishUpdated(updated, change.getPrevious().getOrganizationId(),
+                                    change.getPrevious().getStatus());
+                            return handleTimeBasedFareActivation(updated);
+                        }))
+                .map(this::toResponse);
+    }
+
+    private static String statusFor(Date effectiveDate, Date now) {
+        return now.before(effectiveDate) || now.equals(effectiveDate)
+                ? Constants.ACTIVE.name()
+                : Constants.INACTIVE.name();
+    }
+
+    /**
+     * 📅 Sin fecha de vigencia en la petición, el estado se recalcula con la fecha guardada, como
+     * antes del PUT condicional. Si la tarifa no tiene fecha se conserva su estado.
+     */
+    private Mono<Fare> recomputeStoredStatus(Fare updated, Date requestedDate, Date now) {
+        if (requestedDate != null || updated.getEffectiveDate() == null) {
+            return Mono.just(updated);
+        }
+        String status = statusFor(updated.getEffectiveDate(), now);
+        if (status.equals(updated.getStatus())) {
+            return Mono.just(updated);
+        }
+        return statusTransitions.transition(EntityType.FARE, Fare.class, updated.getId(), status)
+                .map(StatusTransitionRepository.Transition::getDocument)
+                .defaultIfEmpty(updated);
     }
 
     @Override
     public Mono<Void> deleteF(String id) {
         return fareRepository.findById(id)
                 .switchIfEmpty(Mono.error(CustomException.notFound("Fare", id)))
-                .flatMap(fareRepository::delete);
+                .flatMap(fare -> fareRepository.delete(fare)
+                        .doOnSuccess(unused -> eventPublisher.publishEvent(EntityChangedEvent.deleted(
+                                EntityType.FARE, fare.getId(), fare.getOrganizationId(), fare.getStatus(), fare))));
     }
 
     @Override
@@ -205,20 +305,24 @@ public class FareServiceImpl implements FareService {
                 });
     }
 
+    /**
+     * Un solo findAndModify condicionado ({_id, status != newStatus}); el 409 de "ya está en ese
+     * estado" sale de la propia escritura, no de una lectura previa.
+     */
     private Mono<Fare> changeStatus(String id, String newStatus) {
-    return fareRepository.findById(id)
+    return statusTransitions.transition(EntityType.FARE, Fare.class, id, newStatus)
             .switchIfEmpty(Mono.error(CustomException.notFound("Fare", id)))
-            .flatMap(fare -> {
-                // 🟡 Verificar si ya está en ese estado
-                if (newStatus.equalsIgnoreCase(fare.getStatus())) {
+            .flatMap(transition -> {
+                // 🟡 La condición no se cumplió: ya estaba en ese estado
+                if (!transition.isChanged()) {
                     return Mono.error(CustomException.conflict(
                             "La tarifa ya se encuentra en estado " + newStatus
                     ));
                 }
 
-                // ✅ Cambiar estado y guardar
-                fare.setStatus(newStatus);
-                return fareRepository.save(fare);
+                Fare fare = transition.getDocument();
+                publishUpdated(fare, fare.getOrganizationId(), transition.getPreviousStatus());
+                return Mono.just(fare);
             })
             .doOnSuccess(f -> log.info("✅ Estado de tarifa {} actualizado a {}", id, newStatus))
             .doOnError(e -> log.error("❌ Error cambiando estado de tarifa {}: {}", id, e.getMessage(), e))
@@ -231,43 +335,69 @@ public class FareServiceImpl implements FareService {
             });
     }
     
+    /**
+     * Lectura por id a través de la caché de entidades.
+     */
+    private Mono<Fare> findCached(String id) {
+        return entityCache.get(EntityType.FARE, id, () -> fareRepository.findById(id));
+    }
+
+    private void publishUpdated(Fare fare, String previousOrganizationId, String previousStatus) {
+        eventPublisher.publishEvent(EntityChangedEvent.updated(
+                EntityType.FARE, fare.getId(), previousOrganizationId, previousStatus,
+                fare.getOrganizationId(), fare.getStatus(), fare));
+    }
+
     // New methods for enriched fare data
     
     @Override
     public Mono<EnrichedFareResponse> getEnrichedById(String id) {
-        return fareRepository.findById(id)
-                .switchIfEmpty(Mono.error(CustomException.notFound("Fare", id)))
-                .map(this::toEnrichedResponse);
+        return enrichmentLoader.enrichOne(findCached(id)
+                        .switchIfEmpty(Mono.error(CustomException.notFound("Fare", id))),
+                this::enrichmentKeys, this::toEnrichedResponse);
     }
     
     @Override
     public Flux<EnrichedFareResponse> getAllEnriched() {
-        return fareRepository.findAll()
-                .map(this::toEnrichedResponse);
+        return enrich(fareRepository.findAll());
     }
     
     @Override
     public Flux<EnrichedFareResponse> getAllActiveEnriched() {
-        return fareRepository.findAllByStatus(Constants.ACTIVE.name())
-                .map(this::toEnrichedResponse);
+        return enrich(fareRepository.findAllByStatus(Constants.ACTIVE.name()));
     }
     
     @Override
     public Flux<EnrichedFareResponse> getAllInactiveEnriched() {
-        return fareRepository.findAllByStatus(Constants.INACTIVE.name())
-                .map(this::toEnrichedResponse);
+        return enrich(fareRepository.findAllByStatus(Constants.INACTIVE.name()));
     }
     
-    private EnrichedFareResponse toEnrichedResponse(Fare fare) {
+    /**
+     * Respuestas enriquecidas en el mismo orden; las organizaciones se resuelven por lotes.
+     */
+    private Flux<EnrichedFareResponse> enrich(Flux<Fare> fares) {
+        return enrichmentLoader.enrich(fares, this::enrichmentKeys, this::toEnrichedResponse);
+    }
+
+    private EnrichmentBatchLoader.Keys enrichmentKeys(Fare fare) {
+        return EnrichmentBatchLoader.Keys.builder()
+                .organizationId(fare.getOrganizationId())
+                .build();
+    }
+
+    private EnrichedFareResponse toEnrichedResponse(Fare fare, EnrichmentBatchLoader.Resolved resolved) {
         return EnrichedFareResponse.builder()
                 .id(fare.getId())
                 .organizationId(fare.getOrganizationId())
+                .organization(resolved.organization())
                 .fareCode(fare.getFareCode())
                 .fareName(fare.getFareName())
                 .fareType(fare.getFareType())
                 .fareAmount(fare.getFareAmount())
                 .status(fare.getStatus())
                 .createdAt(fare.getCreatedAt())
+                .effectiveDate(fare.getEffectiveDate())
+                .degraded(resolved.degraded())
                 .build();
     }
     
@@ -282,6 +412,8 @@ public class FareServiceImpl implements FareService {
                 .effectiveDate(fare.getEffectiveDate())
                 .status(fare.getStatus())
                 .createdAt(fare.getCreatedAt())
+                .updatedAt(fare.getUpdatedAt())
+                .version(fare.getVersion())
                 .build();
     }
     
@@ -291,18 +423,30 @@ public class FareServiceImpl implements FareService {
      * @return the current active fare
      */
     public Mono<Fare> getCurrentActiveFare(String organizationId) {
-        Date now = new Date();
-        return fareRepository.findAllByStatus(Constants.ACTIVE.name())
-                .filter(fare -> fare.getOrganizationId().equals(organizationId))
-                .filter(fare -> fare.getEffectiveDate() == null || fare.getEffectiveDate().after(now) || fare.getEffectiveDate().equals(now))
-                .sort((f1, f2) -> f2.getEffectiveDate().compareTo(f1.getEffectiveDate()))
-                .next();
+        return fareInForce(organizationId, Instant.now());
+    }
+
+    @Override
+    public Mono<FareResponse> getFareInForce(String organizationId, Instant at) {
+        return fareInForce(organizationId, at != null ? at : Instant.now())
+                .map(this::toResponse)
+                .switchIfEmpty(Mono.error(new CustomException(404, "Fare not found",
+                        "No hay tarifa vigente para la organización " + organizationId)));
     }
     
+    /**
+     * Misma regla con la que FareSchedulerService deja ACTIVE una tarifa: la de mayor effectiveDate
+     * no posterior a {@code at}, en cualquier estado. Mongo solo responde mientras el índice carga.
+     */
+    private Mono<Fare> fareInForce(String organizationId, Instant at) {
+        return fareIndex.isLoaded()
+                ? fareIndex.at(organizationId, at)
+                : fareRepository.findFareInForceAt(organizationId, Date.from(at));
+    }
+
     @Override
     public Flux<Fare> getByOrganizationId(String organizationId) {
-        return fareRepository.findAll()
-                .filter(fare -> fare.getOrganizationId().equals(organizationId));
+        return fareRepository.findByOrganizationId(organizationId);
     }
     
     @Override
@@ -325,15 +469,21 @@ public class FareServiceImpl implements FareService {
         
         // If we're past November 1st, deactivate old fares
         if (now.after(novFirst)) {
-            // Find all active fares with effective date before November 1st
-            fareRepository.findAllByStatus(Constants.ACTIVE.name())
-                .filter(fare -> fare.getEffectiveDate() != null && fare.getEffectiveDate().before(novFirst))
-                .flatMap(fare -> {
-                    // Deactivate old fares
-                    fare.setStatus(Constants.INACTIVE.name());
-                    return fareRepository.save(fare);
-                })
-                .subscribe();
+            // Active fares with effective date before November 1st, filtered in Mongo and
+            // deactivated with a single updateMany
+            fareRepository.findByStatusAndEffectiveDateBefore(Constants.ACTIVE.name(), novFirst)
+                .collectList()
+                .filter(fares -> !fares.isEmpty())
+                .flatMap(fares -> fareRepository.updateStatus(
+                                fares.stream().map(Fare::getId).collect(Collectors.toList()),
+                                Constants.ACTIVE.name(), Constants.INACTIVE.name())
+                        .doOnNext(modified -> fares.forEach(fare -> {
+                            fare.setStatus(Constants.INACTIVE.name());
+                            publishUpdated(fare, fare.getOrganizationId(), Constants.ACTIVE.name());
+                        })))
+                .subscribe(
+                        modified -> log.info("Tarifas anteriores al 1 de noviembre desactivadas: {}", modified),
+                        error -> log.error("Error desactivando tarifas anteriores al 1 de noviembre: ", error));
         }
     }
 }
\ No newline at end of file
@@ -0,0 +1,166 @@
+package pe.edu.vallegrande.msdistribution.application.services.impl;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import pe.edu.vallegrande.msdistribution.domain.enums.Constants;
+import pe.edu.vallegrande.msdistribution.domain.enums.EntityType;
+import pe.edu.vallegrande.msdistribution.domain.events.EntityChangedEvent;
+import pe.edu.vallegrande.msdistribution.domain.models.Fare;
+import pe.edu.vallegrande.msdistribution.infrastructure.repository.FareRepository;
+import reactor.core.Disposable;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.TreeMap;
+
+/**
+ * Cola en memoria de transiciones de tarifas ordenada por effectiveDate. Un único temporizador
+ * se arma para la próxima fecha de vigencia y, al vencer, ejecuta las transiciones en bulk de
+ * {@link FareSchedulerService}; así cada tarifa cambia de estado a su hora y no hay trabajo
+ * cuando nada vence. Se carga con una consulta indexada al arrancar, se mantiene con los
+ * eventos de saveF/updateF/deleteF y se recarga junto con el barrido de respaldo.
+ */
+@Component
+@Slf4j
+@RequiredArgsConstructor
+public class FareTransitionQueue {
+
+    /**
+     * El disparo llega justo después de la fecha de vigencia, para que runTransitions (effectiveDate
+     * no posterior a "ahora") ya cuente la tarifa como en vigor.
+     */
+    private static final Duration FIRE_DELAY = Duration.ofMillis(1);
+
+    private final FareRepository fareRepository;
+    private final FareSchedulerService schedulerService;
+
+    // Protegidos por this
+    private final NavigableMap<Instant, Set<String>> dueTimes = new TreeMap<>();
+    private final Map<String, Instant> dueById = new HashMap<>();
+    private Disposable timer;
+    private Instant armedFor;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void initialize() {
+        scheduledReload();
+    }
+
+    @Scheduled(cron = "${fare.transitions.sweep-cron:0 0 */6 * * ?}")
+    public void scheduledReload() {
+        reload().subscribe(
+                null,
+                error -> log.error("Error cargando la cola de transiciones de tarifas: ", error));
+    }
+
+    public Mono<Void> reload() {
+        return Mono.defer(() -> fareRepository.findByStatusInAndEffectiveDateAfter(
+                        List.of(Constants.ACTIVE.name(), Constants.INACTIVE.name()), new Date())
+                .collectList()
+                .doOnNext(fares -> {
+                    synchronized (this) {
+                        dueTimes.clear();
+                        dueById.clear();
+                        fares.forEach(fare -> add(fare.getId(), fare.getEffectiveDate().toInstant()));
+                        arm();
+                    }
+                    log.info("Cola de transiciones de tarifas cargada: {} pendientes", fares.size());
+                })
+                .then());
+    }
+
+    @EventListener
+    public void onEntityChanged(EntityChangedEvent event) {
+        if (event.getType() != EntityType.FARE) {
+            return;
+        }
+        synchronized (this) {
+            remove(event.getId());
+            if (event.getAction() != EntityChangedEvent.Action.DELETED
+                    && event.getEntity() instanceof Fare fare
+                    && fare.getEffectiveDate() != null
+                    && fare.getEffectiveDate().toInstant().isAfter(Instant.now())) {
+                add(fare.getId(), fare.getEffectiveDate().toInstant());
+            }
+            arm();
+        }
+    }
+
+    /**
+     * Próxima fecha de vigencia pendiente, o null si la cola está vacía.
+     */
+    public synchronized Instant nextDueTime() {
+        return dueTimes.isEmpty() ? null : dueTimes.firstKey();
+    }
+
+    public synchronized int size() {
+        return dueById.size();
+    }
+
+    synchronized void fire() {
+        timer = null;
+        armedFor = null;
+        Instant now = Instant.now();
+        NavigableMap<Instant, Set<String>> due = dueTimes.headMap(now, true);
+        int count = 0;
+        for (Set<String> ids : due.values()) {
+            ids.forEach(dueById::remove);
+            count += ids.size();
+        }
+        due.clear();
+        if (count > 0) {
+            log.info("Ejecutando transiciones de tarifas: {} con vigencia vencida", count);
+            schedulerService.runTransitions(Date.from(now)).subscribe(
+                    null,
+                    error -> log.error("Error ejecutando transiciones de tarifas: ", error));
+        }
+        arm();
+    }
+
+    private void add(String id, Instant due) {
+        dueById.put(id, due);
+        dueTimes.computeIfAbsent(due, k -> new HashSet<>()).add(id);
+    }
+
+    private void remove(String id) {
+        Instant due = dueById.remove(id);
+        if (due != null) {
+            Set<String> ids = dueTimes.get(due);
+            ids.remove(id);
+            if (ids.isEmpty()) {
+                dueTimes.remove(due);
+            }
+        }
+    }
+
+    /**
+     * Reprograma el temporizador solo si cambió la próxima fecha pendiente.
+     */
+    private void arm() {
+        Instant next = dueTimes.isEmpty() ? null : dueTimes.firstKey();
+        if (next != null && next.equals(armedFor)) {
+            return;
+        }
+        if (timer != null) {
+            timer.dispose();
+            timer = null;
+        }
+        armedFor = next;
+        if (next != null) {
+            Duration delay = Duration.between(Instant.now(), next).plus(FIRE_DELAY);
+            timer = Mono.delay(delay.isNegative() ? Duration.ZERO : delay)
+                    .subscribe(tick -> fire());
+        }
+    }
+}
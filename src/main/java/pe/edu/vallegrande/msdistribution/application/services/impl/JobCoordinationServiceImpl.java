@@ -0,0 +1,177 @@
+package pe.edu.vallegrande.msdistribution.application.services.impl;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.ContextClosedEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.util.StringUtils;
+import pe.edu.vallegrande.msdistribution.application.services.JobCoordinationService;
+import pe.edu.vallegrande.msdistribution.domain.models.JobAssignment;
+import pe.edu.vallegrande.msdistribution.domain.models.Lease;
+import pe.edu.vallegrande.msdistribution.domain.models.SchedulerMember;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.net.InetAddress;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+
+/**
+ * Leases en {@code scheduler_leases} tomados con findAndModify: se renuevan si ya son de esta
+ * réplica, se toman (incrementando el fencing token) si vencieron o no existen, y un upsert que
+ * choca por _id indica que otra réplica los tiene. Un latido en {@code scheduler_members} define
+ * las réplicas vivas para particionar el trabajo por organización.
+ */
+@Service
+@Slf4j
+public class JobCoordinationServiceImpl implements JobCoordinationService {
+
+    private final ReactiveMongoTemplate mongoTemplate;
+    private final String instanceId;
+    private final Duration leaseTtl;
+    private final boolean shardingEnabled;
+
+    /** Leases que esta réplica tiene y renueva en cada latido. */
+    private final Map<String, Lease> held = new ConcurrentHashMap<>();
+
+    public JobCoordinationServiceImpl(ReactiveMongoTemplate mongoTemplate,
+                                      @Value("${scheduler.instance-id:}") String instanceId,
+                                      @Value("${scheduler.lease.ttl-ms:30000}") long leaseTtlMillis,
+                                      @Value("${scheduler.sharding.enabled:false}") boolean shardingEnabled) {
+        this.mongoTemplate = mongoTemplate;
+        this.instanceId = StringUtils.hasText(instanceId) ? instanceId : defaultInstanceId();
+        this.leaseTtl = Duration.ofMillis(leaseTtlMillis);
+        this.shardingEnabled = shardingEnabled;
+    }
+
+    public String getInstanceId() {
+        return instanceId;
+    }
+
+    @Override
+    public Mono<Lease> acquire(String job) {
+        return Mono.defer(() -> {
+            Instant now = Instant.now();
+            Instant expiresAt = now.plus(leaseTtl);
+
+            Query mine = Query.query(Criteria.where("_id").is(job).and("owner").is(instanceId));
+            Query expired = Query.query(Criteria.where("_id").is(job).and("expiresAt").lt(now));
+            Update renew = new Update().set("expiresAt", expiresAt);
+            Update takeOver = new Update()
+                    .set("owner", instanceId)
+                    .set("expiresAt", expiresAt)
+                    .inc("token", 1);
+
+            return mongoTemplate.findAndModify(mine, renew, FindAndModifyOptions.options().returnNew(true), Lease.class)
+                    .switchIfEmpty(Mono.defer(() -> mongoTemplate.findAndModify(expired, takeOver,
+                                    FindAndModifyOptions.options().returnNew(true).upsert(true), Lease.class)
+                            .doOnNext(lease -> log.info("Lease '{}' tomado por {} (token {})",
+                                    job, instanceId, lease.getToken()))))
+                    // el lease existe y está vigente para otra réplica
+                    .onErrorResume(DuplicateKeyException.class, e -> Mono.empty())
+                    .doOnNext(lease -> held.put(job, lease))
+                    .switchIfEmpty(Mono.fromRunnable(() -> held.remove(job)));
+        });
+    }
+
+    @Override
+    public Mono<Boolean> isCurrent(Lease lease) {
+        Query query = Query.query(Criteria.where("_id").is(lease.getId())
+                .and("owner").is(instanceId)
+                .and("token").is(lease.getToken())
+                .and("expiresAt").gt(Instant.now()));
+        return mongoTemplate.exists(query, Lease.class);
+    }
+
+    @Override
+    public Mono<JobAssignment> assignment(String job) {
+        if (!shardingEnabled) {
+            return acquire(job).map(lease -> JobAssignment.leader(job, lease));
+        }
+        return liveMembers()
+                .map(members -> {
+                    int index = members.indexOf(instanceId);
+                    // aún sin latido registrado: se toma como única réplica hasta el próximo ciclo
+                    return index < 0
+                            ? JobAssignment.shard(job, 0, 1)
+                            : JobAssignment.shard(job, index, members.size());
+                });
+    }
+
+    @Override
+    public Mono<Boolean> isCurrent(JobAssignment assignment) {
+        return assignment.getLease() == null ? Mono.just(true) : isCurrent(assignment.getLease());
+    }
+
+    @Override
+    public Mono<Void> release(String job) {
+        held.remove(job);
+        return mongoTemplate.remove(Query.query(Criteria.where("_id").is(job).and("owner").is(instanceId)), Lease.class)
+                .then();
+    }
+
+    /**
+     * Réplicas con latido dentro del TTL, ordenadas por id para que todas calculen el mismo reparto.
+     */
+    Mono<List<String>> liveMembers() {
+        Query query = Query.query(Criteria.where("heartbeatAt").gt(Instant.now().minus(leaseTtl)))
+                .with(Sort.by("_id"));
+        return mongoTemplate.find(query, SchedulerMember.class)
+                .map(SchedulerMember::getId)
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Latido: registra la réplica, renueva los leases que tiene y limpia miembros caídos.
+     */
+    @Scheduled(fixedDelayString = "${scheduler.lease.renew-interval-ms:10000}")
+    public void heartbeat() {
+        Instant now = Instant.now();
+        Mono<Void> beat = mongoTemplate.upsert(Query.query(Criteria.where("_id").is(instanceId)),
+                        new Update().set("heartbeatAt", now), SchedulerMember.class)
+                .then(mongoTemplate.remove(Query.query(Criteria.where("heartbeatAt").lt(now.minus(leaseTtl.multipliedBy(10)))),
+                        SchedulerMember.class))
+                .then();
+        Mono<Void> renew = Flux.fromIterable(List.copyOf(held.keySet()))
+                .concatMap(job -> acquire(job)
+                        .switchIfEmpty(Mono.fromRunnable(() -> log.warn("Lease '{}' perdido por {}", job, instanceId))))
+                .then();
+
+        beat.then(renew).subscribe(
+                null,
+                error -> log.warn("Error en el latido del coordinador de jobs: {}", error.getMessage()));
+    }
+
+    @EventListener(ContextClosedEvent.class)
+    public void shutdown() {
+        Flux.fromIterable(List.copyOf(held.keySet()))
+                .concatMap(this::release)
+                .then(mongoTemplate.remove(Query.query(Criteria.where("_id").is(instanceId)), SchedulerMember.class))
+                .onErrorResume(error -> Mono.empty())
+                .block(Duration.ofSeconds(2));
+    }
+
+    private static String defaultInstanceId() {
+        String host;
+        try {
+            host = InetAddress.getLocalHost().getHostName();
+        } catch (Exception e) {
+            host = "instance";
+        }
+        return host + "-" + UUID.randomUUID().toString().substring(0, 8);
+    }
+}
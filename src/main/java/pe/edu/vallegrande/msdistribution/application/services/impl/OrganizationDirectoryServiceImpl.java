@@ -0,0 +1,380 @@
+package pe.edu.vallegrande.msdistribution.application.services.impl;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.FindAndReplaceOptions;
+import org.springframework.data.mongodb.core.ReactiveBulkOperations;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import pe.edu.vallegrande.msdistribution.application.services.JobCoordinationService;
+import pe.edu.vallegrande.msdistribution.application.services.OrganizationDirectoryService;
+import pe.edu.vallegrande.msdistribution.domain.enums.Constants;
+import pe.edu.vallegrande.msdistribution.domain.models.DistributionProgram;
+import pe.edu.vallegrande.msdistribution.domain.models.DistributionRoute;
+import pe.edu.vallegrande.msdistribution.domain.models.DistributionSchedule;
+import pe.edu.vallegrande.msdistribution.domain.models.Lease;
+import pe.edu.vallegrande.msdistribution.domain.models.Organization;
+import pe.edu.vallegrande.msdistribution.domain.models.Street;
+import pe.edu.vallegrande.msdistribution.domain.models.Zone;
+import pe.edu.vallegrande.msdistribution.infrastructure.client.ExternalReferenceMapper;
+import pe.edu.vallegrande.msdistribution.infrastructure.client.dto.ExternalUser;
+import pe.edu.vallegrande.msdistribution.infrastructure.exception.CustomException;
+import pe.edu.vallegrande.msdistribution.infrastructure.service.ExternalServiceClient;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.BiConsumer;
+import java.util.function.BinaryOperator;
+import java.util.function.Function;
+
+/**
+ * Las tres colecciones se cargan completas en memoria al arrancar y se releen en cada ciclo de
+ * sincronización. Se alimentan de dos fuentes:
+ * - los objetos embebidos en los usuarios de ms-users (la réplica de usuarios los entrega en
+ *   cada sincronización); son los únicos que traen la relación zona → organización y
+ *   calle → zona;
+ * - la sincronización periódica (solo el líder), que consulta en paralelo las referencias usadas
+ *   por programas, rutas y horarios que faltan o superan {@code max-age}.
+ * Cada escritura es un bulk de reemplazos con upsert y solo incluye lo que cambió.
+ */
+@Service
+@Slf4j
+public class OrganizationDirectoryServiceImpl implements OrganizationDirectoryService {
+
+    static final String JOB_DIRECTORY_SYNC = "organization-directory-sync";
+
+    private final ExternalServiceClient externalServiceClient;
+    private final ReactiveMongoTemplate mongoTemplate;
+    private final JobCoordinationService coordination;
+    private final boolean strict;
+    private final Duration maxAge;
+    private final int concurrency;
+
+    private static final Kind<Organization> ORGANIZATIONS = new Kind<>(Organization.class, Organization::getId,
+            Organization::getSyncedAt, Organization::setSyncedAt, (current, next) -> next);
+    // La consulta directa de zonas y calles no trae su organización / zona: se conserva la conocida
+    private static final Kind<Zone> ZONES = new Kind<>(Zone.class, Zone::getId, Zone::getSyncedAt, Zone::setSyncedAt,
+            (current, next) -> {
+                if (next.getOrganizationId() == null) {
+                    next.setOrganizationId(current.getOrganizationId());
+                }
+                return next;
+            });
+    private static final Kind<Street> STREETS = new Kind<>(Street.class, Street::getId, Street::getSyncedAt,
+            Street::setSyncedAt, (current, next) -> {
+                if (next.getOrganizationId() == null) {
+                    next.setOrganizationId(current.getOrganizationId());
+                }
+                if (next.getZoneId() == null) {
+                    next.setZoneId(current.getZoneId());
+                }
+                return next;
+            });
+
+    private final Map<String, Organization> organizations = new ConcurrentHashMap<>();
+    private final Map<String, Zone> zones = new ConcurrentHashMap<>();
+    private final Map<String, Street> streets = new ConcurrentHashMap<>();
+    private volatile boolean loaded;
+
+    public OrganizationDirectoryServiceImpl(ExternalServiceClient externalServiceClient,
+                                            ReactiveMongoTemplate mongoTemplate,
+                                            JobCoordinationService coordination,
+                                            @Value("${organization-directory.validation.strict:false}") boolean strict,
+                                            @Value("${organization-directory.max-age-ms:86400000}") long maxAgeMillis,
+                                            @Value("${organization-directory.concurrency:4}") int concurrency) {
+        this.externalServiceClient = externalServiceClient;
+        this.mongoTemplate = mongoTemplate;
+        this.coordination = coordination;
+        this.strict = strict;
+        this.maxAge = Duration.ofMillis(maxAgeMillis);
+        this.concurrency = concurrency;
+    }
+
+    @Override
+    public Optional<Organization> organization(String id) {
+        return id == null ? Optional.empty() : Optional.ofNullable(organizations.get(id));
+    }
+
+    @Override
+    public Optional<Zone> zone(String id) {
+        return id == null ? Optional.empty() : Optional.ofNullable(zones.get(id));
+    }
+
+    @Override
+    public Optional<Street> street(String id) {
+        return id == null ? Optional.empty() : Optional.ofNullable(streets.get(id));
+    }
+
+    @Override
+    public boolean isLoaded() {
+        return loaded;
+    }
+
+    @Override
+    public void validate(String organizationId, Collection<String> zoneIds, String streetId) {
+        if (!loaded) {
+            return;
+        }
+        if (organizationId != null) {
+            Organization organization = organizations.get(organizationId);
+            if (organization == null) {
+                rejectUnknown("Organización", organizationId);
+            } else if (isInactive(organization.getStatus())) {
+                throw CustomException.badRequest("Organización inactiva",
+                        "La organización " + organizationId + " está inactiva");
+            }
+        }
+        Set<String> givenZones = new LinkedHashSet<>(zoneIds);
+        givenZones.remove(null);
+        for (String zoneId : givenZones) {
+            Zone zone = zones.get(zoneId);
+            if (zone == null) {
+                rejectUnknown("Zona", zoneId);
+                continue;
+            }
+            if (isInactive(zone.getStatus())) {
+                throw CustomException.badRequest("Zona inactiva", "La zona " + zoneId + " está inactiva");
+            }
+            if (differs(zone.getOrganizationId(), organizationId)) {
+                throw CustomException.badRequest("Zona inválida",
+                        "La zona " + zoneId + " no pertenece a la organización " + organizationId);
+            }
+        }
+        if (streetId != null) {
+            Street street = streets.get(streetId);
+            if (street == null) {
+                rejectUnknown("Calle", streetId);
+                return;
+            }
+            if (isInactive(street.getStatus())) {
+                throw CustomException.badRequest("Calle inactiva", "La calle " + streetId + " está inactiva");
+            }
+            if (differs(street.getOrganizationId(), organizationId)
+                    || street.getZoneId() != null && !givenZones.isEmpty() && !givenZones.contains(street.getZoneId())) {
+                throw CustomException.badRequest("Calle inválida",
+                        "La calle " + streetId + " no pertenece a la zona u organización indicada");
+            }
+        }
+    }
+
+    @Override
+    public Mono<Void> collect(Collection<ExternalUser> users) {
+        return Mono.defer(() -> {
+            Instant now = Instant.now();
+            Map<String, Organization> newOrganizations = new LinkedHashMap<>();
+            Map<String, Zone> newZones = new LinkedHashMap<>();
+            Map<String, Street> newStreets = new LinkedHashMap<>();
+            for (ExternalUser user : users) {
+                String organizationId = user.getOrganization() != null ? user.getOrganization().getOrganizationId() : null;
+                String zoneId = user.getZone() != null ? user.getZone().getZoneId() : null;
+                if (organizationId != null) {
+                    newOrganizations.put(organizationId, ExternalReferenceMapper.toOrganization(user.getOrganization(), now));
+                }
+                if (zoneId != null) {
+                    newZones.put(zoneId, ExternalReferenceMapper.toZone(user.getZone(), organizationId, now));
+                }
+                if (user.getStreet() != null && user.getStreet().getStreetId() != null) {
+                    newStreets.put(user.getStreet().getStreetId(),
+                            ExternalReferenceMapper.toStreet(user.getStreet(), organizationId, zoneId, now));
+                }
+            }
+            return Mono.when(
+                    store(ORGANIZATIONS, newOrganizations.values(), organizations, false),
+                    store(ZONES, newZones.values(), zones, false),
+                    store(STREETS, newStreets.values(), streets, false));
+        });
+    }
+
+    @Scheduled(initialDelayString = "${organization-directory.initial-delay-ms:60000}",
+            fixedDelayString = "${organization-directory.sync-interval-ms:600000}")
+    public void scheduledSync() {
+        coordination.acquire(JOB_DIRECTORY_SYNC)
+                .flatMap(lease -> fenced(lease).flatMap(current -> current ? sync() : Mono.empty()))
+                .then(Mono.defer(this::reload))
+                .subscribe(
+                        null,
+                        error -> log.error("Error sincronizando el directorio de organizaciones: ", error));
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void loadOnStartup() {
+        reload().subscribe(
+                null,
+                error -> log.error("No se pudo cargar el directorio de organizaciones: ", error));
+    }
+
+    @Override
+    public Mono<Void> reload() {
+        return Mono.when(
+                        load(ORGANIZATIONS, organizations),
+                        load(ZONES, zones),
+                        load(STREETS, streets))
+                .doOnSuccess(unused -> {
+                    loaded = true;
+                    log.info("Directorio de organizaciones cargado: {} organizaciones, {} zonas, {} calles",
+                            organizations.size(), zones.size(), streets.size());
+                });
+    }
+
+    @Override
+    public Mono<Void> sync() {
+        Instant now = Instant.now();
+        Instant staleBefore = now.minus(maxAge);
+        Mono<Void> organizationSync = referenced("organizationId", DistributionProgram.class, DistributionRoute.class,
+                DistributionSchedule.class)
+                .flatMap(ids -> refresh(ORGANIZATIONS, ids, organizations, staleBefore,
+                        id -> externalServiceClient.getOrganizationById(id)
+                                .map(found -> ExternalReferenceMapper.toOrganization(found, now))));
+        Mono<Void> zoneSync = Flux.merge(
+                        referenced("zoneId", DistributionProgram.class, DistributionSchedule.class),
+                        referenced("zones.zoneId", DistributionRoute.class))
+                .collect(LinkedHashSet<String>::new, Set::addAll)
+                .flatMap(ids -> refresh(ZONES, ids, zones, staleBefore,
+                        id -> externalServiceClient.getZoneById(id)
+                                .map(found -> ExternalReferenceMapper.toZone(found, null, now))));
+        Mono<Void> streetSync = referenced("streetId", DistributionProgram.class, DistributionSchedule.class)
+                .flatMap(ids -> refresh(STREETS, ids, streets, staleBefore,
+                        id -> externalServiceClient.getStreetById(id)
+                                .map(found -> ExternalReferenceMapper.toStreet(found, null, null, now))));
+        return Mono.when(organizationSync, zoneSync, streetSync);
+    }
+
+    /**
+     * Consulta las referencias que faltan o están vencidas; una consulta sin respuesta deja la
+     * copia anterior.
+     */
+    private <T> Mono<Void> refresh(Kind<T> kind, Set<String> ids, Map<String, T> memory, Instant staleBefore,
+                                   Function<String, Mono<T>> fetch) {
+        List<String> due = new ArrayList<>();
+        for (String id : ids) {
+            T current = memory.get(id);
+            Instant syncedAt = current != null ? kind.syncedAtOf.apply(current) : null;
+            if (syncedAt == null || syncedAt.isBefore(staleBefore)) {
+                due.add(id);
+            }
+        }
+        if (due.isEmpty()) {
+            return Mono.empty();
+        }
+        return Flux.fromIterable(due)
+                .flatMap(fetch, concurrency)
+                .collectList()
+                .flatMap(fetched -> store(kind, fetched, memory, true))
+                .doOnSuccess(unused -> log.debug("Directorio: {} {} consultadas", due.size(), kind.type.getSimpleName()));
+    }
+
+    /**
+     * Aplica los valores en memoria y los escribe en un bulk. Con {@code touch} en false solo se
+     * escriben los que cambiaron (sin contar syncedAt).
+     */
+    private <T> Mono<Void> store(Kind<T> kind, Collection<T> values, Map<String, T> memory, boolean touch) {
+        List<T> changed = new ArrayList<>();
+        for (T value : values) {
+            String id = kind.idOf.apply(value);
+            T current = memory.get(id);
+            T merged = current != null ? kind.merge.apply(current, value) : value;
+            if (touch || current == null || !kind.sameContent(current, merged)) {
+                changed.add(merged);
+                memory.put(id, merged);
+            }
+        }
+        if (changed.isEmpty()) {
+            return Mono.empty();
+        }
+        return Mono.defer(() -> {
+            ReactiveBulkOperations bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, kind.type);
+            changed.forEach(value -> bulk.replaceOne(Query.query(Criteria.where("_id").is(kind.idOf.apply(value))), value,
+                    FindAndReplaceOptions.options().upsert()));
+            return bulk.execute().then();
+        });
+    }
+
+    private <T> Mono<Void> load(Kind<T> kind, Map<String, T> memory) {
+        return mongoTemplate.findAll(kind.type)
+                .collectMap(kind.idOf)
+                .doOnNext(all -> {
+                    memory.keySet().retainAll(all.keySet());
+                    memory.putAll(all);
+                })
+                .then();
+    }
+
+    private Mono<Set<String>> referenced(String field, Class<?>... collections) {
+        return Flux.fromArray(collections)
+                .flatMap(type -> mongoTemplate.findDistinct(new Query(), field, type, String.class))
+                .filter(Objects::nonNull)
+                .collect(LinkedHashSet::new, Set::add);
+    }
+
+    private Mono<Boolean> fenced(Lease lease) {
+        return coordination.isCurrent(lease)
+                .doOnNext(current -> {
+                    if (!current) {
+                        log.warn("Lease '{}' ya no es vigente en esta réplica; se omite la sincronización", lease.getId());
+                    }
+                });
+    }
+
+    private void rejectUnknown(String entity, String id) {
+        if (strict) {
+            throw CustomException.badRequest(entity + " no encontrada", "No se encontró " + entity.toLowerCase() + " con id: " + id);
+        }
+        log.debug("{} {} aún no está en el directorio local; se acepta", entity, id);
+    }
+
+    private static boolean isInactive(String status) {
+        return Constants.INACTIVE.name().equalsIgnoreCase(status);
+    }
+
+    private static boolean differs(String known, String given) {
+        return known != null && given != null && !known.equals(given);
+    }
+
+    /**
+     * Tipo de referencia: clase persistida, acceso a id / syncedAt y cómo combinar la copia
+     * conocida con la recibida.
+     */
+    private static final class Kind<T> {
+
+        private final Class<T> type;
+        private final Function<T, String> idOf;
+        private final Function<T, Instant> syncedAtOf;
+        private final BiConsumer<T, Instant> setSyncedAt;
+        private final BinaryOperator<T> merge;
+
+        Kind(Class<T> type, Function<T, String> idOf, Function<T, Instant> syncedAtOf,
+             BiConsumer<T, Instant> setSyncedAt, BinaryOperator<T> merge) {
+            this.type = type;
+            this.idOf = idOf;
+            this.syncedAtOf = syncedAtOf;
+            this.setSyncedAt = setSyncedAt;
+            this.merge = merge;
+        }
+
+        boolean sameContent(T current, T merged) {
+            Instant syncedAt = syncedAtOf.apply(merged);
+            setSyncedAt.accept(merged, syncedAtOf.apply(current));
+            boolean same = current.equals(merged);
+            setSyncedAt.accept(merged, syncedAt);
+            return same;
+        }
+    }
+}
@@ -0,0 +1,265 @@
+package pe.edu.vallegrande.msdistribution.application.services.impl;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import pe.edu.vallegrande.msdistribution.application.services.ReferenceDataSnapshotService;
+import pe.edu.vallegrande.msdistribution.domain.enums.Constants;
+import pe.edu.vallegrande.msdistribution.domain.enums.EntityType;
+import pe.edu.vallegrande.msdistribution.domain.events.CacheInvalidationEvent;
+import pe.edu.vallegrande.msdistribution.domain.events.EntityChangedEvent;
+import pe.edu.vallegrande.msdistribution.domain.models.DistributionRoute;
+import pe.edu.vallegrande.msdistribution.domain.models.DistributionSchedule;
+import pe.edu.vallegrande.msdistribution.infrastructure.repository.DistributionRouteRepository;
+import pe.edu.vallegrande.msdistribution.infrastructure.repository.DistributionScheduleRepository;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Rutas y horarios ACTIVE agrupados por organización. Cada organización es un mapa inmutable que
+ * se copia y reemplaza en cada escritura (copy-on-write), así los lectores recorren siempre una
+ * versión completa sin bloqueo. Se carga al arrancar y se mantiene con los
+ * {@link EntityChangedEvent} locales y los {@link CacheInvalidationEvent} de otras réplicas.
+ */
+@Service
+@Slf4j
+public class ReferenceDataSnapshotServiceImpl implements ReferenceDataSnapshotService {
+
+    private final DistributionRouteRepository routeRepository;
+    private final DistributionScheduleRepository scheduleRepository;
+
+    private final Snapshot<DistributionRoute> routes;
+    private final Snapshot<DistributionSchedule> schedules;
+
+    public ReferenceDataSnapshotServiceImpl(DistributionRouteRepository routeRepository,
+                                            DistributionScheduleRepository scheduleRepository) {
+        this.routeRepository = routeRepository;
+        this.scheduleRepository = scheduleRepository;
+        this.routes = new Snapshot<>(DistributionRoute.class, DistributionRoute::getId,
+                DistributionRoute::getOrganizationId, DistributionRoute::getStatus);
+        this.schedules = new Snapshot<>(DistributionSchedule.class, DistributionSchedule::getId,
+                DistributionSchedule::getOrganizationId, DistributionSchedule::getStatus);
+    }
+
+    @Override
+    public Flux<DistributionRoute> activeRoutes(String organizationId) {
+        return Flux.fromIterable(routes.active(organizationId));
+    }
+
+    @Override
+    public Flux<DistributionSchedule> activeSchedules(String organizationId) {
+        return Flux.fromIterable(schedules.active(organizationId));
+    }
+
+    @Override
+    public boolean isLoaded() {
+        return routes.loaded && schedules.loaded;
+    }
+
+    @EventListener
+    public void onEntityChanged(EntityChangedEvent event) {
+        if (event.getType() == EntityType.ROUTE) {
+            routes.onChange(event);
+        } else if (event.getType() == EntityType.SCHEDULE) {
+            schedules.onChange(event);
+        }
+    }
+
+    /**
+     * Cambios hechos fuera de esta réplica: se relee el documento (o todo el tipo si se invalidó
+     * completo) y se aplica como un cambio local más.
+     */
+    @EventListener
+    public void onInvalidation(CacheInvalidationEvent event) {
+        if (event.covers(EntityType.ROUTE)) {
+            refresh(routes, EntityType.ROUTE, event, routeRepository::findById,
+                    () -> routeRepository.findAllByStatus(Constants.ACTIVE.name()));
+        }
+        if (event.covers(EntityType.SCHEDULE)) {
+            refresh(schedules, EntityType.SCHEDULE, event, scheduleRepository::findById,
+                    () -> scheduleRepository.findAllByStatus(Constants.ACTIVE.name()));
+        }
+    }
+
+    @Override
+    public Mono<Void> reload() {
+        return routes.reload(routeRepository.findAllByStatus(Constants.ACTIVE.name()))
+                .then(schedules.reload(scheduleRepository.findAllByStatus(Constants.ACTIVE.name())))
+                .doOnSuccess(unused -> log.info("Instantánea de referencia cargada: {} rutas y {} horarios activos",
+                        routes.size(), schedules.size()));
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void initialize() {
+        scheduledReload();
+    }
+
+    @Scheduled(cron = "${cache.reference-data.reload-cron:0 45 3 * * ?}")
+    public void scheduledReload() {
+        reload().subscribe(
+                null,
+                error -> log.error("Error cargando la instantánea de rutas y horarios: ", error));
+    }
+
+    private <T> void refresh(Snapshot<T> snapshot, EntityType type, CacheInvalidationEvent event,
+                             Function<String, Mono<T>> finder, Supplier<Flux<T>> loadAll) {
+        if (event.isFlush()) {
+            snapshot.reload(loadAll.get()).subscribe(
+                    null,
+                    error -> log.warn("No se pudo recargar la instantánea de {}: {}", type, error.getMessage()));
+            return;
+        }
+        String id = event.getId();
+        finder.apply(id)
+                .map(Optional::of)
+                .defaultIfEmpty(Optional.empty())
+                .subscribe(
+                        entity -> snapshot.refresh(type, id, entity.orElse(null)),
+                        error -> log.warn("No se pudo refrescar {} {} en la instantánea: {}", type, id, error.getMessage()));
+    }
+
+    /**
+     * Documentos ACTIVE de un tipo por organización. Las escrituras se serializan con el monitor
+     * del propio snapshot; las lecturas solo leen referencias volátiles / concurrentes.
+     */
+    static final class Snapshot<T> {
+
+        private final Class<T> entityClass;
+        private final Function<T, String> idOf;
+        private final Function<T, String> organizationOf;
+        private final Function<T, String> statusOf;
+
+        private volatile Map<String, Map<String, T>> byOrganization = new ConcurrentHashMap<>();
+        private volatile boolean loaded;
+
+        /**
+         * Un búfer por recarga en curso con los cambios recibidos desde que empezó; cada recarga los
+         * reaplica sobre su carga antes de publicarla. Las recargas pueden solaparse, por eso
+         * ninguna comparte búfer con otra. Protegido por this.
+         */
+        private final List<List<EntityChangedEvent>> pending = new ArrayList<>();
+
+        Snapshot(Class<T> entityClass, Function<T, String> idOf,
+                 Function<T, String> organizationOf, Function<T, String> statusOf) {
+            this.entityClass = entityClass;
+            this.idOf = idOf;
+            this.organizationOf = organizationOf;
+            this.statusOf = statusOf;
+        }
+
+        Collection<T> active(String organizationId) {
+            Map<String, Map<String, T>> current = byOrganization;
+            if (organizationId != null) {
+                // mapa inmutable: se entrega tal cual, sin copiar
+                Map<String, T> byId = current.get(organizationId);
+                return byId == null ? Collections.emptyList() : byId.values();
+            }
+            List<T> all = new ArrayList<>();
+            current.values().forEach(byId -> all.addAll(byId.values()));
+            return all;
+        }
+
+        int size() {
+            return byOrganization.values().stream().mapToInt(Map::size).sum();
+        }
+
+        synchronized void onChange(EntityChangedEvent event) {
+            apply(byOrganization, event);
+            pending.forEach(buffer -> buffer.add(event));
+        }
+
+        synchronized void refresh(EntityType type, String id, T entity) {
+            String indexedIn = byOrganization.entrySet().stream()
+                    .filter(entry -> entry.getValue().containsKey(id))
+                    .map(Map.Entry::getKey)
+                    .findFirst()
+                    .orElse(null);
+            onChange(entity != null
+                    ? EntityChangedEvent.updated(type, id, indexedIn, null,
+                            organizationOf.apply(entity), statusOf.apply(entity), entity)
+                    : EntityChangedEvent.deleted(type, id, indexedIn, null, null));
+        }
+
+        Mono<Void> reload(Flux<T> activeDocuments) {
+            return Mono.defer(() -> {
+                List<EntityChangedEvent> buffer = new ArrayList<>();
+                synchronized (this) {
+                    pending.add(buffer);
+                }
+                return activeDocuments.collectList()
+                        .doOnNext(documents -> {
+                            Map<String, Map<String, T>> rebuilt = build(documents);
+                            synchronized (this) {
+                                buffer.forEach(event -> apply(rebuilt, event));
+                                byOrganization = rebuilt;
+                                loaded = true;
+                            }
+                        })
+                        .doFinally(signal -> {
+                            synchronized (this) {
+                                // por identidad: dos búferes vacíos son equals()
+                                pending.removeIf(registered -> registered == buffer);
+                            }
+                        })
+                        .then();
+            });
+        }
+
+        private Map<String, Map<String, T>> build(List<T> documents) {
+            Map<String, Map<String, T>> grouped = new LinkedHashMap<>();
+            for (T document : documents) {
+                if (organizationOf.apply(document) != null && idOf.apply(document) != null) {
+                    grouped.computeIfAbsent(organizationOf.apply(document), k -> new LinkedHashMap<>())
+                            .put(idOf.apply(document), document);
+                }
+            }
+            Map<String, Map<String, T>> rebuilt = new ConcurrentHashMap<>();
+            grouped.forEach((organizationId, byId) -> rebuilt.put(organizationId, Collections.unmodifiableMap(byId)));
+            return rebuilt;
+        }
+
+        /**
+         * Quita el documento de su organización anterior y actual y, si sigue ACTIVE, lo vuelve a agregar.
+         */
+        private void apply(Map<String, Map<String, T>> target, EntityChangedEvent event) {
+            String id = event.getId();
+            for (String organizationId : new String[] { event.getPreviousOrganizationId(), event.getOrganizationId() }) {
+                if (organizationId != null) {
+                    target.computeIfPresent(organizationId, (k, byId) -> {
+                        if (!byId.containsKey(id)) {
+                            return byId;
+                        }
+                        Map<String, T> copy = new LinkedHashMap<>(byId);
+                        copy.remove(id);
+                        return copy.isEmpty() ? null : Collections.unmodifiableMap(copy);
+                    });
+                }
+            }
+            if (event.getAction() != EntityChangedEvent.Action.DELETED
+                    && entityClass.isInstance(event.getEntity())) {
+                T entity = entityClass.cast(event.getEntity());
+                String organizationId = organizationOf.apply(entity);
+                if (Constants.ACTIVE.name().equals(statusOf.apply(entity)) && organizationId != null) {
+                    target.merge(organizationId, Collections.singletonMap(id, entity), (byId, ignored) -> {
+                        Map<String, T> copy = new LinkedHashMap<>(byId);
+                        copy.put(id, entity);
+                        return Collections.unmodifiableMap(copy);
+                    });
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,171 @@
+package pe.edu.vallegrande.msdistribution.application.services.impl;
+
+import lombok.extern.slf4j.Slf4j;
+import org.bson.Document;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Service;
+import pe.edu.vallegrande.msdistribution.application.services.SequenceService;
+import pe.edu.vallegrande.msdistribution.domain.enums.SequenceType;
+import pe.edu.vallegrande.msdistribution.domain.models.Sequence;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Generador de códigos basado en la colección {@code counters}.
+ *
+ * Cada nodo reserva bloques de {@code sequence.block-size} números con un único
+ * findAndModify + $inc y los entrega desde memoria, por lo que la mayoría de los códigos
+ * no requieren ningún round trip a Mongo. Los números de un bloque no usado se pierden al
+ * reiniciar el nodo (puede haber saltos en la numeración, nunca duplicados).
+ *
+ * Los duplicados los rechaza el índice único del código; si un alta individual choca con uno
+ * (contador por detrás de datos escritos por otra vía), {@link #reseed} descarta el bloque y el
+ * alta se reintenta con un código nuevo tras reinicializar el contador con $max.
+ */
+@Service
+@Slf4j
+public class SequenceServiceImpl implements SequenceService {
+
+    private static final String SEQ_FIELD = "seq";
+
+    private final ReactiveMongoTemplate mongoTemplate;
+    private final int blockSize;
+    private final boolean perOrganization;
+
+    private final ConcurrentMap<String, Block> blocks = new ConcurrentHashMap<>();
+    private final Set<String> seededKeys = ConcurrentHashMap.newKeySet();
+
+    public SequenceServiceImpl(ReactiveMongoTemplate mongoTemplate,
+                               @Value("${sequence.block-size:10}") int blockSize,
+                               @Value("${sequence.per-organization:false}") boolean perOrganization) {
+        this.mongoTemplate = mongoTemplate;
+        this.blockSize = Math.max(1, blockSize);
+        this.perOrganization = perOrganization;
+    }
+
+    @Override
+    public Mono<String> nextCode(SequenceType type, String organizationId) {
+        String key = counterKey(type, organizationId);
+        return nextValue(type, key, organizationId)
+                .map(type::format);
+    }
+
+    @Override
+    public void reseed(SequenceType type, String organizationId) {
+        String key = counterKey(type, organizationId);
+        log.warn("Código duplicado: el contador {} está atrasado, se reinicializa", key);
+        blocks.remove(key);
+        seededKeys.remove(key);
+    }
+
+    /**
+     * Rango propio de {@code count} números con un solo $inc, sin pasar por el bloque en memoria:
+     * una importación no agota el bloque de las altas individuales ni espera sus recargas.
+     */
+    @Override
+    public Flux<String> nextCodes(SequenceType type, String organizationId, int count) {
+        if (count <= 0) {
+            return Flux.empty();
+        }
+        String key = counterKey(type, organizationId);
+        return reserve(type, key, organizationId, count)
+                .flatMapMany(last -> Flux.range(0, count).map(offset -> last - count + 1 + offset))
+                .map(type::format);
+    }
+
+    private Mono<Long> nextValue(SequenceType type, String key, String organizationId) {
+        return Mono.defer(() -> {
+            Block block = blocks.computeIfAbsent(key, k -> new Block());
+            Mono<Void> refill;
+            synchronized (block) {
+                if (block.next <= block.max) {
+                    return Mono.just(block.next++);
+                }
+                // Un solo refill en vuelo por clave; el resto de llamadas espera el mismo bloque
+                if (block.refill == null) {
+                    block.refill = reserveBlock(type, key, organizationId)
+                            .doOnNext(last -> {
+                                synchronized (block) {
+                                    block.next = last - blockSize + 1;
+                                    block.max = last;
+                                }
+                            })
+                            .doFinally(signal -> {
+                                synchronized (block) {
+                                    block.refill = null;
+                                }
+                            })
+                            .then()
+                            .cache();
+                }
+                refill = block.refill;
+            }
+            return refill.then(nextValue(type, key, organizationId));
+        });
+    }
+
+    private Mono<Long> reserveBlock(SequenceType type, String key, String organizationId) {
+        return reserve(type, key, organizationId, blockSize);
+    }
+
+    /**
+     * Reserva {@code size} números y devuelve el último del rango.
+     */
+    private Mono<Long> reserve(SequenceType type, String key, String organizationId, int size) {
+        return seed(type, key, organizationId)
+                .then(mongoTemplate.findAndModify(
+                        Query.query(Criteria.where("_id").is(key)),
+                        new Update().inc(SEQ_FIELD, size),
+                        FindAndModifyOptions.options().upsert(true).returnNew(true),
+                        Sequence.class))
+                .map(Sequence::getSeq)
+                .doOnNext(last -> log.debug("Rango reservado para {}: {}-{}", key, last - size + 1, last));
+    }
+
+    /**
+     * La primera vez que el nodo usa una clave, eleva el contador (con $max, idempotente)
+     * hasta el último código existente, para continuar la numeración de los datos previos.
+     */
+    private Mono<Void> seed(SequenceType type, String key, String organizationId) {
+        if (seededKeys.contains(key)) {
+            return Mono.empty();
+        }
+        Query lastCodeQuery = perOrganization && organizationId != null
+                ? Query.query(Criteria.where("organizationId").is(organizationId))
+                : new Query();
+        lastCodeQuery.with(Sort.by(Sort.Direction.DESC, type.getCodeField())).limit(1);
+        lastCodeQuery.fields().include(type.getCodeField());
+
+        return mongoTemplate.findOne(lastCodeQuery, Document.class, type.getCollection())
+                .map(doc -> type.parse(doc.getString(type.getCodeField())))
+                .defaultIfEmpty(0L)
+                .flatMap(last -> mongoTemplate.upsert(
+                        Query.query(Criteria.where("_id").is(key)),
+                        new Update().max(SEQ_FIELD, last),
+                        Sequence.class))
+                .doOnSuccess(result -> seededKeys.add(key))
+                .then();
+    }
+
+    private String counterKey(SequenceType type, String organizationId) {
+        return perOrganization && organizationId != null
+                ? type.getPrefix() + ":" + organizationId
+                : type.getPrefix();
+    }
+
+    private static final class Block {
+        private long next = 1;
+        private long max = 0;
+        private Mono<Void> refill;
+    }
+}
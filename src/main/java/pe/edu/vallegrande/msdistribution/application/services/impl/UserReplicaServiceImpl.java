@@ -0,0 +1,216 @@
+package pe.edu.vallegrande.msdistribution.application.services.impl;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import pe.edu.vallegrande.msdistribution.application.services.JobCoordinationService;
+import pe.edu.vallegrande.msdistribution.application.services.OrganizationDirectoryService;
+import pe.edu.vallegrande.msdistribution.application.services.UserReplicaService;
+import pe.edu.vallegrande.msdistribution.domain.models.DistributionProgram;
+import pe.edu.vallegrande.msdistribution.domain.models.DistributionRoute;
+import pe.edu.vallegrande.msdistribution.domain.models.JobAssignment;
+import pe.edu.vallegrande.msdistribution.domain.models.User;
+import pe.edu.vallegrande.msdistribution.domain.models.UserSyncCursor;
+import pe.edu.vallegrande.msdistribution.infrastructure.client.ExternalUserMapper;
+import pe.edu.vallegrande.msdistribution.infrastructure.client.dto.ExternalUser;
+import pe.edu.vallegrande.msdistribution.infrastructure.repository.UserRepository;
+import pe.edu.vallegrande.msdistribution.infrastructure.service.ExternalServiceClient;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.Supplier;
+
+/**
+ * ms-users no ofrece un feed de cambios, así que cada sincronización vuelve a pedir los usuarios
+ * relevantes de la organización y compara su {@code updatedAt} con la copia local: solo los
+ * nuevos o cambiados se escriben (un bulk por organización), los que siguen iguales solo se marcan
+ * como vigentes y los que dejaron de ser relevantes se borran. El cursor por organización
+ * ({@code user_sync_cursors}) guarda el avance y ordena las organizaciones de la más atrasada a
+ * la más reciente. La organización, zona y calle embebidas en cada usuario alimentan el
+ * directorio local ({@link OrganizationDirectoryService}).
+ */
+@Service
+@Slf4j
+public class UserReplicaServiceImpl implements UserReplicaService {
+
+    static final String JOB_USER_REPLICA = "user-replica-sync";
+
+    private final ExternalServiceClient externalServiceClient;
+    private final UserRepository userRepository;
+    private final ReactiveMongoTemplate mongoTemplate;
+    private final JobCoordinationService coordination;
+    private final OrganizationDirectoryService directory;
+    private final boolean enabled;
+    private final int organizationsPerRun;
+    private final int concurrency;
+
+    public UserReplicaServiceImpl(ExternalServiceClient externalServiceClient,
+                                  UserRepository userRepository,
+                                  ReactiveMongoTemplate mongoTemplate,
+                                  JobCoordinationService coordination,
+                                  OrganizationDirectoryService directory,
+                                  @Value("${user-replica.enabled:true}") boolean enabled,
+                                  @Value("${user-replica.organizations-per-run:50}") int organizationsPerRun,
+                                  @Value("${user-replica.concurrency:4}") int concurrency) {
+        this.externalServiceClient = externalServiceClient;
+        this.userRepository = userRepository;
+        this.mongoTemplate = mongoTemplate;
+        this.coordination = coordination;
+        this.directory = directory;
+        this.enabled = enabled;
+        this.organizationsPerRun = organizationsPerRun;
+        this.concurrency = concurrency;
+    }
+
+    @Scheduled(initialDelayString = "${user-replica.initial-delay-ms:30000}",
+            fixedDelayString = "${user-replica.sync-interval-ms:300000}")
+    public void scheduledSync() {
+        if (!enabled) {
+            return;
+        }
+        sync().subscribe(
+                null,
+                error -> log.error("Error sincronizando la réplica de usuarios: ", error));
+    }
+
+    @Override
+    public Mono<Void> sync() {
+        return coordination.assignment(JOB_USER_REPLICA)
+                .flatMap(assignment -> organizations()
+                        .filter(assignment::owns)
+                        .collectList()
+                        .flatMap(this::oldestFirst)
+                        .flatMapMany(Flux::fromIterable)
+                        .take(organizationsPerRun)
+                        .concatMap(organizationId -> syncOrganization(organizationId, assignment)
+                                .onErrorResume(error -> {
+                                    log.warn("No se sincronizaron los usuarios de la organización {}: {}",
+                                            organizationId, error.getMessage());
+                                    return Mono.empty();
+                                }))
+                        .reduce(0L, Long::sum)
+                        .doOnNext(written -> log.info("Réplica de usuarios sincronizada: {} usuarios escritos", written)))
+                .then();
+    }
+
+    @Override
+    public Mono<Long> syncOrganization(String organizationId) {
+        return syncOrganization(organizationId, null);
+    }
+
+    private Mono<Long> syncOrganization(String organizationId, JobAssignment assignment) {
+        Instant now = Instant.now();
+        return Mono.zip(externalServiceClient.refreshAdmins(organizationId), referencedUserIds(organizationId))
+                .flatMap(tuple -> {
+                    Map<String, ExternalUser> found = new LinkedHashMap<>();
+                    tuple.getT1().forEach(admin -> found.put(admin.getId(), admin));
+                    Set<String> pending = new LinkedHashSet<>(tuple.getT2());
+                    pending.removeAll(found.keySet());
+                    return Flux.fromIterable(pending)
+                            .flatMap(externalServiceClient::refreshUser, concurrency)
+                            .doOnNext(user -> found.put(user.getId(), user))
+                            .then(Mono.defer(() -> assignment != null
+                                    ? fenced(assignment, () -> write(organizationId, found, now))
+                                    : write(organizationId, found, now)));
+                });
+    }
+
+    private Mono<Long> write(String organizationId, Map<String, ExternalUser> found, Instant now) {
+        return userRepository.findAllById(found.keySet())
+                .collectMap(User::getId, user -> Objects.toString(user.getSourceUpdatedAt(), ""))
+                .flatMap(local -> {
+                    List<User> changed = new ArrayList<>();
+                    List<String> unchanged = new ArrayList<>();
+                    found.forEach((id, user) -> {
+                        if (user.getUpdatedAt() != null && user.getUpdatedAt().equals(local.get(id))) {
+                            unchanged.add(id);
+                        } else {
+                            changed.add(ExternalUserMapper.toUser(user, organizationId, now));
+                        }
+                    });
+                    return userRepository.upsertAll(changed)
+                            .flatMap(written -> userRepository.touch(unchanged, now)
+                                    .then(userRepository.deleteByOrganizationIdAndIdNotInAndSyncedAtNotNull(organizationId, found.keySet()))
+                                    .flatMap(deleted -> directory.collect(found.values())
+                                            .then(saveCursor(organizationId, found, now)
+                                            .doOnSuccess(unused -> log.debug(
+                                                    "Usuarios de {}: {} escritos, {} sin cambios, {} borrados",
+                                                    organizationId, written, unchanged.size(), deleted))))
+                                    .thenReturn(written));
+                });
+    }
+
+    private Mono<Void> saveCursor(String organizationId, Map<String, ExternalUser> found, Instant now) {
+        String highWatermark = found.values().stream()
+                .map(ExternalUser::getUpdatedAt)
+                .filter(Objects::nonNull)
+                .max(Comparator.naturalOrder())
+                .orElse(null);
+        Update update = new Update()
+                .set("highWatermark", highWatermark)
+                .set("users", found.size())
+                .set("syncedAt", now);
+        return mongoTemplate.upsert(Query.query(Criteria.where("_id").is(organizationId)), update, UserSyncCursor.class)
+                .then();
+    }
+
+    /**
+     * Organizaciones con programas o rutas.
+     */
+    private Flux<String> organizations() {
+        return Flux.merge(
+                        mongoTemplate.findDistinct(new Query(), "organizationId", DistributionProgram.class, String.class),
+                        mongoTemplate.findDistinct(new Query(), "organizationId", DistributionRoute.class, String.class))
+                .filter(Objects::nonNull)
+                .distinct();
+    }
+
+    private Mono<Set<String>> referencedUserIds(String organizationId) {
+        Query query = Query.query(Criteria.where("organizationId").is(organizationId));
+        return Flux.merge(
+                        mongoTemplate.findDistinct(query, "responsibleUserId", DistributionProgram.class, String.class),
+                        mongoTemplate.findDistinct(query, "responsibleUserId", DistributionRoute.class, String.class))
+                .filter(Objects::nonNull)
+                .collect(LinkedHashSet::new, Set::add);
+    }
+
+    /**
+     * Primero las organizaciones nunca sincronizadas, luego por fecha de sincronización.
+     */
+    private Mono<List<String>> oldestFirst(List<String> organizationIds) {
+        return mongoTemplate.find(Query.query(Criteria.where("_id").in(organizationIds)), UserSyncCursor.class)
+                .collectMap(UserSyncCursor::getId, UserSyncCursor::getSyncedAt)
+                .map(syncedAt -> {
+                    Map<String, Instant> order = new HashMap<>(syncedAt);
+                    List<String> sorted = new ArrayList<>(organizationIds);
+                    sorted.sort(Comparator.comparing(order::get, Comparator.nullsFirst(Comparator.naturalOrder())));
+                    return sorted;
+                });
+    }
+
+    private <T> Mono<T> fenced(JobAssignment assignment, Supplier<Mono<T>> write) {
+        return coordination.isCurrent(assignment)
+                .flatMap(current -> {
+                    if (!current) {
+                        log.warn("Lease '{}' ya no es vigente en esta réplica; se omite la escritura", assignment.getJob());
+                        return Mono.<T>empty();
+                    }
+                    return write.get();
+                });
+    }
+}
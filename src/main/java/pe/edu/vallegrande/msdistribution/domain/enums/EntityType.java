@@ -0,0 +1,20 @@
+package pe.edu.vallegrande.msdistribution.domain.enums;
+
+import lombok.Getter;
+
+/**
+ * Entidades de negocio del microservicio y la colección Mongo donde se almacenan.
+ */
+@Getter
+public enum EntityType {
+    PROGRAM("program"),
+    ROUTE("route"),
+    SCHEDULE("schedule"),
+    FARE("fare");
+
+    private final String collection;
+
+    EntityType(String collection) {
+        this.collection = collection;
+    }
+}
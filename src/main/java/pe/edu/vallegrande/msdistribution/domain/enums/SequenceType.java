@@ -0,0 +1,44 @@
+package pe.edu.vallegrande.msdistribution.domain.enums;
+
+import lombok.Getter;
+
+/**
+ * Secuencias de códigos de negocio (PRG001, RUT001, HOR001, TAR001).
+ * Cada tipo conoce su prefijo y la colección/campo de donde se toma el último código emitido
+ * para inicializar el contador la primera vez.
+ */
+@Getter
+public enum SequenceType {
+    PROGRAM("PRG", "program", "programCode"),
+    ROUTE("RUT", "route", "routeCode"),
+    SCHEDULE("HOR", "schedule", "scheduleCode"),
+    FARE("TAR", "fare", "fareCode");
+
+    private final String prefix;
+    private final String collection;
+    private final String codeField;
+
+    SequenceType(String prefix, String collection, String codeField) {
+        this.prefix = prefix;
+        this.collection = collection;
+        this.codeField = codeField;
+    }
+
+    public String format(long number) {
+        return String.format(prefix + "%03d", number);
+    }
+
+    /**
+     * Extrae la parte numérica de un código. Si el código no sigue el patrón se asume 0.
+     */
+    public long parse(String code) {
+        if (code == null) {
+            return 0;
+        }
+        try {
+            return Long.parseLong(code.replace(prefix, ""));
+        } catch (NumberFormatException ignored) {
+            return 0;
+        }
+    }
+}
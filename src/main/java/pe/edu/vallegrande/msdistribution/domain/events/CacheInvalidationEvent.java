@@ -0,0 +1,40 @@
+package pe.edu.vallegrande.msdistribution.domain.events;
+
+import lombok.Builder;
+import lombok.Getter;
+import lombok.ToString;
+import pe.edu.vallegrande.msdistribution.domain.enums.EntityType;
+
+/**
+ * Evento publicado cuando un documento cambió fuera de esta réplica (otra réplica o una edición
+ * directa en Mongo), detectado por change streams. Sin id invalida todo el tipo; sin tipo, todas
+ * las cachés en memoria.
+ */
+@Getter
+@Builder
+@ToString
+public class CacheInvalidationEvent {
+
+    private final EntityType type;
+    private final String id;
+
+    public static CacheInvalidationEvent entity(EntityType type, String id) {
+        return CacheInvalidationEvent.builder().type(type).id(id).build();
+    }
+
+    public static CacheInvalidationEvent type(EntityType type) {
+        return CacheInvalidationEvent.builder().type(type).build();
+    }
+
+    public static CacheInvalidationEvent all() {
+        return CacheInvalidationEvent.builder().build();
+    }
+
+    public boolean covers(EntityType entityType) {
+        return type == null || type == entityType;
+    }
+
+    public boolean isFlush() {
+        return id == null;
+    }
+}
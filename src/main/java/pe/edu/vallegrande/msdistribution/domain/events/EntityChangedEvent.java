@@ -0,0 +1,80 @@
+package pe.edu.vallegrande.msdistribution.domain.events;
+
+import lombok.Builder;
+import lombok.Getter;
+import lombok.ToString;
+import pe.edu.vallegrande.msdistribution.domain.enums.EntityType;
+
+import java.util.Objects;
+
+/**
+ * Evento publicado por los servicios tras cada escritura exitosa sobre program, route,
+ * schedule o fare. Lleva la organización y el estado antes y después del cambio para que
+ * los consumidores (contadores, cachés) puedan aplicar deltas sin volver a leer Mongo.
+ */
+@Getter
+@Builder
+@ToString(exclude = "entity")
+public class EntityChangedEvent {
+
+    public enum Action {
+        CREATED, UPDATED, DELETED
+    }
+
+    private final EntityType type;
+    private final Action action;
+    private final String id;
+    private final String previousOrganizationId;
+    private final String previousStatus;
+    private final String organizationId;
+    private final String status;
+    // Documento tras el cambio (en DELETED, el documento eliminado)
+    private final Object entity;
+
+    public static EntityChangedEvent created(EntityType type, String id, String organizationId,
+                                             String status, Object entity) {
+        return EntityChangedEvent.builder()
+                .type(type)
+                .action(Action.CREATED)
+                .id(id)
+                .organizationId(organizationId)
+                .status(status)
+                .entity(entity)
+                .build();
+    }
+
+    public static EntityChangedEvent updated(EntityType type, String id,
+                                             String previousOrganizationId, String previousStatus,
+                                             String organizationId, String status, Object entity) {
+        return EntityChangedEvent.builder()
+                .type(type)
+                .action(Action.UPDATED)
+                .id(id)
+                .previousOrganizationId(previousOrganizationId)
+                .previousStatus(previousStatus)
+                .organizationId(organizationId)
+                .status(status)
+                .entity(entity)
+                .build();
+    }
+
+    public static EntityChangedEvent deleted(EntityType type, String id, String organizationId,
+                                             String status, Object entity) {
+        return EntityChangedEvent.builder()
+                .type(type)
+                .action(Action.DELETED)
+                .id(id)
+                .previousOrganizationId(organizationId)
+                .previousStatus(status)
+                .entity(entity)
+                .build();
+    }
+
+    public boolean statusChanged() {
+        return action == Action.UPDATED && !Objects.equals(previousStatus, status);
+    }
+
+    public boolean organizationChanged() {
+        return action == Action.UPDATED && !Objects.equals(previousOrganizationId, organizationId);
+    }
+}
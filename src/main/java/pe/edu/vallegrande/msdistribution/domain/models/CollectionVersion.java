@@ -0,0 +1,27 @@
+package pe.edu.vallegrande.msdistribution.domain.models;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.Instant;
+
+/**
+ * Contador de cambios de una colección (program, route, schedule, fare). Sirve de validador
+ * (ETag / Last-Modified) de los listados sin consultar los datos.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@Document(collection = "collection_versions")
+public class CollectionVersion {
+    @Id
+    private String id;          // nombre de la colección
+    private long version;       // +1 por cada escritura (o ráfaga de escrituras)
+    private Instant since;      // creación del contador; distingue un contador reiniciado
+    private Instant updatedAt;  // última escritura registrada
+}
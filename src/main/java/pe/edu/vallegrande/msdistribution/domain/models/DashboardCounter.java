@@ -0,0 +1,77 @@
+package pe.edu.vallegrande.msdistribution.domain.models;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+import pe.edu.vallegrande.msdistribution.domain.enums.EntityType;
+
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Contadores del dashboard por organización. Cada mapa guarda {@code total} y un contador
+ * por estado (ACTIVE, INACTIVE, PLANNED, ...), mantenidos con $inc en cada escritura.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@Document(collection = "dashboard_counters")
+public class DashboardCounter {
+
+    public static final String TOTAL = "total";
+    public static final String VERSION = "version";
+
+    @Id
+    private String id;   // organizationId
+    @Builder.Default
+    private Map<String, Long> program = new HashMap<>();
+    @Builder.Default
+    private Map<String, Long> route = new HashMap<>();
+    @Builder.Default
+    private Map<String, Long> schedule = new HashMap<>();
+    @Builder.Default
+    private Map<String, Long> fare = new HashMap<>();
+    private Instant reconciledAt;
+    // Se incrementa con cada $inc: la reconciliación solo escribe si no cambió desde que leyó
+    private Long version;
+
+    public Map<String, Long> countsOf(EntityType type) {
+        Map<String, Long> counts = switch (type) {
+            case PROGRAM -> program;
+            case ROUTE -> route;
+            case SCHEDULE -> schedule;
+            case FARE -> fare;
+        };
+        return counts != null ? counts : Map.of();
+    }
+
+    public long count(EntityType type, String key) {
+        return countsOf(type).getOrDefault(key, 0L);
+    }
+
+    /**
+     * Suma los contadores de otra organización sobre éste (totales globales).
+     */
+    public DashboardCounter merge(DashboardCounter other) {
+        for (EntityType type : EntityType.values()) {
+            Map<String, Long> target = new HashMap<>(countsOf(type));
+            other.countsOf(type).forEach((key, value) -> target.merge(key, value, Long::sum));
+            setCounts(type, target);
+        }
+        return this;
+    }
+
+    public void setCounts(EntityType type, Map<String, Long> counts) {
+        switch (type) {
+            case PROGRAM -> program = counts;
+            case ROUTE -> route = counts;
+            case SCHEDULE -> schedule = counts;
+            case FARE -> fare = counts;
+        }
+    }
+}
@@ -5,6 +5,7 @@ import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 import org.springframework.data.annotation.Id;
+import org.springframework.data.annotation.Version;
 import org.springframework.data.mongodb.core.mapping.Document;
 
 import java.time.Instant;
@@ -34,4 +35,7 @@ public class DistributionProgram {
     private String responsibleUserId;
     private String observations;
     private Instant createdAt;
+    private Instant updatedAt;   // última modificación (null si no cambió desde createdAt); base del Last-Modified
+    @Version
+    private Long version;   // se incrementa en cada escritura; base del ETag
 }
\ No newline at end of file
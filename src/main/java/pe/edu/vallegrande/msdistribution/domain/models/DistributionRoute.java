@@ -4,6 +4,7 @@ import java.time.Instant;
 import java.util.List;
 
 import org.springframework.data.annotation.Id;
+import org.springframework.data.annotation.Version;
 import org.springframework.data.mongodb.core.mapping.Document;
 
 import lombok.AllArgsConstructor;
@@ -27,6 +28,9 @@ public class DistributionRoute {
     private String responsibleUserId;
     private String status;
     private Instant createdAt;
+    private Instant updatedAt;   // última modificación (null si no cambió desde createdAt); base del Last-Modified
+    @Version
+    private Long version;   // se incrementa en cada escritura; base del ETag
 
     @Data
     @NoArgsConstructor
@@ -5,6 +5,7 @@ import java.util.ArrayList;
 import java.util.List;
 
 import org.springframework.data.annotation.Id;
+import org.springframework.data.annotation.Version;
 import org.springframework.data.mongodb.core.mapping.Document;
 
 import lombok.AllArgsConstructor;
@@ -32,4 +33,7 @@ public class DistributionSchedule {
     private Integer durationHours;
     private String status;
     private Instant createdAt;
+    private Instant updatedAt;   // última modificación (null si no cambió desde createdAt); base del Last-Modified
+    @Version
+    private Long version;   // se incrementa en cada escritura; base del ETag
 }
\ No newline at end of file
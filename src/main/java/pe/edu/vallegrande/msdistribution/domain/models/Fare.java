@@ -5,6 +5,7 @@ import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 import org.springframework.data.annotation.Id;
+import org.springframework.data.annotation.Version;
 import org.springframework.data.mongodb.core.mapping.Document;
 
 import java.math.BigDecimal;
@@ -27,4 +28,7 @@ public class Fare {
     private Date effectiveDate; 
     private String status;
     private Instant createdAt;
+    private Instant updatedAt;   // última modificación (null si no cambió desde createdAt); base del Last-Modified
+    @Version
+    private Long version;   // se incrementa en cada escritura; base del ETag
 }
\ No newline at end of file
@@ -0,0 +1,42 @@
+package pe.edu.vallegrande.msdistribution.domain.models;
+
+import lombok.Builder;
+import lombok.Getter;
+import lombok.ToString;
+
+/**
+ * Parte de un job programado que le toca a esta réplica: todo el trabajo (líder, con lease)
+ * o la partición {@code shardIndex} de {@code shardCount} por hash de organizationId.
+ */
+@Getter
+@Builder
+@ToString
+public class JobAssignment {
+
+    private final String job;
+    private final Lease lease;      // null en modo particionado
+    @Builder.Default
+    private final int shardIndex = 0;
+    @Builder.Default
+    private final int shardCount = 1;
+
+    public static JobAssignment leader(String job, Lease lease) {
+        return JobAssignment.builder().job(job).lease(lease).build();
+    }
+
+    public static JobAssignment shard(String job, int shardIndex, int shardCount) {
+        return JobAssignment.builder().job(job).shardIndex(shardIndex).shardCount(shardCount).build();
+    }
+
+    /**
+     * String.hashCode es estable entre JVMs, así todas las réplicas calculan la misma partición.
+     * Los registros sin organización van a la partición 0.
+     */
+    public boolean owns(String organizationId) {
+        if (shardCount <= 1) {
+            return true;
+        }
+        int shard = organizationId == null ? 0 : Math.floorMod(organizationId.hashCode(), shardCount);
+        return shard == shardIndex;
+    }
+}
@@ -0,0 +1,23 @@
+package pe.edu.vallegrande.msdistribution.domain.models;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.Instant;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@Document(collection = "scheduler_leases")
+public class Lease {
+    @Id
+    private String id;          // nombre del job
+    private String owner;       // instanceId de la réplica que lo tiene
+    private long token;         // fencing token: crece cada vez que el lease cambia de dueño
+    private Instant expiresAt;
+}
@@ -0,0 +1,27 @@
+package pe.edu.vallegrande.msdistribution.domain.models;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.Instant;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@Document(collection = "organization")
+public class Organization {
+    @Id
+    private String id;
+    private String organizationCode;
+    private String organizationName;
+    private String status;
+    private String address;
+    private String phone;
+    private String legalRepresentative;
+    private Instant syncedAt;
+}
@@ -0,0 +1,19 @@
+package pe.edu.vallegrande.msdistribution.domain.models;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@Document(collection = "counters")
+public class Sequence {
+    @Id
+    private String id;   // PRG, RUT, HOR, TAR o PRG:<organizationId>
+    private long seq;    // último número reservado
+}
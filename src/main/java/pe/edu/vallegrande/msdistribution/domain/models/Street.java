@@ -0,0 +1,27 @@
+package pe.edu.vallegrande.msdistribution.domain.models;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.Instant;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@Document(collection = "street")
+public class Street {
+    @Id
+    private String id;
+    private String organizationId;  // organización y zona: conocidas si llegó embebida en un usuario
+    private String zoneId;
+    private String streetCode;
+    private String streetName;
+    private String streetType;
+    private String status;
+    private Instant syncedAt;
+}
@@ -8,6 +8,7 @@ import org.springframework.data.annotation.Id;
 import org.springframework.data.mongodb.core.mapping.Document;
 
 import java.time.Instant;
+import java.util.List;
 
 @Data
 @NoArgsConstructor
@@ -27,4 +28,13 @@ public class User {
     private String role;
     private String status;
     private Instant createdAt;
+    // Réplica de ms-users: datos del usuario en origen y control de la sincronización
+    private String firstName;
+    private String lastName;
+    private String address;
+    private List<String> roles;
+    private String zoneId;
+    private String streetId;
+    private String sourceUpdatedAt;
+    private Instant syncedAt;
 }
\ No newline at end of file
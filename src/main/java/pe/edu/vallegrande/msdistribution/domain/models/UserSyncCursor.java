@@ -0,0 +1,23 @@
+package pe.edu.vallegrande.msdistribution.domain.models;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.Instant;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@Document(collection = "user_sync_cursors")
+public class UserSyncCursor {
+    @Id
+    private String id;              // organizationId
+    private String highWatermark;   // mayor updatedAt de ms-users visto en la organización
+    private int users;              // usuarios replicados en la última sincronización
+    private Instant syncedAt;
+}
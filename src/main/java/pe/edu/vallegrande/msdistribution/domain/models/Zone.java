@@ -0,0 +1,26 @@
+package pe.edu.vallegrande.msdistribution.domain.models;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.Instant;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@Document(collection = "zone")
+public class Zone {
+    @Id
+    private String id;
+    private String organizationId;  // conocido si llegó embebida en un usuario de ms-users
+    private String zoneCode;
+    private String zoneName;
+    private String description;
+    private String status;
+    private Instant syncedAt;
+}
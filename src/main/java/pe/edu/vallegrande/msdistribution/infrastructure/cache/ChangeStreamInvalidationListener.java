@@ -0,0 +1,239 @@
+package pe.edu.vallegrande.msdistribution.infrastructure.cache;
+
+import com.mongodb.MongoException;
+import com.mongodb.client.model.changestream.OperationType;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.BsonDocument;
+import org.bson.BsonValue;
+import org.bson.Document;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.ContextClosedEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.mongodb.core.ChangeStreamEvent;
+import org.springframework.data.mongodb.core.ChangeStreamOptions;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+import pe.edu.vallegrande.msdistribution.domain.enums.EntityType;
+import pe.edu.vallegrande.msdistribution.domain.events.CacheInvalidationEvent;
+import pe.edu.vallegrande.msdistribution.domain.models.ChangeStreamCheckpoint;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.util.retry.Retry;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Escucha un change stream sobre program, route, schedule y fare y publica un
+ * {@link CacheInvalidationEvent} por documento modificado, para que las cachés en memoria de
+ * cada réplica vean también lo escrito por las demás o directamente en Mongo.
+ *
+ * El último resume token se guarda periódicamente en {@code change_stream_checkpoints}, bajo
+ * {@code cache.invalidation.checkpoint-id}, para continuar tras un reinicio. Por defecto el id es
+ * el nombre del servicio más el hostname, uno por réplica: con un id compartido cada réplica
+ * pisaría el token de las demás y reanudaría desde la posición de otra. Con el id vacío no hay
+ * checkpoint y los cambios ocurridos mientras el stream estaba cerrado se pierden hasta que venza
+ * el TTL. Si el oplog ya no contiene el token, se
+ * vacían todas las cachés y el stream se reabre desde el momento actual. Sin replica set (Mongo standalone) el listener se
+ * desactiva y las cachés dependen solo de su TTL.
+ */
+@Component
+@Slf4j
+public class ChangeStreamInvalidationListener {
+
+    /** CappedPositionLost, ChangeStreamFatalError, ChangeStreamHistoryLost. */
+    static final Set<Integer> HISTORY_LOST_CODES = Set.of(136, 280, 286);
+    /** $changeStream solo está disponible en replica sets / clusters. */
+    static final int NOT_SUPPORTED_CODE = 40573;
+
+    private static final Map<String, EntityType> TYPES_BY_COLLECTION = Arrays.stream(EntityType.values())
+            .collect(Collectors.toMap(EntityType::getCollection, Function.identity()));
+
+    private final ReactiveMongoTemplate mongoTemplate;
+    private final ApplicationEventPublisher eventPublisher;
+    private final boolean enabled;
+    private final String checkpointId;
+
+    private volatile BsonValue resumeToken;
+    private volatile BsonValue checkpointedToken;
+    private volatile Disposable subscription;
+
+    public ChangeStreamInvalidationListener(ReactiveMongoTemplate mongoTemplate,
+                                            ApplicationEventPublisher eventPublisher,
+                                            @Value("${cache.invalidation.change-streams.enabled:true}") boolean enabled,
+                                            @Value("${cache.invalidation.checkpoint-id:${spring.application.name:}-${HOSTNAME:local}}") String checkpointId) {
+        this.mongoTemplate = mongoTemplate;
+        this.eventPublisher = eventPublisher;
+        this.enabled = enabled;
+        this.checkpointId = checkpointId;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        if (!enabled) {
+            log.info("Invalidación por change streams deshabilitada");
+            return;
+        }
+        subscription = loadCheckpoint()
+                .thenMany(Flux.defer(this::watch)
+                        .retryWhen(Retry.backoff(Long.MAX_VALUE, Duration.ofSeconds(1))
+                                .maxBackoff(Duration.ofSeconds(30))
+                                .filter(error -> !hasCode(error, Set.of(NOT_SUPPORTED_CODE)))
+                                .doBeforeRetry(signal -> log.warn("Change stream interrumpido, reintentando: {}",
+                                        signal.failure().getMessage()))))
+                .subscribe(
+                        this::onChange,
+                        error -> log.warn("Change streams no disponibles ({}); las cachés dependen de su TTL",
+                                error.getMessage()));
+    }
+
+    /**
+     * Abre el stream desde el último token; si el token caducó vacía las cachés y vuelve a abrirlo sin él.
+     */
+    Flux<ChangeStreamEvent<Document>> watch() {
+        BsonValue token = resumeToken;
+        return mongoTemplate.changeStream(options(token), Document.class)
+                .onErrorResume(error -> token != null && hasCode(error, HISTORY_LOST_CODES), error -> {
+                    log.warn("Resume token del change stream caducado ({}); se vacían las cachés", error.getMessage());
+                    resumeToken = null;
+                    eventPublisher.publishEvent(CacheInvalidationEvent.all());
+                    return Flux.defer(this::watch);
+                });
+    }
+
+    void onChange(ChangeStreamEvent<Document> event) {
+        BsonDocument documentKey = event.getRaw() != null ? event.getRaw().getDocumentKey() : null;
+        CacheInvalidationEvent invalidation = toInvalidation(event.getCollectionName(), event.getOperationType(),
+                documentKey != null ? documentKey.get("_id") : null);
+        if (invalidation != null) {
+            eventPublisher.publishEvent(invalidation);
+        }
+        if (event.getResumeToken() != null) {
+            resumeToken = event.getResumeToken();
+        }
+    }
+
+    static CacheInvalidationEvent toInvalidation(String collection, OperationType operation, BsonValue documentId) {
+        if (operation == OperationType.DROP_DATABASE || operation == OperationType.INVALIDATE) {
+            return CacheInvalidationEvent.all();
+        }
+        EntityType type = collection != null ? TYPES_BY_COLLECTION.get(collection) : null;
+        if (type == null || operation == null) {
+            return null;
+        }
+        switch (operation) {
+            case INSERT:
+            case UPDATE:
+            case REPLACE:
+            case DELETE:
+                return documentId != null
+                        ? CacheInvalidationEvent.entity(type, idOf(documentId))
+                        : CacheInvalidationEvent.type(type);
+            case DROP:
+            case RENAME:
+                return CacheInvalidationEvent.type(type);
+            default:
+                return null;
+        }
+    }
+
+    /**
+     * Guarda el último token procesado si cambió desde el anterior checkpoint.
+     */
+    @Scheduled(fixedDelayString = "${cache.invalidation.checkpoint-interval-ms:5000}")
+    public void checkpoint() {
+        saveCheckpoint().subscribe(
+                null,
+                error -> log.warn("No se pudo guardar el checkpoint del change stream: {}", error.getMessage()));
+    }
+
+    @EventListener(ContextClosedEvent.class)
+    public void stop() {
+        Disposable current = subscription;
+        if (current != null) {
+            current.dispose();
+        }
+        saveCheckpoint()
+                .onErrorResume(error -> Mono.empty())
+                .block(Duration.ofSeconds(2));
+    }
+
+    Mono<Void> saveCheckpoint() {
+        BsonValue token = resumeToken;
+        if (!StringUtils.hasText(checkpointId) || token == null || token.equals(checkpointedToken)) {
+            return Mono.empty();
+        }
+        Update update = new Update()
+                .set("resumeToken", token.asDocument().toJson())
+                .set("updatedAt", Instant.now());
+        return mongoTemplate.upsert(Query.query(Criteria.where("_id").is(checkpointId)), update,
+                        ChangeStreamCheckpoint.class)
+                .doOnSuccess(result -> checkpointedToken = token)
+                .then();
+    }
+
+    private Mono<Void> loadCheckpoint() {
+        if (!StringUtils.hasText(checkpointId)) {
+            return Mono.empty();
+        }
+        return mongoTemplate.findById(checkpointId, ChangeStreamCheckpoint.class)
+                .filter(checkpoint -> StringUtils.hasText(checkpoint.getResumeToken()))
+                .doOnNext(checkpoint -> {
+                    resumeToken = BsonDocument.parse(checkpoint.getResumeToken());
+                    checkpointedToken = resumeToken;
+                    log.info("Change stream reanudado desde el checkpoint de {}", checkpoint.getUpdatedAt());
+                })
+                .onErrorResume(error -> {
+                    log.warn("No se pudo leer el checkpoint del change stream: {}", error.getMessage());
+                    return Mono.empty();
+                })
+                .then();
+    }
+
+    private static ChangeStreamOptions options(BsonValue token) {
+        ChangeStreamOptions.ChangeStreamOptionsBuilder options = ChangeStreamOptions.builder()
+                .filter(Aggregation.newAggregation(Aggregation.match(new Criteria().orOperator(
+                        Criteria.where("ns.coll").in(TYPES_BY_COLLECTION.keySet()),
+                        Criteria.where("operationType").in("dropDatabase", "invalidate")))));
+        if (token != null) {
+            options.resumeAfter(token);
+        }
+        return options.build();
+    }
+
+    private static String idOf(BsonValue id) {
+        if (id.isObjectId()) {
+            return id.asObjectId().getValue().toHexString();
+        }
+        if (id.isString()) {
+            return id.asString().getValue();
+        }
+        return id.toString();
+    }
+
+    static boolean hasCode(Throwable error, Set<Integer> codes) {
+        for (Throwable current = error; current != null; current = current.getCause()) {
+            if (current instanceof MongoException mongoException && codes.contains(mongoException.getCode())) {
+                return true;
+            }
+            if (current.getCause() == current) {
+                break;
+            }
+        }
+        return false;
+    }
+}
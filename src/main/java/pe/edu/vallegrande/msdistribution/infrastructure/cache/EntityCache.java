@@ -0,0 +1,212 @@
+package pe.edu.vallegrande.msdistribution.infrastructure.cache;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.Document;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.convert.MongoConverter;
+import org.springframework.stereotype.Component;
+import pe.edu.vallegrande.msdistribution.domain.enums.EntityType;
+import pe.edu.vallegrande.msdistribution.domain.events.CacheInvalidationEvent;
+import pe.edu.vallegrande.msdistribution.domain.events.EntityChangedEvent;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.Supplier;
+
+/**
+ * Caché read-through de entidades por tipo e id, acotada por tamaño (LRU) y por TTL.
+ *
+ * Guarda y entrega copias del documento para que los servicios puedan modificar lo que leen
+ * sin alterar la entrada compartida. Cada escritura publicada como {@link EntityChangedEvent}
+ * invalida la entrada, igual que los {@link CacheInvalidationEvent} de otras réplicas; una
+ * lectura iniciada antes de la invalidación no vuelve a poblarla.
+ * Métricas: entity.cache.requests (hit/miss), entity.cache.evictions y entity.cache.size.
+ */
+@Component
+@Slf4j
+public class EntityCache {
+
+    private final MongoConverter converter;
+    private final boolean enabled;
+    private final long ttlNanos;
+    private final int maxSize;
+    private final Map<EntityType, Region> regions = new EnumMap<>(EntityType.class);
+
+    @Autowired
+    public EntityCache(ReactiveMongoTemplate mongoTemplate,
+                       MeterRegistry meterRegistry,
+                       @Value("${cache.entities.enabled:true}") boolean enabled,
+                       @Value("${cache.entities.ttl-ms:300000}") long ttlMillis,
+                       @Value("${cache.entities.max-size:5000}") int maxSize) {
+        this(mongoTemplate.getConverter(), meterRegistry, enabled, ttlMillis, maxSize);
+    }
+
+    EntityCache(MongoConverter converter, MeterRegistry meterRegistry,
+                boolean enabled, long ttlMillis, int maxSize) {
+        this.converter = converter;
+        this.enabled = enabled;
+        this.ttlNanos = Duration.ofMillis(ttlMillis).toNanos();
+        this.maxSize = maxSize;
+        for (EntityType type : EntityType.values()) {
+            regions.put(type, new Region(type, meterRegistry));
+        }
+    }
+
+    /**
+     * Devuelve la entidad en caché o la carga con {@code loader} y la guarda si existe.
+     */
+    @SuppressWarnings("unchecked")
+    public <T> Mono<T> get(EntityType type, String id, Supplier<Mono<T>> loader) {
+        if (!enabled || id == null) {
+            return loader.get();
+        }
+        return Mono.defer(() -> {
+            Region region = regions.get(type);
+            Object cached = region.get(id);
+            if (cached != null) {
+                region.hits.increment();
+                return Mono.just((T) copy(cached));
+            }
+            region.misses.increment();
+            long generation = region.generation();
+            return loader.get()
+                    .doOnNext(entity -> region.putIfUnchanged(id, copy(entity), generation));
+        });
+    }
+
+    public void invalidate(EntityType type, String id) {
+        if (id != null) {
+            regions.get(type).invalidate(id);
+        }
+    }
+
+    public void invalidateAll(EntityType type) {
+        regions.get(type).clear();
+    }
+
+    public void invalidateAll() {
+        regions.values().forEach(Region::clear);
+    }
+
+    public int size(EntityType type) {
+        return regions.get(type).size();
+    }
+
+    @EventListener
+    public void onEntityChanged(EntityChangedEvent event) {
+        invalidate(event.getType(), event.getId());
+    }
+
+    /**
+     * Cambios hechos por otras réplicas o directamente en Mongo (change streams).
+     */
+    @EventListener
+    public void onInvalidation(CacheInvalidationEvent event) {
+        if (event.getType() == null) {
+            invalidateAll();
+        } else if (event.isFlush()) {
+            invalidateAll(event.getType());
+        } else {
+            invalidate(event.getType(), event.getId());
+        }
+    }
+
+    private Object copy(Object entity) {
+        Document document = new Document();
+        converter.write(entity, document);
+        return converter.read(entity.getClass(), document);
+    }
+
+    /**
+     * Entradas de un tipo en orden de acceso; el bloqueo es corto (sin E/S dentro).
+     */
+    private final class Region {
+
+        private final LinkedHashMap<String, Entry> entries = new LinkedHashMap<>(64, 0.75f, true);
+        private final Counter hits;
+        private final Counter misses;
+        private final Counter sizeEvictions;
+        private final Counter expiredEvictions;
+        // Se incrementa en cada invalidación; una carga solo se guarda si no cambió mientras tanto
+        private long generation;
+
+        Region(EntityType type, MeterRegistry registry) {
+            String tag = type.getCollection();
+            this.hits = Counter.builder("entity.cache.requests")
+                    .tag("type", tag).tag("result", "hit").register(registry);
+            this.misses = Counter.builder("entity.cache.requests")
+                    .tag("type", tag).tag("result", "miss").register(registry);
+            this.sizeEvictions = Counter.builder("entity.cache.evictions")
+                    .tag("type", tag).tag("cause", "size").register(registry);
+            this.expiredEvictions = Counter.builder("entity.cache.evictions")
+                    .tag("type", tag).tag("cause", "expired").register(registry);
+            Gauge.builder("entity.cache.size", this, Region::size)
+                    .tag("type", tag).register(registry);
+        }
+
+        synchronized Object get(String id) {
+            Entry entry = entries.get(id);
+            if (entry == null) {
+                return null;
+            }
+            if (entry.expiresAt - System.nanoTime() <= 0) {
+                entries.remove(id);
+                expiredEvictions.increment();
+                return null;
+            }
+            return entry.value;
+        }
+
+        synchronized long generation() {
+            return generation;
+        }
+
+        synchronized void putIfUnchanged(String id, Object value, long expectedGeneration) {
+            if (generation != expectedGeneration) {
+                return;
+            }
+            entries.put(id, new Entry(value, System.nanoTime() + ttlNanos));
+            Iterator<Entry> eldest = entries.values().iterator();
+            while (entries.size() > maxSize && eldest.hasNext()) {
+                eldest.next();
+                eldest.remove();
+                sizeEvictions.increment();
+            }
+        }
+
+        synchronized void invalidate(String id) {
+            generation++;
+            entries.remove(id);
+        }
+
+        synchronized void clear() {
+            generation++;
+            entries.clear();
+        }
+
+        synchronized int size() {
+            return entries.size();
+        }
+    }
+
+    private static final class Entry {
+
+        private final Object value;
+        private final long expiresAt;
+
+        Entry(Object value, long expiresAt) {
+            this.value = value;
+            this.expiresAt = expiresAt;
+        }
+    }
+}
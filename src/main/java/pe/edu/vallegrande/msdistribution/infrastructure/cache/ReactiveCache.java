@@ -0,0 +1,184 @@
+package pe.edu.vallegrande.msdistribution.infrastructure.cache;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Function;
+import java.util.function.LongSupplier;
+
+/**
+ * Caché asíncrona acotada (LRU) para datos de otros microservicios.
+ *
+ * - Dentro del TTL responde desde memoria.
+ * - Vencido pero dentro de la ventana stale-while-revalidate, responde el valor anterior y lo
+ *   refresca en segundo plano.
+ * - Más viejo o ausente, espera la carga. Si la carga falla y el valor anterior no supera la
+ *   ventana de respaldo, se responde ese último valor conocido (last-known-good).
+ * Las cargas concurrentes de una misma clave comparten una sola petición (singleflight). Los
+ * resultados vacíos también se guardan; los errores no.
+ * Métricas: external.cache.requests (hit/stale/miss/coalesced/fallback) y external.cache.size por caché.
+ */
+@Slf4j
+public class ReactiveCache<K, V> {
+
+    private final String name;
+    private final long ttlNanos;
+    private final long staleNanos;
+    private final long fallbackNanos;
+    private final int maxSize;
+    private final LongSupplier ticker;
+
+    private final LinkedHashMap<K, Entry<V>> entries = new LinkedHashMap<>(64, 0.75f, true);
+    private final Map<K, Mono<Optional<V>>> inFlight = new ConcurrentHashMap<>();
+
+    private final Counter hits;
+    private final Counter staleHits;
+    private final Counter misses;
+    private final Counter coalesced;
+    private final Counter fallbacks;
+
+    public ReactiveCache(String name, Duration ttl, Duration staleWhileRevalidate, Duration fallback,
+                         int maxSize, MeterRegistry registry) {
+        this(name, ttl, staleWhileRevalidate, fallback, maxSize, registry, System::nanoTime);
+    }
+
+    ReactiveCache(String name, Duration ttl, Duration staleWhileRevalidate, Duration fallback,
+                  int maxSize, MeterRegistry registry, LongSupplier ticker) {
+        this.name = name;
+        this.ttlNanos = ttl.toNanos();
+        this.staleNanos = staleWhileRevalidate.toNanos();
+        this.fallbackNanos = fallback.toNanos();
+        this.maxSize = maxSize;
+        this.ticker = ticker;
+        this.hits = counter(registry, "hit");
+        this.staleHits = counter(registry, "stale");
+        this.misses = counter(registry, "miss");
+        this.coalesced = counter(registry, "coalesced");
+        this.fallbacks = counter(registry, "fallback");
+        Gauge.builder("external.cache.size", this, ReactiveCache::size)
+                .tag("cache", name).register(registry);
+    }
+
+    /**
+     * Valor de la clave según TTL / stale-while-revalidate; {@code loader} solo se invoca una vez
+     * por clave aunque haya varias lecturas concurrentes.
+     */
+    public Mono<V> get(K key, Function<K, Mono<V>> loader) {
+        return Mono.defer(() -> {
+            Entry<V> entry = lookup(key);
+            long age = entry != null ? ticker.getAsLong() - entry.loadedAt : Long.MAX_VALUE;
+            if (entry != null) {
+                if (age < ttlNanos) {
+                    hits.increment();
+                    return Mono.justOrEmpty(entry.value);
+                }
+                if (age < ttlNanos + staleNanos) {
+                    staleHits.increment();
+                    load(key, loader).subscribe(
+                            null,
+                            error -> log.debug("Refresco en segundo plano de {} '{}' falló: {}", name, key, error.getMessage()));
+                    return Mono.justOrEmpty(entry.value);
+                }
+            }
+            misses.increment();
+            Mono<V> loaded = load(key, loader).flatMap(Mono::justOrEmpty);
+            if (entry == null || age >= ttlNanos + staleNanos + fallbackNanos) {
+                return loaded;
+            }
+            return loaded.onErrorResume(error -> {
+                fallbacks.increment();
+                log.debug("Carga de {} '{}' falló ({}); se responde el último valor conocido",
+                        name, key, error.getMessage());
+                return Mono.justOrEmpty(entry.value);
+            });
+        });
+    }
+
+    /**
+     * Guarda un valor obtenido por otra vía (p.ej. la organización embebida en un usuario).
+     */
+    public void put(K key, V value) {
+        if (key != null && value != null) {
+            store(key, Optional.of(value));
+        }
+    }
+
+    public Optional<V> peek(K key) {
+        Entry<V> entry = lookup(key);
+        return entry != null && ticker.getAsLong() - entry.loadedAt < ttlNanos + staleNanos
+                ? entry.value
+                : Optional.empty();
+    }
+
+    public void invalidate(K key) {
+        synchronized (entries) {
+            entries.remove(key);
+        }
+    }
+
+    public int size() {
+        synchronized (entries) {
+            return entries.size();
+        }
+    }
+
+    private Mono<Optional<V>> load(K key, Function<K, Mono<V>> loader) {
+        AtomicBoolean created = new AtomicBoolean();
+        Mono<Optional<V>> shared = inFlight.computeIfAbsent(key, k -> {
+            created.set(true);
+            return Mono.defer(() -> loader.apply(k))
+                    .map(Optional::of)
+                    .defaultIfEmpty(Optional.empty())
+                    .doOnNext(value -> store(k, value))
+                    .doFinally(signal -> inFlight.remove(k))
+                    .cache();
+        });
+        if (!created.get()) {
+            coalesced.increment();
+        }
+        return shared;
+    }
+
+    private Entry<V> lookup(K key) {
+        synchronized (entries) {
+            return entries.get(key);
+        }
+    }
+
+    private void store(K key, Optional<V> value) {
+        synchronized (entries) {
+            entries.put(key, new Entry<>(value, ticker.getAsLong()));
+            Iterator<Entry<V>> eldest = entries.values().iterator();
+            while (entries.size() > maxSize && eldest.hasNext()) {
+                eldest.next();
+                eldest.remove();
+            }
+        }
+    }
+
+    private Counter counter(MeterRegistry registry, String result) {
+        return Counter.builder("external.cache.requests")
+                .tag("cache", name).tag("result", result).register(registry);
+    }
+
+    private static final class Entry<V> {
+
+        private final Optional<V> value;
+        private final long loadedAt;
+
+        Entry(Optional<V> value, long loadedAt) {
+            this.value = value;
+            this.loadedAt = loadedAt;
+        }
+    }
+}
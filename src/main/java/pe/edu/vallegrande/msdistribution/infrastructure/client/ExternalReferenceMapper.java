@@ -0,0 +1,89 @@
+package pe.edu.vallegrande.msdistribution.infrastructure.client;
+
+import pe.edu.vallegrande.msdistribution.domain.models.Organization;
+import pe.edu.vallegrande.msdistribution.domain.models.Street;
+import pe.edu.vallegrande.msdistribution.domain.models.Zone;
+import pe.edu.vallegrande.msdistribution.infrastructure.client.dto.ExternalOrganization;
+import pe.edu.vallegrande.msdistribution.infrastructure.client.dto.ExternalStreet;
+import pe.edu.vallegrande.msdistribution.infrastructure.client.dto.ExternalZone;
+
+import java.time.Instant;
+
+/**
+ * Conversión entre organizaciones, zonas y calles de los otros microservicios y su copia local.
+ */
+public final class ExternalReferenceMapper {
+
+    private ExternalReferenceMapper() {
+    }
+
+    public static Organization toOrganization(ExternalOrganization source, Instant syncedAt) {
+        return Organization.builder()
+                .id(source.getOrganizationId())
+                .organizationCode(source.getOrganizationCode())
+                .organizationName(source.getOrganizationName())
+                .status(source.getStatus())
+                .address(source.getAddress())
+                .phone(source.getPhone())
+                .legalRepresentative(source.getLegalRepresentative())
+                .syncedAt(syncedAt)
+                .build();
+    }
+
+    public static Zone toZone(ExternalZone source, String organizationId, Instant syncedAt) {
+        return Zone.builder()
+                .id(source.getZoneId())
+                .organizationId(organizationId)
+                .zoneCode(source.getZoneCode())
+                .zoneName(source.getZoneName())
+                .description(source.getDescription())
+                .status(source.getStatus())
+                .syncedAt(syncedAt)
+                .build();
+    }
+
+    public static Street toStreet(ExternalStreet source, String organizationId, String zoneId, Instant syncedAt) {
+        return Street.builder()
+                .id(source.getStreetId())
+                .organizationId(organizationId)
+                .zoneId(zoneId)
+                .streetCode(source.getStreetCode())
+                .streetName(source.getStreetName())
+                .streetType(source.getStreetType())
+                .status(source.getStatus())
+                .syncedAt(syncedAt)
+                .build();
+    }
+
+    public static ExternalOrganization toExternal(Organization organization) {
+        ExternalOrganization external = new ExternalOrganization();
+        external.setOrganizationId(organization.getId());
+        external.setOrganizationCode(organization.getOrganizationCode());
+        external.setOrganizationName(organization.getOrganizationName());
+        external.setStatus(organization.getStatus());
+        external.setAddress(organization.getAddress());
+        external.setPhone(organization.getPhone());
+        external.setLegalRepresentative(organization.getLegalRepresentative());
+        return external;
+    }
+
+    public static ExternalZone toExternal(Zone zone) {
+        ExternalZone external = new ExternalZone();
+        external.setZoneId(zone.getId());
+        external.setZoneCode(zone.getZoneCode());
+        external.setZoneName(zone.getZoneName());
+        external.setDescription(zone.getDescription());
+        external.setStatus(zone.getStatus());
+        return external;
+    }
+
+    public static ExternalStreet toExternal(Street street) {
+        ExternalStreet external = new ExternalStreet();
+        external.setStreetId(street.getId());
+        external.setStreetCode(street.getStreetCode());
+        external.setStreetName(street.getStreetName());
+        external.setStreetType(street.getStreetType());
+        external.setStatus(street.getStatus());
+        return external;
+    }
+}
@@ -0,0 +1,78 @@
+package pe.edu.vallegrande.msdistribution.infrastructure.client;
+
+import org.springframework.util.StringUtils;
+import pe.edu.vallegrande.msdistribution.domain.models.User;
+import pe.edu.vallegrande.msdistribution.infrastructure.client.dto.ExternalUser;
+
+import java.time.Instant;
+import java.time.format.DateTimeParseException;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Conversión entre el usuario de ms-users y su copia en la colección local {@code user}. La copia
+ * guarda solo los ids de organización, zona y calle; al leerla esos objetos quedan en null y se
+ * resuelven aparte.
+ */
+public final class ExternalUserMapper {
+
+    private ExternalUserMapper() {
+    }
+
+    public static User toUser(ExternalUser source, String organizationId, Instant syncedAt) {
+        return User.builder()
+                .id(source.getId())
+                .organizationId(source.getOrganization() != null && source.getOrganization().getOrganizationId() != null
+                        ? source.getOrganization().getOrganizationId()
+                        : organizationId)
+                .userCode(source.getUserCode())
+                .firstName(source.getFirstName())
+                .lastName(source.getLastName())
+                .fullName(Stream.of(source.getFirstName(), source.getLastName())
+                        .filter(StringUtils::hasText)
+                        .collect(Collectors.joining(" ")))
+                .documentType(source.getDocumentType())
+                .documentNumber(source.getDocumentNumber())
+                .email(source.getEmail())
+                .phone(source.getPhone())
+                .address(source.getAddress())
+                .roles(source.getRoles())
+                .role(source.getRoles() != null && !source.getRoles().isEmpty() ? source.getRoles().get(0) : null)
+                .status(source.getStatus())
+                .zoneId(source.getZone() != null ? source.getZone().getZoneId() : null)
+                .streetId(source.getStreet() != null ? source.getStreet().getStreetId() : null)
+                .createdAt(parseInstant(source.getCreatedAt()))
+                .sourceUpdatedAt(source.getUpdatedAt())
+                .syncedAt(syncedAt)
+                .build();
+    }
+
+    public static ExternalUser toExternalUser(User user) {
+        ExternalUser external = new ExternalUser();
+        external.setId(user.getId());
+        external.setUserCode(user.getUserCode());
+        external.setFirstName(user.getFirstName());
+        external.setLastName(user.getLastName());
+        external.setDocumentType(user.getDocumentType());
+        external.setDocumentNumber(user.getDocumentNumber());
+        external.setEmail(user.getEmail());
+        external.setPhone(user.getPhone());
+        external.setAddress(user.getAddress());
+        external.setRoles(user.getRoles());
+        external.setStatus(user.getStatus());
+        external.setCreatedAt(user.getCreatedAt() != null ? user.getCreatedAt().toString() : null);
+        external.setUpdatedAt(user.getSourceUpdatedAt());
+        return external;
+    }
+
+    private static Instant parseInstant(String value) {
+        if (!StringUtils.hasText(value)) {
+            return null;
+        }
+        try {
+            return Instant.parse(value);
+        } catch (DateTimeParseException e) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,63 @@
+package pe.edu.vallegrande.msdistribution.infrastructure.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Perfil del cliente HTTP (pool de conexiones, timeouts, circuit breaker, bulkhead y peticiones de
+ * respaldo) por servicio externo.
+ */
+@Data
+@ConfigurationProperties(prefix = "http-clients")
+public class HttpClientProperties {
+
+    private Profile users = new Profile();
+    private Profile organization = new Profile();
+
+    @Data
+    public static class Profile {
+        // Pool: conexiones abiertas y peticiones que pueden esperar una conexión libre
+        private int maxConnections = 50;
+        private int pendingAcquireMaxCount = 100;
+        private long pendingAcquireTimeoutMs = 2000;
+        // Conexiones ociosas o muy antiguas se cierran; el barrido corre en segundo plano
+        private long maxIdleTimeMs = 30000;
+        private long maxLifeTimeMs = 300000;
+        private long evictInBackgroundMs = 30000;
+        private boolean keepAlive = true;
+        private long connectTimeoutMs = 2000;
+        // Tiempo máximo sin recibir datos de la respuesta (timeout de lectura por petición)
+        private long responseTimeoutMs = 5000;
+        private long writeTimeoutMs = 5000;
+        private boolean http2 = false;
+        private boolean compress = true;
+        // Bulkhead: llamadas simultáneas en curso; las demás se rechazan al instante
+        private int maxConcurrentCalls = 25;
+        private Breaker breaker = new Breaker();
+        private Hedge hedge = new Hedge();
+    }
+
+    @Data
+    public static class Breaker {
+        // Se abre si, con al menos minimum-calls registradas, fallan failure-rate-threshold % de las últimas window-size
+        private int windowSize = 20;
+        private int minimumCalls = 10;
+        private int failureRateThreshold = 50;
+        // Tiempo abierto antes de dejar pasar half-open-calls llamadas de prueba
+        private long openMs = 10000;
+        private int halfOpenCalls = 3;
+    }
+
+    @Data
+    public static class Hedge {
+        // Desactivado por defecto: duplica lecturas lentas hacia el servicio
+        private boolean enabled = false;
+        // Se envía el respaldo al superar este percentil de las últimas sample-size latencias
+        private double percentile = 95;
+        private int sampleSize = 200;
+        private long initialDelayMs = 100;
+        private long minDelayMs = 10;
+        // Fracción máxima de peticiones con respaldo
+        private double maxRate = 0.05;
+    }
+}
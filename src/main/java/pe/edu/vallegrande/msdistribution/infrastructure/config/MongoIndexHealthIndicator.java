@@ -0,0 +1,36 @@
+package pe.edu.vallegrande.msdistribution.infrastructure.config;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.actuate.health.AbstractReactiveHealthIndicator;
+import org.springframework.boot.actuate.health.Health;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+/**
+ * Health {@code mongoIndexes}: OUT_OF_SERVICE mientras falte algún índice crítico, con el
+ * detalle de la deriva entre los índices declarados y los existentes. Lee el último reporte
+ * de {@link MongoIndexManager}; hasta la primera verificación también es OUT_OF_SERVICE.
+ */
+@Component("mongoIndexes")
+@RequiredArgsConstructor
+public class MongoIndexHealthIndicator extends AbstractReactiveHealthIndicator {
+
+    private final MongoIndexManager indexManager;
+
+    @Override
+    protected Mono<Health> doHealthCheck(Health.Builder builder) {
+        MongoIndexManager.IndexReport report = indexManager.getLastReport();
+        if (report == null) {
+            return Mono.just(builder.outOfService()
+                    .withDetail("reason", "Verificación de índices pendiente")
+                    .build());
+        }
+        return Mono.just((report.ready() ? builder.up() : builder.outOfService())
+                .withDetail("drift", report.drift())
+                .withDetail("missing", report.getMissing())
+                .withDetail("mismatched", report.getMismatched())
+                .withDetail("unexpected", report.getUnexpected())
+                .withDetail("missingCritical", report.getMissingCritical())
+                .build());
+    }
+}
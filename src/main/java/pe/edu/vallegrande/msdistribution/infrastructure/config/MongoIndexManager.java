@@ -0,0 +1,287 @@
+package pe.edu.vallegrande.msdistribution.infrastructure.config;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.Document;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.index.Index;
+import org.springframework.data.mongodb.core.index.IndexField;
+import org.springframework.data.mongodb.core.index.IndexInfo;
+import org.springframework.data.mongodb.core.index.PartialIndexFilter;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.stream.Collectors;
+
+/**
+ * Declaración central de los índices de las colecciones {@code program}, {@code route},
+ * {@code schedule}, {@code fare} y {@code user}.
+ *
+ * Al arrancar crea en background los índices que falten y luego los compara con los
+ * existentes; la comparación se repite cada {@code mongo.indexes.verify-interval-ms}. El último
+ * resultado (faltantes, distintos y no declarados) se guarda y lo expone el health
+ * {@code mongoIndexes} sin consultar Mongo en cada sonda. Ese health forma parte del grupo
+ * readiness: el nodo no recibe tráfico hasta que existan todos los índices críticos.
+ */
+@Component
+@Slf4j
+public class MongoIndexManager {
+
+    private final ReactiveMongoTemplate mongoTemplate;
+    private final boolean autoCreate;
+    private final List<IndexSpec> specs;
+
+    /** Último reporte de verify(); null hasta que termina la verificación del arranque. */
+    @Getter
+    private volatile IndexReport lastReport;
+    private volatile boolean bootstrapping;
+
+    public MongoIndexManager(ReactiveMongoTemplate mongoTemplate,
+                             @Value("${mongo.indexes.auto-create:true}") boolean autoCreate,
+                             @Value("${sequence.per-organization:false}") boolean perOrganizationCodes) {
+        this.mongoTemplate = mongoTemplate;
+        this.autoCreate = autoCreate;
+        this.specs = declaredIndexes(perOrganizationCodes);
+    }
+
+    /**
+     * Índices esperados. Los códigos son únicos globalmente, o por organización cuando
+     * la numeración de secuencias es por organización.
+     */
+    static List<IndexSpec> declaredIndexes(boolean perOrganizationCodes) {
+        List<IndexSpec> list = new ArrayList<>();
+
+        list.add(codeIndex("program", "programCode", perOrganizationCodes));
+        list.add(IndexSpec.of("program", "idx_program_org_date", false, false, "organizationId", "programDate", "_id"));
+        list.add(IndexSpec.of("program", "idx_program_status", false, false, "status"));
+        list.addAll(pageIndexes("program"));
+
+        list.add(codeIndex("route", "routeCode", perOrganizationCodes));
+        list.add(IndexSpec.of("route", "idx_route_org_status", false, false, "organizationId", "status"));
+        list.add(IndexSpec.of("route", "idx_route_status", false, false, "status"));
+        list.addAll(pageIndexes("route"));
+
+        list.add(codeIndex("schedule", "scheduleCode", perOrganizationCodes));
+        list.add(IndexSpec.of("schedule", "idx_schedule_org_status", false, false, "organizationId", "status"));
+        list.add(IndexSpec.of("schedule", "idx_schedule_status", false, false, "status"));
+        list.addAll(pageIndexes("schedule"));
+
+        list.add(codeIndex("fare", "fareCode", perOrganizationCodes));
+        list.add(IndexSpec.of("fare", "idx_fare_org_status_effective", false, true, "organizationId", "status", "effectiveDate"));
+        list.add(IndexSpec.of("fare", "idx_fare_status_effective", false, false, "status", "effectiveDate"));
+        list.addAll(pageIndexes("fare"));
+
+        // réplica de otro servicio: userCode puede faltar y solo es único dentro de la organización
+        list.add(IndexSpec.of("user", "uk_user_org_code", true, false, "organizationId", "userCode")
+                .partial(new Document("userCode", new Document("$type", "string"))));
+        list.add(IndexSpec.of("user", "idx_user_org", false, false, "organizationId"));
+        list.add(IndexSpec.of("user", "idx_user_status", false, false, "status"));
+        return list;
+    }
+
+    /**
+     * Índices de la paginación por cursor (orden createdAt + _id, global y por organización).
+     */
+    private static List<IndexSpec> pageIndexes(String collection) {
+        return List.of(
+                IndexSpec.of(collection, "idx_" + collection + "_created", false, false, "createdAt", "_id"),
+                IndexSpec.of(collection, "idx_" + collection + "_org_created", false, false, "organizationId", "createdAt", "_id"));
+    }
+
+    /**
+     * No crítico: con códigos ya duplicados (altas concurrentes previas al contador) el índice
+     * único no se puede crear; queda como faltante en el reporte sin sacar al nodo del readiness.
+     */
+    private static IndexSpec codeIndex(String collection, String codeField, boolean perOrganization) {
+        return perOrganization
+                ? IndexSpec.of(collection, "uk_" + collection + "_org_code", true, false, "organizationId", codeField)
+                : IndexSpec.of(collection, "uk_" + collection + "_code", true, false, codeField);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void bootstrap() {
+        bootstrapping = true;
+        Mono<Void> creation = autoCreate ? ensureIndexes() : Mono.empty();
+        creation.then(verifyAndKeep())
+                .doFinally(signal -> bootstrapping = false)
+                .subscribe(
+                        report -> log.info("Verificación de índices Mongo: {}", report.summary()),
+                        error -> log.error("Error verificando índices Mongo: ", error));
+    }
+
+    /**
+     * Repite la verificación para que el health refleje índices borrados o creados a mano; no
+     * se solapa con la del arranque.
+     */
+    @Scheduled(initialDelayString = "${mongo.indexes.verify-interval-ms:300000}",
+            fixedDelayString = "${mongo.indexes.verify-interval-ms:300000}")
+    public void reverify() {
+        if (bootstrapping) {
+            return;
+        }
+        verifyAndKeep().subscribe(
+                report -> log.debug("Verificación de índices Mongo: {}", report.summary()),
+                error -> log.warn("Error verificando índices Mongo: {}", error.getMessage()));
+    }
+
+    Mono<IndexReport> verifyAndKeep() {
+        return verify().doOnNext(report -> lastReport = report);
+    }
+
+    /**
+     * Crea los índices declarados. Un fallo (p. ej. códigos duplicados que
+     * impiden un índice único) se registra y no detiene al resto; el índice quedará como faltante
+     * en el reporte.
+     */
+    public Mono<Void> ensureIndexes() {
+        return Flux.fromIterable(specs)
+                .concatMap(spec -> mongoTemplate.indexOps(spec.getCollection())
+                        .ensureIndex(spec.toIndex())
+                        .doOnNext(name -> log.debug("Índice {}.{} asegurado", spec.getCollection(), name))
+                        .onErrorResume(e -> {
+                            log.error("No se pudo crear el índice {}.{}: {}", spec.getCollection(), spec.getName(), e.getMessage());
+                            return Mono.empty();
+                        }))
+                .then();
+    }
+
+    /**
+     * Compara los índices declarados con los existentes en cada colección.
+     */
+    public Mono<IndexReport> verify() {
+        Map<String, List<IndexSpec>> byCollection = specs.stream()
+                .collect(Collectors.groupingBy(IndexSpec::getCollection, LinkedHashMap::new, Collectors.toList()));
+
+        return Flux.fromIterable(byCollection.entrySet())
+                .concatMap(entry -> mongoTemplate.indexOps(entry.getKey()).getIndexInfo()
+                        .collectList()
+                        .map(existing -> compare(entry.getKey(), entry.getValue(), existing)))
+                .reduce(IndexReport.empty(), IndexReport::merge);
+    }
+
+    static IndexReport compare(String collection, List<IndexSpec> expected, List<IndexInfo> existing) {
+        IndexReport report = IndexReport.empty();
+        Map<String, IndexInfo> existingByName = existing.stream()
+                .collect(Collectors.toMap(IndexInfo::getName, info -> info, (a, b) -> a));
+
+        for (IndexSpec spec : expected) {
+            IndexInfo info = existingByName.remove(spec.getName());
+            if (info == null) {
+                // Mismo índice creado a mano con otro nombre: se acepta como existente
+                info = existingByName.values().stream().filter(spec::matches).findFirst().orElse(null);
+                if (info != null) {
+                    existingByName.remove(info.getName());
+                }
+            }
+            String qualified = collection + "." + spec.getName();
+            if (info == null) {
+                report.getMissing().add(qualified);
+                if (spec.isCritical()) {
+                    report.getMissingCritical().add(qualified);
+                }
+            } else if (!spec.matches(info)) {
+                report.getMismatched().add(qualified);
+                if (spec.isCritical()) {
+                    report.getMissingCritical().add(qualified);
+                }
+            }
+        }
+        existingByName.keySet().stream()
+                .filter(name -> !"_id_".equals(name))
+                .forEach(name -> report.getUnexpected().add(collection + "." + name));
+        return report;
+    }
+
+    /**
+     * Definición de un índice: campos ascendentes en orden, unicidad, filtro parcial (null si
+     * indexa todos los documentos) y si es crítico para aceptar tráfico.
+     */
+    @Getter
+    @AllArgsConstructor
+    static final class IndexSpec {
+        private final String collection;
+        private final String name;
+        private final List<String> fields;
+        private final boolean unique;
+        private final boolean critical;
+        private final Document partialFilter;
+
+        static IndexSpec of(String collection, String name, boolean unique, boolean critical, String... fields) {
+            return new IndexSpec(collection, name, List.of(fields), unique, critical, null);
+        }
+
+        IndexSpec partial(Document filter) {
+            return new IndexSpec(collection, name, fields, unique, critical, filter);
+        }
+
+        Index toIndex() {
+            Index index = new Index().named(name).background();
+            fields.forEach(field -> index.on(field, Sort.Direction.ASC));
+            if (partialFilter != null) {
+                index.partial(PartialIndexFilter.of(partialFilter));
+            }
+            return unique ? index.unique() : index;
+        }
+
+        boolean matches(IndexInfo info) {
+            List<String> actual = info.getIndexFields().stream()
+                    .map(IndexField::getKey)
+                    .collect(Collectors.toList());
+            Document actualFilter = info.getPartialFilterExpression() == null
+                    ? null
+                    : Document.parse(info.getPartialFilterExpression());
+            return actual.equals(fields) && info.isUnique() == unique && Objects.equals(actualFilter, partialFilter);
+        }
+    }
+
+    /**
+     * Resultado de la verificación; {@code missingCritical} incluye también los críticos
+     * que existen con una definición distinta.
+     */
+    @Getter
+    public static class IndexReport {
+        private final List<String> missing = new ArrayList<>();
+        private final List<String> mismatched = new ArrayList<>();
+        private final List<String> unexpected = new ArrayList<>();
+        private final List<String> missingCritical = new ArrayList<>();
+
+        static IndexReport empty() {
+            return new IndexReport();
+        }
+
+        IndexReport merge(IndexReport other) {
+            missing.addAll(other.getMissing());
+            mismatched.addAll(other.getMismatched());
+            unexpected.addAll(other.getUnexpected());
+            missingCritical.addAll(other.getMissingCritical());
+            return this;
+        }
+
+        public boolean ready() {
+            return missingCritical.isEmpty();
+        }
+
+        public boolean drift() {
+            return !missing.isEmpty() || !mismatched.isEmpty() || !unexpected.isEmpty();
+        }
+
+        public Document summary() {
+            return new Document("ready", ready())
+                    .append("missing", missing)
+                    .append("mismatched", mismatched)
+                    .append("unexpected", unexpected);
+        }
+    }
+}
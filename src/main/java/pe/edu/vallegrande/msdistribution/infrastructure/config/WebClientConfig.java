@@ -1,13 +1,32 @@
 package pe.edu.vallegrande.msdistribution.infrastructure.config;
 
+import io.netty.channel.ChannelOption;
+import io.netty.handler.timeout.WriteTimeoutHandler;
+import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.http.HttpHeaders;
+import org.springframework.http.client.reactive.ReactorClientHttpConnector;
 import org.springframework.web.reactive.function.client.WebClient;
+import reactor.netty.http.HttpProtocol;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.resources.ConnectionProvider;
 
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * WebClients de ms-users y ms-organization. Cada uno tiene su propio pool de conexiones y
+ * timeouts (ver {@link HttpClientProperties}): un servicio lento agota solo su pool y las
+ * peticiones en espera fallan rápido en lugar de acumularse. Las métricas del pool se
+ * publican en Micrometer (reactor.netty.connection.provider.*).
+ */
 @Configuration
+@EnableConfigurationProperties(HttpClientProperties.class)
+@Slf4j
 public class WebClientConfig {
 
     @Value("${user-service.base-url}")
@@ -19,23 +38,70 @@ public class WebClientConfig {
     @Value("${organization-service.token}")
     private String organizationServiceToken;
 
+    @Bean(destroyMethod = "dispose")
+    @Qualifier("userConnectionProvider")
+    public ConnectionProvider userConnectionProvider(HttpClientProperties properties) {
+        return connectionProvider("ms-users", properties.getUsers());
+    }
+
+    @Bean(destroyMethod = "dispose")
+    @Qualifier("organizationConnectionProvider")
+    public ConnectionProvider organizationConnectionProvider(HttpClientProperties properties) {
+        return connectionProvider("ms-organization", properties.getOrganization());
+    }
+
     @Bean
     @Qualifier("userWebClient")
-    public WebClient userWebClient() {
-        return WebClient.builder().baseUrl(userServiceBaseUrl).build();
+    public WebClient userWebClient(@Qualifier("userConnectionProvider") ConnectionProvider connectionProvider,
+                                   HttpClientProperties properties) {
+        return WebClient.builder()
+                .baseUrl(userServiceBaseUrl)
+                .clientConnector(new ReactorClientHttpConnector(
+                        httpClient(connectionProvider, properties.getUsers(), userServiceBaseUrl)))
+                .build();
     }
 
     @Bean
     @Qualifier("organizationWebClient")
-    public WebClient organizationWebClient() {
-        System.out.println("Organization service base URL: " + organizationServiceBaseUrl);
-        System.out.println("Organization service token: " + organizationServiceToken);
-        System.out.println(
-                "Token length: " + (organizationServiceToken != null ? organizationServiceToken.length() : "null"));
-
+    public WebClient organizationWebClient(@Qualifier("organizationConnectionProvider") ConnectionProvider connectionProvider,
+                                           HttpClientProperties properties) {
+        log.info("Organization service base URL: {}", organizationServiceBaseUrl);
         return WebClient.builder()
                 .baseUrl(organizationServiceBaseUrl)
+                .clientConnector(new ReactorClientHttpConnector(
+                        httpClient(connectionProvider, properties.getOrganization(), organizationServiceBaseUrl)))
                 .defaultHeader(HttpHeaders.AUTHORIZATION, "Bearer " + organizationServiceToken)
                 .build();
     }
-}
\ No newline at end of file
+
+    static ConnectionProvider connectionProvider(String name, HttpClientProperties.Profile profile) {
+        return ConnectionProvider.builder(name)
+                .maxConnections(profile.getMaxConnections())
+                .pendingAcquireMaxCount(profile.getPendingAcquireMaxCount())
+                .pendingAcquireTimeout(Duration.ofMillis(profile.getPendingAcquireTimeoutMs()))
+                .maxIdleTime(Duration.ofMillis(profile.getMaxIdleTimeMs()))
+                .maxLifeTime(Duration.ofMillis(profile.getMaxLifeTimeMs()))
+                .evictInBackground(Duration.ofMillis(profile.getEvictInBackgroundMs()))
+                .metrics(true)
+                .build();
+    }
+
+    static HttpClient httpClient(ConnectionProvider connectionProvider, HttpClientProperties.Profile profile,
+                                 String baseUrl) {
+        HttpClient client = HttpClient.create(connectionProvider)
+                .keepAlive(profile.isKeepAlive())
+                .compress(profile.isCompress())
+                .option(ChannelOption.CONNECT_TIMEOUT_MILLIS, (int) profile.getConnectTimeoutMs())
+                .responseTimeout(Duration.ofMillis(profile.getResponseTimeoutMs()))
+                // Por petición: los handlers agregados a la conexión se retiran al devolverla al pool
+                .doOnRequest((request, connection) -> connection
+                        .addHandlerLast(new WriteTimeoutHandler(profile.getWriteTimeoutMs(), TimeUnit.MILLISECONDS)));
+        if (profile.isHttp2()) {
+            // h2 se negocia por ALPN sobre TLS; en texto plano se usa h2c
+            client = baseUrl != null && baseUrl.startsWith("https")
+                    ? client.protocol(HttpProtocol.H2, HttpProtocol.HTTP11).secure()
+                    : client.protocol(HttpProtocol.H2C, HttpProtocol.HTTP11);
+        }
+        return client;
+    }
+}
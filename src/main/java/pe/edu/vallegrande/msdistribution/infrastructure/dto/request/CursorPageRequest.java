@@ -0,0 +1,23 @@
+package pe.edu.vallegrande.msdistribution.infrastructure.dto.request;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class CursorPageRequest {
+
+    private Integer limit;
+    // Token opaco devuelto como nextCursor por la página anterior
+    private String after;
+    // createdAt (por defecto), id o programDate (solo programas de una organización)
+    private String sort;
+    // asc | desc (por defecto desc)
+    private String direction;
+    private String organizationId;
+    private String status;
+}
@@ -0,0 +1,32 @@
+package pe.edu.vallegrande.msdistribution.infrastructure.dto.response;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import pe.edu.vallegrande.msdistribution.infrastructure.dto.ErrorMessage;
+
+/**
+ * Resultado de un elemento de una importación masiva; {@code index} es su posición en la entrada.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class BulkItemResult<T> {
+
+    private long index;
+    private boolean success;
+    private T data;
+    private ErrorMessage error;
+
+    public static <T> BulkItemResult<T> created(long index, T data) {
+        return BulkItemResult.<T>builder().index(index).success(true).data(data).build();
+    }
+
+    public static <T> BulkItemResult<T> failed(long index, ErrorMessage error) {
+        return BulkItemResult.<T>builder().index(index).success(false).error(error).build();
+    }
+}
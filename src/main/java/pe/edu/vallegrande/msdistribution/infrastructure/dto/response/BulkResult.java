@@ -0,0 +1,33 @@
+package pe.edu.vallegrande.msdistribution.infrastructure.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * Resumen de una importación masiva con el resultado de cada elemento, en el orden de entrada.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class BulkResult<T> {
+
+    private int total;
+    private int created;
+    private int failed;
+    private List<BulkItemResult<T>> items;
+
+    public static <T> BulkResult<T> of(List<BulkItemResult<T>> items) {
+        int created = (int) items.stream().filter(BulkItemResult::isSuccess).count();
+        return BulkResult.<T>builder()
+                .total(items.size())
+                .created(created)
+                .failed(items.size() - created)
+                .items(items)
+                .build();
+    }
+}
@@ -0,0 +1,46 @@
+package pe.edu.vallegrande.msdistribution.infrastructure.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class CursorPage<T> {
+
+    private List<T> items;
+    private int limit;
+    private boolean hasMore;
+    // null cuando no hay más páginas
+    private String nextCursor;
+    private String sort;
+    private String direction;
+    // Estimación barata (contadores del dashboard o metadatos de la colección), no un count exacto
+    private long estimatedTotal;
+
+    public <R> CursorPage<R> map(Function<T, R> mapper) {
+        return withItems(items.stream().map(mapper).collect(Collectors.toList()));
+    }
+
+    /**
+     * Misma página (cursor, límites, total) con otros elementos, p.ej. ya enriquecidos.
+     */
+    public <R> CursorPage<R> withItems(List<R> newItems) {
+        return CursorPage.<R>builder()
+                .items(newItems)
+                .limit(limit)
+                .hasMore(hasMore)
+                .nextCursor(nextCursor)
+                .sort(sort)
+                .direction(direction)
+                .estimatedTotal(estimatedTotal)
+                .build();
+    }
+}
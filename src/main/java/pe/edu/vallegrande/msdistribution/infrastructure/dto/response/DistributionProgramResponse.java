@@ -30,4 +30,6 @@ public class DistributionProgramResponse {
     private String responsibleUserId;
     private String observations;
     private Instant createdAt;
+    private Instant updatedAt;
+    private Long version;
 }
\ No newline at end of file
@@ -22,6 +22,8 @@ public class DistributionRouteResponse {
     private String responsibleUserId;
     private String status;
     private Instant createdAt;
+    private Instant updatedAt;
+    private Long version;
     
     @Data
     @NoArgsConstructor
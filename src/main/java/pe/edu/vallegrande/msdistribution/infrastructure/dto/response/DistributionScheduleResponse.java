@@ -32,4 +32,6 @@ public class DistributionScheduleResponse {
     private Integer durationHours;
     private String status;
     private Instant createdAt;
+    private Instant updatedAt;
+    private Long version;
 }
\ No newline at end of file
@@ -24,5 +24,7 @@ public class FareResponse {
 
     private String status;
     private Instant createdAt;
+    private Instant updatedAt;
+    private Long version;
     private Date effectiveDate; 
 }
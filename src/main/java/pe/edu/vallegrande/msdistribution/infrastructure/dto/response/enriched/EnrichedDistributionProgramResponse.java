@@ -5,6 +5,9 @@ import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 import pe.edu.vallegrande.msdistribution.infrastructure.client.dto.ExternalOrganization;
+import pe.edu.vallegrande.msdistribution.infrastructure.client.dto.ExternalStreet;
+import pe.edu.vallegrande.msdistribution.infrastructure.client.dto.ExternalUser;
+import pe.edu.vallegrande.msdistribution.infrastructure.client.dto.ExternalZone;
 
 import java.time.Instant;
 import java.time.LocalDate;
@@ -20,9 +23,13 @@ public class EnrichedDistributionProgramResponse {
     private ExternalOrganization organization; // Organization details
     private String programCode;
     private String scheduleId;
+    private ReferenceSummary schedule; // Schedule details
     private String routeId;
+    private ReferenceSummary route; // Route details
     private String zoneId;
+    private ExternalZone zone; // Zone details
     private String streetId;
+    private ExternalStreet street; // Street details
     private LocalDate programDate;
     private String plannedStartTime;
     private String plannedEndTime;
@@ -30,6 +37,9 @@ public class EnrichedDistributionProgramResponse {
     private String actualEndTime;
     private String status;
     private String responsibleUserId;
+    private ExternalUser responsibleUser; // Responsible user details
     private String observations;
     private Instant createdAt;
+    // true si alguna referencia no se resolvió dentro del presupuesto de latencia
+    private boolean degraded;
 }
\ No newline at end of file
@@ -5,6 +5,8 @@ import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 import pe.edu.vallegrande.msdistribution.infrastructure.client.dto.ExternalOrganization;
+import pe.edu.vallegrande.msdistribution.infrastructure.client.dto.ExternalUser;
+import pe.edu.vallegrande.msdistribution.infrastructure.client.dto.ExternalZone;
 
 import java.time.Instant;
 import java.util.List;
@@ -23,8 +25,11 @@ public class EnrichedDistributionRouteResponse {
     private List<ZoneDetail> zones; // Nuevo campo para la lista de zonas
     private Integer totalEstimatedDuration;
     private String responsibleUserId;
+    private ExternalUser responsibleUser; // Responsible user details
     private String status;
     private Instant createdAt;
+    // true si alguna referencia no se resolvió dentro del presupuesto de latencia
+    private boolean degraded;
     
     @Data
     @NoArgsConstructor
@@ -32,6 +37,7 @@ public class EnrichedDistributionRouteResponse {
     @Builder
     public static class ZoneDetail {
         private String zoneId;
+        private ExternalZone zone; // Zone details
         private Integer order;
         private Integer estimatedDuration;
     }
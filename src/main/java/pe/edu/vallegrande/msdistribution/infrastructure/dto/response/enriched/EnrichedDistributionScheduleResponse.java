@@ -5,6 +5,8 @@ import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 import pe.edu.vallegrande.msdistribution.infrastructure.client.dto.ExternalOrganization;
+import pe.edu.vallegrande.msdistribution.infrastructure.client.dto.ExternalStreet;
+import pe.edu.vallegrande.msdistribution.infrastructure.client.dto.ExternalZone;
 
 import java.time.Instant;
 import java.util.List;
@@ -20,7 +22,9 @@ public class EnrichedDistributionScheduleResponse {
     private ExternalOrganization organization; // Organization details
     private String scheduleCode;
     private String zoneId;
+    private ExternalZone zone; // Zone details
     private String streetId;
+    private ExternalStreet street; // Street details
     private String scheduleName;
     private List<String> daysOfWeek;
     private String startTime;
@@ -28,4 +32,6 @@ public class EnrichedDistributionScheduleResponse {
     private Integer durationHours;
     private String status;
     private Instant createdAt;
+    // true si alguna referencia no se resolvió dentro del presupuesto de latencia
+    private boolean degraded;
 }
\ No newline at end of file
@@ -25,4 +25,6 @@ public class EnrichedFareResponse {
     private String status;
     private Instant createdAt;
     private Date effectiveDate;
+    // true si la organización no se resolvió dentro del presupuesto de latencia
+    private boolean degraded;
 }
\ No newline at end of file
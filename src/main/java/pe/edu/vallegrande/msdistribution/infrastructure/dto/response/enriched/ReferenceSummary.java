@@ -0,0 +1,20 @@
+package pe.edu.vallegrande.msdistribution.infrastructure.dto.response.enriched;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Datos mínimos de una entidad referenciada (horario, ruta) dentro de una respuesta enriquecida.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ReferenceSummary {
+    private String id;
+    private String code;
+    private String name;
+    private String status;
+}
@@ -48,4 +48,12 @@ public class CustomException extends RuntimeException {
                 message
         );
     }
-}
\ No newline at end of file
+
+    public static CustomException preconditionFailed(String message) {
+        return new CustomException(
+                412,
+                "Precondición fallida",
+                message
+        );
+    }
+}
@@ -0,0 +1,92 @@
+package pe.edu.vallegrande.msdistribution.infrastructure.repository;
+
+import com.mongodb.MongoBulkWriteException;
+import com.mongodb.bulk.BulkWriteError;
+import lombok.RequiredArgsConstructor;
+import org.bson.types.ObjectId;
+import org.springframework.data.mapping.PersistentPropertyAccessor;
+import org.springframework.data.mongodb.BulkOperationException;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.mapping.MongoPersistentEntity;
+import org.springframework.data.mongodb.core.mapping.MongoPersistentProperty;
+import org.springframework.stereotype.Repository;
+import pe.edu.vallegrande.msdistribution.infrastructure.exception.CustomException;
+import reactor.core.publisher.Mono;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Altas masivas con un único insertMany no ordenado por lote: un documento rechazado (p. ej. código
+ * duplicado) no detiene al resto y el error se informa por su posición en el lote.
+ */
+@Repository
+@RequiredArgsConstructor
+public class BulkInsertRepository {
+
+    private static final int DUPLICATE_KEY = 11000;
+
+    private final ReactiveMongoTemplate mongoTemplate;
+
+    /**
+     * Inserta {@code documents} y devuelve los rechazados por posición (vacío si entraron todos).
+     * Los ids se asignan antes de escribir, así cada documento insertado ya lleva el suyo.
+     */
+    public <T> Mono<Map<Integer, CustomException>> insert(Class<T> entityClass, List<T> documents) {
+        if (documents.isEmpty()) {
+            return Mono.just(Collections.emptyMap());
+        }
+        return Mono.defer(() -> {
+            assignIds(entityClass, documents);
+            return mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, entityClass)
+                    .insert(documents)
+                    .execute()
+                    .map(result -> Collections.<Integer, CustomException>emptyMap())
+                    .onErrorResume(error -> writeErrors(error) != null,
+                            error -> Mono.just(rejected(writeErrors(error))));
+        });
+    }
+
+    private <T> void assignIds(Class<T> entityClass, List<T> documents) {
+        MongoPersistentEntity<?> entity = mongoTemplate.getConverter().getMappingContext()
+                .getRequiredPersistentEntity(entityClass);
+        MongoPersistentProperty idProperty = entity.getRequiredIdProperty();
+        for (T document : documents) {
+            PersistentPropertyAccessor<T> accessor = entity.getPropertyAccessor(document);
+            if (accessor.getProperty(idProperty) == null) {
+                accessor.setProperty(idProperty, new ObjectId().toHexString());
+            }
+        }
+    }
+
+    private static Map<Integer, CustomException> rejected(List<BulkWriteError> errors) {
+        Map<Integer, CustomException> rejected = new LinkedHashMap<>();
+        for (BulkWriteError error : errors) {
+            rejected.put(error.getIndex(), error.getCode() == DUPLICATE_KEY
+                    ? CustomException.conflict("Código duplicado: " + error.getMessage())
+                    : CustomException.internalServerError("Error al insertar el documento", error.getMessage()));
+        }
+        return rejected;
+    }
+
+    /**
+     * Errores por documento de un insertMany fallido; null si el fallo no es de escritura (red, timeout).
+     */
+    static List<BulkWriteError> writeErrors(Throwable error) {
+        for (Throwable current = error; current != null; current = current.getCause()) {
+            if (current instanceof BulkOperationException) {
+                return ((BulkOperationException) current).getErrors();
+            }
+            if (current instanceof MongoBulkWriteException) {
+                return ((MongoBulkWriteException) current).getWriteErrors();
+            }
+            if (current.getCause() == current) {
+                break;
+            }
+        }
+        return null;
+    }
+}
@@ -11,6 +11,8 @@ public interface DistributionRouteRepository extends ReactiveMongoRepository<Dis
 
     Flux<DistributionRoute> findAllByStatus(String status);
 
+    Flux<DistributionRoute> findAllByOrganizationIdAndStatus(String organizationId, String status);
+
     Mono<Boolean> existsByRouteCode(String routeCode);
 
     Mono<DistributionRoute> findTopByOrderByRouteCodeDesc();
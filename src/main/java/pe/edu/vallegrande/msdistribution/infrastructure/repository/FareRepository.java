@@ -6,9 +6,12 @@ import pe.edu.vallegrande.msdistribution.domain.models.Fare;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
+import java.util.Collection;
+import java.util.Date;
+
 
 @Repository
-public interface FareRepository extends ReactiveMongoRepository<Fare, String> {
+public interface FareRepository extends ReactiveMongoRepository<Fare, String>, FareRepositoryCustom {
 
     Flux<Fare> findAllByStatus(String status);
 
@@ -17,4 +20,14 @@ public interface FareRepository extends ReactiveMongoRepository<Fare, String> {
     Mono<Fare> findTopByOrderByFareCodeDesc(); // <- CORRECTO
     
     Flux<Fare> findByOrganizationIdAndStatusOrderByEffectiveDateDesc(String organizationId, String status);
+
+    Flux<Fare> findByOrganizationId(String organizationId);
+
+    Flux<Fare> findByOrganizationIdInAndStatus(Collection<String> organizationIds, String status);
+
+    Flux<Fare> findByStatusAndEffectiveDateLessThanEqual(String status, Date date);
+
+    Flux<Fare> findByStatusAndEffectiveDateBefore(String status, Date date);
+
+    Flux<Fare> findByStatusInAndEffectiveDateAfter(Collection<String> statuses, Date date);
 }
\ No newline at end of file
@@ -0,0 +1,33 @@
+package pe.edu.vallegrande.msdistribution.infrastructure.repository;
+
+import pe.edu.vallegrande.msdistribution.domain.models.Fare;
+import reactor.core.publisher.Mono;
+
+import java.util.Collection;
+import java.util.Date;
+import java.util.Map;
+
+/**
+ * Consultas de tarifas por organización que no se expresan como métodos derivados.
+ */
+public interface FareRepositoryCustom {
+
+    /**
+     * Tarifa en vigor en {@code at}: la de mayor effectiveDate no posterior a {@code at} en cualquier
+     * estado; si no hay, la ACTIVE más reciente sin fecha de vigencia. Resuelta con
+     * idx_fare_org_status_effective y límite 1.
+     */
+    Mono<Fare> findFareInForceAt(String organizationId, Date at);
+
+    /**
+     * $set status en un solo updateMany, solo sobre las tarifas que siguen en {@code expectedStatus}.
+     * Devuelve la cantidad de documentos modificados.
+     */
+    Mono<Long> updateStatus(Collection<String> ids, String expectedStatus, String newStatus);
+
+    /**
+     * Regla de una tarifa activa por organización: un updateMany por organización que deja
+     * INACTIVE toda tarifa ACTIVE distinta de la indicada, enviados en una sola escritura bulk.
+     */
+    Mono<Long> deactivateActiveExcept(Map<String, String> keepByOrganization);
+}
@@ -0,0 +1,77 @@
+package pe.edu.vallegrande.msdistribution.infrastructure.repository;
+
+import com.mongodb.bulk.BulkWriteResult;
+import com.mongodb.client.result.UpdateResult;
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.ReactiveBulkOperations;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import pe.edu.vallegrande.msdistribution.domain.enums.Constants;
+import pe.edu.vallegrande.msdistribution.domain.models.Fare;
+import reactor.core.publisher.Mono;
+
+import java.util.Collection;
+import java.util.Date;
+import java.util.Map;
+
+@RequiredArgsConstructor
+public class FareRepositoryCustomImpl implements FareRepositoryCustom {
+
+    private final ReactiveMongoTemplate mongoTemplate;
+
+    @Override
+    public Mono<Fare> findFareInForceAt(String organizationId, Date at) {
+        // status con $in para que el índice por organización, estado y fecha siga sirviendo
+        Query dated = Query.query(Criteria.where("organizationId").is(organizationId)
+                        .and("status").in(Constants.ACTIVE.name(), Constants.INACTIVE.name())
+                        .and("effectiveDate").lte(at))
+                .with(Sort.by(Sort.Direction.DESC, "effectiveDate", "createdAt"))
+                .limit(1);
+        Query undated = Query.query(activeOf(organizationId).and("effectiveDate").is(null))
+                .with(Sort.by(Sort.Direction.DESC, "createdAt"))
+                .limit(1);
+        return mongoTemplate.findOne(dated, Fare.class)
+                .switchIfEmpty(Mono.defer(() -> mongoTemplate.findOne(undated, Fare.class)));
+    }
+
+    @Override
+    public Mono<Long> updateStatus(Collection<String> ids, String expectedStatus, String newStatus) {
+        if (ids.isEmpty()) {
+            return Mono.just(0L);
+        }
+        Query query = Query.query(Criteria.where("_id").in(ids).and("status").is(expectedStatus));
+        return mongoTemplate.updateMulti(query, statusUpdate(newStatus), Fare.class)
+                .map(UpdateResult::getModifiedCount);
+    }
+
+    @Override
+    public Mono<Long> deactivateActiveExcept(Map<String, String> keepByOrganization) {
+        if (keepByOrganization.isEmpty()) {
+            return Mono.just(0L);
+        }
+        return Mono.defer(() -> {
+            ReactiveBulkOperations bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Fare.class);
+            keepByOrganization.forEach((organizationId, keepId) -> bulk.updateMulti(
+                    Query.query(activeOf(organizationId).and("_id").ne(keepId)),
+                    statusUpdate(Constants.INACTIVE.name())));
+            return bulk.execute()
+                    .map(BulkWriteResult::getModifiedCount)
+                    .map(Integer::longValue);
+        });
+    }
+
+    private static Update statusUpdate(String status) {
+        Update update = Update.update("status", status);
+        VersionedUpdateRepository.touch(update);
+        return update;
+    }
+
+    private static Criteria activeOf(String organizationId) {
+        return Criteria.where("organizationId").is(organizationId)
+                .and("status").is(Constants.ACTIVE.name());
+    }
+}
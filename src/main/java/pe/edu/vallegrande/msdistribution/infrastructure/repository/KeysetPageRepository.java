@@ -0,0 +1,207 @@
+package pe.edu.vallegrande.msdistribution.infrastructure.repository;
+
+import org.bson.Document;
+import org.bson.json.JsonParseException;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.stereotype.Repository;
+import pe.edu.vallegrande.msdistribution.domain.enums.EntityType;
+import pe.edu.vallegrande.msdistribution.domain.models.DashboardCounter;
+import pe.edu.vallegrande.msdistribution.infrastructure.dto.request.CursorPageRequest;
+import pe.edu.vallegrande.msdistribution.infrastructure.dto.response.CursorPage;
+import pe.edu.vallegrande.msdistribution.infrastructure.exception.CustomException;
+import reactor.core.publisher.Mono;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Paginación por keyset (cursor) sobre program, route, schedule y fare.
+ *
+ * El cursor codifica el valor del campo de orden y el _id del último documento, por lo que
+ * cada página es un rango sobre un índice ({createdAt, _id}, {organizationId, createdAt, _id},
+ * {organizationId, programDate, _id} o _id) con costo constante sin importar la profundidad.
+ */
+@Repository
+public class KeysetPageRepository {
+
+    public static final String SORT_CREATED_AT = "createdAt";
+    public static final String SORT_ID = "id";
+    public static final String SORT_PROGRAM_DATE = "programDate";
+
+    private static final String ID_FIELD = "_id";
+
+    private final ReactiveMongoTemplate mongoTemplate;
+    private final int defaultLimit;
+    private final int maxLimit;
+
+    public KeysetPageRepository(ReactiveMongoTemplate mongoTemplate,
+                                @Value("${pagination.default-limit:20}") int defaultLimit,
+                                @Value("${pagination.max-limit:200}") int maxLimit) {
+        this.mongoTemplate = mongoTemplate;
+        this.defaultLimit = defaultLimit;
+        this.maxLimit = maxLimit;
+    }
+
+    public <T> Mono<CursorPage<T>> findPage(EntityType type, Class<T> entityClass, CursorPageRequest request) {
+        return Mono.defer(() -> {
+            int limit = resolveLimit(request.getLimit());
+            String sort = request.getSort() != null ? request.getSort() : SORT_CREATED_AT;
+            String sortField = resolveSortField(type, sort, request.getOrganizationId());
+            Sort.Direction direction = resolveDirection(request.getDirection());
+
+            List<Criteria> filters = new ArrayList<>();
+            if (request.getOrganizationId() != null) {
+                filters.add(Criteria.where("organizationId").is(request.getOrganizationId()));
+            }
+            if (request.getStatus() != null) {
+                filters.add(Criteria.where("status").is(request.getStatus()));
+            }
+            if (request.getAfter() != null) {
+                filters.add(afterCursor(decodeCursor(request.getAfter(), sort), sortField, direction));
+            }
+
+            Query query = filters.isEmpty()
+                    ? new Query()
+                    : Query.query(new Criteria().andOperator(filters.toArray(new Criteria[0])));
+            Sort order = ID_FIELD.equals(sortField)
+                    ? Sort.by(direction, ID_FIELD)
+                    : Sort.by(direction, sortField).and(Sort.by(direction, ID_FIELD));
+            query.with(order).limit(limit + 1);
+
+            Mono<List<Document>> documents = mongoTemplate.find(query, Document.class, type.getCollection())
+                    .collectList();
+
+            return Mono.zip(documents, estimateTotal(type, request.getOrganizationId(), request.getStatus()))
+                    .map(tuple -> {
+                        List<Document> docs = tuple.getT1();
+                        boolean hasMore = docs.size() > limit;
+                        List<Document> pageDocs = hasMore ? docs.subList(0, limit) : docs;
+                        String nextCursor = hasMore
+                                ? encodeCursor(sort, pageDocs.get(pageDocs.size() - 1), sortField)
+                                : null;
+
+                        return CursorPage.<T>builder()
+                                .items(pageDocs.stream()
+                                        .map(doc -> mongoTemplate.getConverter().read(entityClass, doc))
+                                        .collect(Collectors.toList()))
+                                .limit(limit)
+                                .hasMore(hasMore)
+                                .nextCursor(nextCursor)
+                                .sort(sort)
+                                .direction(direction.name().toLowerCase())
+                                .estimatedTotal(tuple.getT2())
+                                .build();
+                    });
+        });
+    }
+
+    private int resolveLimit(Integer limit) {
+        if (limit == null) {
+            return defaultLimit;
+        }
+        if (limit < 1) {
+            throw CustomException.badRequest("Invalid limit", "limit debe ser mayor a 0");
+        }
+        return Math.min(limit, maxLimit);
+    }
+
+    private static String resolveSortField(EntityType type, String sort, String organizationId) {
+        switch (sort) {
+            case SORT_CREATED_AT:
+                return "createdAt";
+            case SORT_ID:
+                return ID_FIELD;
+            case SORT_PROGRAM_DATE:
+                if (type != EntityType.PROGRAM || organizationId == null) {
+                    throw CustomException.badRequest("Invalid sort",
+                            "sort=programDate solo aplica a programas y requiere organizationId");
+                }
+                return "programDate";
+            default:
+                throw CustomException.badRequest("Invalid sort",
+                        "Valores permitidos para sort: createdAt, id, programDate");
+        }
+    }
+
+    private static Sort.Direction resolveDirection(String direction) {
+        if (direction == null) {
+            return Sort.Direction.DESC;
+        }
+        return Sort.Direction.fromOptionalString(direction)
+                .orElseThrow(() -> CustomException.badRequest("Invalid direction",
+                        "Valores permitidos para direction: asc, desc"));
+    }
+
+    /**
+     * Documentos estrictamente posteriores al cursor en el orden (campo, _id). Los valores
+     * nulos van primero en orden ascendente y al final en descendente, como en Mongo.
+     */
+    static Criteria afterCursor(Document cursor, String sortField, Sort.Direction direction) {
+        Object lastId = cursor.get("i");
+        boolean asc = direction.isAscending();
+        Criteria idAfter = asc ? Criteria.where(ID_FIELD).gt(lastId) : Criteria.where(ID_FIELD).lt(lastId);
+
+        if (ID_FIELD.equals(sortField)) {
+            return idAfter;
+        }
+
+        Object lastValue = cursor.get("v");
+        Criteria sameValueNextId = new Criteria().andOperator(Criteria.where(sortField).is(lastValue), idAfter);
+        if (lastValue == null) {
+            return asc
+                    ? new Criteria().orOperator(sameValueNextId, Criteria.where(sortField).ne(null))
+                    : sameValueNextId;
+        }
+        return asc
+                ? new Criteria().orOperator(Criteria.where(sortField).gt(lastValue), sameValueNextId)
+                : new Criteria().orOperator(Criteria.where(sortField).lt(lastValue), sameValueNextId,
+                        Criteria.where(sortField).is(null));
+    }
+
+    static String encodeCursor(String sort, Document last, String sortField) {
+        Document cursor = new Document("s", sort)
+                .append("v", ID_FIELD.equals(sortField) ? null : last.get(sortField))
+                .append("i", last.get(ID_FIELD));
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString(cursor.toJson().getBytes(StandardCharsets.UTF_8));
+    }
+
+    static Document decodeCursor(String token, String sort) {
+        Document cursor;
+        try {
+            cursor = Document.parse(new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8));
+        } catch (IllegalArgumentException | JsonParseException e) {
+            throw CustomException.badRequest("Invalid cursor", "El parámetro after no es un cursor válido");
+        }
+        if (!sort.equals(cursor.getString("s")) || !cursor.containsKey("i")) {
+            throw CustomException.badRequest("Invalid cursor", "El cursor no corresponde al orden solicitado");
+        }
+        return cursor;
+    }
+
+    /**
+     * Con organización o estado se usan los contadores del dashboard (una lectura pequeña);
+     * sin filtros, el conteo estimado de los metadatos de la colección.
+     */
+    private Mono<Long> estimateTotal(EntityType type, String organizationId, String status) {
+        String key = status != null ? status : DashboardCounter.TOTAL;
+        if (organizationId != null) {
+            return mongoTemplate.findById(organizationId, DashboardCounter.class)
+                    .map(counter -> counter.count(type, key))
+                    .defaultIfEmpty(0L);
+        }
+        if (status != null) {
+            return mongoTemplate.findAll(DashboardCounter.class)
+                    .map(counter -> counter.count(type, key))
+                    .reduce(0L, Long::sum);
+        }
+        return mongoTemplate.estimatedCount(type.getCollection());
+    }
+}
@@ -0,0 +1,74 @@
+package pe.edu.vallegrande.msdistribution.infrastructure.repository;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import org.bson.Document;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Repository;
+import pe.edu.vallegrande.msdistribution.domain.enums.EntityType;
+import reactor.core.publisher.Mono;
+
+import java.time.Instant;
+
+/**
+ * Cambios de estado atómicos sobre program, route, schedule y fare.
+ *
+ * Cada transición es un solo findAndModify condicionado ({_id, status != destino} → $set status y
+ * updatedAt, $inc version), así que dos peticiones concurrentes no pisan el documento completo y solo una de
+ * ellas realiza el cambio. Solo cuando la condición no se cumple se lee el documento para distinguir
+ * "no existe" de "ya estaba en ese estado".
+ */
+@Repository
+@RequiredArgsConstructor
+public class StatusTransitionRepository {
+
+    private static final String ID_FIELD = "_id";
+    private static final String STATUS_FIELD = "status";
+
+    private final ReactiveMongoTemplate mongoTemplate;
+
+    /**
+     * Lleva el documento a {@code toStatus}. Vacío si el documento no existe; con
+     * {@link Transition#isChanged()} en false si ya estaba en ese estado (sin escritura).
+     */
+    public <T> Mono<Transition<T>> transition(EntityType type, Class<T> entityClass, String id, String toStatus) {
+        Query query = Query.query(Criteria.where(ID_FIELD).is(id).and(STATUS_FIELD).ne(toStatus));
+        // se pide el documento anterior para conocer el estado previo; la escritura solo cambia status,
+        // version y updatedAt, así que el documento nuevo es el anterior con esos campos actualizados
+        Update update = Update.update(STATUS_FIELD, toStatus);
+        Instant updatedAt = VersionedUpdateRepository.touch(update);
+        return mongoTemplate.findAndModify(query, update,
+                        FindAndModifyOptions.options().returnNew(false), Document.class, type.getCollection())
+                .map(previous -> {
+                    String previousStatus = previous.getString(STATUS_FIELD);
+                    previous.put(VersionedUpdateRepository.VERSION_FIELD, VersionedUpdateRepository.nextVersion(previous));
+                    previous.put(VersionedUpdateRepository.UPDATED_AT_FIELD, updatedAt);
+                    previous.put(STATUS_FIELD, toStatus);
+                    return new Transition<>(read(entityClass, previous), previousStatus, true);
+                })
+                .switchIfEmpty(Mono.defer(() -> mongoTemplate
+                        .findOne(Query.query(Criteria.where(ID_FIELD).is(id)), Document.class, type.getCollection())
+                        .map(current -> new Transition<>(read(entityClass, current),
+                                current.getString(STATUS_FIELD), false))));
+    }
+
+    private <T> T read(Class<T> entityClass, Document document) {
+        return mongoTemplate.getConverter().read(entityClass, document);
+    }
+
+    /**
+     * Resultado de una transición: el documento con el estado de destino y el estado anterior.
+     */
+    @Getter
+    @RequiredArgsConstructor
+    public static class Transition<T> {
+
+        private final T document;
+        private final String previousStatus;
+        private final boolean changed;
+    }
+}
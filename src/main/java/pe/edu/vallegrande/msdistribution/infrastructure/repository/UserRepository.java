@@ -6,10 +6,14 @@ import pe.edu.vallegrande.msdistribution.domain.models.User;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
+import java.util.Collection;
+
 @Repository
-public interface UserRepository extends ReactiveMongoRepository<User, String> {
+public interface UserRepository extends ReactiveMongoRepository<User, String>, UserRepositoryCustom {
     Flux<User> findAllByStatus(String status);
     Mono<User> findFirstByUserCode(String userCode);
     Mono<User> findTopByOrderByUserCodeDesc();
     Flux<User> findByOrganizationId(String organizationId);
-}
\ No newline at end of file
+    // Solo borra usuarios de la réplica (con syncedAt)
+    Mono<Long> deleteByOrganizationIdAndIdNotInAndSyncedAtNotNull(String organizationId, Collection<String> ids);
+}
@@ -0,0 +1,20 @@
+package pe.edu.vallegrande.msdistribution.infrastructure.repository;
+
+import pe.edu.vallegrande.msdistribution.domain.models.User;
+import reactor.core.publisher.Mono;
+
+import java.time.Instant;
+import java.util.Collection;
+
+public interface UserRepositoryCustom {
+
+    /**
+     * Reemplaza (o inserta) los usuarios en una sola escritura bulk. Devuelve los documentos escritos.
+     */
+    Mono<Long> upsertAll(Collection<User> users);
+
+    /**
+     * Marca como vigentes, sin reescribirlos, los usuarios que no cambiaron en origen.
+     */
+    Mono<Long> touch(Collection<String> ids, Instant syncedAt);
+}
@@ -0,0 +1,46 @@
+package pe.edu.vallegrande.msdistribution.infrastructure.repository;
+
+import com.mongodb.client.result.UpdateResult;
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.FindAndReplaceOptions;
+import org.springframework.data.mongodb.core.ReactiveBulkOperations;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import pe.edu.vallegrande.msdistribution.domain.models.User;
+import reactor.core.publisher.Mono;
+
+import java.time.Instant;
+import java.util.Collection;
+
+@RequiredArgsConstructor
+public class UserRepositoryCustomImpl implements UserRepositoryCustom {
+
+    private final ReactiveMongoTemplate mongoTemplate;
+
+    @Override
+    public Mono<Long> upsertAll(Collection<User> users) {
+        if (users.isEmpty()) {
+            return Mono.just(0L);
+        }
+        return Mono.defer(() -> {
+            ReactiveBulkOperations bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, User.class);
+            users.forEach(user -> bulk.replaceOne(Query.query(Criteria.where("_id").is(user.getId())), user,
+                    FindAndReplaceOptions.options().upsert()));
+            return bulk.execute()
+                    .map(result -> (long) result.getModifiedCount() + result.getUpserts().size());
+        });
+    }
+
+    @Override
+    public Mono<Long> touch(Collection<String> ids, Instant syncedAt) {
+        if (ids.isEmpty()) {
+            return Mono.just(0L);
+        }
+        return mongoTemplate.updateMulti(Query.query(Criteria.where("_id").in(ids)),
+                        Update.update("syncedAt", syncedAt), User.class)
+                .map(UpdateResult::getModifiedCount);
+    }
+}
@@ -0,0 +1,112 @@
+package pe.edu.vallegrande.msdistribution.infrastructure.repository;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import org.bson.Document;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Repository;
+import pe.edu.vallegrande.msdistribution.domain.enums.EntityType;
+import pe.edu.vallegrande.msdistribution.infrastructure.exception.CustomException;
+import reactor.core.publisher.Mono;
+
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+
+/**
+ * Actualizaciones parciales con versión optimista sobre program, route, schedule y fare.
+ *
+ * Cada actualización es un solo findAndModify: $set de los campos indicados y de updatedAt más
+ * $inc version, en
+ * lugar de leer el documento y reemplazarlo completo. Con versión esperada (If-Match) la condición
+ * incluye la versión y, si otro cliente escribió antes, se responde 412 sin tocar el documento.
+ * Los documentos anteriores a la versión no tienen el campo: cuentan como versión 0.
+ */
+@Repository
+@RequiredArgsConstructor
+public class VersionedUpdateRepository {
+
+    public static final String VERSION_FIELD = "version";
+    public static final String UPDATED_AT_FIELD = "updatedAt";
+
+    private static final String ID_FIELD = "_id";
+
+    private final ReactiveMongoTemplate mongoTemplate;
+
+    /**
+     * Escribe en el documento {@code id} los {@code fields} tal como quedan en {@code changes}
+     * (un campo null se guarda como null). Vacío si el documento no existe.
+     */
+    public <T> Mono<Change<T>> update(EntityType type, Class<T> entityClass, String id, Long expectedVersion,
+                                      T changes, Collection<String> fields) {
+        return Mono.defer(() -> {
+            Document written = new Document();
+            mongoTemplate.getConverter().write(changes, written);
+            Update update = new Update();
+            fields.forEach(field -> update.set(field, written.get(field)));
+            Instant updatedAt = touch(update);
+
+            Criteria criteria = Criteria.where(ID_FIELD).is(id);
+            if (expectedVersion != null) {
+                criteria = criteria.and(VERSION_FIELD).in(expectedVersion == 0
+                        ? Arrays.asList(0L, null)
+                        : Collections.singletonList(expectedVersion));
+            }
+            return mongoTemplate.findAndModify(Query.query(criteria), update,
+                            FindAndModifyOptions.options().returnNew(false), Document.class, type.getCollection())
+                    .map(previous -> {
+                        Document current = new Document(previous);
+                        fields.forEach(field -> current.put(field, written.get(field)));
+                        current.put(VERSION_FIELD, nextVersion(previous));
+                        current.put(UPDATED_AT_FIELD, updatedAt);
+                        return new Change<>(read(entityClass, previous), read(entityClass, current));
+                    })
+                    .switchIfEmpty(Mono.defer(() -> expectedVersion == null
+                            ? Mono.empty()
+                            : mongoTemplate.exists(Query.query(Criteria.where(ID_FIELD).is(id)), type.getCollection())
+                                    .flatMap(exists -> exists
+                                            ? Mono.error(CustomException.preconditionFailed(
+                                                    "El registro " + id + " fue modificado por otra operación; "
+                                                            + "vuelva a consultarlo antes de actualizar"))
+                                            : Mono.empty())));
+        });
+    }
+
+    /**
+     * Agrega a {@code update} el $inc de versión y el $set de updatedAt; devuelve la fecha escrita.
+     * Toda escritura sobre un documento existente pasa por aquí para que ETag y Last-Modified cambien.
+     */
+    public static Instant touch(Update update) {
+        Instant now = Instant.now();
+        update.inc(VERSION_FIELD, 1).set(UPDATED_AT_FIELD, now);
+        return now;
+    }
+
+    /**
+     * Versión que deja el $inc sobre el documento anterior (sin campo, 0).
+     */
+    static long nextVersion(Document previous) {
+        Object version = previous.get(VERSION_FIELD);
+        return (version instanceof Number ? ((Number) version).longValue() : 0L) + 1;
+    }
+
+    private <T> T read(Class<T> entityClass, Document document) {
+        return mongoTemplate.getConverter().read(entityClass, document);
+    }
+
+    /**
+     * Documento antes y después de la actualización.
+     */
+    @Getter
+    @RequiredArgsConstructor
+    public static class Change<T> {
+
+        private final T previous;
+        private final T current;
+    }
+}
@@ -0,0 +1,48 @@
+package pe.edu.vallegrande.msdistribution.infrastructure.resilience;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import reactor.core.publisher.Mono;
+
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Limita las llamadas simultáneas a un servicio externo; sin permiso libre se rechaza al instante
+ * en lugar de encolar. Métricas: bulkhead.active y bulkhead.rejected.
+ */
+public class Bulkhead {
+
+    private final String name;
+    private final int maxConcurrentCalls;
+    private final Semaphore permits;
+    private final Counter rejected;
+
+    public Bulkhead(String name, int maxConcurrentCalls, MeterRegistry registry) {
+        this.name = name;
+        this.maxConcurrentCalls = maxConcurrentCalls;
+        this.permits = new Semaphore(maxConcurrentCalls);
+        this.rejected = Counter.builder("bulkhead.rejected").tag("name", name).register(registry);
+        Gauge.builder("bulkhead.active", this, Bulkhead::activeCalls).tag("name", name).register(registry);
+    }
+
+    public int activeCalls() {
+        return maxConcurrentCalls - permits.availablePermits();
+    }
+
+    public <T> Mono<T> execute(Mono<T> call) {
+        return Mono.defer(() -> {
+            if (!permits.tryAcquire()) {
+                rejected.increment();
+                return Mono.error(new DownstreamUnavailableException(name, DownstreamUnavailableException.Reason.BULKHEAD_FULL));
+            }
+            AtomicBoolean released = new AtomicBoolean();
+            return call.doFinally(signal -> {
+                if (released.compareAndSet(false, true)) {
+                    permits.release();
+                }
+            });
+        });
+    }
+}
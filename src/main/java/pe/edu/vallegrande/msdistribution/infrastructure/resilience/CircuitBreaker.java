@@ -0,0 +1,208 @@
+package pe.edu.vallegrande.msdistribution.infrastructure.resilience;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.LongSupplier;
+
+/**
+ * Circuit breaker por conteo sobre las últimas {@code windowSize} llamadas.
+ *
+ * - CLOSED: las llamadas pasan; si con al menos {@code minimumCalls} registradas la tasa de fallos
+ *   alcanza el umbral, se abre.
+ * - OPEN: se rechaza sin llamar durante {@code openDuration}; luego pasa a HALF_OPEN.
+ * - HALF_OPEN: deja pasar {@code halfOpenCalls} llamadas de prueba; si todas responden se cierra,
+ *   con un fallo vuelve a abrirse.
+ * Fallan las respuestas 5xx, timeouts y errores de conexión; un 4xx es una respuesta válida del
+ * servicio. Métricas: circuitbreaker.state, circuitbreaker.transitions y circuitbreaker.calls.
+ */
+@Slf4j
+public class CircuitBreaker {
+
+    public enum State { CLOSED, OPEN, HALF_OPEN }
+
+    private final String name;
+    private final int minimumCalls;
+    private final int failureRateThreshold;
+    private final long openNanos;
+    private final int halfOpenCalls;
+    private final LongSupplier ticker;
+    private final MeterRegistry registry;
+
+    // Resultados de las últimas llamadas en modo CLOSED (true = fallo), en anillo
+    private final boolean[] outcomes;
+    private int next;
+    private int recorded;
+    private int failures;
+
+    private volatile State state = State.CLOSED;
+    private long openedAt;
+    private int halfOpenPermits;
+    private int halfOpenSuccesses;
+
+    private final Counter successes;
+    private final Counter failed;
+    private final Counter rejected;
+
+    public CircuitBreaker(String name, int windowSize, int minimumCalls, int failureRateThreshold,
+                          Duration openDuration, int halfOpenCalls, MeterRegistry registry) {
+        this(name, windowSize, minimumCalls, failureRateThreshold, openDuration, halfOpenCalls, registry, System::nanoTime);
+    }
+
+    CircuitBreaker(String name, int windowSize, int minimumCalls, int failureRateThreshold,
+                   Duration openDuration, int halfOpenCalls, MeterRegistry registry, LongSupplier ticker) {
+        this.name = name;
+        this.outcomes = new boolean[windowSize];
+        this.minimumCalls = Math.min(minimumCalls, windowSize);
+        this.failureRateThreshold = failureRateThreshold;
+        this.openNanos = openDuration.toNanos();
+        this.halfOpenCalls = halfOpenCalls;
+        this.ticker = ticker;
+        this.registry = registry;
+        this.successes = calls("success");
+        this.failed = calls("failure");
+        this.rejected = calls("rejected");
+        Gauge.builder("circuitbreaker.state", this, breaker -> breaker.state.ordinal())
+                .tag("name", name)
+                .description("0 = CLOSED, 1 = OPEN, 2 = HALF_OPEN")
+                .register(registry);
+    }
+
+    public State getState() {
+        return state;
+    }
+
+    /**
+     * Ejecuta {@code call} si el circuito lo permite; si no, falla al instante con
+     * {@link DownstreamUnavailableException}.
+     */
+    public <T> Mono<T> execute(Mono<T> call) {
+        return Mono.defer(() -> {
+            if (!tryAcquirePermission()) {
+                rejected.increment();
+                return Mono.error(new DownstreamUnavailableException(name, DownstreamUnavailableException.Reason.CIRCUIT_OPEN));
+            }
+            AtomicBoolean done = new AtomicBoolean();
+            return call
+                    .doOnSuccess(value -> {
+                        if (done.compareAndSet(false, true)) {
+                            onSuccess();
+                        }
+                    })
+                    .doOnError(error -> {
+                        if (done.compareAndSet(false, true)) {
+                            onError(error);
+                        }
+                    })
+                    .doOnCancel(() -> {
+                        if (done.compareAndSet(false, true)) {
+                            releasePermission();
+                        }
+                    });
+        });
+    }
+
+    synchronized boolean tryAcquirePermission() {
+        if (state == State.OPEN && ticker.getAsLong() - openedAt >= openNanos) {
+            transitionTo(State.HALF_OPEN);
+        }
+        switch (state) {
+            case CLOSED:
+                return true;
+            case HALF_OPEN:
+                if (halfOpenPermits > 0) {
+                    halfOpenPermits--;
+                    return true;
+                }
+                return false;
+            default:
+                return false;
+        }
+    }
+
+    private void onError(Throwable error) {
+        if (error instanceof DownstreamUnavailableException) {
+            // rechazo local (bulkhead): no dice nada de la salud del servicio
+            releasePermission();
+        } else if (error instanceof WebClientResponseException
+                && ((WebClientResponseException) error).getStatusCode().is4xxClientError()) {
+            onSuccess();
+        } else {
+            onFailure();
+        }
+    }
+
+    synchronized void onSuccess() {
+        successes.increment();
+        if (state == State.CLOSED) {
+            record(false);
+        } else if (state == State.HALF_OPEN && ++halfOpenSuccesses >= halfOpenCalls) {
+            transitionTo(State.CLOSED);
+        }
+    }
+
+    synchronized void onFailure() {
+        failed.increment();
+        if (state == State.CLOSED) {
+            record(true);
+            if (recorded >= minimumCalls && failures * 100 >= failureRateThreshold * recorded) {
+                transitionTo(State.OPEN);
+            }
+        } else if (state == State.HALF_OPEN) {
+            transitionTo(State.OPEN);
+        }
+    }
+
+    private synchronized void releasePermission() {
+        if (state == State.HALF_OPEN && halfOpenPermits < halfOpenCalls) {
+            halfOpenPermits++;
+        }
+    }
+
+    private void record(boolean failure) {
+        if (recorded == outcomes.length) {
+            if (outcomes[next]) {
+                failures--;
+            }
+        } else {
+            recorded++;
+        }
+        outcomes[next] = failure;
+        if (failure) {
+            failures++;
+        }
+        next = (next + 1) % outcomes.length;
+    }
+
+    private void transitionTo(State target) {
+        State previous = state;
+        state = target;
+        if (target == State.OPEN) {
+            openedAt = ticker.getAsLong();
+        } else if (target == State.HALF_OPEN) {
+            halfOpenPermits = halfOpenCalls;
+            halfOpenSuccesses = 0;
+        } else {
+            next = 0;
+            recorded = 0;
+            failures = 0;
+        }
+        registry.counter("circuitbreaker.transitions", "name", name, "from", previous.name(), "to", target.name())
+                .increment();
+        if (target == State.OPEN) {
+            log.warn("Circuito {} abierto: se rechazan llamadas durante {} ms", name, openNanos / 1_000_000);
+        } else {
+            log.info("Circuito {}: {} -> {}", name, previous, target);
+        }
+    }
+
+    private Counter calls(String result) {
+        return Counter.builder("circuitbreaker.calls").tag("name", name).tag("result", result).register(registry);
+    }
+}
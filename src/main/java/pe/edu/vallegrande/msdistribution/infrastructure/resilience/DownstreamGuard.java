@@ -0,0 +1,49 @@
+package pe.edu.vallegrande.msdistribution.infrastructure.resilience;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import pe.edu.vallegrande.msdistribution.infrastructure.config.HttpClientProperties;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+
+/**
+ * Circuit breaker + bulkhead de un servicio externo. El circuito va por fuera: con el servicio
+ * caído la llamada se rechaza sin ocupar permisos del bulkhead. Las lecturas pueden además llevar
+ * peticiones de respaldo ({@link Hedger}); cada petición enviada pasa por el circuito y el bulkhead.
+ */
+public class DownstreamGuard {
+
+    private final CircuitBreaker circuitBreaker;
+    private final Bulkhead bulkhead;
+    private final Hedger hedger;
+
+    public DownstreamGuard(String name, HttpClientProperties.Profile profile, MeterRegistry registry) {
+        HttpClientProperties.Breaker breaker = profile.getBreaker();
+        this.circuitBreaker = new CircuitBreaker(name, breaker.getWindowSize(), breaker.getMinimumCalls(),
+                breaker.getFailureRateThreshold(), Duration.ofMillis(breaker.getOpenMs()),
+                breaker.getHalfOpenCalls(), registry);
+        this.bulkhead = new Bulkhead(name, profile.getMaxConcurrentCalls(), registry);
+        HttpClientProperties.Hedge hedge = profile.getHedge();
+        this.hedger = hedge.isEnabled()
+                ? new Hedger(name, hedge.getPercentile(), Duration.ofMillis(hedge.getInitialDelayMs()),
+                        Duration.ofMillis(hedge.getMinDelayMs()), hedge.getMaxRate(), hedge.getSampleSize(), registry)
+                : null;
+    }
+
+    public <T> Mono<T> call(Mono<T> request) {
+        return circuitBreaker.execute(bulkhead.execute(request));
+    }
+
+    /**
+     * Como {@link #call(Mono)}, con petición de respaldo si está habilitada. {@code request} debe
+     * ser idempotente.
+     */
+    public <T> Mono<T> read(Mono<T> request) {
+        Mono<T> guarded = call(request);
+        return hedger != null ? hedger.execute(guarded) : guarded;
+    }
+
+    public CircuitBreaker.State getState() {
+        return circuitBreaker.getState();
+    }
+}
@@ -0,0 +1,21 @@
+package pe.edu.vallegrande.msdistribution.infrastructure.resilience;
+
+import lombok.Getter;
+
+/**
+ * Llamada rechazada sin llegar al servicio externo: circuito abierto o bulkhead lleno.
+ */
+@Getter
+public class DownstreamUnavailableException extends RuntimeException {
+
+    public enum Reason { CIRCUIT_OPEN, BULKHEAD_FULL }
+
+    private final String downstream;
+    private final Reason reason;
+
+    public DownstreamUnavailableException(String downstream, Reason reason) {
+        super(downstream + " no disponible: " + reason, null, false, false);
+        this.downstream = downstream;
+        this.reason = reason;
+    }
+}
@@ -0,0 +1,119 @@
+package pe.edu.vallegrande.msdistribution.infrastructure.resilience;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.Arrays;
+
+/**
+ * Peticiones de respaldo (hedging) para lecturas idempotentes: si la petición no terminó cuando
+ * supera el percentil configurado de las latencias recientes, se envía una segunda idéntica y se
+ * toma la primera que responda; la otra se cancela.
+ *
+ * El umbral se recalcula sobre las últimas {@code sampleSize} latencias exitosas (con un mínimo
+ * de {@code minDelay}; mientras no haya muestras suficientes se usa {@code initialDelay}). Cada
+ * muestra se mide desde el envío de la petición original hasta la primera respuesta: si gana el
+ * respaldo, es lo que llevaba la original al cancelarse, y no la latencia del respaldo, que
+ * sesgaría el percentil hacia abajo. La tasa de respaldos se limita con un balde de fichas: cada
+ * petición suma {@code maxRate} y cada respaldo consume una ficha.
+ * Solo se usa con lecturas idempotentes; el respaldo nunca gana con un error.
+ * Métricas: hedge.requests (sent/won/throttled) y hedge.threshold (ms).
+ */
+public class Hedger {
+
+    private static final int RECALCULATE_EVERY = 16;
+    private static final double MAX_TOKENS = 10;
+
+    private final double percentile;
+    private final long minDelayNanos;
+    private final double maxRate;
+
+    private final long[] samples;
+    private int next;
+    private int recorded;
+    private volatile long thresholdNanos;
+    private double tokens = MAX_TOKENS;
+
+    private final Counter sent;
+    private final Counter won;
+    private final Counter throttled;
+
+    public Hedger(String name, double percentile, Duration initialDelay, Duration minDelay, double maxRate,
+                  int sampleSize, MeterRegistry registry) {
+        this.percentile = percentile;
+        this.minDelayNanos = minDelay.toNanos();
+        this.maxRate = maxRate;
+        this.samples = new long[sampleSize];
+        this.thresholdNanos = Math.max(initialDelay.toNanos(), minDelayNanos);
+        this.sent = counter(registry, name, "sent");
+        this.won = counter(registry, name, "won");
+        this.throttled = counter(registry, name, "throttled");
+        Gauge.builder("hedge.threshold", this, hedger -> hedger.thresholdNanos / 1_000_000.0)
+                .tag("name", name)
+                .baseUnit("milliseconds")
+                .register(registry);
+    }
+
+    public Duration threshold() {
+        return Duration.ofNanos(thresholdNanos);
+    }
+
+    /**
+     * Suscribe {@code request} y, si no respondió dentro del umbral y hay fichas, una segunda vez.
+     * {@code request} debe ser una lectura fría e idempotente.
+     */
+    public <T> Mono<T> execute(Mono<T> request) {
+        return Mono.defer(() -> {
+            earnToken();
+            long start = System.nanoTime();
+            Mono<T> primary = request;
+            Mono<T> hedge = Mono.delay(threshold())
+                    .flatMap(tick -> {
+                        if (!tryAcquireToken()) {
+                            throttled.increment();
+                            return Mono.<T>never();
+                        }
+                        sent.increment();
+                        // Un error del respaldo no decide la carrera: la respuesta la da la petición original
+                        return request
+                                .doOnSuccess(value -> won.increment())
+                                .onErrorResume(error -> Mono.never());
+                    });
+            return Mono.firstWithSignal(primary, hedge)
+                    .doOnSuccess(value -> record(System.nanoTime() - start));
+        });
+    }
+
+    synchronized void record(long latencyNanos) {
+        samples[next] = latencyNanos;
+        next = (next + 1) % samples.length;
+        if (recorded < samples.length) {
+            recorded++;
+        }
+        if (recorded >= RECALCULATE_EVERY && next % RECALCULATE_EVERY == 0) {
+            long[] sorted = Arrays.copyOf(samples, recorded);
+            Arrays.sort(sorted);
+            int index = (int) Math.ceil(percentile / 100.0 * recorded) - 1;
+            thresholdNanos = Math.max(sorted[Math.max(0, Math.min(index, recorded - 1))], minDelayNanos);
+        }
+    }
+
+    private synchronized void earnToken() {
+        tokens = Math.min(MAX_TOKENS, tokens + maxRate);
+    }
+
+    private synchronized boolean tryAcquireToken() {
+        if (tokens < 1) {
+            return false;
+        }
+        tokens -= 1;
+        return true;
+    }
+
+    private static Counter counter(MeterRegistry registry, String name, String result) {
+        return Counter.builder("hedge.requests").tag("name", name).tag("result", result).register(registry);
+    }
+}
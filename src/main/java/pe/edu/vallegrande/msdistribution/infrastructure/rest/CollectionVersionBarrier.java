@@ -0,0 +1,46 @@
+package pe.edu.vallegrande.msdistribution.infrastructure.rest;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpMethod;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.server.WebFilter;
+import org.springframework.web.server.WebFilterChain;
+import pe.edu.vallegrande.msdistribution.application.services.CollectionVersionService;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.Set;
+
+/**
+ * Retiene la respuesta de las escrituras hasta que los contadores de colección cubren el cambio.
+ * Sin esto, un cliente que hace POST y enseguida un GET condicional con su ETag anterior podía
+ * recibir 304 con datos viejos mientras el $inc seguía en curso.
+ */
+@Component
+@Slf4j
+@RequiredArgsConstructor
+public class CollectionVersionBarrier implements WebFilter {
+
+    // tope para no colgar la respuesta si Mongo no responde; el $inc se sigue reintentando
+    static final Duration SETTLE_TIMEOUT = Duration.ofSeconds(2);
+
+    private static final Set<HttpMethod> READS = Set.of(HttpMethod.GET, HttpMethod.HEAD, HttpMethod.OPTIONS);
+
+    private final CollectionVersionService collectionVersions;
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, WebFilterChain chain) {
+        if (!READS.contains(exchange.getRequest().getMethod())) {
+            exchange.getResponse().beforeCommit(() -> collectionVersions.settled()
+                    .timeout(SETTLE_TIMEOUT)
+                    .onErrorResume(error -> {
+                        log.warn("Respuesta de {} enviada sin confirmar la versión de colección: {}",
+                                exchange.getRequest().getPath(), error.getMessage());
+                        return Mono.empty();
+                    }));
+        }
+        return chain.filter(exchange);
+    }
+}
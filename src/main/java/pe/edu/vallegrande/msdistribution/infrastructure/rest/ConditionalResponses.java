@@ -0,0 +1,79 @@
+package pe.edu.vallegrande.msdistribution.infrastructure.rest;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+import pe.edu.vallegrande.msdistribution.application.services.CollectionVersionService;
+import pe.edu.vallegrande.msdistribution.domain.enums.EntityType;
+import reactor.core.publisher.Mono;
+
+import java.time.Instant;
+import java.util.function.Supplier;
+
+/**
+ * GET condicionales (If-None-Match / If-Modified-Since) para los listados y lecturas por id.
+ *
+ * En los listados el validador es el contador de la colección: se lee antes que los datos y, si
+ * el cliente ya tiene esa versión, se responde 304 sin consultar ni serializar nada. Leerlo antes
+ * garantiza que unos datos nunca se etiqueten con una versión posterior a la que reflejan.
+ */
+@Component
+@RequiredArgsConstructor
+public class ConditionalResponses {
+
+    // el cliente puede guardar la respuesta pero debe revalidarla en cada uso
+    private static final CacheControl REVALIDATE = CacheControl.noCache().cachePrivate();
+
+    private final CollectionVersionService collectionVersions;
+
+    public <T> Mono<ResponseEntity<T>> collection(ServerWebExchange exchange, EntityType type, Supplier<Mono<T>> body) {
+        return collectionVersions.current(type)
+                .flatMap(version -> respond(exchange, ETags.of(version), version.getUpdatedAt(), body));
+    }
+
+    /**
+     * Lectura por id: el documento ya se leyó (normalmente de la caché); el 304 ahorra la serialización.
+     */
+    public <T> ResponseEntity<T> entity(ServerWebExchange exchange, Long version, Instant lastModified, T body) {
+        String eTag = ETags.of(version);
+        if (notModified(exchange, eTag, lastModified)) {
+            return notModifiedResponse(eTag, lastModified);
+        }
+        return okResponse(eTag, lastModified, body);
+    }
+
+    private <T> Mono<ResponseEntity<T>> respond(ServerWebExchange exchange, String eTag, Instant lastModified,
+                                                Supplier<Mono<T>> body) {
+        if (notModified(exchange, eTag, lastModified)) {
+            return Mono.just(notModifiedResponse(eTag, lastModified));
+        }
+        return body.get().map(data -> okResponse(eTag, lastModified, data));
+    }
+
+    private static boolean notModified(ServerWebExchange exchange, String eTag, Instant lastModified) {
+        // con If-None-Match presente, If-Modified-Since se ignora (RFC 9110)
+        return lastModified != null
+                ? exchange.checkNotModified(eTag, lastModified)
+                : exchange.checkNotModified(eTag);
+    }
+
+    private static <T> ResponseEntity<T> notModifiedResponse(String eTag, Instant lastModified) {
+        return headers(ResponseEntity.status(HttpStatus.NOT_MODIFIED), eTag, lastModified).build();
+    }
+
+    private static <T> ResponseEntity<T> okResponse(String eTag, Instant lastModified, T body) {
+        return headers(ResponseEntity.ok(), eTag, lastModified).body(body);
+    }
+
+    private static ResponseEntity.BodyBuilder headers(ResponseEntity.BodyBuilder builder, String eTag,
+                                                      Instant lastModified) {
+        builder.eTag(eTag).cacheControl(REVALIDATE);
+        if (lastModified != null) {
+            builder.lastModified(lastModified);
+        }
+        return builder;
+    }
+}
@@ -0,0 +1,48 @@
+package pe.edu.vallegrande.msdistribution.infrastructure.rest;
+
+import pe.edu.vallegrande.msdistribution.domain.models.CollectionVersion;
+import pe.edu.vallegrande.msdistribution.infrastructure.exception.CustomException;
+
+/**
+ * ETag de una entidad a partir de su versión ({@code "3"}), de un listado a partir del contador de
+ * su colección y lectura del If-Match de un PUT. Los documentos sin versión cuentan como versión 0.
+ */
+public final class ETags {
+
+    private static final String ANY = "*";
+
+    private ETags() {
+    }
+
+    public static String of(Long version) {
+        return "\"" + (version != null ? version : 0L) + "\"";
+    }
+
+    /**
+     * ETag débil de los listados de una colección: cambia con cada escritura sobre ella y, por
+     * incluir la fecha de creación del contador, también si el contador se reinicia.
+     */
+    public static String of(CollectionVersion collection) {
+        long since = collection.getSince() != null ? collection.getSince().toEpochMilli() : 0L;
+        return "W/\"" + collection.getId() + "-" + since + "-" + collection.getVersion() + "\"";
+    }
+
+    /**
+     * Versión esperada según If-Match: null si no llega o es "*" (cualquier versión). Una etiqueta
+     * débil o que no corresponde a una versión nunca coincide (comparación fuerte), así que responde 412.
+     */
+    public static Long expectedVersion(String ifMatch) {
+        if (ifMatch == null || ifMatch.isBlank() || ANY.equals(ifMatch.trim())) {
+            return null;
+        }
+        String tag = ifMatch.trim();
+        if (tag.length() > 2 && tag.startsWith("\"") && tag.endsWith("\"")) {
+            try {
+                return Long.parseLong(tag.substring(1, tag.length() - 1));
+            } catch (NumberFormatException e) {
+                // cae al 412
+            }
+        }
+        throw CustomException.preconditionFailed("If-Match no corresponde a la versión actual: " + tag);
+    }
+}
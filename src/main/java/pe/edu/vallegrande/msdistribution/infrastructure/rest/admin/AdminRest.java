@@ -4,23 +4,35 @@ import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ServerWebExchange;
+import pe.edu.vallegrande.msdistribution.application.services.DashboardCounterService;
 import pe.edu.vallegrande.msdistribution.application.services.DistributionProgramService;
 import pe.edu.vallegrande.msdistribution.application.services.DistributionRouteService;
 import pe.edu.vallegrande.msdistribution.application.services.DistributionScheduleService;
 import pe.edu.vallegrande.msdistribution.application.services.FareService;
+import pe.edu.vallegrande.msdistribution.domain.enums.Constants;
+import pe.edu.vallegrande.msdistribution.domain.enums.EntityType;
+import pe.edu.vallegrande.msdistribution.domain.models.DashboardCounter;
 
 import pe.edu.vallegrande.msdistribution.infrastructure.dto.ErrorMessage;
 import pe.edu.vallegrande.msdistribution.infrastructure.dto.ResponseDto;
 import pe.edu.vallegrande.msdistribution.infrastructure.dto.request.*;
 import pe.edu.vallegrande.msdistribution.infrastructure.dto.response.*;
 import pe.edu.vallegrande.msdistribution.infrastructure.dto.response.enriched.EnrichedDistributionProgramResponse;
+import pe.edu.vallegrande.msdistribution.infrastructure.repository.KeysetPageRepository;
 import pe.edu.vallegrande.msdistribution.infrastructure.exception.CustomException;
+import pe.edu.vallegrande.msdistribution.infrastructure.rest.ConditionalResponses;
+import pe.edu.vallegrande.msdistribution.infrastructure.rest.ETags;
+import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
+import java.time.Instant;
 import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Map;
@@ -38,6 +50,9 @@ public class AdminRest {
         private final DistributionRouteService routeService;
         private final DistributionScheduleService scheduleService;
         private final FareService fareService;
+        private final DashboardCounterService dashboardCounterService;
+        // ETag / Last-Modified y 304 en las lecturas
+        private final ConditionalResponses conditional;
 
         // ===============================
         // DASHBOARD & STATISTICS
@@ -45,20 +60,17 @@ public class AdminRest {
 
         @GetMapping("/dashboard/stats")
         @Operation(summary = "Get comprehensive dashboard statistics")
-        public Mono<ResponseDto<Map<String, Object>>> getDashboardStats() {
+        public Mono<ResponseDto<Map<String, Object>>> getDashboardStats(
+                        @RequestParam(required = false) String organizationId) {
                 log.debug("Fetching comprehensive dashboard statistics");
 
-                return Mono.zip(
-                                programService.getAll().count(),
-                                routeService.getAll().count(),
-                                scheduleService.getAll().count(),
-                                fareService.getAllF().count())
-                                .map(tuple -> {
+                return dashboardCounterService.getCounters(organizationId)
+                                .map(counters -> {
                                         Map<String, Object> stats = Map.of(
-                                                        "totalPrograms", tuple.getT1(),
-                                                        "totalRoutes", tuple.getT2(),
-                                                        "totalSchedules", tuple.getT3(),
-                                                        "totalFares", tuple.getT4(),
+                                                        "totalPrograms", counters.count(EntityType.PROGRAM, DashboardCounter.TOTAL),
+                                                        "totalRoutes", counters.count(EntityType.ROUTE, DashboardCounter.TOTAL),
+                                                        "totalSchedules", counters.count(EntityType.SCHEDULE, DashboardCounter.TOTAL),
+                                                        "totalFares", counters.count(EntityType.FARE, DashboardCounter.TOTAL),
                                                         "lastUpdated", LocalDateTime.now(),
                                                         "systemStatus", "ACTIVE");
                                         return new ResponseDto<Map<String, Object>>(true, stats, null);
@@ -74,28 +86,20 @@ public class AdminRest {
 
         @GetMapping("/dashboard/summary")
         @Operation(summary = "Get distribution system summary")
-        public Mono<ResponseDto<Map<String, Object>>> getSystemSummary() {
+        public Mono<ResponseDto<Map<String, Object>>> getSystemSummary(
+                        @RequestParam(required = false) String organizationId) {
                 log.debug("Fetching system summary for admin dashboard");
 
-                return Mono.zip(
-                                programService.getAll().collectList(),
-                                routeService.getAllActive().count(),
-                                scheduleService.getAllActive().count())
-                                .map(tuple -> {
-                                        var programs = tuple.getT1();
-                                        long activePrograms = programs.stream()
-                                                        .filter(p -> "ACTIVE".equals(p.getStatus())).count();
-                                        long plannedPrograms = programs.stream()
-                                                        .filter(p -> "PLANNED".equals(p.getStatus())).count();
-
+                return dashboardCounterService.getCounters(organizationId)
+                                .map(counters -> {
                                         Map<String, Object> summary = Map.of(
                                                         "programs", Map.of(
-                                                                        "total", programs.size(),
-                                                                        "active", activePrograms,
-                                                                        "planned", plannedPrograms),
+                                                                        "total", counters.count(EntityType.PROGRAM, DashboardCounter.TOTAL),
+                                                                        "active", counters.count(EntityType.PROGRAM, Constants.ACTIVE.name()),
+                                                                        "planned", counters.count(EntityType.PROGRAM, "PLANNED")),
                                                         "infrastructure", Map.of(
-                                                                        "activeRoutes", tuple.getT2(),
-                                                                        "activeSchedules", tuple.getT3()),
+                                                                        "activeRoutes", counters.count(EntityType.ROUTE, Constants.ACTIVE.name()),
+                                                                        "activeSchedules", counters.count(EntityType.SCHEDULE, Constants.ACTIVE.name())),
                                                         "timestamp", LocalDateTime.now());
                                         return new ResponseDto<Map<String, Object>>(true, summary, null);
                                 })
@@ -107,11 +111,18 @@ public class AdminRest {
                                 });
         }
 
+        @PostMapping("/dashboard/reconcile")
+        @Operation(summary = "Rebuild dashboard counters from the collections")
+        public Mono<ResponseDto<String>> reconcileDashboardCounters() {
+                return dashboardCounterService.reconcile()
+                                .then(Mono.just(new ResponseDto<String>(true, "Dashboard counters reconciled", null)));
+        }
+
         // ===============================
         // DISTRIBUTION PROGRAM ENDPOINTS
         // ===============================
 
-        @GetMapping("/program")
+        @GetMapping(value = "/program", produces = MediaType.APPLICATION_JSON_VALUE)
         @Operation(summary = "Get all distribution programs")
         public Mono<ResponseDto<List<DistributionProgramResponse>>> getAllPrograms() {
                 return programService.getAll()
@@ -119,7 +130,33 @@ public class AdminRest {
                                 .map(this::success);
         }
 
-        @GetMapping(value = "/program", params = "organizationId")
+        /**
+         * Modo streaming (Accept: application/x-ndjson o text/event-stream): cada programa se escribe
+         * al salir del cursor de Mongo, sin acumular la colección en memoria.
+         */
+        @GetMapping(value = "/program", produces = { MediaType.APPLICATION_NDJSON_VALUE, MediaType.TEXT_EVENT_STREAM_VALUE })
+        @Operation(summary = "Stream distribution programs (NDJSON / SSE)")
+        public Flux<DistributionProgramResponse> streamPrograms(
+                        @RequestParam(required = false) String organizationId) {
+                return organizationId != null
+                                ? programService.getByOrganizationId(organizationId)
+                                : programService.getAll();
+        }
+
+        @GetMapping(value = "/program", params = "limit")
+        @Operation(summary = "Get a page of distribution programs (cursor pagination)")
+        public Mono<ResponseDto<CursorPage<DistributionProgramResponse>>> getProgramsPage(
+                        @RequestParam Integer limit,
+                        @RequestParam(required = false) String after,
+                        @RequestParam(required = false) String sort,
+                        @RequestParam(required = false) String direction,
+                        @RequestParam(required = false) String organizationId,
+                        @RequestParam(required = false) String status) {
+                return programService.getPage(pageRequest(limit, after, sort, direction, organizationId, status))
+                                .map(this::success);
+        }
+
+        @GetMapping(value = "/program", params = { "organizationId", "!limit" }, produces = MediaType.APPLICATION_JSON_VALUE)
         // @Operation(summary = "Get programs by organization ID")
         public Mono<ResponseDto<List<DistributionProgramResponse>>> getProgramsByOrganizationId(
                         @RequestParam String organizationId) {
@@ -128,7 +165,7 @@ public class AdminRest {
                                 .map(list -> new ResponseDto<List<DistributionProgramResponse>>(true, list, null));
         }
 
-        @GetMapping("/program/enriched")
+        @GetMapping(value = "/program/enriched", produces = MediaType.APPLICATION_JSON_VALUE)
         // @Operation(summary = "Get all enriched distribution programs")
         public Mono<ResponseDto<List<EnrichedDistributionProgramResponse>>> getAllEnrichedPrograms() {
                 return programService.getAllEnriched()
@@ -137,11 +174,30 @@ public class AdminRest {
                                                 null));
         }
 
+        @GetMapping(value = "/program/enriched", produces = { MediaType.APPLICATION_NDJSON_VALUE, MediaType.TEXT_EVENT_STREAM_VALUE })
+        public Flux<EnrichedDistributionProgramResponse> streamEnrichedPrograms() {
+                return programService.getAllEnriched();
+        }
+
+        @GetMapping(value = "/program/enriched", params = "limit")
+        public Mono<ResponseDto<CursorPage<EnrichedDistributionProgramResponse>>> getEnrichedProgramsPage(
+                        @RequestParam Integer limit,
+                        @RequestParam(required = false) String after,
+                        @RequestParam(required = false) String sort,
+                        @RequestParam(required = false) String direction,
+                        @RequestParam(required = false) String organizationId,
+                        @RequestParam(required = false) String status) {
+                return programService.getEnrichedPage(pageRequest(limit, after, sort, direction, organizationId, status))
+                                .map(this::success);
+        }
+
         @GetMapping("/program/{id}")
         // @Operation(summary = "Get distribution program by ID")
-        public Mono<ResponseDto<DistributionProgramResponse>> getProgramById(@PathVariable String id) {
+        public Mono<ResponseEntity<ResponseDto<DistributionProgramResponse>>> getProgramById(@PathVariable String id,
+                        ServerWebExchange exchange) {
                 return programService.getById(id)
-                                .map(data -> new ResponseDto<DistributionProgramResponse>(true, data, null))
+                                .map(data -> conditional.entity(exchange, data.getVersion(),
+                                                lastModified(data.getUpdatedAt(), data.getCreatedAt()), success(data)))
                                 .switchIfEmpty(Mono.error(CustomException.notFound("DistributionProgram", id)));
         }
 
@@ -154,12 +210,36 @@ public class AdminRest {
                                                 .body(new ResponseDto<DistributionProgramResponse>(true, data, null)));
         }
 
+        /**
+         * Alta masiva: acepta un array JSON o NDJSON (un objeto por línea, sin acumular la entrada) y
+         * responde con el resultado de cada elemento en el orden recibido. Con Accept: application/x-ndjson
+         * los resultados se escriben lote a lote.
+         */
+        @PostMapping(value = "/program/bulk", consumes = { MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_NDJSON_VALUE },
+                        produces = MediaType.APPLICATION_JSON_VALUE)
+        @Operation(summary = "Bulk create distribution programs")
+        public Mono<ResponseDto<BulkResult<DistributionProgramResponse>>> bulkCreatePrograms(
+                        @RequestBody Flux<DistributionProgramCreateRequest> requests) {
+                return programService.saveAll(requests)
+                                .collectList()
+                                .map(items -> success(BulkResult.of(items)));
+        }
+
+        @PostMapping(value = "/program/bulk", consumes = { MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_NDJSON_VALUE },
+                        produces = MediaType.APPLICATION_NDJSON_VALUE)
+        @Operation(summary = "Bulk create distribution programs (NDJSON results)")
+        public Flux<BulkItemResult<DistributionProgramResponse>> streamBulkCreatePrograms(
+                        @RequestBody Flux<DistributionProgramCreateRequest> requests) {
+                return programService.saveAll(requests);
+        }
+
         @PutMapping("/program/{id}")
         // @Operation(summary = "Update a distribution program")
-        public Mono<ResponseDto<DistributionProgramResponse>> updateProgram(@PathVariable String id,
-                        @RequestBody DistributionProgramCreateRequest request) {
-                return programService.update(id, request)
-                                .map(data -> new ResponseDto<DistributionProgramResponse>(true, data, null))
+        public Mono<ResponseEntity<ResponseDto<DistributionProgramResponse>>> updateProgram(@PathVariable String id,
+                        @RequestBody DistributionProgramCreateRequest request,
+                        @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+                return programService.update(id, request, ETags.expectedVersion(ifMatch))
+                                .map(data -> withETag(data, data.getVersion()))
                                 .switchIfEmpty(Mono.error(CustomException.notFound("DistributionProgram", id)));
         }
 
@@ -190,13 +270,13 @@ public class AdminRest {
         // DISTRIBUTION ROUTE ENDPOINTS
         // ===============================
 
-        @GetMapping("/route")
+        @GetMapping(value = "/route", produces = MediaType.APPLICATION_JSON_VALUE)
         // @Operation(summary = "Get all distribution routes")
-        public Mono<ResponseDto<List<DistributionRouteResponse>>> getAllRoutes() {
-                return routeService.getAll()
+        public Mono<ResponseEntity<ResponseDto<List<DistributionRouteResponse>>>> getAllRoutes(ServerWebExchange exchange) {
+                return conditional.collection(exchange, EntityType.ROUTE, () -> routeService.getAll()
                                 .map(this::convertToResponse)
                                 .collectList()
-                                .map(list -> new ResponseDto<List<DistributionRouteResponse>>(true, list, null));
+                                .map(list -> new ResponseDto<List<DistributionRouteResponse>>(true, list, null)));
         }
 
         private DistributionRouteResponse convertToResponse(
@@ -235,6 +315,8 @@ public class AdminRest {
                                 .responsibleUserId(route.getResponsibleUserId())
                                 .status(route.getStatus())
                                 .createdAt(route.getCreatedAt())
+                                .updatedAt(route.getUpdatedAt())
+                                .version(route.getVersion())
                                 .build();
         }
 
@@ -253,6 +335,8 @@ public class AdminRest {
                                 .durationHours(schedule.getDurationHours())
                                 .status(schedule.getStatus())
                                 .createdAt(schedule.getCreatedAt())
+                                .updatedAt(schedule.getUpdatedAt())
+                                .version(schedule.getVersion())
                                 .build();
         }
 
@@ -260,21 +344,88 @@ public class AdminRest {
                 return new ResponseDto<>(true, data, null);
         }
 
-        @GetMapping("/route/active")
+        /**
+         * Respuesta de una entidad con su versión como ETag; el cliente la envía en If-Match al actualizar.
+         */
+        private <T> ResponseEntity<ResponseDto<T>> withETag(T data, Long version) {
+                return ResponseEntity.ok().eTag(ETags.of(version)).body(success(data));
+        }
+
+        /**
+         * Documentos nunca modificados no tienen updatedAt: su última modificación es la creación.
+         */
+        private static Instant lastModified(Instant updatedAt, Instant createdAt) {
+                return updatedAt != null ? updatedAt : createdAt;
+        }
+
+        private CursorPageRequest pageRequest(Integer limit, String after, String sort, String direction,
+                        String organizationId, String status) {
+                return CursorPageRequest.builder()
+                                .limit(limit)
+                                .after(after)
+                                .sort(sort != null ? sort : KeysetPageRepository.SORT_CREATED_AT)
+                                .direction(direction)
+                                .organizationId(organizationId)
+                                .status(status)
+                                .build();
+        }
+
+        @GetMapping(value = "/route", produces = { MediaType.APPLICATION_NDJSON_VALUE, MediaType.TEXT_EVENT_STREAM_VALUE })
+        public Flux<DistributionRouteResponse> streamRoutes() {
+                return routeService.getAll().map(this::convertToResponse);
+        }
+
+        @GetMapping(value = "/route/active", produces = { MediaType.APPLICATION_NDJSON_VALUE, MediaType.TEXT_EVENT_STREAM_VALUE })
+        public Flux<DistributionRouteResponse> streamActiveRoutes(@RequestParam(required = false) String organizationId) {
+                return routeService.getActiveByOrganization(organizationId).map(this::convertToResponse);
+        }
+
+        @GetMapping(value = "/route", params = "limit")
+        public Mono<ResponseEntity<ResponseDto<CursorPage<DistributionRouteResponse>>>> getRoutesPage(
+                        @RequestParam Integer limit,
+                        @RequestParam(required = false) String after,
+                        @RequestParam(required = false) String sort,
+                        @RequestParam(required = false) String direction,
+                        @RequestParam(required = false) String organizationId,
+                        @RequestParam(required = false) String status,
+                        ServerWebExchange exchange) {
+                return conditional.collection(exchange, EntityType.ROUTE, () -> routeService
+                                .getPage(pageRequest(limit, after, sort, direction, organizationId, status))
+                                .map(page -> success(page.map(this::convertToResponse))));
+        }
+
+        @GetMapping(value = "/route/active", params = "limit")
+        public Mono<ResponseEntity<ResponseDto<CursorPage<DistributionRouteResponse>>>> getActiveRoutesPage(
+                        @RequestParam Integer limit,
+                        @RequestParam(required = false) String after,
+                        @RequestParam(required = false) String sort,
+                        @RequestParam(required = false) String direction,
+                        @RequestParam(required = false) String organizationId,
+                        ServerWebExchange exchange) {
+                return conditional.collection(exchange, EntityType.ROUTE, () -> routeService
+                                .getPage(pageRequest(limit, after, sort, direction, organizationId, Constants.ACTIVE.name()))
+                                .map(page -> success(page.map(this::convertToResponse))));
+        }
+
+        @GetMapping(value = "/route/active", produces = MediaType.APPLICATION_JSON_VALUE)
         // @Operation(summary = "Get all active distribution routes")
-        public Mono<ResponseDto<List<DistributionRouteResponse>>> getAllActiveRoutes() {
-                return routeService.getAllActive()
+        public Mono<ResponseEntity<ResponseDto<List<DistributionRouteResponse>>>> getAllActiveRoutes(
+                        @RequestParam(required = false) String organizationId,
+                        ServerWebExchange exchange) {
+                return conditional.collection(exchange, EntityType.ROUTE, () -> routeService.getActiveByOrganization(organizationId)
                                 .map(this::convertToResponse)
                                 .collectList()
-                                .map(list -> new ResponseDto<List<DistributionRouteResponse>>(true, list, null));
+                                .map(list -> new ResponseDto<List<DistributionRouteResponse>>(true, list, null)));
         }
 
         @GetMapping("/route/{id}")
         // @Operation(summary = "Get distribution route by ID")
-        public Mono<ResponseDto<DistributionRouteResponse>> getRouteById(@PathVariable String id) {
+        public Mono<ResponseEntity<ResponseDto<DistributionRouteResponse>>> getRouteById(@PathVariable String id,
+                        ServerWebExchange exchange) {
                 return routeService.getById(id)
                                 .map(this::convertToResponse)
-                                .map(data -> new ResponseDto<DistributionRouteResponse>(true, data, null))
+                                .map(data -> conditional.entity(exchange, data.getVersion(),
+                                                lastModified(data.getUpdatedAt(), data.getCreatedAt()), success(data)))
                                 .switchIfEmpty(Mono.error(CustomException.notFound("DistributionRoute", id)));
         }
 
@@ -287,12 +438,31 @@ public class AdminRest {
                                                 .body(new ResponseDto<DistributionRouteResponse>(true, data, null)));
         }
 
+        @PostMapping(value = "/route/bulk", consumes = { MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_NDJSON_VALUE },
+                        produces = MediaType.APPLICATION_JSON_VALUE)
+        @Operation(summary = "Bulk create distribution routes")
+        public Mono<ResponseDto<BulkResult<DistributionRouteResponse>>> bulkCreateRoutes(
+                        @RequestBody Flux<DistributionRouteCreateRequest> requests) {
+                return routeService.saveAll(requests)
+                                .collectList()
+                                .map(items -> success(BulkResult.of(items)));
+        }
+
+        @PostMapping(value = "/route/bulk", consumes = { MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_NDJSON_VALUE },
+                        produces = MediaType.APPLICATION_NDJSON_VALUE)
+        @Operation(summary = "Bulk create distribution routes (NDJSON results)")
+        public Flux<BulkItemResult<DistributionRouteResponse>> streamBulkCreateRoutes(
+                        @RequestBody Flux<DistributionRouteCreateRequest> requests) {
+                return routeService.saveAll(requests);
+        }
+
         @PutMapping("/route/{id}")
         // @Operation(summary = "Update a distribution route")
-        public Mono<ResponseDto<DistributionRouteResponse>> updateRoute(@PathVariable String id,
-                        @RequestBody DistributionRouteCreateRequest request) {
-                return routeService.update(id, request)
-                                .map(data -> new ResponseDto<DistributionRouteResponse>(true, data, null))
+        public Mono<ResponseEntity<ResponseDto<DistributionRouteResponse>>> updateRoute(@PathVariable String id,
+                        @RequestBody DistributionRouteCreateRequest request,
+                        @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+                return routeService.update(id, request, ETags.expectedVersion(ifMatch))
+                                .map(data -> withETag(data, data.getVersion()))
                                 .switchIfEmpty(Mono.error(CustomException.notFound("DistributionRoute", id)));
         }
 
@@ -325,30 +495,71 @@ public class AdminRest {
         // DISTRIBUTION SCHEDULE ENDPOINTS
         // ===============================
 
-        @GetMapping("/schedule")
+        @GetMapping(value = "/schedule", produces = MediaType.APPLICATION_JSON_VALUE)
         // @Operation(summary = "Get all distribution schedules")
-        public Mono<ResponseDto<List<DistributionScheduleResponse>>> getAllSchedules() {
-                return scheduleService.getAll()
+        public Mono<ResponseEntity<ResponseDto<List<DistributionScheduleResponse>>>> getAllSchedules(ServerWebExchange exchange) {
+                return conditional.collection(exchange, EntityType.SCHEDULE, () -> scheduleService.getAll()
                                 .map(this::convertToScheduleResponse)
                                 .collectList()
-                                .map(list -> new ResponseDto<List<DistributionScheduleResponse>>(true, list, null));
+                                .map(list -> new ResponseDto<List<DistributionScheduleResponse>>(true, list, null)));
+        }
+
+        @GetMapping(value = "/schedule", produces = { MediaType.APPLICATION_NDJSON_VALUE, MediaType.TEXT_EVENT_STREAM_VALUE })
+        public Flux<DistributionScheduleResponse> streamSchedules() {
+                return scheduleService.getAll().map(this::convertToScheduleResponse);
+        }
+
+        @GetMapping(value = "/schedule/active", produces = { MediaType.APPLICATION_NDJSON_VALUE, MediaType.TEXT_EVENT_STREAM_VALUE })
+        public Flux<DistributionScheduleResponse> streamActiveSchedules(@RequestParam(required = false) String organizationId) {
+                return scheduleService.getActiveByOrganization(organizationId).map(this::convertToScheduleResponse);
+        }
+
+        @GetMapping(value = "/schedule", params = "limit")
+        public Mono<ResponseEntity<ResponseDto<CursorPage<DistributionScheduleResponse>>>> getSchedulesPage(
+                        @RequestParam Integer limit,
+                        @RequestParam(required = false) String after,
+                        @RequestParam(required = false) String sort,
+                        @RequestParam(required = false) String direction,
+                        @RequestParam(required = false) String organizationId,
+                        @RequestParam(required = false) String status,
+                        ServerWebExchange exchange) {
+                return conditional.collection(exchange, EntityType.SCHEDULE, () -> scheduleService
+                                .getPage(pageRequest(limit, after, sort, direction, organizationId, status))
+                                .map(page -> success(page.map(this::convertToScheduleResponse))));
         }
 
-        @GetMapping("/schedule/active")
+        @GetMapping(value = "/schedule/active", params = "limit")
+        public Mono<ResponseEntity<ResponseDto<CursorPage<DistributionScheduleResponse>>>> getActiveSchedulesPage(
+                        @RequestParam Integer limit,
+                        @RequestParam(required = false) String after,
+                        @RequestParam(required = false) String sort,
+                        @RequestParam(required = false) String direction,
+                        @RequestParam(required = false) String organizationId,
+                        ServerWebExchange exchange) {
+                return conditional.collection(exchange, EntityType.SCHEDULE, () -> scheduleService
+                                .getPage(pageRequest(limit, after, sort, direction, organizationId, Constants.ACTIVE.name()))
+                                .map(page -> success(page.map(this::convertToScheduleResponse))));
+        }
+
+        @GetMapping(value = "/schedule/active", produces = MediaType.APPLICATION_JSON_VALUE)
         // @Operation(summary = "Get all active distribution schedules")
-        public Mono<ResponseDto<List<DistributionScheduleResponse>>> getAllActiveSchedules() {
-                return scheduleService.getAllActive()
+        public Mono<ResponseEntity<ResponseDto<List<DistributionScheduleResponse>>>> getAllActiveSchedules(
+                        @RequestParam(required = false) String organizationId,
+                        ServerWebExchange exchange) {
+                return conditional.collection(exchange, EntityType.SCHEDULE, () -> scheduleService.getActiveByOrganization(organizationId)
                                 .map(this::convertToScheduleResponse)
                                 .collectList()
-                                .map(list -> new ResponseDto<List<DistributionScheduleResponse>>(true, list, null));
+                                .map(list -> new ResponseDto<List<DistributionScheduleResponse>>(true, list, null)));
         }
 
         @GetMapping("/schedule/{id}")
         // @Operation(summary = "Get distribution schedule by ID")
-        public Mono<ResponseDto<DistributionScheduleResponse>> getScheduleById(@PathVariable String id) {
+        public Mono<ResponseEntity<ResponseDto<DistributionScheduleResponse>>> getScheduleById(@PathVariable String id,
+                        ServerWebExchange exchange) {
                 return scheduleService.getById(id)
                                 .map(this::convertToScheduleResponse)
-                                .map(data -> new ResponseDto<DistributionScheduleResponse>(true, data, null))
+                                .map(data -> conditional.entity(exchange, data.getVersion(),
+                                                lastModified(data.getUpdatedAt(), data.getCreatedAt()), success(data)))
                                 .switchIfEmpty(Mono.error(CustomException.notFound("DistributionSchedule", id)));
         }
 
@@ -361,26 +572,46 @@ public class AdminRest {
                                                 .body(new ResponseDto<DistributionScheduleResponse>(true, data, null)));
         }
 
+        @PostMapping(value = "/schedule/bulk", consumes = { MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_NDJSON_VALUE },
+                        produces = MediaType.APPLICATION_JSON_VALUE)
+        @Operation(summary = "Bulk create distribution schedules")
+        public Mono<ResponseDto<BulkResult<DistributionScheduleResponse>>> bulkCreateSchedules(
+                        @RequestBody Flux<DistributionScheduleCreateRequest> requests) {
+                return scheduleService.saveAll(requests)
+                                .collectList()
+                                .map(items -> success(BulkResult.of(items)));
+        }
+
+        @PostMapping(value = "/schedule/bulk", consumes = { MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_NDJSON_VALUE },
+                        produces = MediaType.APPLICATION_NDJSON_VALUE)
+        @Operation(summary = "Bulk create distribution schedules (NDJSON results)")
+        public Flux<BulkItemResult<DistributionScheduleResponse>> streamBulkCreateSchedules(
+                        @RequestBody Flux<DistributionScheduleCreateRequest> requests) {
+                return scheduleService.saveAll(requests);
+        }
+
         @PutMapping("/schedule/{id}")
         // @Operation(summary = "Update a distribution schedule")
-        public Mono<ResponseDto<DistributionScheduleResponse>> updateSchedule(@PathVariable String id,
-                        @RequestBody DistributionScheduleCreateRequest request) {
+        public Mono<ResponseEntity<ResponseDto<DistributionScheduleResponse>>> updateSchedule(@PathVariable String id,
+                        @RequestBody DistributionScheduleCreateRequest request,
+                        @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
                 log.debug("Received update request for schedule id: {} with data: {}", id, request);
                 
-                return scheduleService.update(id, request)
+                return scheduleService.update(id, request, ETags.expectedVersion(ifMatch))
                                 .map(data -> {
                                 log.debug("Schedule updated successfully: {}", data);
-                                return new ResponseDto<DistributionScheduleResponse>(true, data, null);
+                                return withETag(data, data.getVersion());
                                 })
                                 .switchIfEmpty(Mono.error(CustomException.notFound("DistributionSchedule", id)))
-                                .onErrorResume(throwable -> {
+                                // 404 / 412 y validaciones conservan su código; el resto se informa en el cuerpo
+                                .onErrorResume(throwable -> !(throwable instanceof CustomException), throwable -> {
                                         // Log the error for debugging
                                         log.error("Error updating schedule with id: " + id, throwable);
                                         // Return a proper error response
                                         String errorMessage = "Error al actualizar el horario: " + 
                                         (throwable.getMessage() != null ? throwable.getMessage() : "Error interno del servidor");
-                                        return Mono.just(new ResponseDto<DistributionScheduleResponse>(false, null, 
-                                                new ErrorMessage(500, errorMessage, throwable.getClass().getSimpleName())));
+                                        return Mono.just(ResponseEntity.ok(new ResponseDto<DistributionScheduleResponse>(false, null, 
+                                                new ErrorMessage(500, errorMessage, throwable.getClass().getSimpleName()))));
                                 });
         }
 
@@ -413,27 +644,74 @@ public class AdminRest {
         // FARE ENDPOINTS
         // ===============================
 
-        @GetMapping("/fare")
+        @GetMapping(value = "/fare", produces = MediaType.APPLICATION_JSON_VALUE)
         // @Operation(summary = "Get all fares")
-        public Mono<ResponseDto<List<FareResponse>>> getAllFares() {
-                return fareService.getAllF()
+        public Mono<ResponseEntity<ResponseDto<List<FareResponse>>>> getAllFares(ServerWebExchange exchange) {
+                return conditional.collection(exchange, EntityType.FARE, () -> fareService.getAllF()
                                 .collectList()
-                                .map(list -> new ResponseDto<List<FareResponse>>(true, list, null));
+                                .map(list -> new ResponseDto<List<FareResponse>>(true, list, null)));
         }
 
-        @GetMapping("/fare/active")
+        @GetMapping(value = "/fare", produces = { MediaType.APPLICATION_NDJSON_VALUE, MediaType.TEXT_EVENT_STREAM_VALUE })
+        public Flux<FareResponse> streamFares() {
+                return fareService.getAllF();
+        }
+
+        @GetMapping(value = "/fare/active", produces = { MediaType.APPLICATION_NDJSON_VALUE, MediaType.TEXT_EVENT_STREAM_VALUE })
+        public Flux<FareResponse> streamActiveFares() {
+                return fareService.getAllActiveF();
+        }
+
+        @GetMapping(value = "/fare", params = "limit")
+        public Mono<ResponseEntity<ResponseDto<CursorPage<FareResponse>>>> getFaresPage(
+                        @RequestParam Integer limit,
+                        @RequestParam(required = false) String after,
+                        @RequestParam(required = false) String sort,
+                        @RequestParam(required = false) String direction,
+                        @RequestParam(required = false) String organizationId,
+                        @RequestParam(required = false) String status,
+                        ServerWebExchange exchange) {
+                return conditional.collection(exchange, EntityType.FARE, () -> fareService
+                                .getPageF(pageRequest(limit, after, sort, direction, organizationId, status))
+                                .map(this::success));
+        }
+
+        @GetMapping(value = "/fare/active", params = "limit")
+        public Mono<ResponseEntity<ResponseDto<CursorPage<FareResponse>>>> getActiveFaresPage(
+                        @RequestParam Integer limit,
+                        @RequestParam(required = false) String after,
+                        @RequestParam(required = false) String sort,
+                        @RequestParam(required = false) String direction,
+                        @RequestParam(required = false) String organizationId,
+                        ServerWebExchange exchange) {
+                return conditional.collection(exchange, EntityType.FARE, () -> fareService
+                                .getPageF(pageRequest(limit, after, sort, direction, organizationId, Constants.ACTIVE.name()))
+                                .map(this::success));
+        }
+
+        @GetMapping(value = "/fare/active", produces = MediaType.APPLICATION_JSON_VALUE)
         // @Operation(summary = "Get all active fares")
-        public Mono<ResponseDto<List<FareResponse>>> getAllActiveFares() {
-                return fareService.getAllActiveF()
+        public Mono<ResponseEntity<ResponseDto<List<FareResponse>>>> getAllActiveFares(ServerWebExchange exchange) {
+                return conditional.collection(exchange, EntityType.FARE, () -> fareService.getAllActiveF()
                                 .collectList()
-                                .map(list -> new ResponseDto<List<FareResponse>>(true, list, null));
+                                .map(list -> new ResponseDto<List<FareResponse>>(true, list, null)));
+        }
+
+        @GetMapping("/fare/current")
+        @Operation(summary = "Get the fare in force for an organization, now or at a given instant")
+        public Mono<ResponseDto<FareResponse>> getFareInForce(@RequestParam String organizationId,
+                        @RequestParam(required = false) Instant at) {
+                return fareService.getFareInForce(organizationId, at)
+                                .map(this::success);
         }
 
         @GetMapping("/fare/{id}")
         // @Operation(summary = "Get fare by ID")
-        public Mono<ResponseDto<FareResponse>> getFareById(@PathVariable String id) {
+        public Mono<ResponseEntity<ResponseDto<FareResponse>>> getFareById(@PathVariable String id,
+                        ServerWebExchange exchange) {
                 return fareService.getByIdF(id)
-                                .map(data -> new ResponseDto<FareResponse>(true, data, null))
+                                .map(data -> conditional.entity(exchange, data.getVersion(),
+                                                lastModified(data.getUpdatedAt(), data.getCreatedAt()), success(data)))
                                 .switchIfEmpty(Mono.error(CustomException.notFound("Fare", id)));
         }
 
@@ -445,12 +723,31 @@ public class AdminRest {
                                                 .body(new ResponseDto<FareResponse>(true, data, null)));
         }
 
+        @PostMapping(value = "/fare/bulk", consumes = { MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_NDJSON_VALUE },
+                        produces = MediaType.APPLICATION_JSON_VALUE)
+        @Operation(summary = "Bulk create fares")
+        public Mono<ResponseDto<BulkResult<FareResponse>>> bulkCreateFares(
+                        @RequestBody Flux<FareCreateRequest> requests) {
+                return fareService.saveAllF(requests)
+                                .collectList()
+                                .map(items -> success(BulkResult.of(items)));
+        }
+
+        @PostMapping(value = "/fare/bulk", consumes = { MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_NDJSON_VALUE },
+                        produces = MediaType.APPLICATION_NDJSON_VALUE)
+        @Operation(summary = "Bulk create fares (NDJSON results)")
+        public Flux<BulkItemResult<FareResponse>> streamBulkCreateFares(
+                        @RequestBody Flux<FareCreateRequest> requests) {
+                return fareService.saveAllF(requests);
+        }
+
         @PutMapping("/fare/{id}")
         // @Operation(summary = "Update a fare")
-        public Mono<ResponseDto<FareResponse>> updateFare(@PathVariable String id,
-                        @RequestBody FareCreateRequest request) {
-                return fareService.updateF(id, request)
-                                .map(data -> new ResponseDto<FareResponse>(true, data, null))
+        public Mono<ResponseEntity<ResponseDto<FareResponse>>> updateFare(@PathVariable String id,
+                        @RequestBody FareCreateRequest request,
+                        @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+                return fareService.updateF(id, request, ETags.expectedVersion(ifMatch))
+                                .map(data -> withETag(data, data.getVersion()))
                                 .switchIfEmpty(Mono.error(CustomException.notFound("Fare", id)));
         }
 
@@ -0,0 +1,412 @@
+package pe.edu.vallegrande.msdistribution.infrastructure.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.Singular;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import pe.edu.vallegrande.msdistribution.application.services.OrganizationDirectoryService;
+import pe.edu.vallegrande.msdistribution.domain.models.DistributionRoute;
+import pe.edu.vallegrande.msdistribution.domain.models.DistributionSchedule;
+import pe.edu.vallegrande.msdistribution.domain.models.User;
+import pe.edu.vallegrande.msdistribution.infrastructure.client.ExternalReferenceMapper;
+import pe.edu.vallegrande.msdistribution.infrastructure.client.ExternalUserMapper;
+import pe.edu.vallegrande.msdistribution.infrastructure.client.dto.ExternalOrganization;
+import pe.edu.vallegrande.msdistribution.infrastructure.client.dto.ExternalStreet;
+import pe.edu.vallegrande.msdistribution.infrastructure.client.dto.ExternalUser;
+import pe.edu.vallegrande.msdistribution.infrastructure.client.dto.ExternalZone;
+import pe.edu.vallegrande.msdistribution.infrastructure.repository.DistributionRouteRepository;
+import pe.edu.vallegrande.msdistribution.infrastructure.repository.DistributionScheduleRepository;
+import pe.edu.vallegrande.msdistribution.infrastructure.repository.UserRepository;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeoutException;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Resuelve en lote las referencias de un flujo de entidades (estilo DataLoader) para armar las
+ * respuestas enriquecidas: horario y ruta (Mongo), y organización, zona, calle y usuario
+ * responsable (ms-users / ms-organization).
+ *
+ * El flujo se agrupa en lotes (por tamaño o por ventana de tiempo); de cada lote se toman los ids
+ * aún no resueltos en la petición, sin repetidos. Horarios y rutas se leen con un findAllById por
+ * lote; los usuarios se leen primero de la réplica local ({@code user}, ver UserReplicaService) y
+ * solo los que faltan o están vencidos van a ms-users. Las referencias remotas se consultan con
+ * concurrencia acotada, primero los usuarios porque traen organización, zona y calle embebidas.
+ * Organizaciones, zonas y calles salen del directorio local en memoria
+ * ({@link OrganizationDirectoryService}); solo se consultan remotamente mientras el directorio no
+ * está cargado o con {@code organization-directory.remote-fallback}. Los lotes se procesan uno
+ * tras otro, así la salida conserva el orden de la entrada.
+ *
+ * Cada petición tiene un presupuesto de latencia: al agotarse se dejan de esperar las consultas y
+ * los elementos salen con lo ya resuelto, marcados como degradados. Una consulta remota que falla
+ * (servicio caído, circuito abierto) deja la referencia sin resolver, también como degradada: solo
+ * una respuesta "no existe" se memoriza como ausente.
+ */
+@Component
+@Slf4j
+public class EnrichmentBatchLoader {
+
+    private final ExternalServiceClient externalServiceClient;
+    private final DistributionScheduleRepository scheduleRepository;
+    private final DistributionRouteRepository routeRepository;
+    private final UserRepository userRepository;
+    private final OrganizationDirectoryService directory;
+    private final boolean replicaEnabled;
+    private final boolean remoteFallback;
+    private final Duration replicaMaxAge;
+    private final int maxBatchSize;
+    private final Duration window;
+    private final int concurrency;
+    private final Duration budget;
+    private final Counter degradedRequests;
+
+    public EnrichmentBatchLoader(ExternalServiceClient externalServiceClient,
+                                 DistributionScheduleRepository scheduleRepository,
+                                 DistributionRouteRepository routeRepository,
+                                 UserRepository userRepository,
+                                 OrganizationDirectoryService directory,
+                                 MeterRegistry meterRegistry,
+                                 @Value("${user-replica.enabled:true}") boolean replicaEnabled,
+                                 @Value("${user-replica.max-age-ms:3600000}") long replicaMaxAgeMillis,
+                                 @Value("${organization-directory.remote-fallback:false}") boolean remoteFallback,
+                                 @Value("${external-services.batch.max-size:100}") int maxBatchSize,
+                                 @Value("${external-services.batch.window-ms:10}") long windowMillis,
+                                 @Value("${external-services.batch.concurrency:8}") int concurrency,
+                                 @Value("${external-services.batch.budget-ms:800}") long budgetMillis) {
+        this.externalServiceClient = externalServiceClient;
+        this.scheduleRepository = scheduleRepository;
+        this.routeRepository = routeRepository;
+        this.userRepository = userRepository;
+        this.directory = directory;
+        this.replicaEnabled = replicaEnabled;
+        this.remoteFallback = remoteFallback;
+        this.replicaMaxAge = Duration.ofMillis(replicaMaxAgeMillis);
+        this.maxBatchSize = maxBatchSize;
+        this.window = Duration.ofMillis(windowMillis);
+        this.concurrency = concurrency;
+        this.budget = Duration.ofMillis(budgetMillis);
+        this.degradedRequests = Counter.builder("enrichment.degraded").register(meterRegistry);
+    }
+
+    /**
+     * Aplica {@code mapper} a cada elemento con sus referencias ya resueltas, en el mismo orden.
+     * Los ids nulos se ignoran; una referencia inexistente queda en null.
+     */
+    public <T, R> Flux<R> enrich(Flux<T> source, Function<T, Keys> keysOf, BiFunction<T, Resolved, R> mapper) {
+        return Flux.defer(() -> {
+            // Ámbito de la petición: un id ya resuelto en un lote anterior no se vuelve a pedir
+            References references = new References();
+            long deadline = System.nanoTime() + budget.toNanos();
+            return source.bufferTimeout(maxBatchSize, window)
+                    .concatMap(batch -> {
+                        List<Keys> keys = new ArrayList<>(batch.size());
+                        batch.forEach(item -> keys.add(keysOf.apply(item)));
+                        return resolve(keys, references, deadline)
+                                .thenMany(Flux.range(0, batch.size()))
+                                .map(i -> mapper.apply(batch.get(i), new Resolved(references, keys.get(i))));
+                    })
+                    .doOnComplete(() -> {
+                        if (references.timedOut || references.failed) {
+                            degradedRequests.increment();
+                        }
+                    });
+        });
+    }
+
+    public <T, R> Mono<R> enrichOne(Mono<T> source, Function<T, Keys> keysOf, BiFunction<T, Resolved, R> mapper) {
+        return enrich(source.flux(), keysOf, mapper).next();
+    }
+
+    private Mono<Void> resolve(List<Keys> batch, References references, long deadline) {
+        Set<String> userIds = missing(batch, Keys::getUserId, references.users);
+        Set<String> scheduleIds = missing(batch, Keys::getScheduleId, references.schedules);
+        Set<String> routeIds = missing(batch, Keys::getRouteId, references.routes);
+        if (userIds.isEmpty() && scheduleIds.isEmpty() && routeIds.isEmpty()
+                && missing(batch, Keys::getOrganizationId, references.organizations).isEmpty()
+                && missingZones(batch, references).isEmpty()
+                && missing(batch, Keys::getStreetId, references.streets).isEmpty()) {
+            return Mono.empty();
+        }
+        long remaining = deadline - System.nanoTime();
+        if (remaining <= 0) {
+            references.timedOut = true;
+            return Mono.empty();
+        }
+
+        Mono<Void> local = Mono.when(
+                fetchAll(scheduleIds, scheduleRepository::findAllById, DistributionSchedule::getId, references.schedules),
+                fetchAll(routeIds, routeRepository::findAllById, DistributionRoute::getId, references.routes));
+
+        // Las organizaciones, zonas y calles se calculan después de los usuarios: muchas llegan embebidas
+        Mono<Void> users = replicaUsers(userIds, references)
+                .then(Mono.defer(() -> fetchEach(missing(batch, Keys::getUserId, references.users),
+                        externalServiceClient::findUserById, references::putUser, references)));
+        Mono<Void> remote = users
+                .then(Mono.defer(() -> Mono.when(
+                        fetchEach(references.withReplicaIds(missing(batch, Keys::getOrganizationId, references.organizations),
+                                        User::getOrganizationId, references.organizations),
+                                this::organization, references.organizations::put, references),
+                        fetchEach(references.withReplicaIds(missingZones(batch, references),
+                                        User::getZoneId, references.zones),
+                                this::zone, references.zones::put, references),
+                        fetchEach(references.withReplicaIds(missing(batch, Keys::getStreetId, references.streets),
+                                        User::getStreetId, references.streets),
+                                this::street, references.streets::put, references))))
+                .then(Mono.fromRunnable(references::attachReplicaReferences));
+
+        return Mono.when(local, remote)
+                .timeout(Duration.ofNanos(remaining))
+                .onErrorResume(TimeoutException.class, e -> {
+                    log.warn("Presupuesto de enriquecimiento agotado ({} ms); se responde con datos parciales",
+                            budget.toMillis());
+                    references.timedOut = true;
+                    return Mono.empty();
+                });
+    }
+
+    /**
+     * Usuarios de la réplica local sincronizados hace menos de {@code replicaMaxAge}.
+     */
+    private Mono<Void> replicaUsers(Set<String> ids, References references) {
+        if (!replicaEnabled || ids.isEmpty()) {
+            return Mono.empty();
+        }
+        Instant freshAfter = Instant.now().minus(replicaMaxAge);
+        return userRepository.findAllById(ids)
+                .filter(user -> user.getSyncedAt() != null && user.getSyncedAt().isAfter(freshAfter))
+                .doOnNext(references::putReplicaUser)
+                .then();
+    }
+
+    private Mono<ExternalOrganization> organization(String id) {
+        return directory.organization(id)
+                .map(found -> Mono.just(ExternalReferenceMapper.toExternal(found)))
+                .orElseGet(() -> remote(() -> externalServiceClient.findOrganizationById(id)));
+    }
+
+    private Mono<ExternalZone> zone(String id) {
+        return directory.zone(id)
+                .map(found -> Mono.just(ExternalReferenceMapper.toExternal(found)))
+                .orElseGet(() -> remote(() -> externalServiceClient.findZoneById(id)));
+    }
+
+    private Mono<ExternalStreet> street(String id) {
+        return directory.street(id)
+                .map(found -> Mono.just(ExternalReferenceMapper.toExternal(found)))
+                .orElseGet(() -> remote(() -> externalServiceClient.findStreetById(id)));
+    }
+
+    /**
+     * Con el directorio cargado, una referencia que no está en él se deja sin resolver.
+     */
+    private <V> Mono<V> remote(Supplier<Mono<V>> fetch) {
+        return remoteFallback || !directory.isLoaded() ? fetch.get() : Mono.empty();
+    }
+
+    /**
+     * Un fallo no se memoriza: el id queda sin resolver y el elemento sale degradado.
+     */
+    private <V> Mono<Void> fetchEach(Set<String> ids, Function<String, Mono<V>> fetch,
+                                     BiFunction<String, Optional<V>, ?> store, References references) {
+        return Flux.fromIterable(ids)
+                .flatMap(id -> fetch.apply(id)
+                        .map(Optional::of)
+                        .defaultIfEmpty(Optional.empty())
+                        .doOnNext(value -> store.apply(id, value))
+                        .onErrorResume(e -> {
+                            references.failed = true;
+                            return Mono.empty();
+                        }), concurrency)
+                .then();
+    }
+
+    private <V> Mono<Void> fetchAll(Set<String> ids, Function<Set<String>, Flux<V>> fetch,
+                                    Function<V, String> idOf, Map<String, Optional<V>> target) {
+        if (ids.isEmpty()) {
+            return Mono.empty();
+        }
+        return fetch.apply(ids)
+                .doOnNext(value -> target.put(idOf.apply(value), Optional.of(value)))
+                .then(Mono.fromRunnable(() -> ids.forEach(id -> target.putIfAbsent(id, Optional.empty()))));
+    }
+
+    private static Set<String> missing(List<Keys> batch, Function<Keys, String> idOf, Map<String, ?> resolved) {
+        Set<String> ids = new LinkedHashSet<>();
+        for (Keys keys : batch) {
+            String id = idOf.apply(keys);
+            if (id != null && !resolved.containsKey(id)) {
+                ids.add(id);
+            }
+        }
+        return ids;
+    }
+
+    private static Set<String> missingZones(List<Keys> batch, References references) {
+        Set<String> ids = new LinkedHashSet<>();
+        for (Keys keys : batch) {
+            keys.getZoneIds().stream()
+                    .filter(Objects::nonNull)
+                    .filter(id -> !references.zones.containsKey(id))
+                    .forEach(ids::add);
+        }
+        return ids;
+    }
+
+    /**
+     * Ids que referencia un elemento.
+     */
+    @Getter
+    @Builder
+    public static class Keys {
+        private final String userId;
+        private final String organizationId;
+        private final String scheduleId;
+        private final String routeId;
+        @Singular
+        private final List<String> zoneIds;
+        private final String streetId;
+    }
+
+    /**
+     * Referencias de un elemento, tomadas de lo resuelto en la petición.
+     */
+    public static final class Resolved {
+
+        private final References references;
+        private final Keys keys;
+
+        Resolved(References references, Keys keys) {
+            this.references = references;
+            this.keys = keys;
+        }
+
+        public ExternalUser user() {
+            return references.value(references.users, keys.getUserId());
+        }
+
+        public ExternalOrganization organization() {
+            return references.value(references.organizations, keys.getOrganizationId());
+        }
+
+        public DistributionSchedule schedule() {
+            return references.value(references.schedules, keys.getScheduleId());
+        }
+
+        public DistributionRoute route() {
+            return references.value(references.routes, keys.getRouteId());
+        }
+
+        public ExternalZone zone() {
+            return keys.getZoneIds().isEmpty() ? null : zone(keys.getZoneIds().get(0));
+        }
+
+        public ExternalZone zone(String zoneId) {
+            return references.value(references.zones, zoneId);
+        }
+
+        public ExternalStreet street() {
+            return references.value(references.streets, keys.getStreetId());
+        }
+
+        /**
+         * true si alguna referencia quedó sin resolver por agotarse el presupuesto o por fallar
+         * su consulta.
+         */
+        public boolean degraded() {
+            return unresolved(references.users, keys.getUserId())
+                    || unresolved(references.organizations, keys.getOrganizationId())
+                    || unresolved(references.schedules, keys.getScheduleId())
+                    || unresolved(references.routes, keys.getRouteId())
+                    || keys.getZoneIds().stream().anyMatch(id -> unresolved(references.zones, id))
+                    || unresolved(references.streets, keys.getStreetId());
+        }
+
+        private static boolean unresolved(Map<String, ?> resolved, String id) {
+            return id != null && !resolved.containsKey(id);
+        }
+    }
+
+    /**
+     * Memo de la petición; Optional.empty() registra que la referencia no existe.
+     */
+    static final class References {
+
+        private final Map<String, Optional<ExternalUser>> users = new ConcurrentHashMap<>();
+        private final Map<String, Optional<ExternalOrganization>> organizations = new ConcurrentHashMap<>();
+        private final Map<String, Optional<ExternalZone>> zones = new ConcurrentHashMap<>();
+        private final Map<String, Optional<ExternalStreet>> streets = new ConcurrentHashMap<>();
+        private final Map<String, Optional<DistributionSchedule>> schedules = new ConcurrentHashMap<>();
+        private final Map<String, Optional<DistributionRoute>> routes = new ConcurrentHashMap<>();
+        private final Queue<User> replicaUsers = new ConcurrentLinkedQueue<>();
+        private volatile boolean timedOut;
+        private volatile boolean failed;
+
+        private <V> V value(Map<String, Optional<V>> resolved, String id) {
+            return id == null ? null : resolved.getOrDefault(id, Optional.empty()).orElse(null);
+        }
+
+        Optional<ExternalUser> putUser(String id, Optional<ExternalUser> user) {
+            user.ifPresent(found -> {
+                embed(organizations, found.getOrganization(), ExternalOrganization::getOrganizationId);
+                embed(zones, found.getZone(), ExternalZone::getZoneId);
+                embed(streets, found.getStreet(), ExternalStreet::getStreetId);
+            });
+            return users.put(id, user);
+        }
+
+        /**
+         * La copia local solo guarda ids: organización, zona y calle se resuelven como cualquier
+         * otra referencia y se agregan al usuario al final.
+         */
+        void putReplicaUser(User user) {
+            users.put(user.getId(), Optional.of(ExternalUserMapper.toExternalUser(user)));
+            replicaUsers.add(user);
+        }
+
+        Set<String> withReplicaIds(Set<String> ids, Function<User, String> idOf, Map<String, ?> resolved) {
+            for (User user : replicaUsers) {
+                String id = idOf.apply(user);
+                if (id != null && !resolved.containsKey(id)) {
+                    ids.add(id);
+                }
+            }
+            return ids;
+        }
+
+        void attachReplicaReferences() {
+            for (User user : replicaUsers) {
+                users.getOrDefault(user.getId(), Optional.empty()).ifPresent(external -> {
+                    external.setOrganization(value(organizations, user.getOrganizationId()));
+                    external.setZone(value(zones, user.getZoneId()));
+                    external.setStreet(value(streets, user.getStreetId()));
+                });
+            }
+            replicaUsers.clear();
+        }
+
+        private static <V> void embed(Map<String, Optional<V>> target, V value, Function<V, String> idOf) {
+            if (value != null && idOf.apply(value) != null) {
+                target.putIfAbsent(idOf.apply(value), Optional.of(value));
+            }
+        }
+    }
+}
@@ -1,69 +1,207 @@
 package pe.edu.vallegrande.msdistribution.infrastructure.service;
 
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.ParameterizedTypeReference;
 import org.springframework.stereotype.Service;
 import org.springframework.web.reactive.function.client.WebClient;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+import pe.edu.vallegrande.msdistribution.infrastructure.cache.ReactiveCache;
 import pe.edu.vallegrande.msdistribution.infrastructure.client.dto.ExternalOrganization;
+import pe.edu.vallegrande.msdistribution.infrastructure.client.dto.ExternalStreet;
 import pe.edu.vallegrande.msdistribution.infrastructure.client.dto.ExternalUser;
+import pe.edu.vallegrande.msdistribution.infrastructure.client.dto.ExternalZone;
+import pe.edu.vallegrande.msdistribution.infrastructure.config.HttpClientProperties;
 import pe.edu.vallegrande.msdistribution.infrastructure.client.dto.UserApiResponse;
 import pe.edu.vallegrande.msdistribution.infrastructure.dto.ResponseDto;
+import pe.edu.vallegrande.msdistribution.infrastructure.resilience.DownstreamGuard;
+import pe.edu.vallegrande.msdistribution.infrastructure.resilience.DownstreamUnavailableException;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
+import java.time.Duration;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Cliente de ms-users y ms-organization. Usuarios, administradores por organización,
+ * organizaciones, zonas y calles pasan por cachés con TTL y stale-while-revalidate, y las lecturas
+ * concurrentes de una misma clave comparten una sola petición HTTP. Cada usuario recibido alimenta
+ * también las cachés con la organización, zona y calle que trae embebidas, así que muchas
+ * búsquedas se resuelven sin llamada.
+ *
+ * Cada servicio tiene su circuit breaker y bulkhead ({@link DownstreamGuard}): con el servicio
+ * caído las llamadas fallan al instante y, si hay un último valor conocido en caché, se responde
+ * ese. Con hedging habilitado en el perfil, una lectura lenta se duplica y se toma la primera
+ * respuesta.
+ */
 @Service
+@Slf4j
 public class ExternalServiceClient {
 
+    private static final ParameterizedTypeReference<ResponseDto<ExternalUser>> USER_RESPONSE =
+            new ParameterizedTypeReference<>() {
+            };
+    private static final ParameterizedTypeReference<ResponseDto<ExternalZone>> ZONE_RESPONSE =
+            new ParameterizedTypeReference<>() {
+            };
+    private static final ParameterizedTypeReference<ResponseDto<ExternalStreet>> STREET_RESPONSE =
+            new ParameterizedTypeReference<>() {
+            };
+
     private final WebClient userWebClient;
     private final WebClient organizationWebClient;
+    private final DownstreamGuard usersGuard;
+    private final DownstreamGuard organizationGuard;
+
+    private final ReactiveCache<String, ExternalUser> users;
+    private final ReactiveCache<String, List<ExternalUser>> adminsByOrganization;
+    private final ReactiveCache<String, ExternalOrganization> organizations;
+    private final ReactiveCache<String, ExternalZone> zones;
+    private final ReactiveCache<String, ExternalStreet> streets;
 
     public ExternalServiceClient(
             @Qualifier("userWebClient") WebClient userWebClient,
-            @Qualifier("organizationWebClient") WebClient organizationWebClient) {
+            @Qualifier("organizationWebClient") WebClient organizationWebClient,
+            HttpClientProperties httpClientProperties,
+            MeterRegistry meterRegistry,
+            @Value("${external-services.cache.ttl-ms:300000}") long ttlMillis,
+            @Value("${external-services.cache.stale-ms:600000}") long staleMillis,
+            @Value("${external-services.cache.fallback-ms:86400000}") long fallbackMillis,
+            @Value("${external-services.cache.max-size:10000}") int maxSize) {
         this.userWebClient = userWebClient;
         this.organizationWebClient = organizationWebClient;
+        this.usersGuard = new DownstreamGuard("ms-users", httpClientProperties.getUsers(), meterRegistry);
+        this.organizationGuard = new DownstreamGuard("ms-organization", httpClientProperties.getOrganization(), meterRegistry);
+        Duration ttl = Duration.ofMillis(ttlMillis);
+        Duration stale = Duration.ofMillis(staleMillis);
+        Duration fallback = Duration.ofMillis(fallbackMillis);
+        this.users = new ReactiveCache<>("users", ttl, stale, fallback, maxSize, meterRegistry);
+        this.adminsByOrganization = new ReactiveCache<>("organization-admins", ttl, stale, fallback, maxSize, meterRegistry);
+        this.organizations = new ReactiveCache<>("organizations", ttl, stale, fallback, maxSize, meterRegistry);
+        this.zones = new ReactiveCache<>("zones", ttl, stale, fallback, maxSize, meterRegistry);
+        this.streets = new ReactiveCache<>("streets", ttl, stale, fallback, maxSize, meterRegistry);
     }
 
     public Flux<ExternalUser> getAdminsByOrganization(String organizationId) {
-        return userWebClient.get()
-                .uri("/internal/organizations/" + organizationId + "/admins")
-                .retrieve()
-                .bodyToMono(UserApiResponse.class)
-                .flatMapMany(response -> Flux.fromIterable(response.getData()))
+        return adminsByOrganization.get(organizationId, this::fetchAdmins)
+                .flatMapMany(Flux::fromIterable)
                 .onErrorResume(e -> {
-                    System.err.println("Error fetching admins for organization " + organizationId + ": " + e.getMessage());
+                    logFailure("admins for organization " + organizationId, e);
                     return Flux.empty();
                 });
     }
 
     public Mono<ExternalUser> getUserById(String userId) {
-        return userWebClient.get()
-                .uri("/api/users/" + userId)
-                .retrieve()
-                .bodyToMono(ResponseDto.class)
-                .map(response -> (ExternalUser) response.getData())
-                .onErrorResume(e -> {
-                    System.err.println("Error fetching user " + userId + ": " + e.getMessage());
-                    return Mono.empty();
-                });
+        return findUserById(userId).onErrorResume(e -> Mono.empty());
     }
 
     public Mono<ExternalOrganization> getOrganizationById(String organizationId) {
-        // Instead of calling the organization service directly, we'll get organization data through users
-        // First, get admins for the organization
-        return getAdminsByOrganization(organizationId)
-                .next() // Get the first admin user
-                .flatMap(adminUser -> {
-                    if (adminUser != null && adminUser.getOrganization() != null) {
-                        System.out.println("Successfully fetched organization from user: " + adminUser.getOrganization().getOrganizationName());
-                        return Mono.just(adminUser.getOrganization());
-                    } else {
-                        System.out.println("No organization data found in user for organization ID: " + organizationId);
-                        return Mono.empty();
-                    }
-                })
-                .onErrorResume(e -> {
-                    System.err.println("Error fetching organization through users for organization " + organizationId + ": " + e.getMessage());
-                    return Mono.empty();
-                });
+        return findOrganizationById(organizationId).onErrorResume(e -> Mono.empty());
+    }
+
+    public Mono<ExternalZone> getZoneById(String zoneId) {
+        return findZoneById(zoneId).onErrorResume(e -> Mono.empty());
+    }
+
+    public Mono<ExternalStreet> getStreetById(String streetId) {
+        return findStreetById(streetId).onErrorResume(e -> Mono.empty());
+    }
+
+    /**
+     * Como {@link #getUserById}, pero un fallo (servicio caído, circuito abierto sin valor en
+     * caché) llega como error: vacío significa solo que el usuario no existe.
+     */
+    public Mono<ExternalUser> findUserById(String userId) {
+        return users.get(userId, this::fetchUser)
+                .doOnError(e -> logFailure("user " + userId, e));
+    }
+
+    public Mono<ExternalOrganization> findOrganizationById(String organizationId) {
+        // ms-organization no expone la organización a este servicio: se toma la embebida en sus administradores
+        return organizations.get(organizationId, id -> adminsByOrganization.get(id, this::fetchAdmins)
+                        .flatMapMany(Flux::fromIterable)
+                        .map(ExternalUser::getOrganization)
+                        .next())
+                .doOnError(e -> logFailure("organization " + organizationId, e));
+    }
+
+    public Mono<ExternalZone> findZoneById(String zoneId) {
+        return zones.get(zoneId, id -> fetchFromOrganizationService("/zones/{zoneId}", id, ZONE_RESPONSE))
+                .doOnError(e -> logFailure("zone " + zoneId, e));
+    }
+
+    public Mono<ExternalStreet> findStreetById(String streetId) {
+        return streets.get(streetId, id -> fetchFromOrganizationService("/streets/{streetId}", id, STREET_RESPONSE))
+                .doOnError(e -> logFailure("street " + streetId, e));
+    }
+
+    /**
+     * Lectura directa de ms-users (sin caché ni respaldo): los errores se propagan para que la
+     * sincronización de la réplica local distinga "no existe" de "no se pudo consultar".
+     */
+    public Mono<ExternalUser> refreshUser(String userId) {
+        return fetchUser(userId);
+    }
+
+    public Mono<List<ExternalUser>> refreshAdmins(String organizationId) {
+        return fetchAdmins(organizationId).doOnNext(admins -> adminsByOrganization.put(organizationId, admins));
+    }
+
+    private Mono<List<ExternalUser>> fetchAdmins(String organizationId) {
+        return usersGuard.read(userWebClient.get()
+                        .uri("/internal/organizations/{organizationId}/admins", organizationId)
+                        .retrieve()
+                        .bodyToMono(UserApiResponse.class))
+                .map(response -> response.getData() != null ? response.getData() : Collections.<ExternalUser>emptyList())
+                .doOnNext(admins -> admins.forEach(this::collect));
+    }
+
+    private Mono<ExternalUser> fetchUser(String userId) {
+        return usersGuard.read(userWebClient.get()
+                        .uri("/api/users/{userId}", userId)
+                        .retrieve()
+                        .bodyToMono(USER_RESPONSE)
+                        .onErrorResume(WebClientResponseException.NotFound.class, e -> Mono.empty()))
+                .mapNotNull(ResponseDto::getData)
+                .doOnNext(this::collect);
+    }
+
+    private <T> Mono<T> fetchFromOrganizationService(String uri, String id,
+                                                     ParameterizedTypeReference<ResponseDto<T>> type) {
+        return organizationGuard.read(organizationWebClient.get()
+                        .uri(uri, id)
+                        .retrieve()
+                        .bodyToMono(type)
+                        .onErrorResume(WebClientResponseException.NotFound.class, e -> Mono.empty()))
+                .mapNotNull(ResponseDto::getData);
+    }
+
+    private void logFailure(String what, Throwable error) {
+        if (error instanceof DownstreamUnavailableException) {
+            // esperado con el circuito abierto: no se registra cada rechazo como advertencia
+            log.debug("Skipping {}: {}", what, error.getMessage());
+        } else {
+            log.warn("Error fetching {}: {}", what, error.getMessage());
+        }
+    }
+
+    /**
+     * Guarda el usuario y la organización, zona y calle que trae embebidas.
+     */
+    private void collect(ExternalUser user) {
+        users.put(user.getId(), user);
+        ExternalOrganization organization = user.getOrganization();
+        if (organization != null) {
+            organizations.put(organization.getOrganizationId(), organization);
+        }
+        if (user.getZone() != null) {
+            zones.put(user.getZone().getZoneId(), user.getZone());
+        }
+        if (user.getStreet() != null) {
+            streets.put(user.getStreet().getStreetId(), user.getStreet());
+        }
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,37 @@
+package pe.edu.vallegrande.msdistribution;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.ApplicationContext;
+import org.springframework.security.oauth2.jwt.ReactiveJwtDecoder;
+import org.springframework.test.context.TestPropertySource;
+import pe.edu.vallegrande.msdistribution.infrastructure.cache.EntityCache;
+
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+
+/**
+ * Verifica que el contexto de Spring arranque con todos los beans (constructores resolubles,
+ * dependencias satisfechas). El decodificador JWT se simula para no consultar el emisor remoto y
+ * las tareas de arranque contra Mongo se desactivan: la conexión es perezosa y no se usa.
+ */
+@SpringBootTest(classes = VgMsDistribution.class)
+@TestPropertySource(properties = {
+    "mongo.indexes.auto-create=false",
+    "cache.invalidation.change-streams.enabled=false",
+    "user-replica.enabled=false"
+})
+public class ApplicationContextTest {
+
+    @MockBean
+    private ReactiveJwtDecoder jwtDecoder;
+
+    @Autowired
+    private ApplicationContext context;
+
+    @Test
+    void contextLoads() {
+        assertNotNull(context.getBean(EntityCache.class));
+    }
+}
@@ -0,0 +1,112 @@
+package pe.edu.vallegrande.msdistribution.application.services.impl;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import pe.edu.vallegrande.msdistribution.application.services.SequenceService;
+import pe.edu.vallegrande.msdistribution.domain.enums.SequenceType;
+import pe.edu.vallegrande.msdistribution.domain.models.DistributionProgram;
+import pe.edu.vallegrande.msdistribution.infrastructure.dto.request.DistributionProgramCreateRequest;
+import pe.edu.vallegrande.msdistribution.infrastructure.dto.response.BulkItemResult;
+import pe.edu.vallegrande.msdistribution.infrastructure.exception.CustomException;
+import pe.edu.vallegrande.msdistribution.infrastructure.repository.BulkInsertRepository;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+/**
+ * Pruebas unitarias para BulkImporter: un resultado por elemento en el orden de entrada, una
+ * reserva de códigos por organización y lote, y errores aislados por elemento o por lote.
+ */
+public class BulkImporterTest {
+
+    private SequenceService sequenceService;
+    private BulkInsertRepository bulkInserts;
+    private final List<DistributionProgram> created = new ArrayList<>();
+    private final List<List<DistributionProgram>> afterInsert = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        sequenceService = mock(SequenceService.class);
+        bulkInserts = mock(BulkInsertRepository.class);
+    }
+
+    private BulkImporter.Spec<DistributionProgramCreateRequest, DistributionProgram, String> spec() {
+        return BulkImporter.Spec.<DistributionProgramCreateRequest, DistributionProgram, String>builder()
+                .sequence(SequenceType.PROGRAM)
+                .entityClass(DistributionProgram.class)
+                .organization(DistributionProgramCreateRequest::getOrganizationId)
+                .validate(request -> {
+                    if (request.getZoneId() == null) {
+                        throw CustomException.badRequest("Zona requerida", "zoneId vacío");
+                    }
+                })
+                .build((request, code) -> DistributionProgram.builder()
+                        .organizationId(request.getOrganizationId()).programCode(code).build())
+                .onCreated(created::add)
+                .afterInsert(inserted -> Mono.fromRunnable(() -> afterInsert.add(inserted)))
+                .toResponse(DistributionProgram::getProgramCode)
+                .build();
+    }
+
+    private static DistributionProgramCreateRequest request(String organizationId, String zoneId) {
+        return DistributionProgramCreateRequest.builder().organizationId(organizationId).zoneId(zoneId).build();
+    }
+
+    @Test
+    void importAll_ShouldReturnResultsInInputOrder_WithOneReservationPerOrganization() {
+        BulkImporter importer = new BulkImporter(sequenceService, bulkInserts, 10);
+        when(sequenceService.nextCodes(SequenceType.PROGRAM, "org-1", 2)).thenReturn(Flux.just("PRG001", "PRG002"));
+        when(sequenceService.nextCodes(SequenceType.PROGRAM, "org-2", 1)).thenReturn(Flux.just("PRG010"));
+        // documentos agrupados por organización: [org-1 #0, org-1 #3, org-2 #2]; el segundo se rechaza
+        when(bulkInserts.insert(eq(DistributionProgram.class), anyList()))
+                .thenReturn(Mono.just(Map.of(1, CustomException.conflict("Código duplicado"))));
+
+        Flux<DistributionProgramCreateRequest> requests = Flux.just(request("org-1", "z1"), request("org-1", null),
+                request("org-2", "z2"), request("org-1", "z3"));
+
+        List<BulkItemResult<String>> results = importer.importAll(requests, spec()).collectList().block();
+
+        assertEquals(4, results.size());
+        assertEquals(BulkItemResult.created(0, "PRG001"), results.get(0));
+        assertEquals(400, results.get(1).getError().getErrorCode());
+        assertEquals(BulkItemResult.created(2, "PRG010"), results.get(2));
+        assertEquals(409, results.get(3).getError().getErrorCode());
+        assertEquals(3, results.get(3).getIndex());
+        assertEquals(2, created.size());
+        assertEquals(1, afterInsert.size());
+        assertEquals(created, afterInsert.get(0));
+        verify(sequenceService, times(2)).nextCodes(eq(SequenceType.PROGRAM), anyString(), anyInt());
+        verify(bulkInserts, times(1)).insert(eq(DistributionProgram.class), anyList());
+    }
+
+    @Test
+    void importAll_ShouldFailOnlyTheChunkThatErrored() {
+        BulkImporter importer = new BulkImporter(sequenceService, bulkInserts, 2);
+        when(sequenceService.nextCodes(SequenceType.PROGRAM, "org-1", 2)).thenReturn(Flux.just("PRG001", "PRG002"));
+        when(sequenceService.nextCodes(SequenceType.PROGRAM, "org-1", 1)).thenReturn(Flux.just("PRG003"));
+        when(bulkInserts.insert(eq(DistributionProgram.class), anyList()))
+                .thenReturn(Mono.just(Collections.emptyMap()))
+                .thenReturn(Mono.error(new IllegalStateException("timeout")));
+
+        StepVerifier.create(importer.importAll(Flux.just(request("org-1", "z1"), request("org-1", "z2"),
+                        request("org-1", "z3")), spec()))
+                .expectNext(BulkItemResult.created(0, "PRG001"), BulkItemResult.created(1, "PRG002"))
+                .assertNext(result -> {
+                    assertEquals(2, result.getIndex());
+                    assertFalse(result.isSuccess());
+                    assertEquals(500, result.getError().getErrorCode());
+                })
+                .verifyComplete();
+        verify(bulkInserts, times(2)).insert(eq(DistributionProgram.class), anyList());
+    }
+}
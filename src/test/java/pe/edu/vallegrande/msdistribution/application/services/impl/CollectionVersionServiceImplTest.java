@@ -0,0 +1,125 @@
+package pe.edu.vallegrande.msdistribution.application.services.impl;
+
+import com.mongodb.client.result.UpdateResult;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.UpdateDefinition;
+import pe.edu.vallegrande.msdistribution.domain.enums.EntityType;
+import pe.edu.vallegrande.msdistribution.domain.events.CacheInvalidationEvent;
+import pe.edu.vallegrande.msdistribution.domain.events.EntityChangedEvent;
+import pe.edu.vallegrande.msdistribution.domain.models.CollectionVersion;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+import reactor.test.StepVerifier;
+
+import java.time.Duration;
+import java.time.Instant;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+/**
+ * Pruebas unitarias para CollectionVersionServiceImpl: creación del contador y agrupación de
+ * ráfagas de escrituras en pocos $inc.
+ */
+public class CollectionVersionServiceImplTest {
+
+    @Mock
+    private ReactiveMongoTemplate mongoTemplate;
+
+    @InjectMocks
+    private CollectionVersionServiceImpl versionService;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        when(mongoTemplate.upsert(any(Query.class), any(UpdateDefinition.class), eq(CollectionVersion.class)))
+                .thenReturn(Mono.just(UpdateResult.acknowledged(1, 1L, null)));
+    }
+
+    @Test
+    void current_ShouldCreateCounter_WhenMissing() {
+        CollectionVersion created = CollectionVersion.builder().id("fare").version(0).since(Instant.now()).build();
+        when(mongoTemplate.findById("fare", CollectionVersion.class)).thenReturn(Mono.empty());
+        when(mongoTemplate.findAndModify(any(Query.class), any(UpdateDefinition.class), any(FindAndModifyOptions.class),
+                eq(CollectionVersion.class)))
+                .thenReturn(Mono.just(created));
+
+        StepVerifier.create(versionService.current(EntityType.FARE))
+                .expectNext(created)
+                .verifyComplete();
+    }
+
+    @Test
+    void onEntityChanged_ShouldIncrementVersionOfThatCollection() {
+        versionService.onEntityChanged(EntityChangedEvent.created(EntityType.ROUTE, "r1", "org-1", "ACTIVE", null));
+
+        ArgumentCaptor<Query> query = ArgumentCaptor.forClass(Query.class);
+        ArgumentCaptor<UpdateDefinition> update = ArgumentCaptor.forClass(UpdateDefinition.class);
+        verify(mongoTemplate).upsert(query.capture(), update.capture(), eq(CollectionVersion.class));
+        assertEquals("route", query.getValue().getQueryObject().get("_id"));
+        assertEquals(1, update.getValue().getUpdateObject().get("$inc", org.bson.Document.class).get("version"));
+    }
+
+    @Test
+    void bump_ShouldCoalesceEventsArrivingWhileIncrementIsInFlight() {
+        Sinks.Empty<Void> first = Sinks.empty();
+        when(mongoTemplate.upsert(any(Query.class), any(UpdateDefinition.class), eq(CollectionVersion.class)))
+                .thenReturn(first.asMono().then(Mono.just(UpdateResult.acknowledged(1, 1L, null))))
+                .thenReturn(Mono.just(UpdateResult.acknowledged(1, 1L, null)));
+
+        for (int i = 0; i < 50; i++) {
+            versionService.onEntityChanged(EntityChangedEvent.created(EntityType.FARE, "f" + i, "org-1", "ACTIVE", null));
+        }
+        verify(mongoTemplate, times(1)).upsert(any(Query.class), any(UpdateDefinition.class), eq(CollectionVersion.class));
+
+        first.tryEmitEmpty();
+        // un solo $inc adicional cubre los 49 eventos acumulados
+        verify(mongoTemplate, times(2)).upsert(any(Query.class), any(UpdateDefinition.class), eq(CollectionVersion.class));
+    }
+
+    @Test
+    void bump_ShouldRetryFailedIncrement_UntilTheVersionMoves() {
+        when(mongoTemplate.upsert(any(Query.class), any(UpdateDefinition.class), eq(CollectionVersion.class)))
+                .thenReturn(Mono.error(new RuntimeException("timeout")))
+                .thenReturn(Mono.just(UpdateResult.acknowledged(1, 1L, null)));
+
+        versionService.onEntityChanged(EntityChangedEvent.created(EntityType.ROUTE, "r1", "org-1", "ACTIVE", null));
+
+        StepVerifier.create(versionService.settled()).verifyComplete();
+        verify(mongoTemplate, times(2)).upsert(any(Query.class), any(UpdateDefinition.class), eq(CollectionVersion.class));
+    }
+
+    @Test
+    void settled_ShouldWaitForIncrementInFlight() {
+        Sinks.Empty<Void> inFlight = Sinks.empty();
+        when(mongoTemplate.upsert(any(Query.class), any(UpdateDefinition.class), eq(CollectionVersion.class)))
+                .thenReturn(inFlight.asMono().then(Mono.just(UpdateResult.acknowledged(1, 1L, null))));
+
+        StepVerifier.create(versionService.settled()).verifyComplete(); // sin cambios no espera nada
+        versionService.onEntityChanged(EntityChangedEvent.created(EntityType.FARE, "f1", "org-1", "ACTIVE", null));
+
+        StepVerifier.create(versionService.settled())
+                .expectSubscription()
+                .expectNoEvent(Duration.ofMillis(100))
+                .then(inFlight::tryEmitEmpty)
+                .verifyComplete();
+    }
+
+    @Test
+    void onCacheInvalidation_ShouldBumpEveryCollection_WhenFlushingAll() {
+        versionService.onCacheInvalidation(CacheInvalidationEvent.all());
+
+        verify(mongoTemplate, times(EntityType.values().length))
+                .upsert(any(Query.class), any(UpdateDefinition.class), eq(CollectionVersion.class));
+    }
+}
@@ -0,0 +1,220 @@
+package pe.edu.vallegrande.msdistribution.application.services.impl;
+
+import com.mongodb.client.result.DeleteResult;
+import com.mongodb.client.result.UpdateResult;
+import org.bson.Document;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.UpdateDefinition;
+import pe.edu.vallegrande.msdistribution.application.services.JobCoordinationService;
+import pe.edu.vallegrande.msdistribution.domain.enums.EntityType;
+import pe.edu.vallegrande.msdistribution.domain.events.EntityChangedEvent;
+import pe.edu.vallegrande.msdistribution.domain.models.DashboardCounter;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+/**
+ * Pruebas unitarias para DashboardCounterServiceImpl.
+ * Se verifica que cada evento se traduzca en el $inc correcto por organización.
+ */
+public class DashboardCounterServiceImplTest {
+
+    @Mock
+    private ReactiveMongoTemplate mongoTemplate;
+
+    @Mock
+    private JobCoordinationService coordination;
+
+    @InjectMocks
+    private DashboardCounterServiceImpl counterService;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        when(mongoTemplate.upsert(any(Query.class), any(UpdateDefinition.class), eq(DashboardCounter.class)))
+                .thenReturn(Mono.just(UpdateResult.acknowledged(1, 1L, null)));
+    }
+
+    private Document incOf(UpdateDefinition update) {
+        return update.getUpdateObject().get("$inc", Document.class);
+    }
+
+    @Test
+    void apply_ShouldIncrementTotalAndStatus_WhenCreated() {
+        EntityChangedEvent event = EntityChangedEvent.created(EntityType.PROGRAM, "p1", "org-1", "PLANNED", null);
+
+        StepVerifier.create(counterService.apply(event)).verifyComplete();
+
+        ArgumentCaptor<Query> query = ArgumentCaptor.forClass(Query.class);
+        ArgumentCaptor<UpdateDefinition> update = ArgumentCaptor.forClass(UpdateDefinition.class);
+        verify(mongoTemplate).upsert(query.capture(), update.capture(), eq(DashboardCounter.class));
+        assertEquals("org-1", query.getValue().getQueryObject().get("_id"));
+        assertEquals(1L, incOf(update.getValue()).get("program.total"));
+        assertEquals(1L, incOf(update.getValue()).get("program.PLANNED"));
+        assertEquals(1, incOf(update.getValue()).get(DashboardCounter.VERSION));
+    }
+
+    @Test
+    void apply_ShouldMoveStatusCount_WhenStatusChanged() {
+        EntityChangedEvent event = EntityChangedEvent.updated(
+                EntityType.ROUTE, "r1", "org-1", "ACTIVE", "org-1", "INACTIVE", null);
+
+        StepVerifier.create(counterService.apply(event)).verifyComplete();
+
+        ArgumentCaptor<UpdateDefinition> update = ArgumentCaptor.forClass(UpdateDefinition.class);
+        verify(mongoTemplate).upsert(any(Query.class), update.capture(), eq(DashboardCounter.class));
+        Document inc = incOf(update.getValue());
+        assertEquals(-1L, inc.get("route.ACTIVE"));
+        assertEquals(1L, inc.get("route.INACTIVE"));
+        assertFalse(inc.containsKey("route.total")); // el total no cambia
+    }
+
+    @Test
+    void apply_ShouldMoveCountsBetweenOrganizations_WhenOrganizationChanged() {
+        EntityChangedEvent event = EntityChangedEvent.updated(
+                EntityType.FARE, "f1", "org-1", "ACTIVE", "org-2", "ACTIVE", null);
+
+        StepVerifier.create(counterService.apply(event)).verifyComplete();
+
+        verify(mongoTemplate, times(2)).upsert(any(Query.class), any(UpdateDefinition.class), eq(DashboardCounter.class));
+    }
+
+    @Test
+    void apply_ShouldDoNothing_WhenUpdateKeepsStatusAndOrganization() {
+        EntityChangedEvent event = EntityChangedEvent.updated(
+                EntityType.SCHEDULE, "s1", "org-1", "ACTIVE", "org-1", "ACTIVE", null);
+
+        StepVerifier.create(counterService.apply(event)).verifyComplete();
+
+        verifyNoInteractions(mongoTemplate);
+    }
+
+    @Test
+    void apply_ShouldDecrement_WhenDeleted() {
+        EntityChangedEvent event = EntityChangedEvent.deleted(EntityType.FARE, "f1", null, "INACTIVE", null);
+
+        StepVerifier.create(counterService.apply(event)).verifyComplete();
+
+        ArgumentCaptor<Query> query = ArgumentCaptor.forClass(Query.class);
+        ArgumentCaptor<UpdateDefinition> update = ArgumentCaptor.forClass(UpdateDefinition.class);
+        verify(mongoTemplate).upsert(query.capture(), update.capture(), eq(DashboardCounter.class));
+        assertEquals(DashboardCounterServiceImpl.NO_ORGANIZATION, query.getValue().getQueryObject().get("_id"));
+        assertEquals(-1L, incOf(update.getValue()).get("fare.total"));
+        assertEquals(-1L, incOf(update.getValue()).get("fare.INACTIVE"));
+    }
+
+    @Test
+    void getCounters_ShouldSumAllOrganizations_WhenNoOrganizationGiven() {
+        DashboardCounter org1 = DashboardCounter.builder().id("org-1")
+                .program(Map.of("total", 3L, "PLANNED", 2L)).build();
+        DashboardCounter org2 = DashboardCounter.builder().id("org-2")
+                .program(Map.of("total", 4L, "PLANNED", 1L))
+                .route(Map.of("total", 5L, "ACTIVE", 5L)).build();
+        when(mongoTemplate.findAll(DashboardCounter.class)).thenReturn(Flux.just(org1, org2));
+
+        StepVerifier.create(counterService.getCounters(null))
+                .assertNext(counters -> {
+                    assertEquals(7L, counters.count(EntityType.PROGRAM, DashboardCounter.TOTAL));
+                    assertEquals(3L, counters.count(EntityType.PROGRAM, "PLANNED"));
+                    assertEquals(5L, counters.count(EntityType.ROUTE, "ACTIVE"));
+                    assertEquals(0L, counters.count(EntityType.FARE, DashboardCounter.TOTAL));
+                })
+                .verifyComplete();
+    }
+
+    @Test
+    void getCounters_ShouldReturnZeros_WhenOrganizationHasNoCounters() {
+        when(mongoTemplate.findById("org-9", DashboardCounter.class)).thenReturn(Mono.empty());
+
+        StepVerifier.create(counterService.getCounters("org-9"))
+                .assertNext(counters -> assertEquals(0L, counters.count(EntityType.PROGRAM, DashboardCounter.TOTAL)))
+                .verifyComplete();
+    }
+
+    private static Document group(String organizationId, String status, int count) {
+        return new Document("_id", new Document("organizationId", organizationId).append("status", status))
+                .append("count", count);
+    }
+
+    @Test
+    void reconcile_ShouldRebuildCountersFromAggregation() {
+        DashboardCounter stale = DashboardCounter.builder().id("org-gone").version(4L).build();
+        when(mongoTemplate.find(any(Query.class), eq(DashboardCounter.class))).thenReturn(Flux.just(stale));
+        when(mongoTemplate.aggregate(any(Aggregation.class), anyString(), eq(Document.class)))
+                .thenReturn(Flux.empty());
+        when(mongoTemplate.aggregate(any(Aggregation.class), eq("program"), eq(Document.class)))
+                .thenReturn(Flux.just(group("org-1", "PLANNED", 2), group("org-1", "ACTIVE", 1)));
+        when(mongoTemplate.insert(any(DashboardCounter.class))).thenAnswer(inv -> Mono.just(inv.getArgument(0)));
+        when(mongoTemplate.remove(any(Query.class), eq(DashboardCounter.class)))
+                .thenReturn(Mono.just(DeleteResult.acknowledged(1)));
+
+        StepVerifier.create(counterService.reconcile()).verifyComplete();
+
+        ArgumentCaptor<DashboardCounter> inserted = ArgumentCaptor.forClass(DashboardCounter.class);
+        verify(mongoTemplate).insert(inserted.capture());
+        assertEquals("org-1", inserted.getValue().getId());
+        assertEquals(3L, inserted.getValue().count(EntityType.PROGRAM, DashboardCounter.TOTAL));
+        assertEquals(2L, inserted.getValue().count(EntityType.PROGRAM, "PLANNED"));
+        assertNotNull(inserted.getValue().getReconciledAt());
+        // solo se borra el contador huérfano si nadie lo tocó desde que se leyó
+        ArgumentCaptor<Query> removed = ArgumentCaptor.forClass(Query.class);
+        verify(mongoTemplate).remove(removed.capture(), eq(DashboardCounter.class));
+        assertEquals("org-gone", removed.getValue().getQueryObject().get("_id"));
+        assertEquals(4L, removed.getValue().getQueryObject().get(DashboardCounter.VERSION));
+        verify(mongoTemplate, never()).save(any(DashboardCounter.class));
+    }
+
+    @Test
+    void reconcile_ShouldReaggregateOrganization_WhenIncLandsBeforeTheWrite() {
+        DashboardCounter first = DashboardCounter.builder().id("org-1").version(7L).build();
+        DashboardCounter afterInc = DashboardCounter.builder().id("org-1").version(8L).build();
+        when(mongoTemplate.find(any(Query.class), eq(DashboardCounter.class)))
+                .thenReturn(Flux.just(first))
+                .thenReturn(Flux.just(afterInc));
+        when(mongoTemplate.aggregate(any(Aggregation.class), anyString(), eq(Document.class)))
+                .thenReturn(Flux.empty());
+        when(mongoTemplate.aggregate(any(Aggregation.class), eq("route"), eq(Document.class)))
+                .thenReturn(Flux.just(group("org-1", "ACTIVE", 4)))
+                .thenReturn(Flux.just(group("org-1", "ACTIVE", 5)));
+        // el $inc de otra escritura sube la versión entre la lectura y la escritura de la primera pasada
+        when(mongoTemplate.updateFirst(any(Query.class), any(UpdateDefinition.class), eq(DashboardCounter.class)))
+                .thenReturn(Mono.just(UpdateResult.acknowledged(0, 0L, null)))
+                .thenReturn(Mono.just(UpdateResult.acknowledged(1, 1L, null)));
+
+        StepVerifier.create(counterService.reconcile()).verifyComplete();
+
+        ArgumentCaptor<Query> query = ArgumentCaptor.forClass(Query.class);
+        ArgumentCaptor<UpdateDefinition> update = ArgumentCaptor.forClass(UpdateDefinition.class);
+        verify(mongoTemplate, times(2)).updateFirst(query.capture(), update.capture(), eq(DashboardCounter.class));
+        assertEquals(7L, query.getAllValues().get(0).getQueryObject().get(DashboardCounter.VERSION));
+        assertEquals(8L, query.getAllValues().get(1).getQueryObject().get(DashboardCounter.VERSION));
+        Document set = update.getAllValues().get(1).getUpdateObject().get("$set", Document.class);
+        assertEquals(5L, ((Map<?, ?>) set.get("route")).get(DashboardCounter.TOTAL));
+        verify(mongoTemplate, never()).save(any(DashboardCounter.class));
+    }
+
+    @Test
+    void initialize_ShouldNotTouchCounters_WhenAnotherReplicaHoldsTheLease() {
+        when(coordination.acquire(DashboardCounterServiceImpl.JOB_RECONCILE)).thenReturn(Mono.empty());
+
+        counterService.initialize();
+
+        verifyNoInteractions(mongoTemplate);
+    }
+}
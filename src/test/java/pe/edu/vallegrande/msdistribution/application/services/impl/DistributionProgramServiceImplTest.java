@@ -6,15 +6,28 @@ import org.mockito.ArgumentMatchers;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
+import org.springframework.context.ApplicationEventPublisher;
+import pe.edu.vallegrande.msdistribution.application.services.OrganizationDirectoryService;
+import pe.edu.vallegrande.msdistribution.application.services.SequenceService;
+import pe.edu.vallegrande.msdistribution.domain.enums.EntityType;
+import pe.edu.vallegrande.msdistribution.domain.enums.SequenceType;
 import pe.edu.vallegrande.msdistribution.domain.models.DistributionProgram;
+import pe.edu.vallegrande.msdistribution.infrastructure.cache.EntityCache;
 import pe.edu.vallegrande.msdistribution.infrastructure.dto.request.DistributionProgramCreateRequest;
+import pe.edu.vallegrande.msdistribution.infrastructure.exception.CustomException;
 import pe.edu.vallegrande.msdistribution.infrastructure.repository.DistributionProgramRepository;
+import pe.edu.vallegrande.msdistribution.infrastructure.repository.KeysetPageRepository;
+import pe.edu.vallegrande.msdistribution.infrastructure.repository.StatusTransitionRepository;
+import pe.edu.vallegrande.msdistribution.infrastructure.repository.VersionedUpdateRepository;
+import pe.edu.vallegrande.msdistribution.infrastructure.service.EnrichmentBatchLoader;
 import reactor.core.publisher.Mono;
 import reactor.core.publisher.Flux;
 import reactor.test.StepVerifier;
 import java.time.LocalDate;
+import java.util.function.Supplier;
 
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 
 /**
@@ -27,6 +40,30 @@ public class DistributionProgramServiceImplTest {
     @Mock
     private DistributionProgramRepository programRepository;
 
+    @Mock
+    private SequenceService sequenceService;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    @Mock
+    private KeysetPageRepository pageRepository;
+
+    @Mock
+    private StatusTransitionRepository statusTransitions;
+
+    @Mock
+    private VersionedUpdateRepository versionedUpdates;
+
+    @Mock
+    private EntityCache entityCache;
+
+    @Mock
+    private EnrichmentBatchLoader enrichmentLoader;
+
+    @Mock
+    private OrganizationDirectoryService directory;
+
     // Inyección del servicio a probar
     @InjectMocks
     private DistributionProgramServiceImpl distributionProgramService;
@@ -37,6 +74,9 @@ public class DistributionProgramServiceImplTest {
     @BeforeEach
     void setUp() {
         MockitoAnnotations.openMocks(this);
+        // Caché transparente: siempre delega en el repositorio
+        when(entityCache.get(any(), any(), any()))
+                .thenAnswer(inv -> ((Supplier<Mono<?>>) inv.getArgument(2)).get());
     }
 
     /**
@@ -118,8 +158,8 @@ public class DistributionProgramServiceImplTest {
                 .createdAt(java.time.Instant.now())
                 .build();
         
-        // Fix: Mock findTopByOrderByProgramCodeDesc to avoid null pointer
-        when(programRepository.findTopByOrderByProgramCodeDesc()).thenReturn(Mono.empty());
+        // Código generado por la secuencia
+        when(sequenceService.nextCode(eq(SequenceType.PROGRAM), any())).thenReturn(Mono.just("PRG001"));
         when(programRepository.save(any(DistributionProgram.class))).thenReturn(Mono.just(program));
 
         // Act & Assert
@@ -128,6 +168,21 @@ public class DistributionProgramServiceImplTest {
                 .verifyComplete();
     }
 
+    @Test
+    void save_shouldReject_whenDirectoryRejectsReferences() {
+        DistributionProgramCreateRequest req = validRequestFor(LocalDate.parse("2024-01-02"));
+        doThrow(CustomException.badRequest("Zona inválida", "La zona zone-1 no pertenece a la organización org-1"))
+                .when(directory).validate(eq("org-1"), any(), eq("street-1"));
+
+        StepVerifier.create(distributionProgramService.save(req))
+                .expectErrorMatches(error -> error instanceof CustomException
+                        && ((CustomException) error).getErrorMessage().getErrorCode() == 400)
+                .verify();
+
+        verify(sequenceService, never()).nextCode(any(), any());
+        verify(programRepository, never()).save(any(DistributionProgram.class));
+    }
+
     /**
      * Escenario positivo:
      * Debe actualizar un programa existente correctamente.
@@ -154,8 +209,9 @@ public class DistributionProgramServiceImplTest {
                 .observations("Test")
                 .build();
         
-        when(programRepository.findById(id)).thenReturn(Mono.just(existing));
-        when(programRepository.save(any(DistributionProgram.class))).thenReturn(Mono.just(updated));
+        when(versionedUpdates.update(eq(EntityType.PROGRAM), eq(DistributionProgram.class), eq(id), isNull(),
+                any(DistributionProgram.class), anyCollection()))
+                .thenReturn(Mono.just(new VersionedUpdateRepository.Change<>(existing, updated)));
 
         // Act & Assert
         StepVerifier.create(distributionProgramService.update(id, req))
@@ -172,21 +228,45 @@ public class DistributionProgramServiceImplTest {
      */
     @Test
     void update_shouldComplete_whenNotFound() {
-        when(programRepository.findById("missing")).thenReturn(Mono.empty());
+        when(versionedUpdates.update(eq(EntityType.PROGRAM), eq(DistributionProgram.class), eq("missing"), any(),
+                any(DistributionProgram.class), anyCollection()))
+                .thenReturn(Mono.empty());
         StepVerifier.create(distributionProgramService.update("missing", validRequestFor(LocalDate.parse("2024-01-06"))))
                 .expectComplete()
                 .verify();
     }
 
+    /**
+     * Escenario negativo:
+     * Con If-Match de una versión anterior se propaga el 412 y no se reemplaza el documento.
+     */
+    @Test
+    void update_shouldFailWithPreconditionFailed_whenVersionChanged() {
+        when(versionedUpdates.update(eq(EntityType.PROGRAM), eq(DistributionProgram.class), eq("p1"), eq(2L),
+                any(DistributionProgram.class), anyCollection()))
+                .thenReturn(Mono.error(CustomException.preconditionFailed("modificado")));
+
+        StepVerifier.create(distributionProgramService.update("p1", validRequestFor(LocalDate.parse("2024-01-06")), 2L))
+                .expectErrorMatches(e -> e instanceof CustomException
+                        && ((CustomException) e).getErrorMessage().getErrorCode() == 412)
+                .verify();
+        verify(programRepository, never()).save(any(DistributionProgram.class));
+    }
+
     /**
      * Escenario positivo:
      * Debe eliminar un programa existente correctamente.
      */
     @Test
     void delete_shouldComplete_whenExists() {
-        when(programRepository.deleteById("p")).thenReturn(Mono.empty());
+        DistributionProgram p = DistributionProgram.builder().id("p").organizationId("org").status("PLANNED").build();
+        when(programRepository.findById("p")).thenReturn(Mono.just(p));
+        when(programRepository.delete(p)).thenReturn(Mono.empty());
 
         StepVerifier.create(distributionProgramService.delete("p")).verifyComplete();
+
+        verify(programRepository).delete(p);
+        verify(eventPublisher).publishEvent(any(Object.class));
     }
 
     /**
@@ -195,9 +275,11 @@ public class DistributionProgramServiceImplTest {
      */
     @Test
     void delete_shouldComplete_whenNotFound() {
-        when(programRepository.deleteById("missing")).thenReturn(Mono.empty());
+        when(programRepository.findById("missing")).thenReturn(Mono.empty());
         StepVerifier.create(distributionProgramService.delete("missing"))
                 .verifyComplete();
+
+        verify(programRepository, never()).delete(any(DistributionProgram.class));
     }
 
     /**
@@ -208,8 +290,8 @@ public class DistributionProgramServiceImplTest {
     void changeStatus_activate_shouldPersist() {
         DistributionProgram p = DistributionProgram.builder().id("p").status("OLD").build();
         DistributionProgram updated = DistributionProgram.builder().id("p").status("ACTIVE").build();
-        when(programRepository.findById("p")).thenReturn(Mono.just(p));
-        when(programRepository.save(any(DistributionProgram.class))).thenReturn(Mono.just(updated));
+        when(statusTransitions.transition(EntityType.PROGRAM, DistributionProgram.class, "p", "ACTIVE"))
+                .thenReturn(Mono.just(new StatusTransitionRepository.Transition<>(updated, p.getStatus(), true)));
 
         StepVerifier.create(distributionProgramService.activate("p"))
                 .assertNext(resp -> org.junit.jupiter.api.Assertions.assertEquals("ACTIVE", resp.getStatus()))
@@ -224,8 +306,8 @@ public class DistributionProgramServiceImplTest {
     void changeStatus_deactivate_shouldPersist() {
         DistributionProgram p = DistributionProgram.builder().id("p").status("OLD").build();
         DistributionProgram updated = DistributionProgram.builder().id("p").status("INACTIVE").build();
-        when(programRepository.findById("p")).thenReturn(Mono.just(p));
-        when(programRepository.save(any(DistributionProgram.class))).thenReturn(Mono.just(updated));
+        when(statusTransitions.transition(EntityType.PROGRAM, DistributionProgram.class, "p", "INACTIVE"))
+                .thenReturn(Mono.just(new StatusTransitionRepository.Transition<>(updated, p.getStatus(), true)));
 
         StepVerifier.create(distributionProgramService.desactivate("p"))
                 .assertNext(resp -> org.junit.jupiter.api.Assertions.assertEquals("INACTIVE", resp.getStatus()))
@@ -238,7 +320,8 @@ public class DistributionProgramServiceImplTest {
      */
     @Test
     void changeStatus_shouldComplete_whenNotFound() {
-        when(programRepository.findById("missing")).thenReturn(Mono.empty());
+        when(statusTransitions.transition(EntityType.PROGRAM, DistributionProgram.class, "missing", "ACTIVE"))
+                .thenReturn(Mono.empty());
         StepVerifier.create(distributionProgramService.activate("missing"))
                 .expectComplete()
                 .verify();
@@ -306,8 +389,8 @@ public class DistributionProgramServiceImplTest {
                 .observations("Test observation")
                 .build();
 
-        // Fix: Mock findTopByOrderByProgramCodeDesc to avoid null pointer
-        when(programRepository.findTopByOrderByProgramCodeDesc()).thenReturn(Mono.empty());
+        // Código generado por la secuencia
+        when(sequenceService.nextCode(eq(SequenceType.PROGRAM), any())).thenReturn(Mono.just("PRG001"));
         // Simulamos un fallo en la base de datos
         when(programRepository.save(ArgumentMatchers.any(DistributionProgram.class)))
                 .thenReturn(Mono.error(new RuntimeException("Database error")));
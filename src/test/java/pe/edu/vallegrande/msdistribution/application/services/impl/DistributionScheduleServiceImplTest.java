@@ -6,11 +6,22 @@ import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.context.ApplicationEventPublisher;
+import pe.edu.vallegrande.msdistribution.application.services.OrganizationDirectoryService;
+import pe.edu.vallegrande.msdistribution.application.services.ReferenceDataSnapshotService;
+import pe.edu.vallegrande.msdistribution.application.services.SequenceService;
 import pe.edu.vallegrande.msdistribution.domain.enums.Constants;
+import pe.edu.vallegrande.msdistribution.domain.enums.EntityType;
+import pe.edu.vallegrande.msdistribution.domain.enums.SequenceType;
 import pe.edu.vallegrande.msdistribution.domain.models.DistributionSchedule;
+import pe.edu.vallegrande.msdistribution.infrastructure.cache.EntityCache;
 import pe.edu.vallegrande.msdistribution.infrastructure.dto.request.DistributionScheduleCreateRequest;
 import pe.edu.vallegrande.msdistribution.infrastructure.exception.CustomException;
 import pe.edu.vallegrande.msdistribution.infrastructure.repository.DistributionScheduleRepository;
+import pe.edu.vallegrande.msdistribution.infrastructure.repository.KeysetPageRepository;
+import pe.edu.vallegrande.msdistribution.infrastructure.repository.StatusTransitionRepository;
+import pe.edu.vallegrande.msdistribution.infrastructure.service.EnrichmentBatchLoader;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 import reactor.test.StepVerifier;
@@ -18,9 +29,11 @@ import reactor.test.StepVerifier;
 import java.time.Instant;
 import java.util.Arrays;
 import java.util.List;
+import java.util.function.Supplier;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.Mockito.*;
 
 /**
@@ -33,6 +46,30 @@ public class DistributionScheduleServiceImplTest {
     @Mock
     private DistributionScheduleRepository scheduleRepository;
 
+    @Mock
+    private SequenceService sequenceService;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    @Mock
+    private KeysetPageRepository pageRepository;
+
+    @Mock
+    private StatusTransitionRepository statusTransitions;
+
+    @Mock
+    private EntityCache entityCache;
+
+    @Mock
+    private ReferenceDataSnapshotService referenceData;
+
+    @Mock
+    private EnrichmentBatchLoader enrichmentLoader;
+
+    @Mock
+    private OrganizationDirectoryService directory;
+
     // Se inyecta el mock dentro del servicio que se probará
     @InjectMocks
     private DistributionScheduleServiceImpl scheduleService;
@@ -41,6 +78,9 @@ public class DistributionScheduleServiceImplTest {
     @BeforeEach
     void setUp() {
         MockitoAnnotations.openMocks(this);
+        // Caché transparente: siempre delega en el repositorio
+        when(entityCache.get(any(), any(), any()))
+                .thenAnswer(inv -> ((Supplier<Mono<?>>) inv.getArgument(2)).get());
     }
 
     // ================================================================
@@ -64,9 +104,8 @@ public class DistributionScheduleServiceImplTest {
         request.setEndTime("12:00");
         request.setDurationHours(6);
 
-        // Se simula que no hay horarios previos → generará el código HOR001
-        when(scheduleRepository.findTopByOrderByScheduleCodeDesc()).thenReturn(Mono.empty());
-        when(scheduleRepository.existsByScheduleCode("HOR001")).thenReturn(Mono.just(false));
+        // La secuencia entrega el primer código de horarios
+        when(sequenceService.nextCode(SequenceType.SCHEDULE, "org-1")).thenReturn(Mono.just("HOR001"));
 
         // Capturamos el objeto que se guardará en la base (para validarlo después)
         ArgumentCaptor<DistributionSchedule> scheduleCaptor = ArgumentCaptor.forClass(DistributionSchedule.class);
@@ -112,8 +151,7 @@ public class DistributionScheduleServiceImplTest {
                 .verifyComplete();
 
         // Verificamos que los métodos del repositorio fueron llamados correctamente
-        verify(scheduleRepository).findTopByOrderByScheduleCodeDesc();
-        verify(scheduleRepository).existsByScheduleCode("HOR001");
+        verify(sequenceService).nextCode(SequenceType.SCHEDULE, "org-1");
         verify(scheduleRepository).save(scheduleCaptor.capture());
 
         // Validamos lo que se envió a guardar
@@ -150,11 +188,6 @@ public class DistributionScheduleServiceImplTest {
         System.out.println("Starting test: Sequential code generation");
         
         // Arrange 
-        // Se simula que ya existe el código HOR007
-        DistributionSchedule existingSchedule = DistributionSchedule.builder()
-                .scheduleCode("HOR007")
-                .build();
-
         // Se construye el nuevo request
         DistributionScheduleCreateRequest request = new DistributionScheduleCreateRequest();
         request.setOrganizationId("org-1");
@@ -166,8 +199,8 @@ public class DistributionScheduleServiceImplTest {
         request.setDurationHours(8);
 
         // Mock del comportamiento
-        when(scheduleRepository.findTopByOrderByScheduleCodeDesc()).thenReturn(Mono.just(existingSchedule));
-        when(scheduleRepository.existsByScheduleCode("HOR008")).thenReturn(Mono.just(false));
+        // La secuencia ya emitió HOR001..HOR007
+        when(sequenceService.nextCode(SequenceType.SCHEDULE, "org-1")).thenReturn(Mono.just("HOR008"));
         when(scheduleRepository.save(any(DistributionSchedule.class))).thenReturn(Mono.just(
                 DistributionSchedule.builder().id("schedule-2").scheduleCode("HOR008").build()
         ));
@@ -201,9 +234,10 @@ public class DistributionScheduleServiceImplTest {
         request.setEndTime("17:00");
         request.setDurationHours(8);
 
-        // Mock: el código HOR001 ya existe
-        when(scheduleRepository.findTopByOrderByScheduleCodeDesc()).thenReturn(Mono.empty());
-        when(scheduleRepository.existsByScheduleCode("HOR001")).thenReturn(Mono.just(true));
+        // Mock: el índice único rechaza HOR001 porque ya existe
+        when(sequenceService.nextCode(SequenceType.SCHEDULE, "org-1")).thenReturn(Mono.just("HOR001"));
+        when(scheduleRepository.save(any(DistributionSchedule.class)))
+                .thenReturn(Mono.error(new DuplicateKeyException("E11000 duplicate key")));
 
         // Act & Assert - Verificamos que se lanza la excepción esperada
         StepVerifier.create(scheduleService.save(request))
@@ -215,8 +249,9 @@ public class DistributionScheduleServiceImplTest {
                 })
                 .verify();
 
-        // Se valida que no se intentó guardar nada
-        verify(scheduleRepository, never()).save(any(DistributionSchedule.class));
+        // Se reintenta con un código nuevo tras reinicializar el contador antes de rendirse
+        verify(scheduleRepository, times(3)).save(any(DistributionSchedule.class));
+        verify(sequenceService, times(2)).reseed(SequenceType.SCHEDULE, "org-1");
         System.out.println("Negative test completed successfully\n");
     }
 
@@ -238,8 +273,7 @@ public class DistributionScheduleServiceImplTest {
         request.setDurationHours(8);
 
         // Mock de error simulado
-        when(scheduleRepository.findTopByOrderByScheduleCodeDesc()).thenReturn(Mono.empty());
-        when(scheduleRepository.existsByScheduleCode("HOR001")).thenReturn(Mono.just(false));
+        when(sequenceService.nextCode(SequenceType.SCHEDULE, "org-1")).thenReturn(Mono.just("HOR001"));
         when(scheduleRepository.save(any(DistributionSchedule.class)))
                 .thenReturn(Mono.error(new RuntimeException("Database error")));
 
@@ -269,10 +303,9 @@ public class DistributionScheduleServiceImplTest {
                 .status(Constants.INACTIVE.name())
                 .build();
 
-        when(scheduleRepository.findById(scheduleId)).thenReturn(Mono.just(existingSchedule));
-        when(scheduleRepository.save(any(DistributionSchedule.class))).thenReturn(Mono.just(
-                DistributionSchedule.builder().id(scheduleId).status(Constants.ACTIVE.name()).build()
-        ));
+        when(statusTransitions.transition(EntityType.SCHEDULE, DistributionSchedule.class, scheduleId, Constants.ACTIVE.name()))
+                .thenReturn(Mono.just(new StatusTransitionRepository.Transition<>(
+                        DistributionSchedule.builder().id(scheduleId).status(Constants.ACTIVE.name()).build(), existingSchedule.getStatus(), true)));
 
         // Act & Assert - Se verifica que cambie a ACTIVO
         StepVerifier.create(scheduleService.activate(scheduleId))
@@ -299,10 +332,9 @@ public class DistributionScheduleServiceImplTest {
                 .status(Constants.ACTIVE.name())
                 .build();
 
-        when(scheduleRepository.findById(scheduleId)).thenReturn(Mono.just(existingSchedule));
-        when(scheduleRepository.save(any(DistributionSchedule.class))).thenReturn(Mono.just(
-                DistributionSchedule.builder().id(scheduleId).status(Constants.INACTIVE.name()).build()
-        ));
+        when(statusTransitions.transition(EntityType.SCHEDULE, DistributionSchedule.class, scheduleId, Constants.INACTIVE.name()))
+                .thenReturn(Mono.just(new StatusTransitionRepository.Transition<>(
+                        DistributionSchedule.builder().id(scheduleId).status(Constants.INACTIVE.name()).build(), existingSchedule.getStatus(), true)));
 
         // Act & Assert
         StepVerifier.create(scheduleService.deactivate(scheduleId))
@@ -324,7 +356,8 @@ public class DistributionScheduleServiceImplTest {
 
         // Arrange
         String scheduleId = "schedule-inexistente";
-        when(scheduleRepository.findById(scheduleId)).thenReturn(Mono.empty());
+        when(statusTransitions.transition(EntityType.SCHEDULE, DistributionSchedule.class, scheduleId, Constants.ACTIVE.name()))
+                .thenReturn(Mono.empty());
 
         // Act & Assert
         StepVerifier.create(scheduleService.activate(scheduleId))
@@ -359,8 +392,7 @@ public class DistributionScheduleServiceImplTest {
         request.setDurationHours(8);
 
         // Simulamos que no hay códigos previos y se generará HOR001
-        when(scheduleRepository.findTopByOrderByScheduleCodeDesc()).thenReturn(Mono.empty());
-        when(scheduleRepository.existsByScheduleCode("HOR001")).thenReturn(Mono.just(false));
+        when(sequenceService.nextCode(SequenceType.SCHEDULE, "org-1")).thenReturn(Mono.just("HOR001"));
 
         // Simulamos guardado exitoso del horario
         when(scheduleRepository.save(any(DistributionSchedule.class))).thenReturn(Mono.just(
@@ -630,7 +662,8 @@ public class DistributionScheduleServiceImplTest {
 
         // Arrange
         String scheduleId = "schedule-inexistente";
-        when(scheduleRepository.findById(scheduleId)).thenReturn(Mono.empty());
+        when(statusTransitions.transition(EntityType.SCHEDULE, DistributionSchedule.class, scheduleId, Constants.INACTIVE.name()))
+                .thenReturn(Mono.empty());
 
         // Act & Assert
         StepVerifier.create(scheduleService.deactivate(scheduleId))
@@ -645,42 +678,26 @@ public class DistributionScheduleServiceImplTest {
         System.out.println("Negative deactivation test completed\n");
     }
 
-    // ================================================================
-    // 🔹 Validación con errores de formato al generar el código
-    // ================================================================
     @Test
-    void generateNextScheduleCode_ShouldHandleParsingError_WhenInvalidCodeFormat() {
-        System.out.println("Starting test: Handling parsing error");
-        
-        // Arrange - Se simula un código previo con formato inválido
-        DistributionSchedule existingSchedule = DistributionSchedule.builder()
-                .scheduleCode("HORINVALID")
-                .build();
+    void getActiveByOrganization_ShouldServeFromSnapshot_WhenLoaded() {
+        DistributionSchedule active = DistributionSchedule.builder().id("a1").organizationId("org-1").status(Constants.ACTIVE.name()).build();
+        when(referenceData.isLoaded()).thenReturn(true);
+        when(referenceData.activeSchedules("org-1")).thenReturn(Flux.just(active));
 
-        DistributionScheduleCreateRequest request = new DistributionScheduleCreateRequest();
-        request.setOrganizationId("org-1");
-        request.setZoneId("zone-1");
-        request.setScheduleName("Horario de Prueba");
-        request.setDaysOfWeek(Arrays.asList("LUNES"));
-        request.setStartTime("08:00");
-        request.setEndTime("16:00");
-        request.setDurationHours(8);
+        StepVerifier.create(scheduleService.getActiveByOrganization("org-1"))
+                .expectNext(active)
+                .verifyComplete();
 
-         // Simulaciones del repositorio
-        when(scheduleRepository.findTopByOrderByScheduleCodeDesc()).thenReturn(Mono.just(existingSchedule));
-        when(scheduleRepository.existsByScheduleCode("HOR001")).thenReturn(Mono.just(false));
-        when(scheduleRepository.save(any(DistributionSchedule.class))).thenReturn(Mono.just(
-                DistributionSchedule.builder().id("schedule-1").scheduleCode("HOR001").build()
-        ));
+        verify(scheduleRepository, never()).findAllByOrganizationIdAndStatus(anyString(), anyString());
+    }
 
-        // Act & Assert
-        StepVerifier.create(scheduleService.save(request))
-                .assertNext(response -> {
-                    assertEquals("HOR001", response.getScheduleCode());
-                    System.out.println("Code generated correctly after parsing error: " + response.getScheduleCode());
-                })
-                .verifyComplete();
+    @Test
+    void getActiveByOrganization_ShouldQueryMongo_WhenSnapshotNotLoaded() {
+        when(referenceData.isLoaded()).thenReturn(false);
+        when(scheduleRepository.findAllByOrganizationIdAndStatus("org-1", Constants.ACTIVE.name())).thenReturn(Flux.empty());
+
+        StepVerifier.create(scheduleService.getActiveByOrganization("org-1")).verifyComplete();
 
-        System.out.println("Parsing error handling test completed\n");
+        verify(scheduleRepository).findAllByOrganizationIdAndStatus("org-1", Constants.ACTIVE.name());
     }
-}
\ No newline at end of file
+}
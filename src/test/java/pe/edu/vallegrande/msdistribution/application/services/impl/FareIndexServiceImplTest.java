@@ -0,0 +1,177 @@
+package pe.edu.vallegrande.msdistribution.application.services.impl;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import pe.edu.vallegrande.msdistribution.domain.enums.Constants;
+import pe.edu.vallegrande.msdistribution.domain.enums.EntityType;
+import pe.edu.vallegrande.msdistribution.domain.events.CacheInvalidationEvent;
+import pe.edu.vallegrande.msdistribution.domain.events.EntityChangedEvent;
+import pe.edu.vallegrande.msdistribution.domain.models.Fare;
+import pe.edu.vallegrande.msdistribution.infrastructure.repository.FareRepository;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+import reactor.test.StepVerifier;
+
+import java.time.Instant;
+import java.util.Date;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Pruebas unitarias para FareIndexServiceImpl: carga inicial, consultas por fecha y
+ * actualización a partir de eventos.
+ */
+public class FareIndexServiceImplTest {
+
+    private static final Instant JAN = Instant.parse("2025-01-01T00:00:00Z");
+    private static final Instant JUN = Instant.parse("2025-06-01T00:00:00Z");
+    private static final Instant NOV = Instant.parse("2025-11-01T00:00:00Z");
+
+    @Mock
+    private FareRepository fareRepository;
+
+    @InjectMocks
+    private FareIndexServiceImpl fareIndex;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+    }
+
+    private Fare fare(String id, String organizationId, Instant effectiveDate) {
+        return Fare.builder()
+                .id(id)
+                .organizationId(organizationId)
+                .status(Constants.ACTIVE.name())
+                .effectiveDate(effectiveDate != null ? Date.from(effectiveDate) : null)
+                .createdAt(Instant.now())
+                .build();
+    }
+
+    private void load(Fare... fares) {
+        when(fareRepository.findAll()).thenReturn(Flux.just(fares));
+        StepVerifier.create(fareIndex.reload()).verifyComplete();
+    }
+
+    @Test
+    void at_ShouldReturnLatestFareNotAfterInstant() {
+        load(fare("jan", "org-1", JAN), fare("nov", "org-1", NOV), fare("other", "org-2", JUN));
+
+        assertTrue(fareIndex.isLoaded());
+        StepVerifier.create(fareIndex.at("org-1", JUN)).expectNextMatches(f -> f.getId().equals("jan")).verifyComplete();
+        StepVerifier.create(fareIndex.at("org-1", NOV)).expectNextMatches(f -> f.getId().equals("nov")).verifyComplete();
+        StepVerifier.create(fareIndex.at("org-1", JAN.minusSeconds(1))).verifyComplete();
+    }
+
+    @Test
+    void at_ShouldFallBackToUndatedActiveFare_BeforeTheFirstEffectiveDate() {
+        Fare retired = fare("retired", "org-1", null);
+        retired.setStatus(Constants.INACTIVE.name());
+        load(fare("jan", "org-1", JAN), fare("undated", "org-1", null), retired);
+
+        StepVerifier.create(fareIndex.at("org-1", JUN))
+                .expectNextMatches(f -> f.getId().equals("jan"))
+                .verifyComplete();
+        StepVerifier.create(fareIndex.at("org-1", JAN.minusSeconds(1)))
+                .expectNextMatches(f -> f.getId().equals("undated"))
+                .verifyComplete();
+    }
+
+    @Test
+    void at_ShouldAnswerHistoricalInstants_WithFaresNoLongerActive() {
+        Fare jan = fare("jan", "org-1", JAN);
+        jan.setStatus(Constants.INACTIVE.name());
+        load(jan, fare("jun", "org-1", JUN));
+
+        StepVerifier.create(fareIndex.at("org-1", JAN.plusSeconds(1))).expectNext(jan).verifyComplete();
+        StepVerifier.create(fareIndex.at("org-1", NOV)).expectNextMatches(f -> f.getId().equals("jun")).verifyComplete();
+    }
+
+    @Test
+    void onEntityChanged_ShouldIndexNewFare_AndKeepDeactivatedOneForThePast() {
+        load(fare("jan", "org-1", JAN));
+
+        Fare jun = fare("jun", "org-1", JUN);
+        fareIndex.onEntityChanged(EntityChangedEvent.created(EntityType.FARE, "jun", "org-1", jun.getStatus(), jun));
+        Fare jan = fare("jan", "org-1", JAN);
+        jan.setStatus(Constants.INACTIVE.name());
+        fareIndex.onEntityChanged(EntityChangedEvent.updated(EntityType.FARE, "jan", "org-1",
+                Constants.ACTIVE.name(), "org-1", Constants.INACTIVE.name(), jan));
+
+        StepVerifier.create(fareIndex.at("org-1", NOV)).expectNextMatches(f -> f.getId().equals("jun")).verifyComplete();
+        StepVerifier.create(fareIndex.at("org-1", JAN.plusSeconds(1)))
+                .expectNextMatches(f -> Constants.INACTIVE.name().equals(f.getStatus()))
+                .verifyComplete();
+    }
+
+    @Test
+    void onEntityChanged_ShouldMoveFareBetweenOrganizations_AndRemoveOnDelete() {
+        load(fare("f1", "org-1", JAN));
+
+        Fare moved = fare("f1", "org-2", JAN);
+        fareIndex.onEntityChanged(EntityChangedEvent.updated(EntityType.FARE, "f1", "org-1",
+                Constants.ACTIVE.name(), "org-2", Constants.ACTIVE.name(), moved));
+
+        StepVerifier.create(fareIndex.at("org-1", NOV)).verifyComplete();
+        StepVerifier.create(fareIndex.at("org-2", NOV)).expectNext(moved).verifyComplete();
+
+        fareIndex.onEntityChanged(EntityChangedEvent.deleted(EntityType.FARE, "f1", "org-2",
+                Constants.ACTIVE.name(), moved));
+
+        StepVerifier.create(fareIndex.at("org-2", NOV)).verifyComplete();
+    }
+
+    @Test
+    void at_ShouldPreferNewestFare_WhenEffectiveDatesCollide() {
+        Fare older = fare("older", "org-1", NOV);
+        older.setCreatedAt(JAN);
+        Fare newer = fare("newer", "org-1", NOV);
+        newer.setCreatedAt(JUN);
+        load(older, newer);
+
+        StepVerifier.create(fareIndex.at("org-1", NOV)).expectNext(newer).verifyComplete();
+    }
+
+    @Test
+    void reload_ShouldKeepEventsOfEachReload_WhenReloadsOverlap() {
+        Sinks.Many<Fare> slowLoad = Sinks.many().unicast().onBackpressureBuffer();
+        when(fareRepository.findAll())
+                .thenReturn(slowLoad.asFlux())
+                .thenReturn(Flux.just(fare("jan", "org-1", JAN)));
+        AtomicReference<Throwable> slowError = new AtomicReference<>();
+        fareIndex.reload().subscribe(null, slowError::set);
+
+        // la segunda recarga termina antes que la primera
+        StepVerifier.create(fareIndex.reload()).verifyComplete();
+        Fare jun = fare("jun", "org-1", JUN);
+        fareIndex.onEntityChanged(EntityChangedEvent.created(EntityType.FARE, "jun", "org-1", jun.getStatus(), jun));
+        slowLoad.tryEmitNext(fare("jan", "org-1", JAN));
+        slowLoad.tryEmitComplete();
+
+        assertNull(slowError.get());
+        StepVerifier.create(fareIndex.at("org-1", NOV)).expectNextMatches(f -> f.getId().equals("jun")).verifyComplete();
+    }
+
+    @Test
+    void onInvalidation_ShouldReindexFareChangedByAnotherReplica() {
+        load(fare("a", "org-1", JAN));
+        Fare moved = fare("a", "org-2", JAN);
+        when(fareRepository.findById("a")).thenReturn(Mono.just(moved));
+
+        fareIndex.onInvalidation(CacheInvalidationEvent.entity(EntityType.FARE, "a"));
+
+        StepVerifier.create(fareIndex.at("org-1", JUN)).verifyComplete();
+        StepVerifier.create(fareIndex.at("org-2", JUN)).expectNext(moved).verifyComplete();
+
+        when(fareRepository.findById("a")).thenReturn(Mono.empty());
+        fareIndex.onInvalidation(CacheInvalidationEvent.entity(EntityType.FARE, "a"));
+
+        StepVerifier.create(fareIndex.at("org-2", JUN)).verifyComplete();
+    }
+}
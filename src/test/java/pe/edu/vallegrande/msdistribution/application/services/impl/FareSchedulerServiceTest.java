@@ -0,0 +1,248 @@
+package pe.edu.vallegrande.msdistribution.application.services.impl;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.context.ApplicationEventPublisher;
+import pe.edu.vallegrande.msdistribution.application.services.JobCoordinationService;
+import pe.edu.vallegrande.msdistribution.domain.enums.Constants;
+import pe.edu.vallegrande.msdistribution.domain.events.EntityChangedEvent;
+import pe.edu.vallegrande.msdistribution.domain.models.Fare;
+import pe.edu.vallegrande.msdistribution.domain.models.JobAssignment;
+import pe.edu.vallegrande.msdistribution.domain.models.Lease;
+import pe.edu.vallegrande.msdistribution.infrastructure.repository.FareRepository;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.time.Instant;
+import java.util.Collection;
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+/**
+ * Pruebas unitarias para FareSchedulerService: las transiciones se filtran en Mongo y se
+ * escriben con updateMany / bulk, nunca con save() por documento.
+ */
+public class FareSchedulerServiceTest {
+
+    @Mock
+    private FareRepository fareRepository;
+
+    @Mock
+    private FareServiceImpl fareService;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    @Mock
+    private JobCoordinationService coordination;
+
+    @InjectMocks
+    private FareSchedulerService schedulerService;
+
+    private final Date now = new Date();
+
+    private final JobAssignment leader = JobAssignment.leader(FareSchedulerService.JOB_FARE_TRANSITIONS,
+            Lease.builder().id(FareSchedulerService.JOB_FARE_TRANSITIONS).token(1).build());
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        when(fareRepository.updateStatus(any(), anyString(), anyString()))
+                .thenAnswer(inv -> Mono.just((long) ((Collection<?>) inv.getArgument(0)).size()));
+        when(coordination.isCurrent(any(JobAssignment.class))).thenReturn(Mono.just(true));
+    }
+
+    private Fare fare(String id, String organizationId, String status, long effectiveOffsetMillis) {
+        return Fare.builder()
+                .id(id)
+                .organizationId(organizationId)
+                .status(status)
+                .effectiveDate(new Date(now.getTime() + effectiveOffsetMillis))
+                .createdAt(Instant.now())
+                .build();
+    }
+
+    @Test
+    void applyFaresInForce_ShouldActivateNewestPerOrganization_AndDeactivateOthersInBulk() {
+        Fare older = fare("older", "org-1", Constants.INACTIVE.name(), -120_000);
+        Fare newer = fare("newer", "org-1", Constants.INACTIVE.name(), -60_000);
+        Fare previous = fare("previous", "org-1", Constants.ACTIVE.name(), -600_000);
+        Fare future = fare("future", "org-1", Constants.ACTIVE.name(), 600_000);
+        when(fareRepository.findByOrganizationIdInAndStatus(Set.of("org-1"), Constants.ACTIVE.name()))
+                .thenReturn(Flux.just(previous, future));
+
+        StepVerifier.create(schedulerService.applyFaresInForce(List.of(older, newer, previous), leader))
+                .verifyComplete();
+
+        verify(fareRepository).updateStatus(List.of("newer"), Constants.INACTIVE.name(), Constants.ACTIVE.name());
+        verify(fareRepository).updateStatus(List.of("previous", "future"), Constants.ACTIVE.name(), Constants.INACTIVE.name());
+        assertEquals(Constants.ACTIVE.name(), newer.getStatus());
+        assertEquals(Constants.INACTIVE.name(), older.getStatus());
+        assertEquals(Constants.INACTIVE.name(), future.getStatus());
+        verify(eventPublisher, times(3)).publishEvent(any(EntityChangedEvent.class));
+        verify(fareRepository, never()).save(any(Fare.class));
+    }
+
+    @Test
+    void applyFaresInForce_ShouldNotActivateAFareOlderThanTheActiveOne() {
+        Fare active = fare("active", "org-1", Constants.ACTIVE.name(), -60_000);
+        Fare older = fare("older", "org-1", Constants.INACTIVE.name(), -120_000);
+
+        StepVerifier.create(schedulerService.applyFaresInForce(List.of(older, active), leader))
+                .verifyComplete();
+
+        verify(fareRepository, never()).updateStatus(any(), anyString(), anyString());
+        verifyNoInteractions(eventPublisher);
+    }
+
+    @Test
+    void applyFaresInForce_ShouldDeactivateSupersededFaresWithSingleUpdateMany() {
+        Fare expired1 = fare("e1", "org-1", Constants.ACTIVE.name(), -600_000);
+        Fare current1 = fare("c1", "org-1", Constants.ACTIVE.name(), -60_000);
+        Fare expired2 = fare("e2", "org-2", Constants.ACTIVE.name(), -600_000);
+        Fare current2 = fare("c2", "org-2", Constants.ACTIVE.name(), -60_000);
+
+        StepVerifier.create(schedulerService.applyFaresInForce(List.of(expired1, current1, expired2, current2), leader))
+                .verifyComplete();
+
+        verify(fareRepository).updateStatus(List.of("e1", "e2"), Constants.ACTIVE.name(), Constants.INACTIVE.name());
+        verify(fareRepository, times(1)).updateStatus(any(), anyString(), anyString());
+        verify(eventPublisher, times(2)).publishEvent(any(EntityChangedEvent.class));
+        verify(fareRepository, never()).findByOrganizationIdInAndStatus(any(), anyString());
+    }
+
+    @Test
+    void applyFaresInForce_ShouldPublishOnlyFaresThatChanged_WhenUpdateManyModifiedFewer() {
+        Fare current = fare("c1", "org-1", Constants.ACTIVE.name(), -60_000);
+        Fare first = fare("e1", "org-1", Constants.ACTIVE.name(), -600_000);
+        Fare second = fare("e2", "org-1", Constants.ACTIVE.name(), -600_000);
+        first.setVersion(3L);
+        second.setVersion(5L);
+        when(fareRepository.updateStatus(List.of("e1", "e2"), Constants.ACTIVE.name(), Constants.INACTIVE.name()))
+                .thenReturn(Mono.just(1L));
+        // e2 ya estaba INACTIVE por otra escritura: el updateMany solo cambió e1
+        Fare firstNow = fare("e1", "org-1", Constants.INACTIVE.name(), -600_000);
+        firstNow.setVersion(4L);
+        Fare secondNow = fare("e2", "org-1", Constants.INACTIVE.name(), -600_000);
+        secondNow.setVersion(5L);
+        when(fareRepository.findAllById(List.of("e1", "e2"))).thenReturn(Flux.just(firstNow, secondNow));
+        ArgumentCaptor<EntityChangedEvent> events = ArgumentCaptor.forClass(EntityChangedEvent.class);
+
+        StepVerifier.create(schedulerService.applyFaresInForce(List.of(current, first, second), leader))
+                .verifyComplete();
+
+        verify(eventPublisher).publishEvent(events.capture());
+        assertEquals("e1", events.getValue().getId());
+    }
+
+    @Test
+    void applyFaresInForce_ShouldSkipWrite_WhenLeaseIsNoLongerCurrent() {
+        when(coordination.isCurrent(any(JobAssignment.class))).thenReturn(Mono.just(false));
+
+        StepVerifier.create(schedulerService.applyFaresInForce(List.of(
+                        fare("e1", "org-1", Constants.ACTIVE.name(), -600_000),
+                        fare("c1", "org-1", Constants.ACTIVE.name(), -60_000)), leader))
+                .verifyComplete();
+
+        verify(fareRepository, never()).updateStatus(any(), anyString(), anyString());
+        verifyNoInteractions(eventPublisher);
+    }
+
+    @Test
+    void runTransitions_ShouldOnlyTouchOwnedOrganizations_WhenSharded() {
+        JobAssignment shard = JobAssignment.shard(FareSchedulerService.JOB_FARE_TRANSITIONS,
+                Math.floorMod("org-1".hashCode(), 1000), 1000);
+        when(coordination.assignment(FareSchedulerService.JOB_FARE_TRANSITIONS)).thenReturn(Mono.just(shard));
+        when(fareRepository.findByStatusAndEffectiveDateLessThanEqual(Constants.INACTIVE.name(), now))
+                .thenReturn(Flux.empty());
+        when(fareRepository.findByStatusAndEffectiveDateLessThanEqual(Constants.ACTIVE.name(), now))
+                .thenReturn(Flux.just(fare("e1", "org-1", Constants.ACTIVE.name(), -600_000),
+                        fare("c1", "org-1", Constants.ACTIVE.name(), -60_000),
+                        fare("e2", "org-2", Constants.ACTIVE.name(), -600_000),
+                        fare("c2", "org-2", Constants.ACTIVE.name(), -60_000)));
+
+        StepVerifier.create(schedulerService.runTransitions(now)).verifyComplete();
+
+        verify(fareRepository).updateStatus(List.of("e1"), Constants.ACTIVE.name(), Constants.INACTIVE.name());
+    }
+
+    @Test
+    void runTransitions_ShouldLeaveTheSameSingleActiveFare_WhenRunTwice() {
+        Map<String, Fare> stored = new LinkedHashMap<>();
+        for (Fare fare : List.of(fare("older", "org-1", Constants.INACTIVE.name(), -120_000),
+                fare("newer", "org-1", Constants.INACTIVE.name(), -60_000),
+                fare("previous", "org-1", Constants.ACTIVE.name(), -600_000))) {
+            stored.put(fare.getId(), fare);
+        }
+        when(coordination.assignment(FareSchedulerService.JOB_FARE_TRANSITIONS)).thenReturn(Mono.just(leader));
+        // Mongo simulado: las consultas devuelven copias y updateStatus cambia lo guardado
+        when(fareRepository.findByStatusAndEffectiveDateLessThanEqual(anyString(), eq(now)))
+                .thenAnswer(inv -> Flux.fromStream(stored.values().stream()
+                        .filter(fare -> fare.getStatus().equals(inv.getArgument(0)))
+                        .filter(fare -> !fare.getEffectiveDate().after(now))
+                        .map(FareSchedulerServiceTest::copy)));
+        when(fareRepository.findByOrganizationIdInAndStatus(any(), eq(Constants.ACTIVE.name())))
+                .thenAnswer(inv -> Flux.fromStream(stored.values().stream()
+                        .filter(fare -> fare.getStatus().equals(Constants.ACTIVE.name()))
+                        .map(FareSchedulerServiceTest::copy)));
+        doAnswer(inv -> {
+            Collection<String> ids = inv.getArgument(0);
+            long modified = ids.stream()
+                    .map(stored::get)
+                    .filter(fare -> fare.getStatus().equals(inv.getArgument(1)))
+                    .peek(fare -> fare.setStatus(inv.getArgument(2)))
+                    .count();
+            return Mono.just(modified);
+        }).when(fareRepository).updateStatus(any(), anyString(), anyString());
+
+        StepVerifier.create(schedulerService.runTransitions(now)).verifyComplete();
+        assertEquals(List.of("newer"), activeIds(stored));
+
+        clearInvocations(eventPublisher, fareRepository);
+        StepVerifier.create(schedulerService.runTransitions(now)).verifyComplete();
+        assertEquals(List.of("newer"), activeIds(stored));
+        verify(fareRepository, never()).updateStatus(any(), anyString(), anyString());
+        verifyNoInteractions(eventPublisher);
+    }
+
+    private static Fare copy(Fare fare) {
+        return Fare.builder()
+                .id(fare.getId())
+                .organizationId(fare.getOrganizationId())
+                .status(fare.getStatus())
+                .effectiveDate(fare.getEffectiveDate())
+                .createdAt(fare.getCreatedAt())
+                .build();
+    }
+
+    private static List<String> activeIds(Map<String, Fare> stored) {
+        return stored.values().stream()
+                .filter(fare -> fare.getStatus().equals(Constants.ACTIVE.name()))
+                .map(Fare::getId)
+                .collect(Collectors.toList());
+    }
+
+    @Test
+    void runTransitions_ShouldDoNothing_WhenAnotherReplicaHoldsTheLease() {
+        when(coordination.assignment(FareSchedulerService.JOB_FARE_TRANSITIONS)).thenReturn(Mono.empty());
+
+        StepVerifier.create(schedulerService.runTransitions(now)).verifyComplete();
+
+        verifyNoInteractions(fareRepository);
+    }
+}
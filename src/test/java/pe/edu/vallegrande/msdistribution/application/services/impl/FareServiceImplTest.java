@@ -2,29 +2,41 @@ package pe.edu.vallegrande.msdistribution.application.services.impl;
 
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
-import org.junit.jupiter.params.ParameterizedTest;
-import org.junit.jupiter.params.provider.Arguments;
-import org.junit.jupiter.params.provider.MethodSource;
 import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.context.ApplicationEventPublisher;
+import pe.edu.vallegrande.msdistribution.application.services.FareIndexService;
+import pe.edu.vallegrande.msdistribution.application.services.SequenceService;
 import pe.edu.vallegrande.msdistribution.domain.enums.Constants;
+import pe.edu.vallegrande.msdistribution.domain.enums.EntityType;
+import pe.edu.vallegrande.msdistribution.domain.enums.SequenceType;
 import pe.edu.vallegrande.msdistribution.domain.models.Fare;
+import pe.edu.vallegrande.msdistribution.infrastructure.cache.EntityCache;
 import pe.edu.vallegrande.msdistribution.infrastructure.dto.request.FareCreateRequest;
 import pe.edu.vallegrande.msdistribution.infrastructure.exception.CustomException;
 import pe.edu.vallegrande.msdistribution.infrastructure.repository.FareRepository;
+import pe.edu.vallegrande.msdistribution.infrastructure.repository.KeysetPageRepository;
+import pe.edu.vallegrande.msdistribution.infrastructure.repository.StatusTransitionRepository;
+import pe.edu.vallegrande.msdistribution.infrastructure.repository.VersionedUpdateRepository;
+import pe.edu.vallegrande.msdistribution.infrastructure.service.EnrichmentBatchLoader;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 import reactor.test.StepVerifier;
 
 import java.math.BigDecimal;
 import java.time.Instant;
-import java.util.stream.Stream;
+import java.time.temporal.ChronoUnit;
+import java.util.Date;
+import java.util.function.Supplier;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
 import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 
 /**
@@ -41,6 +53,30 @@ public class FareServiceImplTest {
     @Mock
     private FareRepository fareRepository;
 
+    @Mock
+    private SequenceService sequenceService;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    @Mock
+    private KeysetPageRepository pageRepository;
+
+    @Mock
+    private StatusTransitionRepository statusTransitions;
+
+    @Mock
+    private VersionedUpdateRepository versionedUpdates;
+
+    @Mock
+    private EntityCache entityCache;
+
+    @Mock
+    private FareIndexService fareIndex;
+
+    @Mock
+    private EnrichmentBatchLoader enrichmentLoader;
+
     // Se inyecta el mock dentro del servicio a probar
     @InjectMocks
     private FareServiceImpl fareService;
@@ -51,6 +87,9 @@ public class FareServiceImplTest {
     @BeforeEach
     void setUp() {
         MockitoAnnotations.openMocks(this);
+        // Caché transparente: siempre delega en el repositorio
+        when(entityCache.get(any(), any(), any()))
+                .thenAnswer(inv -> ((Supplier<Mono<?>>) inv.getArgument(2)).get());
     }
 
     // ============================================================
@@ -91,7 +130,7 @@ public class FareServiceImplTest {
                 .fareAmount(new BigDecimal("10"))
                 .status(Constants.ACTIVE.name())
                 .createdAt(Instant.now())
-                .effectiveDate(new java.util.Date()) // Fix: Add effectiveDate
+                .effectiveDate(new java.util.Date(System.currentTimeMillis() + 60_000)) // vigencia futura: sigue ACTIVE
                 .build();
 
         // Nuevos datos que llegan desde el request
@@ -114,11 +153,12 @@ public class FareServiceImplTest {
                 .effectiveDate(existing.getEffectiveDate()) // Fix: Add effectiveDate
                 .build();
 
-        // Configuración del mock: primero encuentra, luego guarda
-        when(fareRepository.findById(id)).thenReturn(Mono.just(existing));
-        // Fix: Mock findAllByStatus to return empty Flux to avoid null pointer
-        when(fareRepository.findAllByStatus(anyString())).thenReturn(Flux.empty());
-        when(fareRepository.save(any(Fare.class))).thenReturn(Mono.just(saved));
+        // Configuración del mock: un solo $set condicionado devuelve el documento anterior y el nuevo
+        when(versionedUpdates.update(eq(EntityType.FARE), eq(Fare.class), eq(id), isNull(), any(Fare.class), anyCollection()))
+                .thenReturn(Mono.just(new VersionedUpdateRepository.Change<>(existing, saved)));
+        // Sin otras tarifas activas en la organización que desactivar
+        when(fareRepository.findByOrganizationIdAndStatusOrderByEffectiveDateDesc(any(), anyString()))
+                .thenReturn(Flux.empty());
 
         // Act & Assert
         // Verificación del resultado
@@ -129,6 +169,61 @@ public class FareServiceImplTest {
                 assertEquals(new BigDecimal("20"), result.getFareAmount());
             })
             .verifyComplete();
+
+        // Sin fecha de vigencia en la petición el $set no incluye effectiveDate ni status, y con la
+        // fecha guardada aún vigente el estado recalculado es el mismo
+        ArgumentCaptor<java.util.Collection<String>> fields = ArgumentCaptor.forClass(java.util.Collection.class);
+        verify(versionedUpdates).update(eq(EntityType.FARE), eq(Fare.class), eq(id), isNull(), any(Fare.class), fields.capture());
+        assertFalse(fields.getValue().contains("status"));
+        assertFalse(fields.getValue().contains("effectiveDate"));
+        verify(fareRepository, never()).save(any(Fare.class));
+        verifyNoInteractions(statusTransitions);
+    }
+
+    @Test
+    void updateF_ShouldRecomputeStatusFromStoredEffectiveDate_WhenRequestHasNone() {
+        String id = "fare-1";
+        java.util.Date past = new java.util.Date(System.currentTimeMillis() - 60_000);
+        Fare existing = Fare.builder().id(id).organizationId("org-1").fareName("Old Name")
+                .status(Constants.ACTIVE.name()).effectiveDate(past).build();
+        Fare saved = Fare.builder().id(id).organizationId("org-1").fareName("New Name")
+                .status(Constants.ACTIVE.name()).effectiveDate(past).build();
+        Fare expired = Fare.builder().id(id).organizationId("org-1").fareName("New Name")
+                .status(Constants.INACTIVE.name()).effectiveDate(past).build();
+        FareCreateRequest update = FareCreateRequest.builder()
+                .organizationId("org-1").fareName("New Name").fareType("SEMANAL").fareAmount(new BigDecimal("10"))
+                .build();
+        when(versionedUpdates.update(eq(EntityType.FARE), eq(Fare.class), eq(id), isNull(), any(Fare.class), anyCollection()))
+                .thenReturn(Mono.just(new VersionedUpdateRepository.Change<>(existing, saved)));
+        when(statusTransitions.transition(EntityType.FARE, Fare.class, id, Constants.INACTIVE.name()))
+                .thenReturn(Mono.just(new StatusTransitionRepository.Transition<>(expired, Constants.ACTIVE.name(), true)));
+        when(fareRepository.findByOrganizationIdAndStatusOrderByEffectiveDateDesc(any(), anyString()))
+                .thenReturn(Flux.empty());
+
+        StepVerifier.create(fareService.updateF(id, update))
+                .assertNext(result -> {
+                    assertEquals("New Name", result.getFareName());
+                    assertEquals(Constants.INACTIVE.name(), result.getStatus());
+                })
+                .verifyComplete();
+
+        verify(statusTransitions).transition(EntityType.FARE, Fare.class, id, Constants.INACTIVE.name());
+    }
+
+    @Test
+    void updateF_ShouldReturnPreconditionFailed_WhenVersionIsStale() {
+        FareCreateRequest update = FareCreateRequest.builder()
+                .fareName("New Name").fareType("SEMANAL").fareAmount(new BigDecimal("10")).build();
+        when(versionedUpdates.update(eq(EntityType.FARE), eq(Fare.class), eq("fare-1"), eq(3L), any(Fare.class), anyCollection()))
+                .thenReturn(Mono.error(CustomException.preconditionFailed("modificada")));
+
+        StepVerifier.create(fareService.updateF("fare-1", update, 3L))
+                .expectErrorSatisfies(err -> {
+                    assertTrue(err instanceof CustomException);
+                    assertEquals(412, ((CustomException) err).getErrorMessage().getErrorCode());
+                })
+                .verify();
+        verifyNoInteractions(statusTransitions);
     }
 
     // ============================================================
@@ -174,7 +269,9 @@ public class FareServiceImplTest {
         // Arrange
         String id = "fare-1";
         Fare existing = Fare.builder().id(id).status(Constants.ACTIVE.name()).build();
-        when(fareRepository.findById(id)).thenReturn(Mono.just(existing));
+        // La escritura condicionada no encuentra el documento en otro estado
+        when(statusTransitions.transition(EntityType.FARE, Fare.class, id, Constants.ACTIVE.name()))
+                .thenReturn(Mono.just(new StatusTransitionRepository.Transition<>(existing, existing.getStatus(), false)));
 
         // Act & Assert
         StepVerifier.create(fareService.activateF(id))
@@ -199,10 +296,8 @@ public class FareServiceImplTest {
                 .status(Constants.ACTIVE.name())
                 .build();
 
-        when(fareRepository.findById(id)).thenReturn(Mono.just(existing));
-        // Fix: Mock findAllByStatus to return empty Flux to avoid null pointer
-        when(fareRepository.findAllByStatus(anyString())).thenReturn(Flux.empty());
-        when(fareRepository.save(any(Fare.class))).thenReturn(Mono.just(saved));
+        when(statusTransitions.transition(EntityType.FARE, Fare.class, id, Constants.ACTIVE.name()))
+                .thenReturn(Mono.just(new StatusTransitionRepository.Transition<>(saved, existing.getStatus(), true)));
 
         // Act & Assert
         StepVerifier.create(fareService.activateF(id))
@@ -215,12 +310,11 @@ public class FareServiceImplTest {
     // ============================================================
     @Test
     void saveF_ShouldGenerateSequentialCode_FromLastFare() {
-        // Arrange: último código TAR099 -> siguiente TAR100
-        Fare last = Fare.builder().fareCode("TAR099").build();
-        when(fareRepository.findTopByOrderByFareCodeDesc()).thenReturn(Mono.just(last));
-        when(fareRepository.existsByFareCode("TAR100")).thenReturn(Mono.just(false));
-        // Fix: Mock findAllByStatus to return empty Flux to avoid null pointer
-        when(fareRepository.findAllByStatus(anyString())).thenReturn(Flux.empty());
+        // Arrange: la secuencia ya emitió TAR099 -> siguiente TAR100
+        when(sequenceService.nextCode(SequenceType.FARE, "org-1")).thenReturn(Mono.just("TAR100"));
+        // Sin otras tarifas activas en la organización que desactivar
+        when(fareRepository.findByOrganizationIdAndStatusOrderByEffectiveDateDesc(any(), anyString()))
+                .thenReturn(Flux.empty());
 
         FareCreateRequest request = FareCreateRequest.builder()
                 .organizationId("org-1")
@@ -256,157 +350,6 @@ public class FareServiceImplTest {
         assertEquals("TAR100", captor.getValue().getFareCode());
     }
 
-    // ============================================================
-    // 🔹 TEST PARAMETRIZADO: Casos donde el último código es inválido
-    // ============================================================
-
-    /**
-     * Test parametrizado que verifica el fallback a TAR001 en diferentes escenarios de código inválido.
-     * Reemplaza 3 tests individuales similares para mejorar la mantenibilidad.
-     */
-    @ParameterizedTest
-    @MethodSource("provideInvalidFareCodeScenarios")
-    void saveF_ShouldFallbackToInitialCode_WhenLastFareCodeInvalid(String testName, String invalidFareCode, String expectedFareCode) {
-        // Arrange: código inválido -> fallback TAR001
-        // Handle null case specially
-        if (invalidFareCode == null) {
-            when(fareRepository.findTopByOrderByFareCodeDesc()).thenReturn(Mono.empty());
-        } else {
-            Fare last = Fare.builder().fareCode(invalidFareCode).build();
-            when(fareRepository.findTopByOrderByFareCodeDesc()).thenReturn(Mono.just(last));
-        }
-        when(fareRepository.existsByFareCode(expectedFareCode)).thenReturn(Mono.just(false));
-        // Fix: Mock findAllByStatus to return empty Flux to avoid null pointer
-        when(fareRepository.findAllByStatus(anyString())).thenReturn(Flux.empty());
-
-        FareCreateRequest request = FareCreateRequest.builder()
-                .organizationId("org-1")
-                .fareName("Tarifa Test")
-                .fareType("MENSUAL")
-                .fareAmount(new BigDecimal("30"))
-                .build();
-
-        // Simulación del guardado
-        when(fareRepository.save(any(Fare.class)))
-                .thenAnswer(inv -> {
-                    Fare arg = inv.getArgument(0);
-                    return Mono.just(Fare.builder()
-                            .id("id-test")
-                            .organizationId(arg.getOrganizationId())
-                            .fareCode(arg.getFareCode())
-                            .fareName(arg.getFareName())
-                            .fareType(arg.getFareType())
-                            .fareAmount(arg.getFareAmount())
-                            .status(arg.getStatus())
-                            .createdAt(arg.getCreatedAt())
-                            .build());
-                });
-
-        // Act & Assert
-        // Se espera que se genere TAR001
-        StepVerifier.create(fareService.saveF(request))
-            .assertNext(resp -> {
-                assertEquals(expectedFareCode, resp.getFareCode());
-                System.out.println("✅ " + testName + " - Código generado: " + resp.getFareCode());
-            })
-            .verifyComplete();
-    }
-
-    /**
-     * Proporciona los datos para el test parametrizado de códigos de tarifa inválidos.
-     */
-    private static Stream<Arguments> provideInvalidFareCodeScenarios() {
-        return Stream.of(
-            Arguments.of("Código inválido", "BAD_CODE", "TAR001"),
-            Arguments.of("Código null", null, "TAR001"),
-            Arguments.of("Número demasiado grande", "TAR9999999999999999999999999", "TAR001")
-        );
-    }
-
-    // ============================================================
-    // 🔹 Otros casos adicionales de fallback
-    // ============================================================
-    @Test
-    void saveF_ShouldFallbackToInitialCode_WhenNumericPartEmpty() {
-        // Arrange: código "TAR" -> parte numérica vacía => 0 => TAR001
-        Fare last = Fare.builder().fareCode("TAR").build();
-        when(fareRepository.findTopByOrderByFareCodeDesc()).thenReturn(Mono.just(last));
-        when(fareRepository.existsByFareCode("TAR001")).thenReturn(Mono.just(false));
-        // Fix: Mock findAllByStatus to return empty Flux to avoid null pointer
-        when(fareRepository.findAllByStatus(anyString())).thenReturn(Flux.empty());
-
-        FareCreateRequest request = FareCreateRequest.builder()
-                .organizationId("org-1")
-                .fareName("Tarifa Empty")
-                .fareType("MENSUAL")
-                .fareAmount(new BigDecimal("30"))
-                .build();
-
-        when(fareRepository.save(any(Fare.class)))
-                .thenAnswer(inv -> Mono.just(Fare.builder().id("id-6").fareCode("TAR001").build()));
-
-        // Act & Assert
-        StepVerifier.create(fareService.saveF(request))
-            .assertNext(resp -> assertEquals("TAR001", resp.getFareCode()))
-            .verifyComplete();
-    }
-
-    // ============================================================
-    // 🔹 TEST: Parte numérica con letras (debe resetear a TAR001)
-    // ============================================================
-    @Test
-    void saveF_ShouldFallbackToInitialCode_WhenNumericPartNonDigits() {
-        // Arrange: código con letras tras prefijo => no dígitos => 0 => TAR001
-        Fare last = Fare.builder().fareCode("TARABC").build();
-        when(fareRepository.findTopByOrderByFareCodeDesc()).thenReturn(Mono.just(last));
-        when(fareRepository.existsByFareCode("TAR001")).thenReturn(Mono.just(false));
-        // Fix: Mock findAllByStatus to return empty Flux to avoid null pointer
-        when(fareRepository.findAllByStatus(anyString())).thenReturn(Flux.empty());
-
-        FareCreateRequest request = FareCreateRequest.builder()
-                .organizationId("org-1")
-                .fareName("Tarifa NonDigits")
-                .fareType("MENSUAL")
-                .fareAmount(new BigDecimal("30"))
-                .build();
-
-        when(fareRepository.save(any(Fare.class)))
-                .thenAnswer(inv -> Mono.just(Fare.builder().id("id-7").fareCode("TAR001").build()));
-
-        // Act & Assert
-        StepVerifier.create(fareService.saveF(request))
-            .assertNext(resp -> assertEquals("TAR001", resp.getFareCode()))
-            .verifyComplete();
-    }
-
-    // ============================================================
-    // 🔹 TEST: Manejo de excepción al obtener código → fallback
-    // ============================================================
-    @Test
-    void saveF_ShouldFallback_WhenGetFareCodeThrows() {
-        // Arrange: Simulate the service handling the exception and falling back to TAR001
-        Fare last = Fare.builder().fareCode("TARINVALID").build();
-        when(fareRepository.findTopByOrderByFareCodeDesc()).thenReturn(Mono.just(last));
-        when(fareRepository.existsByFareCode("TAR001")).thenReturn(Mono.just(false));
-        // Fix: Mock findAllByStatus to return empty Flux to avoid null pointer
-        when(fareRepository.findAllByStatus(anyString())).thenReturn(Flux.empty());
-
-        FareCreateRequest request = FareCreateRequest.builder()
-                .organizationId("org-1")
-                .fareName("Tarifa Boom")
-                .fareType("MENSUAL")
-                .fareAmount(new BigDecimal("30"))
-                .build();
-
-        when(fareRepository.save(any(Fare.class)))
-                .thenAnswer(inv -> Mono.just(Fare.builder().id("id-8").fareCode("TAR001").build()));
-
-        // Act & Assert
-        StepVerifier.create(fareService.saveF(request))
-            .assertNext(resp -> assertEquals("TAR001", resp.getFareCode()))
-            .verifyComplete();
-    }
-
     // ============================================================
     // 🔹 TEST: Desactivar tarifa correctamente
     // ============================================================
@@ -416,10 +359,8 @@ public class FareServiceImplTest {
         Fare existing = Fare.builder().id(id).status(Constants.ACTIVE.name()).build();
         Fare saved = Fare.builder().id(id).status(Constants.INACTIVE.name()).build();
 
-        when(fareRepository.findById(id)).thenReturn(Mono.just(existing));
-        // Fix: Mock findAllByStatus to return empty Flux to avoid null pointer
-        when(fareRepository.findAllByStatus(anyString())).thenReturn(Flux.empty());
-        when(fareRepository.save(any(Fare.class))).thenReturn(Mono.just(saved));
+        when(statusTransitions.transition(EntityType.FARE, Fare.class, id, Constants.INACTIVE.name()))
+                .thenReturn(Mono.just(new StatusTransitionRepository.Transition<>(saved, existing.getStatus(), true)));
 
         StepVerifier.create(fareService.deactivateF(id))
             .assertNext(result -> assertEquals(Constants.INACTIVE.name(), result.getStatus()))
@@ -514,7 +455,8 @@ public class FareServiceImplTest {
     @Test
     void activateF_ShouldError_WhenNotFound() {
         String id = "fare-404";
-        when(fareRepository.findById(id)).thenReturn(Mono.empty());
+        when(statusTransitions.transition(EntityType.FARE, Fare.class, id, Constants.ACTIVE.name()))
+                .thenReturn(Mono.empty());
 
         StepVerifier.create(fareService.activateF(id))
             .expectError(CustomException.class)
@@ -535,11 +477,11 @@ public class FareServiceImplTest {
                 .fareAmount(new BigDecimal("15"))
                 .build();
 
-        // No hay tarifas previas → genera TAR001
-        when(fareRepository.findTopByOrderByFareCodeDesc()).thenReturn(Mono.empty());
-        when(fareRepository.existsByFareCode("TAR001")).thenReturn(Mono.just(false));
-        // Fix: Mock findAllByStatus to return empty Flux to avoid null pointer
-        when(fareRepository.findAllByStatus(anyString())).thenReturn(Flux.empty());
+        // Primer código emitido por la secuencia → TAR001
+        when(sequenceService.nextCode(SequenceType.FARE, "6896b2ecf3e398570ffd99d3")).thenReturn(Mono.just("TAR001"));
+        // Sin otras tarifas activas en la organización que desactivar
+        when(fareRepository.findByOrganizationIdAndStatusOrderByEffectiveDateDesc(any(), anyString()))
+                .thenReturn(Flux.empty());
 
         // Captura de lo que se va a guardar
         ArgumentCaptor<Fare> fareCaptor = ArgumentCaptor.forClass(Fare.class);
@@ -575,8 +517,7 @@ public class FareServiceImplTest {
                 .verifyComplete();
 
         // Se verifican las llamadas al repositorio
-        verify(fareRepository).findTopByOrderByFareCodeDesc();
-        verify(fareRepository).existsByFareCode("TAR001");
+        verify(sequenceService).nextCode(SequenceType.FARE, "6896b2ecf3e398570ffd99d3");
         verify(fareRepository).save(fareCaptor.capture());
 
         // Validación del objeto capturado
@@ -614,11 +555,13 @@ public class FareServiceImplTest {
                 .fareAmount(new BigDecimal("20"))
                 .build();
 
-        // Simula que TAR001 ya existe
-        when(fareRepository.findTopByOrderByFareCodeDesc()).thenReturn(Mono.empty());
-        when(fareRepository.existsByFareCode("TAR001")).thenReturn(Mono.just(true));
-        // Fix: Mock findAllByStatus to return empty Flux to avoid null pointer
-        when(fareRepository.findAllByStatus(anyString())).thenReturn(Flux.empty());
+        // Simula que TAR001 ya existe: el índice único rechaza la inserción
+        when(sequenceService.nextCode(SequenceType.FARE, "6896b2ecf3e398570ffd99d3")).thenReturn(Mono.just("TAR001"));
+        when(fareRepository.save(any(Fare.class)))
+                .thenReturn(Mono.error(new DuplicateKeyException("E11000 duplicate key")));
+        // Sin otras tarifas activas en la organización que desactivar
+        when(fareRepository.findByOrganizationIdAndStatusOrderByEffectiveDateDesc(any(), anyString()))
+                .thenReturn(Flux.empty());
 
         // Act & Assert
         StepVerifier.create(fareService.saveF(request))
@@ -633,4 +576,127 @@ public class FareServiceImplTest {
 
         System.out.println("Negative test completed successfully\n");
     }
-}
\ No newline at end of file
+
+    // ============================================================
+    // 🔹 TESTS: Consultas acotadas por organización
+    // ============================================================
+    @Test
+    void getByOrganizationId_ShouldQueryOnlyThatOrganization() {
+        when(fareRepository.findByOrganizationId("org-1")).thenReturn(Flux.just(
+                Fare.builder().id("1").organizationId("org-1").build()));
+
+        StepVerifier.create(fareService.getByOrganizationId("org-1"))
+                .expectNextCount(1)
+                .verifyComplete();
+
+        verify(fareRepository, never()).findAll();
+    }
+
+    @Test
+    void getCurrentActiveFare_ShouldUseIndexedLookup() {
+        Fare current = Fare.builder().id("1").organizationId("org-1").status(Constants.ACTIVE.name()).build();
+        when(fareRepository.findFareInForceAt(eq("org-1"), any())).thenReturn(Mono.just(current));
+
+        StepVerifier.create(fareService.getCurrentActiveFare("org-1"))
+                .expectNext(current)
+                .verifyComplete();
+
+        verify(fareRepository, never()).findAllByStatus(anyString());
+    }
+
+    @Test
+    void updateF_ShouldDeactivateOnlySameOrganizationFares() {
+        Fare existing = Fare.builder().id("new").organizationId("org-1")
+                .status(Constants.ACTIVE.name()).effectiveDate(new java.util.Date()).build();
+        Fare previous = Fare.builder().id("old").organizationId("org-1").status(Constants.ACTIVE.name()).build();
+        FareCreateRequest request = FareCreateRequest.builder()
+                .organizationId("org-1").fareName("Tarifa").fareType("SEMANAL")
+                .fareAmount(new BigDecimal("10")).effectiveDate(new java.util.Date(System.currentTimeMillis() + 60_000))
+                .build();
+        when(versionedUpdates.update(eq(EntityType.FARE), eq(Fare.class), eq("new"), isNull(), any(Fare.class), anyCollection()))
+                .thenAnswer(inv -> {
+                    Fare changes = inv.getArgument(4);
+                    changes.setId("new");
+                    return Mono.just(new VersionedUpdateRepository.Change<>(existing, changes));
+                });
+        when(fareRepository.findByOrganizationIdAndStatusOrderByEffectiveDateDesc("org-1", Constants.ACTIVE.name()))
+                .thenReturn(Flux.just(existing, previous));
+        Fare deactivated = Fare.builder().id("old").organizationId("org-1").status(Constants.INACTIVE.name()).build();
+        when(statusTransitions.transition(EntityType.FARE, Fare.class, "old", Constants.INACTIVE.name()))
+                .thenReturn(Mono.just(new StatusTransitionRepository.Transition<>(deactivated, Constants.ACTIVE.name(), true)));
+
+        StepVerifier.create(fareService.updateF("new", request))
+                .assertNext(response -> assertEquals(Constants.ACTIVE.name(), response.getStatus()))
+                .verifyComplete();
+
+        verify(statusTransitions).transition(EntityType.FARE, Fare.class, "old", Constants.INACTIVE.name());
+        verify(statusTransitions, never()).transition(EntityType.FARE, Fare.class, "new", Constants.INACTIVE.name());
+        verify(fareRepository, never()).findAllByStatus(anyString());
+    }
+
+    @Test
+    void getFareInForce_ShouldAnswerFromIndex_WhenLoaded() {
+        Fare fare = Fare.builder().id("1").organizationId("org-1").status(Constants.ACTIVE.name()).build();
+        Instant at = Instant.now().plus(30, ChronoUnit.DAYS);
+        when(fareIndex.isLoaded()).thenReturn(true);
+        when(fareIndex.at("org-1", at)).thenReturn(Mono.just(fare));
+
+        StepVerifier.create(fareService.getFareInForce("org-1", at))
+                .assertNext(response -> assertEquals("1", response.getId()))
+                .verifyComplete();
+
+        verifyNoInteractions(fareRepository);
+    }
+
+    @Test
+    void getFareInForce_ShouldReturnNotFound_WhenOrganizationHasNoFare() {
+        when(fareIndex.isLoaded()).thenReturn(true);
+        when(fareIndex.at(eq("org-9"), any())).thenReturn(Mono.empty());
+
+        StepVerifier.create(fareService.getFareInForce("org-9", null))
+                .expectErrorSatisfies(error -> assertEquals(404,
+                        ((CustomException) error).getErrorMessage().getErrorCode()))
+                .verify();
+    }
+
+    @Test
+    void getFareInForce_ShouldAnswerTheSameWithoutAt_AsAtNow() {
+        Instant now = Instant.now();
+        Fare started = Fare.builder().id("started").organizationId("org-1").status(Constants.ACTIVE.name())
+                .effectiveDate(Date.from(now.minus(30, ChronoUnit.DAYS))).build();
+        Fare upcoming = Fare.builder().id("upcoming").organizationId("org-1").status(Constants.ACTIVE.name())
+                .effectiveDate(Date.from(now.plus(30, ChronoUnit.DAYS))).build();
+        FareIndexServiceImpl index = new FareIndexServiceImpl(fareRepository);
+        when(fareRepository.findAll()).thenReturn(Flux.just(started, upcoming));
+        index.reload().block();
+        when(fareIndex.isLoaded()).thenReturn(true);
+        when(fareIndex.at(eq("org-1"), any()))
+                .thenAnswer(inv -> index.at("org-1", inv.getArgument(1)));
+
+        StepVerifier.create(fareService.getFareInForce("org-1", null))
+                .assertNext(response -> assertEquals("started", response.getId()))
+                .verifyComplete();
+        StepVerifier.create(fareService.getFareInForce("org-1", Instant.now()))
+                .assertNext(response -> assertEquals("started", response.getId()))
+                .verifyComplete();
+        // /fare/current y getCurrentActiveFare siguen la misma regla
+        StepVerifier.create(fareService.getCurrentActiveFare("org-1"))
+                .assertNext(fare -> assertEquals("started", fare.getId()))
+                .verifyComplete();
+    }
+
+    @Test
+    void getFareInForce_ShouldServePastInstant_FromIndex() {
+        Instant lastYear = Instant.now().minus(365, ChronoUnit.DAYS);
+        Fare previous = Fare.builder().id("previous").organizationId("org-1").status(Constants.INACTIVE.name())
+                .effectiveDate(Date.from(lastYear.minus(30, ChronoUnit.DAYS))).build();
+        when(fareIndex.isLoaded()).thenReturn(true);
+        when(fareIndex.at("org-1", lastYear)).thenReturn(Mono.just(previous));
+
+        StepVerifier.create(fareService.getFareInForce("org-1", lastYear))
+                .assertNext(response -> assertEquals("previous", response.getId()))
+                .verifyComplete();
+
+        verifyNoInteractions(fareRepository);
+    }
+}
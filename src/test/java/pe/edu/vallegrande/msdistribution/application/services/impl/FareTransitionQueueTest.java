@@ -0,0 +1,149 @@
+package pe.edu.vallegrande.msdistribution.application.services.impl;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.context.ApplicationEventPublisher;
+import pe.edu.vallegrande.msdistribution.application.services.JobCoordinationService;
+import pe.edu.vallegrande.msdistribution.domain.enums.Constants;
+import pe.edu.vallegrande.msdistribution.domain.enums.EntityType;
+import pe.edu.vallegrande.msdistribution.domain.events.EntityChangedEvent;
+import pe.edu.vallegrande.msdistribution.domain.models.Fare;
+import pe.edu.vallegrande.msdistribution.domain.models.JobAssignment;
+import pe.edu.vallegrande.msdistribution.domain.models.Lease;
+import pe.edu.vallegrande.msdistribution.infrastructure.repository.FareRepository;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.Date;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+/**
+ * Pruebas unitarias para FareTransitionQueue: carga, actualización por eventos y disparo a la
+ * hora de vigencia.
+ */
+public class FareTransitionQueueTest {
+
+    @Mock
+    private FareRepository fareRepository;
+
+    @Mock
+    private FareSchedulerService schedulerService;
+
+    @Mock
+    private JobCoordinationService coordination;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    @Mock
+    private FareServiceImpl fareService;
+
+    @InjectMocks
+    private FareTransitionQueue queue;
+
+    /** Planificador real para las pruebas que recorren un disparo completo. */
+    @InjectMocks
+    private FareSchedulerService realScheduler;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        when(schedulerService.runTransitions(any(Date.class))).thenReturn(Mono.empty());
+    }
+
+    private Fare fare(String id, Instant effectiveDate) {
+        return Fare.builder().id(id).organizationId("org-1").status(Constants.INACTIVE.name())
+                .effectiveDate(Date.from(effectiveDate)).build();
+    }
+
+    @Test
+    void reload_ShouldQueueFutureFaresByEffectiveDate() {
+        Instant soon = Instant.now().plus(1, ChronoUnit.DAYS).truncatedTo(ChronoUnit.MILLIS);
+        Instant later = Instant.now().plus(2, ChronoUnit.DAYS).truncatedTo(ChronoUnit.MILLIS);
+        when(fareRepository.findByStatusInAndEffectiveDateAfter(any(), any(Date.class)))
+                .thenReturn(Flux.just(fare("later", later), fare("soon", soon)));
+
+        StepVerifier.create(queue.reload()).verifyComplete();
+
+        assertEquals(2, queue.size());
+        assertEquals(soon, queue.nextDueTime());
+    }
+
+    @Test
+    void onEntityChanged_ShouldRescheduleAndRemoveFares() {
+        Instant first = Instant.now().plus(1, ChronoUnit.DAYS).truncatedTo(ChronoUnit.MILLIS);
+        Instant moved = Instant.now().plus(3, ChronoUnit.DAYS).truncatedTo(ChronoUnit.MILLIS);
+        Fare fare = fare("f1", first);
+        queue.onEntityChanged(EntityChangedEvent.created(EntityType.FARE, "f1", "org-1", fare.getStatus(), fare));
+        assertEquals(first, queue.nextDueTime());
+
+        Fare updated = fare("f1", moved);
+        queue.onEntityChanged(EntityChangedEvent.updated(EntityType.FARE, "f1", "org-1", fare.getStatus(),
+                "org-1", updated.getStatus(), updated));
+        assertEquals(1, queue.size());
+        assertEquals(moved, queue.nextDueTime());
+
+        queue.onEntityChanged(EntityChangedEvent.deleted(EntityType.FARE, "f1", "org-1", updated.getStatus(), updated));
+        assertEquals(0, queue.size());
+        assertNull(queue.nextDueTime());
+    }
+
+    @Test
+    void onEntityChanged_ShouldIgnorePastDatesAndOtherEntities() {
+        Fare past = fare("f1", Instant.now().minus(1, ChronoUnit.DAYS));
+        queue.onEntityChanged(EntityChangedEvent.created(EntityType.FARE, "f1", "org-1", past.getStatus(), past));
+        queue.onEntityChanged(EntityChangedEvent.created(EntityType.ROUTE, "r1", "org-1", "ACTIVE", null));
+
+        assertEquals(0, queue.size());
+        verifyNoInteractions(schedulerService);
+    }
+
+    @Test
+    void timer_ShouldRunTransitionsAtEffectiveDate() {
+        Fare fare = fare("f1", Instant.now().plusMillis(100));
+        queue.onEntityChanged(EntityChangedEvent.created(EntityType.FARE, "f1", "org-1", fare.getStatus(), fare));
+
+        verify(schedulerService, timeout(2000)).runTransitions(any(Date.class));
+        assertEquals(0, queue.size());
+    }
+
+    @Test
+    void timer_ShouldLeaveTheFareItActivatesActive() {
+        FareTransitionQueue realQueue = new FareTransitionQueue(fareRepository, realScheduler);
+        Fare due = fare("due", Instant.now());
+        when(coordination.assignment(FareSchedulerService.JOB_FARE_TRANSITIONS)).thenReturn(Mono.just(
+                JobAssignment.leader(FareSchedulerService.JOB_FARE_TRANSITIONS,
+                        Lease.builder().id(FareSchedulerService.JOB_FARE_TRANSITIONS).token(1).build())));
+        when(coordination.isCurrent(any(JobAssignment.class))).thenReturn(Mono.just(true));
+        when(fareRepository.findByStatusAndEffectiveDateLessThanEqual(eq(Constants.INACTIVE.name()), any(Date.class)))
+                .thenReturn(Flux.just(due));
+        when(fareRepository.findByOrganizationIdInAndStatus(any(), eq(Constants.ACTIVE.name())))
+                .thenReturn(Flux.just(due));
+        when(fareRepository.findByStatusAndEffectiveDateLessThanEqual(eq(Constants.ACTIVE.name()), any(Date.class)))
+                .thenReturn(Flux.empty());
+        when(fareRepository.updateStatus(any(), anyString(), anyString())).thenReturn(Mono.just(1L));
+
+        due.setEffectiveDate(Date.from(Instant.now().plusMillis(100)));
+        realQueue.onEntityChanged(EntityChangedEvent.created(EntityType.FARE, "due", "org-1", due.getStatus(), due));
+
+        verify(fareRepository, timeout(2000))
+                .updateStatus(List.of("due"), Constants.INACTIVE.name(), Constants.ACTIVE.name());
+        // fire() es synchronized y los mocks responden en el mismo hilo: al leer size() ya terminó
+        assertEquals(0, realQueue.size());
+        verify(fareRepository, never())
+                .updateStatus(List.of("due"), Constants.ACTIVE.name(), Constants.INACTIVE.name());
+        assertEquals(Constants.ACTIVE.name(), due.getStatus());
+    }
+}
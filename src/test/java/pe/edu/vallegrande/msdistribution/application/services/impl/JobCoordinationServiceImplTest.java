@@ -0,0 +1,127 @@
+package pe.edu.vallegrande.msdistribution.application.services.impl;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.UpdateDefinition;
+import pe.edu.vallegrande.msdistribution.domain.models.JobAssignment;
+import pe.edu.vallegrande.msdistribution.domain.models.Lease;
+import pe.edu.vallegrande.msdistribution.domain.models.SchedulerMember;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.time.Instant;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+/**
+ * Pruebas unitarias para JobCoordinationServiceImpl: renovación, toma de leases vencidos,
+ * lease ajeno vigente y reparto por particiones.
+ */
+public class JobCoordinationServiceImplTest {
+
+    @Mock
+    private ReactiveMongoTemplate mongoTemplate;
+
+    private JobCoordinationServiceImpl coordination;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        coordination = new JobCoordinationServiceImpl(mongoTemplate, "replica-b", 30000, false);
+    }
+
+    private Lease lease(String owner, long token) {
+        return Lease.builder().id("job").owner(owner).token(token).expiresAt(Instant.now().plusSeconds(30)).build();
+    }
+
+    private static boolean upsert(FindAndModifyOptions options) {
+        return options != null && options.isUpsert();
+    }
+
+    @Test
+    void acquire_ShouldRenew_WhenLeaseIsAlreadyOwned() {
+        when(mongoTemplate.findAndModify(any(Query.class), any(UpdateDefinition.class),
+                argThat(options -> !upsert(options)), eq(Lease.class)))
+                .thenReturn(Mono.just(lease("replica-b", 3)));
+
+        StepVerifier.create(coordination.acquire("job"))
+                .assertNext(lease -> assertEquals(3, lease.getToken()))
+                .verifyComplete();
+
+        verify(mongoTemplate, times(1)).findAndModify(any(Query.class), any(UpdateDefinition.class),
+                any(FindAndModifyOptions.class), eq(Lease.class));
+    }
+
+    @Test
+    void acquire_ShouldTakeOverAndIncrementToken_WhenLeaseExpired() {
+        when(mongoTemplate.findAndModify(any(Query.class), any(UpdateDefinition.class),
+                argThat(options -> !upsert(options)), eq(Lease.class)))
+                .thenReturn(Mono.empty());
+        when(mongoTemplate.findAndModify(any(Query.class), any(UpdateDefinition.class),
+                argThat(JobCoordinationServiceImplTest::upsert), eq(Lease.class)))
+                .thenReturn(Mono.just(lease("replica-b", 4)));
+
+        StepVerifier.create(coordination.acquire("job"))
+                .assertNext(lease -> assertEquals(4, lease.getToken()))
+                .verifyComplete();
+
+        ArgumentCaptor<UpdateDefinition> update = ArgumentCaptor.forClass(UpdateDefinition.class);
+        verify(mongoTemplate).findAndModify(any(Query.class), update.capture(),
+                argThat(JobCoordinationServiceImplTest::upsert), eq(Lease.class));
+        assertTrue(update.getValue().getUpdateObject().containsKey("$inc"));
+    }
+
+    @Test
+    void acquire_ShouldReturnEmpty_WhenAnotherReplicaHoldsLease() {
+        when(mongoTemplate.findAndModify(any(Query.class), any(UpdateDefinition.class),
+                argThat(options -> !upsert(options)), eq(Lease.class)))
+                .thenReturn(Mono.empty());
+        when(mongoTemplate.findAndModify(any(Query.class), any(UpdateDefinition.class),
+                argThat(JobCoordinationServiceImplTest::upsert), eq(Lease.class)))
+                .thenReturn(Mono.error(new DuplicateKeyException("E11000 duplicate key")));
+
+        StepVerifier.create(coordination.acquire("job")).verifyComplete();
+        StepVerifier.create(coordination.assignment("job")).verifyComplete();
+    }
+
+    @Test
+    void assignment_ShouldSplitOrganizationsAcrossLiveReplicas_WhenShardingEnabled() {
+        JobCoordinationServiceImpl sharded = new JobCoordinationServiceImpl(mongoTemplate, "replica-b", 30000, true);
+        when(mongoTemplate.find(any(Query.class), eq(SchedulerMember.class)))
+                .thenReturn(Flux.fromIterable(List.of(
+                        SchedulerMember.builder().id("replica-a").build(),
+                        SchedulerMember.builder().id("replica-b").build())));
+
+        StepVerifier.create(sharded.assignment("job"))
+                .assertNext(assignment -> {
+                    assertEquals(1, assignment.getShardIndex());
+                    assertEquals(2, assignment.getShardCount());
+                    assertNull(assignment.getLease());
+                })
+                .verifyComplete();
+    }
+
+    @Test
+    void jobAssignment_ShouldGiveEachOrganizationToExactlyOneShard() {
+        List<JobAssignment> shards = List.of(
+                JobAssignment.shard("job", 0, 3), JobAssignment.shard("job", 1, 3), JobAssignment.shard("job", 2, 3));
+
+        for (String organizationId : List.of("org-1", "org-2", "org-3", "org-4")) {
+            assertEquals(1, shards.stream().filter(shard -> shard.owns(organizationId)).count());
+        }
+        assertTrue(JobAssignment.leader("job", lease("replica-b", 1)).owns("org-1"));
+    }
+}
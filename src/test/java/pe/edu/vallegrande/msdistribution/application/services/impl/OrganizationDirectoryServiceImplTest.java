@@ -0,0 +1,120 @@
+package pe.edu.vallegrande.msdistribution.application.services.impl;
+
+import com.mongodb.bulk.BulkWriteResult;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.FindAndReplaceOptions;
+import org.springframework.data.mongodb.core.ReactiveBulkOperations;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import pe.edu.vallegrande.msdistribution.application.services.JobCoordinationService;
+import pe.edu.vallegrande.msdistribution.domain.models.Organization;
+import pe.edu.vallegrande.msdistribution.domain.models.Street;
+import pe.edu.vallegrande.msdistribution.domain.models.Zone;
+import pe.edu.vallegrande.msdistribution.infrastructure.client.dto.ExternalOrganization;
+import pe.edu.vallegrande.msdistribution.infrastructure.client.dto.ExternalUser;
+import pe.edu.vallegrande.msdistribution.infrastructure.client.dto.ExternalZone;
+import pe.edu.vallegrande.msdistribution.infrastructure.exception.CustomException;
+import pe.edu.vallegrande.msdistribution.infrastructure.service.ExternalServiceClient;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+/**
+ * Pruebas unitarias para OrganizationDirectoryServiceImpl: validación en memoria y escritura solo
+ * de las referencias que cambiaron.
+ */
+public class OrganizationDirectoryServiceImplTest {
+
+    @Mock
+    private ExternalServiceClient externalServiceClient;
+
+    @Mock
+    private ReactiveMongoTemplate mongoTemplate;
+
+    @Mock
+    private JobCoordinationService coordination;
+
+    @Mock
+    private ReactiveBulkOperations bulk;
+
+    private final Organization organization = Organization.builder()
+            .id("org1").organizationName("JASS Uno").status("ACTIVE").build();
+    private final Zone zone = Zone.builder().id("z1").organizationId("org1").zoneName("Zona 1").status("ACTIVE").build();
+    private final Zone inactiveZone = Zone.builder().id("z2").organizationId("org1").status("INACTIVE").build();
+    private final Street street = Street.builder().id("s1").organizationId("org1").zoneId("z1").status("ACTIVE").build();
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        when(mongoTemplate.findAll(Organization.class)).thenReturn(Flux.just(organization));
+        when(mongoTemplate.findAll(Zone.class)).thenReturn(Flux.just(zone, inactiveZone));
+        when(mongoTemplate.findAll(Street.class)).thenReturn(Flux.just(street));
+        when(mongoTemplate.bulkOps(any(BulkOperations.BulkMode.class), any(Class.class))).thenReturn(bulk);
+        when(bulk.execute()).thenReturn(Mono.just(mock(BulkWriteResult.class)));
+    }
+
+    private OrganizationDirectoryServiceImpl directory(boolean strict) {
+        OrganizationDirectoryServiceImpl directory = new OrganizationDirectoryServiceImpl(
+                externalServiceClient, mongoTemplate, coordination, strict, 86400000, 4);
+        directory.reload().block();
+        return directory;
+    }
+
+    @Test
+    void validate_ShouldRejectReferencesFromAnotherOrganizationOrInactive() {
+        OrganizationDirectoryServiceImpl directory = directory(false);
+
+        assertDoesNotThrow(() -> directory.validate("org1", List.of("z1"), "s1"));
+        assertThrows(CustomException.class, () -> directory.validate("org2", List.of("z1"), null));
+        assertThrows(CustomException.class, () -> directory.validate("org1", List.of("z2"), null));
+        assertThrows(CustomException.class, () -> directory.validate("org1", List.of("z3"), "s1"));
+    }
+
+    @Test
+    void validate_ShouldAcceptUnknownIds_UnlessStrict() {
+        assertDoesNotThrow(() -> directory(false).validate("org9", List.of("z9"), "s9"));
+
+        CustomException error = assertThrows(CustomException.class,
+                () -> directory(true).validate("org1", List.of("z9"), null));
+        assertEquals(400, error.getErrorMessage().getErrorCode());
+    }
+
+    @Test
+    void collect_ShouldStoreEmbeddedReferences_AndWriteOnlyChanges() {
+        OrganizationDirectoryServiceImpl directory = directory(false);
+        ExternalOrganization sameOrganization = new ExternalOrganization();
+        sameOrganization.setOrganizationId("org1");
+        sameOrganization.setOrganizationName("JASS Uno");
+        sameOrganization.setStatus("ACTIVE");
+        ExternalZone newZone = new ExternalZone();
+        newZone.setZoneId("z5");
+        newZone.setZoneName("Zona 5");
+        ExternalUser user = new ExternalUser();
+        user.setId("u1");
+        user.setOrganization(sameOrganization);
+        user.setZone(newZone);
+
+        StepVerifier.create(directory.collect(List.of(user)))
+                .verifyComplete();
+
+        assertEquals("org1", directory.zone("z5").orElseThrow().getOrganizationId());
+        assertTrue(directory.organization("org1").isPresent());
+        verify(mongoTemplate, never()).bulkOps(any(BulkOperations.BulkMode.class), eq(Organization.class));
+        verify(mongoTemplate).bulkOps(any(BulkOperations.BulkMode.class), eq(Zone.class));
+        verify(bulk, times(1)).replaceOne(any(Query.class), any(Zone.class), any(FindAndReplaceOptions.class));
+    }
+}
@@ -10,19 +10,29 @@ import org.junit.jupiter.params.provider.ValueSource;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import pe.edu.vallegrande.msdistribution.application.services.OrganizationDirectoryService;
+import pe.edu.vallegrande.msdistribution.application.services.SequenceService;
+import pe.edu.vallegrande.msdistribution.domain.enums.SequenceType;
 import pe.edu.vallegrande.msdistribution.domain.models.DistributionProgram;
+import pe.edu.vallegrande.msdistribution.infrastructure.cache.EntityCache;
 import pe.edu.vallegrande.msdistribution.infrastructure.dto.request.DistributionProgramCreateRequest;
 import pe.edu.vallegrande.msdistribution.infrastructure.repository.DistributionProgramRepository;
+import pe.edu.vallegrande.msdistribution.infrastructure.repository.KeysetPageRepository;
+import pe.edu.vallegrande.msdistribution.infrastructure.repository.StatusTransitionRepository;
+import pe.edu.vallegrande.msdistribution.infrastructure.service.EnrichmentBatchLoader;
 import reactor.core.publisher.Mono;
 import reactor.core.publisher.Flux;
 import reactor.test.StepVerifier;
 
 import java.time.LocalDate;
 import java.time.format.DateTimeFormatter;
+import java.util.function.Supplier;
 import java.util.stream.Stream;
 
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 
 /**
@@ -41,6 +51,27 @@ public class ParametrizedDistributionProgramTest {
     @Mock
     private DistributionProgramRepository programRepository;
 
+    @Mock
+    private SequenceService sequenceService;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    @Mock
+    private KeysetPageRepository pageRepository;
+
+    @Mock
+    private StatusTransitionRepository statusTransitions;
+
+    @Mock
+    private EntityCache entityCache;
+
+    @Mock
+    private EnrichmentBatchLoader enrichmentLoader;
+
+    @Mock
+    private OrganizationDirectoryService directory;
+
     @InjectMocks
     private DistributionProgramServiceImpl distributionProgramService;
 
@@ -83,8 +114,8 @@ public class ParametrizedDistributionProgramTest {
         DistributionProgram savedProgram = createValidProgram();
         savedProgram.setResponsibleUserId("user-" + participantType.toLowerCase());
 
-        // Fix: Mock findTopByOrderByProgramCodeDesc to avoid null pointer
-        when(programRepository.findTopByOrderByProgramCodeDesc()).thenReturn(Mono.empty());
+        // Código generado por la secuencia
+        when(sequenceService.nextCode(eq(SequenceType.PROGRAM), any())).thenReturn(Mono.just("PRG001"));
         
         if (expectedSuccess) {
             when(programRepository.save(any(DistributionProgram.class)))
@@ -125,6 +156,8 @@ public class ParametrizedDistributionProgramTest {
         
         when(programRepository.findById("test-id"))
             .thenReturn(Mono.just(program));
+        when(entityCache.get(any(), eq("test-id"), any()))
+            .thenAnswer(inv -> ((Supplier<Mono<?>>) inv.getArgument(2)).get());
         
         // Act & Assert
         StepVerifier.create(distributionProgramService.getById("test-id"))
@@ -168,8 +201,8 @@ public class ParametrizedDistributionProgramTest {
         savedProgram.setPlannedStartTime(startTime);
         savedProgram.setPlannedEndTime(endTime);
         
-        // Fix: Mock findTopByOrderByProgramCodeDesc to avoid null pointer
-        when(programRepository.findTopByOrderByProgramCodeDesc()).thenReturn(Mono.empty());
+        // Código generado por la secuencia
+        when(sequenceService.nextCode(eq(SequenceType.PROGRAM), any())).thenReturn(Mono.just("PRG001"));
         when(programRepository.save(any(DistributionProgram.class)))
             .thenReturn(Mono.just(savedProgram));
         
@@ -205,8 +238,8 @@ public class ParametrizedDistributionProgramTest {
             .observations("Programa con tarifa tipo: " + fareType)
             .build();
             
-        // Fix: Mock findTopByOrderByProgramCodeDesc to avoid null pointer
-        when(programRepository.findTopByOrderByProgramCodeDesc()).thenReturn(Mono.empty());
+        // Código generado por la secuencia
+        when(sequenceService.nextCode(eq(SequenceType.PROGRAM), any())).thenReturn(Mono.just("PRG001"));
         when(programRepository.save(any(DistributionProgram.class)))
             .thenReturn(Mono.just(createValidProgram()));
         
@@ -240,8 +273,8 @@ public class ParametrizedDistributionProgramTest {
             .observations("Programa para " + dayName)
             .build();
             
-        // Fix: Mock findTopByOrderByProgramCodeDesc to avoid null pointer
-        when(programRepository.findTopByOrderByProgramCodeDesc()).thenReturn(Mono.empty());
+        // Código generado por la secuencia
+        when(sequenceService.nextCode(eq(SequenceType.PROGRAM), any())).thenReturn(Mono.just("PRG001"));
         when(programRepository.save(any(DistributionProgram.class)))
             .thenReturn(Mono.just(createValidProgram()));
         
@@ -262,8 +295,8 @@ public class ParametrizedDistributionProgramTest {
         // Arrange
         DistributionProgramCreateRequest request = createValidRequest();
         
-        // Fix: Mock findTopByOrderByProgramCodeDesc to avoid null pointer
-        when(programRepository.findTopByOrderByProgramCodeDesc()).thenReturn(Mono.empty());
+        // Código generado por la secuencia
+        when(sequenceService.nextCode(eq(SequenceType.PROGRAM), any())).thenReturn(Mono.just("PRG001"));
         when(programRepository.save(any(DistributionProgram.class)))
             .thenReturn(Mono.error(new RuntimeException(errorMessage)));
         
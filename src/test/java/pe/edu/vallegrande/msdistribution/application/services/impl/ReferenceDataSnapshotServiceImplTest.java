@@ -0,0 +1,132 @@
+package pe.edu.vallegrande.msdistribution.application.services.impl;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import pe.edu.vallegrande.msdistribution.domain.enums.Constants;
+import pe.edu.vallegrande.msdistribution.domain.enums.EntityType;
+import pe.edu.vallegrande.msdistribution.domain.events.CacheInvalidationEvent;
+import pe.edu.vallegrande.msdistribution.domain.events.EntityChangedEvent;
+import pe.edu.vallegrande.msdistribution.domain.models.DistributionRoute;
+import pe.edu.vallegrande.msdistribution.domain.models.DistributionSchedule;
+import pe.edu.vallegrande.msdistribution.infrastructure.repository.DistributionRouteRepository;
+import pe.edu.vallegrande.msdistribution.infrastructure.repository.DistributionScheduleRepository;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+import reactor.test.StepVerifier;
+
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Pruebas unitarias para ReferenceDataSnapshotServiceImpl: carga, cambios locales y remotos.
+ */
+public class ReferenceDataSnapshotServiceImplTest {
+
+    @Mock
+    private DistributionRouteRepository routeRepository;
+
+    @Mock
+    private DistributionScheduleRepository scheduleRepository;
+
+    @InjectMocks
+    private ReferenceDataSnapshotServiceImpl snapshot;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+    }
+
+    private DistributionRoute route(String id, String organizationId, String status) {
+        return DistributionRoute.builder().id(id).organizationId(organizationId).status(status).build();
+    }
+
+    private void load(DistributionRoute... routes) {
+        when(routeRepository.findAllByStatus(Constants.ACTIVE.name())).thenReturn(Flux.just(routes));
+        when(scheduleRepository.findAllByStatus(Constants.ACTIVE.name())).thenReturn(Flux.just(
+                DistributionSchedule.builder().id("s1").organizationId("org-1").status(Constants.ACTIVE.name()).build()));
+        StepVerifier.create(snapshot.reload()).verifyComplete();
+    }
+
+    @Test
+    void reload_ShouldGroupActiveDocumentsByOrganization() {
+        assertFalse(snapshot.isLoaded());
+
+        load(route("r1", "org-1", "ACTIVE"), route("r2", "org-2", "ACTIVE"));
+
+        assertTrue(snapshot.isLoaded());
+        StepVerifier.create(snapshot.activeRoutes("org-1")).expectNextMatches(r -> r.getId().equals("r1")).verifyComplete();
+        StepVerifier.create(snapshot.activeRoutes(null)).expectNextCount(2).verifyComplete();
+        StepVerifier.create(snapshot.activeSchedules("org-1")).expectNextCount(1).verifyComplete();
+        StepVerifier.create(snapshot.activeRoutes("org-3")).verifyComplete();
+    }
+
+    @Test
+    void onEntityChanged_ShouldAddMoveAndRemoveRoutes() {
+        load(route("r1", "org-1", "ACTIVE"));
+
+        DistributionRoute created = route("r2", "org-1", "ACTIVE");
+        snapshot.onEntityChanged(EntityChangedEvent.created(EntityType.ROUTE, "r2", "org-1", "ACTIVE", created));
+        StepVerifier.create(snapshot.activeRoutes("org-1")).expectNextCount(2).verifyComplete();
+
+        DistributionRoute moved = route("r1", "org-2", "ACTIVE");
+        snapshot.onEntityChanged(EntityChangedEvent.updated(EntityType.ROUTE, "r1", "org-1", "ACTIVE", "org-2", "ACTIVE", moved));
+        StepVerifier.create(snapshot.activeRoutes("org-2")).expectNext(moved).verifyComplete();
+
+        DistributionRoute deactivated = route("r2", "org-1", "INACTIVE");
+        snapshot.onEntityChanged(EntityChangedEvent.updated(EntityType.ROUTE, "r2", "org-1", "ACTIVE", "org-1", "INACTIVE", deactivated));
+        StepVerifier.create(snapshot.activeRoutes("org-1")).verifyComplete();
+    }
+
+    @Test
+    void reload_ShouldKeepChangesOfEachReload_WhenReloadsOverlap() {
+        Sinks.Many<DistributionRoute> slowLoad = Sinks.many().unicast().onBackpressureBuffer();
+        when(routeRepository.findAllByStatus(Constants.ACTIVE.name()))
+                .thenReturn(slowLoad.asFlux())
+                .thenReturn(Flux.just(route("r1", "org-1", "ACTIVE")));
+        when(scheduleRepository.findAllByStatus(Constants.ACTIVE.name())).thenReturn(Flux.empty());
+        AtomicReference<Throwable> slowError = new AtomicReference<>();
+        snapshot.reload().subscribe(null, slowError::set);
+
+        // la segunda recarga termina antes que la primera
+        StepVerifier.create(snapshot.reload()).verifyComplete();
+        DistributionRoute created = route("r2", "org-1", "ACTIVE");
+        snapshot.onEntityChanged(EntityChangedEvent.created(EntityType.ROUTE, "r2", "org-1", "ACTIVE", created));
+        slowLoad.tryEmitNext(route("r1", "org-1", "ACTIVE"));
+        slowLoad.tryEmitComplete();
+
+        assertNull(slowError.get());
+        StepVerifier.create(snapshot.activeRoutes("org-1")).expectNextCount(2).verifyComplete();
+    }
+
+    @Test
+    void onInvalidation_ShouldRefreshDocumentChangedByAnotherReplica() {
+        load(route("r1", "org-1", "ACTIVE"));
+        when(routeRepository.findById("r1")).thenReturn(Mono.empty());
+
+        snapshot.onInvalidation(CacheInvalidationEvent.entity(EntityType.ROUTE, "r1"));
+
+        StepVerifier.create(snapshot.activeRoutes("org-1")).verifyComplete();
+        verify(scheduleRepository, never()).findById(anyString());
+    }
+
+    @Test
+    void reload_ShouldKeepChangesReceivedWhileLoading() {
+        when(routeRepository.findAllByStatus(Constants.ACTIVE.name())).thenReturn(Flux.defer(() -> {
+            // llega un cambio mientras la consulta de carga está en curso
+            DistributionRoute created = route("r2", "org-1", "ACTIVE");
+            snapshot.onEntityChanged(EntityChangedEvent.created(EntityType.ROUTE, "r2", "org-1", "ACTIVE", created));
+            return Flux.just(route("r1", "org-1", "ACTIVE"));
+        }));
+        when(scheduleRepository.findAllByStatus(Constants.ACTIVE.name())).thenReturn(Flux.empty());
+
+        StepVerifier.create(snapshot.reload()).verifyComplete();
+
+        StepVerifier.create(snapshot.activeRoutes("org-1")).expectNextCount(2).verifyComplete();
+    }
+}
@@ -0,0 +1,180 @@
+package pe.edu.vallegrande.msdistribution.application.services.impl;
+
+import com.mongodb.client.result.UpdateResult;
+import org.bson.Document;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.MethodSource;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.UpdateDefinition;
+import pe.edu.vallegrande.msdistribution.domain.enums.SequenceType;
+import pe.edu.vallegrande.msdistribution.domain.models.Sequence;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+/**
+ * Pruebas unitarias para SequenceServiceImpl.
+ * Se simula ReactiveMongoTemplate para verificar la reserva de bloques en la colección counters.
+ */
+public class SequenceServiceImplTest {
+
+    @Mock
+    private ReactiveMongoTemplate mongoTemplate;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        when(mongoTemplate.upsert(any(Query.class), any(UpdateDefinition.class), eq(Sequence.class)))
+                .thenReturn(Mono.just(UpdateResult.acknowledged(1, 1L, null)));
+    }
+
+    // ============================================================
+    // 🔹 TEST: Tras un código duplicado el contador se reinicializa y se descarta el bloque
+    // ============================================================
+    @Test
+    void reseed_ShouldDropBlock_AndSeedCounterAgain() {
+        SequenceServiceImpl service = new SequenceServiceImpl(mongoTemplate, 10, false);
+        when(mongoTemplate.findOne(any(Query.class), eq(Document.class), eq("route")))
+                .thenReturn(Mono.empty(), Mono.just(new Document("routeCode", "RUT007")));
+        when(mongoTemplate.findAndModify(any(Query.class), any(UpdateDefinition.class),
+                any(FindAndModifyOptions.class), eq(Sequence.class)))
+                .thenReturn(Mono.just(new Sequence("RUT", 10)), Mono.just(new Sequence("RUT", 17)));
+
+        StepVerifier.create(service.nextCode(SequenceType.ROUTE, "org-1"))
+                .expectNext("RUT001")
+                .verifyComplete();
+        // RUT001 fue escrito por otra vía: el índice único rechazó el alta
+        service.reseed(SequenceType.ROUTE, "org-1");
+        StepVerifier.create(service.nextCode(SequenceType.ROUTE, "org-1"))
+                .expectNext("RUT008")
+                .verifyComplete();
+
+        verify(mongoTemplate, times(2)).findOne(any(Query.class), eq(Document.class), eq("route"));
+        verify(mongoTemplate, never()).exists(any(Query.class), anyString());
+    }
+
+    // ============================================================
+    // 🔹 TEST: Un solo findAndModify sirve todo el bloque
+    // ============================================================
+    @Test
+    void nextCode_ShouldServeBlockFromMemory_AfterSingleReservation() {
+        SequenceServiceImpl service = new SequenceServiceImpl(mongoTemplate, 10, false);
+        when(mongoTemplate.findOne(any(Query.class), eq(Document.class), eq("fare")))
+                .thenReturn(Mono.just(new Document("fareCode", "TAR099")));
+        when(mongoTemplate.findAndModify(any(Query.class), any(UpdateDefinition.class),
+                any(FindAndModifyOptions.class), eq(Sequence.class)))
+                .thenReturn(Mono.just(new Sequence("TAR", 109)));
+
+        StepVerifier.create(service.nextCode(SequenceType.FARE, "org-1")
+                        .concatWith(service.nextCode(SequenceType.FARE, "org-1"))
+                        .concatWith(service.nextCode(SequenceType.FARE, "org-1")))
+                .expectNext("TAR100", "TAR101", "TAR102")
+                .verifyComplete();
+
+        verify(mongoTemplate, times(1)).findAndModify(any(Query.class), any(UpdateDefinition.class),
+                any(FindAndModifyOptions.class), eq(Sequence.class));
+        verify(mongoTemplate, times(1)).findOne(any(Query.class), eq(Document.class), anyString());
+    }
+
+    // ============================================================
+    // 🔹 TEST: Al agotar el bloque se reserva uno nuevo
+    // ============================================================
+    @Test
+    void nextCode_ShouldReserveNewBlock_WhenCurrentIsExhausted() {
+        SequenceServiceImpl service = new SequenceServiceImpl(mongoTemplate, 2, false);
+        when(mongoTemplate.findOne(any(Query.class), eq(Document.class), eq("route")))
+                .thenReturn(Mono.empty());
+        when(mongoTemplate.findAndModify(any(Query.class), any(UpdateDefinition.class),
+                any(FindAndModifyOptions.class), eq(Sequence.class)))
+                .thenReturn(Mono.just(new Sequence("RUT", 2)), Mono.just(new Sequence("RUT", 6)));
+
+        StepVerifier.create(service.nextCode(SequenceType.ROUTE, null)
+                        .concatWith(service.nextCode(SequenceType.ROUTE, null))
+                        .concatWith(service.nextCode(SequenceType.ROUTE, null)))
+                // Otro nodo reservó 3-4, por eso este continúa en 5
+                .expectNext("RUT001", "RUT002", "RUT005")
+                .verifyComplete();
+
+        verify(mongoTemplate, times(2)).findAndModify(any(Query.class), any(UpdateDefinition.class),
+                any(FindAndModifyOptions.class), eq(Sequence.class));
+    }
+
+    // ============================================================
+    // 🔹 TEST: Contador por organización
+    // ============================================================
+    @Test
+    void nextCode_ShouldUseOrganizationCounter_WhenPerOrganizationEnabled() {
+        SequenceServiceImpl service = new SequenceServiceImpl(mongoTemplate, 10, true);
+        when(mongoTemplate.findOne(any(Query.class), eq(Document.class), eq("program")))
+                .thenReturn(Mono.empty());
+        when(mongoTemplate.findAndModify(any(Query.class), any(UpdateDefinition.class),
+                any(FindAndModifyOptions.class), eq(Sequence.class)))
+                .thenReturn(Mono.just(new Sequence("PRG:org-1", 10)));
+
+        StepVerifier.create(service.nextCode(SequenceType.PROGRAM, "org-1"))
+                .expectNext("PRG001")
+                .verifyComplete();
+
+        ArgumentCaptor<Query> queryCaptor = ArgumentCaptor.forClass(Query.class);
+        verify(mongoTemplate).findAndModify(queryCaptor.capture(), any(UpdateDefinition.class),
+                any(FindAndModifyOptions.class), eq(Sequence.class));
+        assertEquals("PRG:org-1", queryCaptor.getValue().getQueryObject().get("_id"));
+    }
+
+    // ============================================================
+    // 🔹 TEST: Alta masiva → un rango consecutivo con un solo $inc
+    // ============================================================
+    @Test
+    void nextCodes_ShouldReserveWholeRange_WithSingleIncrement() {
+        SequenceServiceImpl service = new SequenceServiceImpl(mongoTemplate, 10, false);
+        when(mongoTemplate.findOne(any(Query.class), eq(Document.class), eq("schedule")))
+                .thenReturn(Mono.empty());
+        when(mongoTemplate.findAndModify(any(Query.class), any(UpdateDefinition.class),
+                any(FindAndModifyOptions.class), eq(Sequence.class)))
+                .thenReturn(Mono.just(new Sequence("HOR", 42)));
+
+        StepVerifier.create(service.nextCodes(SequenceType.SCHEDULE, "org-1", 3))
+                .expectNext("HOR040", "HOR041", "HOR042")
+                .verifyComplete();
+
+        ArgumentCaptor<UpdateDefinition> updateCaptor = ArgumentCaptor.forClass(UpdateDefinition.class);
+        verify(mongoTemplate, times(1)).findAndModify(any(Query.class), updateCaptor.capture(),
+                any(FindAndModifyOptions.class), eq(Sequence.class));
+        assertEquals(3, updateCaptor.getValue().getUpdateObject().get("$inc", Document.class).get("seq"));
+    }
+
+    // ============================================================
+    // 🔹 TEST PARAMETRIZADO: Códigos previos inválidos → se asume 0
+    // ============================================================
+    @ParameterizedTest
+    @MethodSource("provideInvalidFareCodeScenarios")
+    void parse_ShouldFallbackToZero_WhenLastCodeInvalid(String testName, String invalidFareCode) {
+        assertEquals(0, SequenceType.FARE.parse(invalidFareCode), testName);
+        assertEquals("TAR001", SequenceType.FARE.format(SequenceType.FARE.parse(invalidFareCode) + 1));
+    }
+
+    private static Stream<Arguments> provideInvalidFareCodeScenarios() {
+        return Stream.of(
+            Arguments.of("Código inválido", "BAD_CODE"),
+            Arguments.of("Código null", null),
+            Arguments.of("Número demasiado grande", "TAR9999999999999999999999999"),
+            Arguments.of("Parte numérica vacía", "TAR"),
+            Arguments.of("Parte numérica con letras", "TARABC")
+        );
+    }
+}
@@ -0,0 +1,134 @@
+package pe.edu.vallegrande.msdistribution.application.services.impl;
+
+import com.mongodb.client.result.UpdateResult;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import pe.edu.vallegrande.msdistribution.application.services.JobCoordinationService;
+import pe.edu.vallegrande.msdistribution.application.services.OrganizationDirectoryService;
+import pe.edu.vallegrande.msdistribution.domain.models.DistributionProgram;
+import pe.edu.vallegrande.msdistribution.domain.models.DistributionRoute;
+import pe.edu.vallegrande.msdistribution.domain.models.User;
+import pe.edu.vallegrande.msdistribution.domain.models.UserSyncCursor;
+import pe.edu.vallegrande.msdistribution.infrastructure.client.dto.ExternalOrganization;
+import pe.edu.vallegrande.msdistribution.infrastructure.client.dto.ExternalUser;
+import pe.edu.vallegrande.msdistribution.infrastructure.repository.UserRepository;
+import pe.edu.vallegrande.msdistribution.infrastructure.service.ExternalServiceClient;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyIterable;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+/**
+ * Pruebas unitarias para UserReplicaServiceImpl: solo se escriben los usuarios cambiados y nada
+ * se escribe si ms-users falla.
+ */
+public class UserReplicaServiceImplTest {
+
+    @Mock
+    private ExternalServiceClient externalServiceClient;
+
+    @Mock
+    private UserRepository userRepository;
+
+    @Mock
+    private ReactiveMongoTemplate mongoTemplate;
+
+    @Mock
+    private JobCoordinationService coordination;
+
+    @Mock
+    private OrganizationDirectoryService directory;
+
+    private UserReplicaServiceImpl replicaService;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        replicaService = new UserReplicaServiceImpl(externalServiceClient, userRepository, mongoTemplate,
+                coordination, directory, true, 50, 4);
+        when(mongoTemplate.findDistinct(any(Query.class), eq("responsibleUserId"), eq(DistributionProgram.class), eq(String.class)))
+                .thenReturn(Flux.just("a1", "u2"));
+        when(mongoTemplate.findDistinct(any(Query.class), eq("responsibleUserId"), eq(DistributionRoute.class), eq(String.class)))
+                .thenReturn(Flux.just("u2"));
+        when(mongoTemplate.upsert(any(Query.class), any(Update.class), eq(UserSyncCursor.class)))
+                .thenReturn(Mono.just(UpdateResult.acknowledged(0, 0L, null)));
+        when(userRepository.upsertAll(anyCollection()))
+                .thenAnswer(inv -> Mono.just((long) ((Collection<?>) inv.getArgument(0)).size()));
+        when(userRepository.touch(anyCollection(), any(Instant.class))).thenReturn(Mono.just(0L));
+        when(userRepository.deleteByOrganizationIdAndIdNotInAndSyncedAtNotNull(anyString(), anyCollection()))
+                .thenReturn(Mono.just(0L));
+        when(directory.collect(anyCollection())).thenReturn(Mono.empty());
+    }
+
+    private static ExternalUser user(String id, String updatedAt) {
+        ExternalOrganization organization = new ExternalOrganization();
+        organization.setOrganizationId("org1");
+        ExternalUser user = new ExternalUser();
+        user.setId(id);
+        user.setFirstName("Nombre");
+        user.setLastName(id);
+        user.setRoles(List.of("ADMIN"));
+        user.setUpdatedAt(updatedAt);
+        user.setOrganization(organization);
+        return user;
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void syncOrganization_ShouldUpsertOnlyChangedUsers_AndDeleteTheRest() {
+        when(externalServiceClient.refreshAdmins("org1")).thenReturn(Mono.just(List.of(user("a1", "t1"))));
+        when(externalServiceClient.refreshUser("u2")).thenReturn(Mono.just(user("u2", "t2")));
+        when(userRepository.findAllById(anyIterable()))
+                .thenReturn(Flux.just(User.builder().id("a1").sourceUpdatedAt("t1").build()));
+
+        StepVerifier.create(replicaService.syncOrganization("org1"))
+                .expectNext(1L)
+                .verifyComplete();
+
+        ArgumentCaptor<Collection<User>> upserted = ArgumentCaptor.forClass(Collection.class);
+        verify(userRepository).upsertAll(upserted.capture());
+        User written = upserted.getValue().iterator().next();
+        assertEquals(1, upserted.getValue().size());
+        assertEquals("u2", written.getId());
+        assertEquals("Nombre u2", written.getFullName());
+        assertEquals("ADMIN", written.getRole());
+        assertEquals("org1", written.getOrganizationId());
+        verify(userRepository).touch(eq(List.of("a1")), any(Instant.class));
+        verify(userRepository).deleteByOrganizationIdAndIdNotInAndSyncedAtNotNull("org1", Set.of("a1", "u2"));
+        verify(externalServiceClient, never()).refreshUser("a1");
+        verify(mongoTemplate).upsert(any(Query.class), any(Update.class), eq(UserSyncCursor.class));
+        verify(directory).collect(anyCollection());
+    }
+
+    @Test
+    void syncOrganization_ShouldWriteNothing_WhenUsersServiceFails() {
+        when(externalServiceClient.refreshAdmins("org1")).thenReturn(Mono.just(List.of(user("a1", "t1"))));
+        when(externalServiceClient.refreshUser("u2")).thenReturn(Mono.error(new IllegalStateException("503")));
+
+        StepVerifier.create(replicaService.syncOrganization("org1"))
+                .expectError(IllegalStateException.class)
+                .verify();
+
+        verify(userRepository, never()).upsertAll(anyCollection());
+        verify(userRepository, never()).deleteByOrganizationIdAndIdNotInAndSyncedAtNotNull(anyString(), anyCollection());
+        verify(mongoTemplate, never()).upsert(any(Query.class), any(Update.class), eq(UserSyncCursor.class));
+    }
+}
@@ -0,0 +1,147 @@
+package pe.edu.vallegrande.msdistribution.infrastructure.cache;
+
+import com.mongodb.MongoCommandException;
+import com.mongodb.ServerAddress;
+import com.mongodb.client.model.changestream.ChangeStreamDocument;
+import com.mongodb.client.model.changestream.OperationType;
+import org.bson.BsonDocument;
+import org.bson.BsonInt32;
+import org.bson.BsonObjectId;
+import org.bson.BsonString;
+import org.bson.Document;
+import org.bson.types.ObjectId;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.mongodb.UncategorizedMongoDbException;
+import org.springframework.data.mongodb.core.ChangeStreamEvent;
+import org.springframework.data.mongodb.core.ChangeStreamOptions;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import pe.edu.vallegrande.msdistribution.domain.enums.EntityType;
+import pe.edu.vallegrande.msdistribution.domain.events.CacheInvalidationEvent;
+import pe.edu.vallegrande.msdistribution.domain.models.ChangeStreamCheckpoint;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+/**
+ * Pruebas unitarias para ChangeStreamInvalidationListener: traducción de cambios a eventos,
+ * recuperación ante un resume token caducado y checkpoints.
+ */
+public class ChangeStreamInvalidationListenerTest {
+
+    private static final BsonDocument TOKEN = new BsonDocument("_data", new BsonString("8263A1"));
+
+    @Mock
+    private ReactiveMongoTemplate mongoTemplate;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    private ChangeStreamInvalidationListener listener;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        listener = new ChangeStreamInvalidationListener(mongoTemplate, eventPublisher, true, "replica-1");
+    }
+
+    @SuppressWarnings("unchecked")
+    private ChangeStreamEvent<Document> change(String collection, OperationType operation, String id) {
+        ChangeStreamDocument<Document> raw = mock(ChangeStreamDocument.class);
+        when(raw.getDocumentKey()).thenReturn(new BsonDocument("_id", new BsonString(id)));
+        ChangeStreamEvent<Document> event = mock(ChangeStreamEvent.class);
+        when(event.getRaw()).thenReturn(raw);
+        when(event.getCollectionName()).thenReturn(collection);
+        when(event.getOperationType()).thenReturn(operation);
+        when(event.getResumeToken()).thenReturn(TOKEN);
+        return event;
+    }
+
+    @Test
+    void toInvalidation_ShouldMapOperations() {
+        ObjectId id = new ObjectId();
+
+        CacheInvalidationEvent update = ChangeStreamInvalidationListener.toInvalidation(
+                "route", OperationType.UPDATE, new BsonObjectId(id));
+        assertEquals(EntityType.ROUTE, update.getType());
+        assertEquals(id.toHexString(), update.getId());
+
+        CacheInvalidationEvent drop = ChangeStreamInvalidationListener.toInvalidation("fare", OperationType.DROP, null);
+        assertEquals(EntityType.FARE, drop.getType());
+        assertTrue(drop.isFlush());
+
+        CacheInvalidationEvent dropDatabase = ChangeStreamInvalidationListener.toInvalidation(
+                null, OperationType.DROP_DATABASE, null);
+        assertNull(dropDatabase.getType());
+
+        assertNull(ChangeStreamInvalidationListener.toInvalidation("counters", OperationType.UPDATE, new BsonString("x")));
+    }
+
+    @Test
+    void onChange_ShouldPublishInvalidationAndKeepResumeToken() {
+        listener.onChange(change("program", OperationType.DELETE, "p1"));
+
+        ArgumentCaptor<CacheInvalidationEvent> published = ArgumentCaptor.forClass(CacheInvalidationEvent.class);
+        verify(eventPublisher).publishEvent(published.capture());
+        assertEquals(EntityType.PROGRAM, published.getValue().getType());
+        assertEquals("p1", published.getValue().getId());
+
+        when(mongoTemplate.upsert(any(Query.class), any(Update.class), eq(ChangeStreamCheckpoint.class)))
+                .thenReturn(Mono.empty());
+        StepVerifier.create(listener.saveCheckpoint()).verifyComplete();
+        StepVerifier.create(listener.saveCheckpoint()).verifyComplete(); // mismo token: no se reescribe
+        verify(mongoTemplate, times(1)).upsert(any(Query.class), any(Update.class), eq(ChangeStreamCheckpoint.class));
+    }
+
+    @Test
+    void watch_ShouldFlushCachesAndRestartWithoutToken_WhenResumeTokenExpired() {
+        listener.onChange(change("fare", OperationType.UPDATE, "f1"));
+        reset(eventPublisher);
+        MongoCommandException historyLost = new MongoCommandException(
+                new BsonDocument("ok", new BsonInt32(0))
+                        .append("code", new BsonInt32(286))
+                        .append("errmsg", new BsonString("resume point may no longer be in the oplog")),
+                new ServerAddress());
+        when(mongoTemplate.changeStream(any(ChangeStreamOptions.class), eq(Document.class)))
+                .thenReturn(Flux.error(new UncategorizedMongoDbException("history lost", historyLost)))
+                .thenReturn(Flux.empty());
+
+        StepVerifier.create(listener.watch()).verifyComplete();
+
+        ArgumentCaptor<CacheInvalidationEvent> flush = ArgumentCaptor.forClass(CacheInvalidationEvent.class);
+        verify(eventPublisher).publishEvent(flush.capture());
+        assertNull(flush.getValue().getType());
+        ArgumentCaptor<ChangeStreamOptions> options = ArgumentCaptor.forClass(ChangeStreamOptions.class);
+        verify(mongoTemplate, times(2)).changeStream(options.capture(), eq(Document.class));
+        List<ChangeStreamOptions> calls = options.getAllValues();
+        assertTrue(calls.get(0).getResumeToken().isPresent());
+        assertFalse(calls.get(1).getResumeToken().isPresent());
+    }
+
+    @Test
+    void hasCode_ShouldFindMongoErrorInCauseChain() {
+        MongoCommandException notReplicaSet = new MongoCommandException(
+                new BsonDocument("ok", new BsonInt32(0)).append("code", new BsonInt32(40573)),
+                new ServerAddress());
+
+        assertTrue(ChangeStreamInvalidationListener.hasCode(
+                new UncategorizedMongoDbException("x", notReplicaSet),
+                Set.of(ChangeStreamInvalidationListener.NOT_SUPPORTED_CODE)));
+        assertFalse(ChangeStreamInvalidationListener.hasCode(new IllegalStateException("x"),
+                ChangeStreamInvalidationListener.HISTORY_LOST_CODES));
+    }
+}
@@ -0,0 +1,155 @@
+package pe.edu.vallegrande.msdistribution.infrastructure.cache;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.mongodb.core.convert.MappingMongoConverter;
+import org.springframework.data.mongodb.core.convert.MongoCustomConversions;
+import org.springframework.data.mongodb.core.convert.NoOpDbRefResolver;
+import org.springframework.data.mongodb.core.mapping.MongoMappingContext;
+import pe.edu.vallegrande.msdistribution.domain.enums.EntityType;
+import pe.edu.vallegrande.msdistribution.domain.events.CacheInvalidationEvent;
+import pe.edu.vallegrande.msdistribution.domain.events.EntityChangedEvent;
+import pe.edu.vallegrande.msdistribution.domain.models.DistributionRoute;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.util.Collections;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Pruebas unitarias para EntityCache: read-through, copias, invalidación, LRU y TTL.
+ */
+public class EntityCacheTest {
+
+    private SimpleMeterRegistry registry;
+    private MappingMongoConverter converter;
+    private AtomicInteger loads;
+
+    @BeforeEach
+    void setUp() {
+        registry = new SimpleMeterRegistry();
+        MongoCustomConversions conversions = new MongoCustomConversions(Collections.emptyList());
+        MongoMappingContext mappingContext = new MongoMappingContext();
+        mappingContext.setSimpleTypeHolder(conversions.getSimpleTypeHolder());
+        mappingContext.afterPropertiesSet();
+        converter = new MappingMongoConverter(NoOpDbRefResolver.INSTANCE, mappingContext);
+        converter.setCustomConversions(conversions);
+        converter.afterPropertiesSet();
+        loads = new AtomicInteger();
+    }
+
+    private EntityCache cache(long ttlMillis, int maxSize) {
+        return new EntityCache(converter, registry, true, ttlMillis, maxSize);
+    }
+
+    private Mono<DistributionRoute> load(String id) {
+        return Mono.fromSupplier(() -> {
+            loads.incrementAndGet();
+            return DistributionRoute.builder().id(id).routeName("Ruta " + id).status("ACTIVE").build();
+        });
+    }
+
+    private double requests(String result) {
+        return registry.counter("entity.cache.requests", "type", "route", "result", result).count();
+    }
+
+    @Test
+    void get_ShouldLoadOnceAndServeFromCache() {
+        EntityCache cache = cache(60_000, 10);
+
+        StepVerifier.create(cache.get(EntityType.ROUTE, "r1", () -> load("r1")))
+                .expectNextMatches(route -> "Ruta r1".equals(route.getRouteName()))
+                .verifyComplete();
+        StepVerifier.create(cache.get(EntityType.ROUTE, "r1", () -> load("r1")))
+                .expectNextMatches(route -> "Ruta r1".equals(route.getRouteName()))
+                .verifyComplete();
+
+        assertEquals(1, loads.get());
+        assertEquals(1.0, requests("hit"));
+        assertEquals(1.0, requests("miss"));
+        assertEquals(1.0, registry.get("entity.cache.size").tag("type", "route").gauge().value());
+    }
+
+    @Test
+    void get_ShouldReturnCopies_SoCallerMutationsDoNotLeak() {
+        EntityCache cache = cache(60_000, 10);
+        DistributionRoute first = cache.get(EntityType.ROUTE, "r1", () -> load("r1")).block();
+        first.setStatus("INACTIVE");
+
+        DistributionRoute second = cache.get(EntityType.ROUTE, "r1", () -> load("r1")).block();
+
+        assertEquals("ACTIVE", second.getStatus());
+        assertNotSame(first, second);
+    }
+
+    @Test
+    void onEntityChanged_ShouldInvalidateEntry() {
+        EntityCache cache = cache(60_000, 10);
+        cache.get(EntityType.ROUTE, "r1", () -> load("r1")).block();
+
+        cache.onEntityChanged(EntityChangedEvent.updated(EntityType.ROUTE, "r1", "org", "ACTIVE", "org", "INACTIVE", null));
+        cache.get(EntityType.ROUTE, "r1", () -> load("r1")).block();
+
+        assertEquals(2, loads.get());
+    }
+
+    @Test
+    void onInvalidation_ShouldFlushWholeType_WhenNoId() {
+        EntityCache cache = cache(60_000, 10);
+        cache.get(EntityType.ROUTE, "r1", () -> load("r1")).block();
+        cache.get(EntityType.ROUTE, "r2", () -> load("r2")).block();
+
+        cache.onInvalidation(CacheInvalidationEvent.type(EntityType.ROUTE));
+
+        assertEquals(0, cache.size(EntityType.ROUTE));
+    }
+
+    @Test
+    void get_ShouldNotStoreLoad_WhenInvalidatedWhileLoading() {
+        EntityCache cache = cache(60_000, 10);
+
+        cache.get(EntityType.ROUTE, "r1", () -> load("r1")
+                        .doOnNext(route -> cache.invalidate(EntityType.ROUTE, "r1")))
+                .block();
+
+        assertEquals(0, cache.size(EntityType.ROUTE));
+    }
+
+    @Test
+    void get_ShouldEvictLeastRecentlyUsed_WhenFull() {
+        EntityCache cache = cache(60_000, 2);
+        cache.get(EntityType.ROUTE, "r1", () -> load("r1")).block();
+        cache.get(EntityType.ROUTE, "r2", () -> load("r2")).block();
+        cache.get(EntityType.ROUTE, "r1", () -> load("r1")).block(); // r2 pasa a ser el menos usado
+        cache.get(EntityType.ROUTE, "r3", () -> load("r3")).block();
+
+        cache.get(EntityType.ROUTE, "r1", () -> load("r1")).block();
+        cache.get(EntityType.ROUTE, "r2", () -> load("r2")).block();
+
+        assertEquals(4, loads.get()); // r1, r2, r3 y r2 de nuevo
+        assertEquals(2.0, registry.counter("entity.cache.evictions", "type", "route", "cause", "size").count());
+    }
+
+    @Test
+    void get_ShouldReload_WhenEntryExpired() {
+        EntityCache cache = cache(0, 10);
+        cache.get(EntityType.ROUTE, "r1", () -> load("r1")).block();
+        cache.get(EntityType.ROUTE, "r1", () -> load("r1")).block();
+
+        assertEquals(2, loads.get());
+        assertEquals(1.0, registry.counter("entity.cache.evictions", "type", "route", "cause", "expired").count());
+    }
+
+    @Test
+    void get_ShouldComplete_WhenEntityDoesNotExist() {
+        EntityCache cache = cache(60_000, 10);
+
+        StepVerifier.create(cache.get(EntityType.ROUTE, "missing", Mono::<DistributionRoute>empty))
+                .verifyComplete();
+
+        assertEquals(0, cache.size(EntityType.ROUTE));
+    }
+}
@@ -0,0 +1,130 @@
+package pe.edu.vallegrande.msdistribution.infrastructure.cache;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+import reactor.test.StepVerifier;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Pruebas unitarias para ReactiveCache: TTL, stale-while-revalidate y singleflight.
+ */
+public class ReactiveCacheTest {
+
+    private static final Duration TTL = Duration.ofSeconds(10);
+    private static final Duration STALE = Duration.ofSeconds(20);
+    private static final Duration FALLBACK = Duration.ofMinutes(10);
+
+    private final AtomicLong now = new AtomicLong();
+    private final AtomicInteger loads = new AtomicInteger();
+    private SimpleMeterRegistry registry;
+    private ReactiveCache<String, String> cache;
+
+    @BeforeEach
+    void setUp() {
+        registry = new SimpleMeterRegistry();
+        cache = new ReactiveCache<>("users", TTL, STALE, FALLBACK, 100, registry, now::get);
+    }
+
+    private Mono<String> load(String key) {
+        return Mono.fromSupplier(() -> key + "-v" + loads.incrementAndGet());
+    }
+
+    private void advance(Duration duration) {
+        now.addAndGet(duration.toNanos());
+    }
+
+    @Test
+    void get_ShouldServeFromMemory_WithinTtl() {
+        StepVerifier.create(cache.get("u1", this::load)).expectNext("u1-v1").verifyComplete();
+        advance(Duration.ofSeconds(5));
+        StepVerifier.create(cache.get("u1", this::load)).expectNext("u1-v1").verifyComplete();
+
+        assertEquals(1, loads.get());
+        assertEquals(1.0, registry.counter("external.cache.requests", "cache", "users", "result", "hit").count());
+    }
+
+    @Test
+    void get_ShouldReturnStaleAndRefreshInBackground_WithinStaleWindow() {
+        cache.get("u1", this::load).block();
+        advance(Duration.ofSeconds(15));
+
+        StepVerifier.create(cache.get("u1", this::load)).expectNext("u1-v1").verifyComplete();
+        assertEquals(2, loads.get()); // refresco en segundo plano
+        StepVerifier.create(cache.get("u1", this::load)).expectNext("u1-v2").verifyComplete();
+    }
+
+    @Test
+    void get_ShouldWaitForLoad_WhenOlderThanStaleWindow() {
+        cache.get("u1", this::load).block();
+        advance(Duration.ofSeconds(31));
+
+        StepVerifier.create(cache.get("u1", this::load)).expectNext("u1-v2").verifyComplete();
+    }
+
+    @Test
+    void get_ShouldShareOneInFlightLoad_ForConcurrentCallers() {
+        Sinks.One<String> response = Sinks.one();
+        AtomicInteger calls = new AtomicInteger();
+
+        Mono<String> first = cache.get("u1", key -> {
+            calls.incrementAndGet();
+            return response.asMono();
+        });
+        Mono<String> second = cache.get("u1", key -> {
+            calls.incrementAndGet();
+            return response.asMono();
+        });
+
+        StepVerifier.create(Mono.zip(first, second))
+                .then(() -> response.tryEmitValue("user"))
+                .expectNextMatches(pair -> pair.getT1().equals("user") && pair.getT2().equals("user"))
+                .verifyComplete();
+        assertEquals(1, calls.get());
+        assertEquals(1.0, registry.counter("external.cache.requests", "cache", "users", "result", "coalesced").count());
+    }
+
+    @Test
+    void get_ShouldCacheEmptyButNotErrors() {
+        StepVerifier.create(cache.get("missing", key -> {
+            loads.incrementAndGet();
+            return Mono.<String>empty();
+        })).verifyComplete();
+        StepVerifier.create(cache.get("missing", this::load)).verifyComplete();
+        assertEquals(1, loads.get());
+
+        StepVerifier.create(cache.get("broken", key -> Mono.<String>error(new IllegalStateException("down"))))
+                .expectError(IllegalStateException.class)
+                .verify();
+        StepVerifier.create(cache.get("broken", this::load)).expectNext("broken-v2").verifyComplete();
+    }
+
+    @Test
+    void put_ShouldPrepopulateEntry() {
+        cache.put("u9", "from-admin-list");
+
+        StepVerifier.create(cache.get("u9", this::load)).expectNext("from-admin-list").verifyComplete();
+        assertEquals(0, loads.get());
+    }
+
+    @Test
+    void get_ShouldServeLastKnownGood_WhenReloadFailsWithinFallbackWindow() {
+        cache.get("u1", this::load).block();
+        Function<String, Mono<String>> failing = key -> Mono.error(new IllegalStateException("down"));
+
+        advance(Duration.ofMinutes(5));
+        StepVerifier.create(cache.get("u1", failing)).expectNext("u1-v1").verifyComplete();
+
+        advance(Duration.ofMinutes(10));
+        StepVerifier.create(cache.get("u1", failing)).expectError(IllegalStateException.class).verify();
+        assertEquals(1.0, registry.counter("external.cache.requests", "cache", "users", "result", "fallback").count());
+    }
+}
@@ -0,0 +1,204 @@
+package pe.edu.vallegrande.msdistribution.infrastructure.config;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.bson.Document;
+import org.springframework.boot.actuate.health.Status;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.convert.MappingMongoConverter;
+import org.springframework.data.mongodb.core.convert.MongoCustomConversions;
+import org.springframework.data.mongodb.core.convert.NoOpDbRefResolver;
+import org.springframework.data.mongodb.core.mapping.MongoMappingContext;
+import org.springframework.data.mongodb.core.index.ReactiveIndexOperations;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.index.IndexField;
+import org.springframework.data.mongodb.core.index.IndexInfo;
+import pe.edu.vallegrande.msdistribution.domain.models.User;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+/**
+ * Pruebas unitarias para MongoIndexManager (comparación de índices declarados vs existentes).
+ */
+public class MongoIndexManagerTest {
+
+    @Mock
+    private ReactiveMongoTemplate mongoTemplate;
+
+    @Mock
+    private ReactiveIndexOperations indexOperations;
+
+    private MongoIndexManager indexManager;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        when(mongoTemplate.indexOps(anyString())).thenReturn(indexOperations);
+        indexManager = new MongoIndexManager(mongoTemplate, true, false);
+    }
+
+    private static IndexInfo index(String name, boolean unique, String... fields) {
+        List<IndexField> indexFields = Arrays.stream(fields)
+                .map(field -> IndexField.create(field, Sort.Direction.ASC))
+                .collect(Collectors.toList());
+        return new IndexInfo(indexFields, name, unique, false, null);
+    }
+
+    private static List<IndexInfo> declaredFor(String collection) {
+        return MongoIndexManager.declaredIndexes(false).stream()
+                .filter(spec -> spec.getCollection().equals(collection))
+                .map(spec -> IndexInfo.indexInfoOf(new Document(spec.toIndex().getIndexOptions())
+                        .append("key", spec.toIndex().getIndexKeys())))
+                .collect(Collectors.toList());
+    }
+
+    private static MongoIndexManager.IndexSpec userCodeIndex() {
+        return MongoIndexManager.declaredIndexes(false).stream()
+                .filter(spec -> spec.getName().equals("uk_user_org_code"))
+                .findFirst()
+                .orElseThrow();
+    }
+
+    @Test
+    void verify_ShouldBeReady_WhenAllDeclaredIndexesExist() {
+        for (String collection : List.of("program", "route", "schedule", "fare", "user")) {
+            ReactiveIndexOperations ops = mock(ReactiveIndexOperations.class);
+            when(ops.getIndexInfo()).thenReturn(Flux.fromIterable(declaredFor(collection)));
+            when(mongoTemplate.indexOps(collection)).thenReturn(ops);
+        }
+
+        StepVerifier.create(indexManager.verify())
+                .assertNext(report -> {
+                    assertTrue(report.ready());
+                    assertFalse(report.drift());
+                })
+                .verifyComplete();
+    }
+
+    @Test
+    void healthIndicator_ShouldReadTheReportKeptByBootstrap_WithoutQueryingMongo() {
+        indexManager = new MongoIndexManager(mongoTemplate, false, false);
+        MongoIndexHealthIndicator indicator = new MongoIndexHealthIndicator(indexManager);
+
+        // antes de la verificación del arranque
+        StepVerifier.create(indicator.health())
+                .assertNext(health -> assertEquals(Status.OUT_OF_SERVICE, health.getStatus()))
+                .verifyComplete();
+
+        for (String collection : List.of("program", "route", "schedule", "fare", "user")) {
+            ReactiveIndexOperations ops = mock(ReactiveIndexOperations.class);
+            when(ops.getIndexInfo()).thenReturn(Flux.fromIterable(declaredFor(collection)));
+            when(mongoTemplate.indexOps(collection)).thenReturn(ops);
+        }
+        indexManager.bootstrap();
+        clearInvocations(mongoTemplate);
+
+        StepVerifier.create(indicator.health())
+                .assertNext(health -> assertEquals(Status.UP, health.getStatus()))
+                .verifyComplete();
+        StepVerifier.create(indicator.health())
+                .assertNext(health -> assertEquals(Status.UP, health.getStatus()))
+                .verifyComplete();
+        verify(mongoTemplate, never()).indexOps(anyString());
+    }
+
+    @Test
+    void verify_ShouldNotBeReady_WhenCriticalIndexMissing() {
+        when(indexOperations.getIndexInfo()).thenReturn(Flux.just(index("_id_", false, "_id")));
+
+        StepVerifier.create(indexManager.verify())
+                .assertNext(report -> {
+                    assertFalse(report.ready());
+                    assertTrue(report.getMissingCritical().contains("fare.idx_fare_org_status_effective"));
+                    assertFalse(report.getMissingCritical().contains("program.uk_program_code"));
+                    assertFalse(report.getMissingCritical().contains("user.idx_user_status"));
+                    assertTrue(report.getUnexpected().isEmpty());
+                })
+                .verifyComplete();
+    }
+
+    @Test
+    void userCodeIndex_ShouldLeaveUsersWithoutCodeOutOfTheUniqueKey() {
+        MongoIndexManager.IndexSpec spec = userCodeIndex();
+        MongoMappingContext mappingContext = new MongoMappingContext();
+        mappingContext.setSimpleTypeHolder(MongoCustomConversions.create(config -> { }).getSimpleTypeHolder());
+        MappingMongoConverter converter = new MappingMongoConverter(NoOpDbRefResolver.INSTANCE, mappingContext);
+        Document first = new Document();
+        Document second = new Document();
+        converter.write(User.builder().id("u1").organizationId("org-1").fullName("Ana").build(), first);
+        converter.write(User.builder().id("u2").organizationId("org-1").fullName("Luis").build(), second);
+
+        // el filtro parcial exige userCode de tipo string: ninguno de los dos entra en el índice
+        assertEquals(new Document("userCode", new Document("$type", "string")),
+                spec.toIndex().getIndexOptions().get("partialFilterExpression"));
+        assertFalse(first.containsKey("userCode"));
+        assertFalse(second.containsKey("userCode"));
+        // el mismo código en otra organización es otra clave
+        assertEquals(List.of("organizationId", "userCode"), spec.getFields());
+        assertTrue(spec.isUnique());
+    }
+
+    @Test
+    void compare_ShouldReportUserCodeIndexWithoutPartialFilterAsMismatched() {
+        List<MongoIndexManager.IndexSpec> userSpecs = List.of(userCodeIndex());
+
+        MongoIndexManager.IndexReport report = MongoIndexManager.compare("user", userSpecs,
+                List.of(index("uk_user_org_code", true, "organizationId", "userCode")));
+
+        assertEquals(List.of("user.uk_user_org_code"), report.getMismatched());
+    }
+
+    @Test
+    void verify_ShouldStayReady_WhenDuplicateCodesBlockTheUniqueCodeIndexes() {
+        for (String collection : List.of("program", "route", "schedule", "fare", "user")) {
+            List<IndexInfo> existing = declaredFor(collection).stream()
+                    .filter(info -> !info.getName().equals("uk_" + collection + "_code"))
+                    .collect(Collectors.toList());
+            ReactiveIndexOperations ops = mock(ReactiveIndexOperations.class);
+            when(ops.getIndexInfo()).thenReturn(Flux.fromIterable(existing));
+            when(mongoTemplate.indexOps(collection)).thenReturn(ops);
+        }
+
+        StepVerifier.create(indexManager.verify())
+                .assertNext(report -> {
+                    assertTrue(report.ready());
+                    assertTrue(report.drift());
+                    assertTrue(report.getMissing().contains("fare.uk_fare_code"));
+                })
+                .verifyComplete();
+    }
+
+    @Test
+    void compare_ShouldReportMismatchedAndUnexpectedIndexes() {
+        List<MongoIndexManager.IndexSpec> fareSpecs = MongoIndexManager.declaredIndexes(false).stream()
+                .filter(spec -> spec.getCollection().equals("fare"))
+                .collect(Collectors.toList());
+        List<IndexInfo> existing = List.of(
+                index("_id_", false, "_id"),
+                index("uk_fare_code", false, "fareCode"),                        // no es único
+                index("manual_org_status_date", false, "organizationId", "status", "effectiveDate"),
+                index("idx_fare_status_effective", false, "status", "effectiveDate"),
+                index("idx_fare_created", false, "createdAt", "_id"),
+                index("idx_fare_org_created", false, "organizationId", "createdAt", "_id"),
+                index("legacy_fare_name", false, "fareName"));
+
+        MongoIndexManager.IndexReport report = MongoIndexManager.compare("fare", fareSpecs, existing);
+
+        assertEquals(List.of("fare.uk_fare_code"), report.getMismatched());
+        assertTrue(report.getMissingCritical().isEmpty()); // el código único no bloquea el readiness
+        assertEquals(List.of("fare.legacy_fare_name"), report.getUnexpected());
+        assertTrue(report.getMissing().isEmpty()); // el índice creado a mano con otro nombre se acepta
+    }
+}
@@ -0,0 +1,103 @@
+package pe.edu.vallegrande.msdistribution.infrastructure.config;
+
+import io.netty.handler.timeout.ReadTimeoutException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.client.reactive.ReactorClientHttpConnector;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.netty.DisposableServer;
+import reactor.netty.http.server.HttpServer;
+import reactor.netty.internal.shaded.reactor.pool.PoolAcquirePendingLimitException;
+import reactor.netty.resources.ConnectionProvider;
+import reactor.test.StepVerifier;
+
+import java.time.Duration;
+import java.util.ArrayList;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Pruebas de los clientes HTTP contra un servidor local lento: timeout de respuesta y límite de
+ * peticiones en espera del pool.
+ */
+public class WebClientConfigTest {
+
+    private DisposableServer server;
+    private ConnectionProvider connectionProvider;
+
+    @BeforeEach
+    void setUp() {
+        server = HttpServer.create()
+                .port(0)
+                .route(routes -> routes.get("/slow", (request, response) ->
+                        response.sendString(Mono.delay(Duration.ofMillis(300)).map(tick -> "ok"))))
+                .bindNow();
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (connectionProvider != null) {
+            connectionProvider.disposeLater().block();
+        }
+        server.disposeNow();
+    }
+
+    private WebClient client(HttpClientProperties.Profile profile) {
+        String baseUrl = "http://127.0.0.1:" + server.port();
+        connectionProvider = WebClientConfig.connectionProvider("test", profile);
+        return WebClient.builder()
+                .baseUrl(baseUrl)
+                .clientConnector(new ReactorClientHttpConnector(
+                        WebClientConfig.httpClient(connectionProvider, profile, baseUrl)))
+                .build();
+    }
+
+    private static Mono<String> slow(WebClient client) {
+        return client.get().uri("/slow").retrieve().bodyToMono(String.class);
+    }
+
+    @Test
+    void responseTimeout_ShouldFailSlowCalls() {
+        HttpClientProperties.Profile profile = new HttpClientProperties.Profile();
+        profile.setResponseTimeoutMs(100);
+
+        StepVerifier.create(slow(client(profile)))
+                .expectErrorMatches(error -> rootCause(error) instanceof ReadTimeoutException)
+                .verify(Duration.ofMillis(700));
+    }
+
+    @Test
+    void pendingAcquireLimit_ShouldRejectInsteadOfQueueing() {
+        HttpClientProperties.Profile profile = new HttpClientProperties.Profile();
+        profile.setMaxConnections(1);
+        profile.setPendingAcquireMaxCount(1);
+        profile.setPendingAcquireTimeoutMs(10000);
+        WebClient client = client(profile);
+
+        StepVerifier.create(Flux.range(0, 3)
+                        .flatMap(i -> slow(client)
+                                .map(body -> "ok")
+                                .onErrorResume(error -> Mono.just(rootCause(error) instanceof PoolAcquirePendingLimitException
+                                        ? "rejected"
+                                        : "error: " + error))))
+                .recordWith(ArrayList::new)
+                .expectNextCount(3)
+                .consumeRecordedWith(results -> {
+                    assertTrue(results.contains("rejected"), results.toString());
+                    assertEquals(2, results.stream().filter("ok"::equals).count(), results.toString());
+                })
+                .verifyComplete();
+    }
+
+    private static Throwable rootCause(Throwable error) {
+        Throwable current = error;
+        while (current.getCause() != null && current.getCause() != current) {
+            current = current.getCause();
+        }
+        return current;
+    }
+}
@@ -0,0 +1,87 @@
+package pe.edu.vallegrande.msdistribution.infrastructure.repository;
+
+import com.mongodb.MongoBulkWriteException;
+import com.mongodb.ServerAddress;
+import com.mongodb.bulk.BulkWriteError;
+import com.mongodb.bulk.BulkWriteResult;
+import org.bson.BsonDocument;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.ReactiveBulkOperations;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.convert.MappingMongoConverter;
+import org.springframework.data.mongodb.core.convert.MongoCustomConversions;
+import org.springframework.data.mongodb.core.convert.NoOpDbRefResolver;
+import org.springframework.data.mongodb.core.mapping.MongoMappingContext;
+import pe.edu.vallegrande.msdistribution.domain.models.DistributionProgram;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.*;
+
+/**
+ * Verifica que el insertMany no ordenado asigne los ids antes de escribir y traduzca los
+ * documentos rechazados a errores por posición.
+ */
+public class BulkInsertRepositoryTest {
+
+    private ReactiveBulkOperations bulk;
+    private BulkInsertRepository repository;
+
+    @BeforeEach
+    void setUp() {
+        ReactiveMongoTemplate mongoTemplate = mock(ReactiveMongoTemplate.class);
+        MongoMappingContext mappingContext = new MongoMappingContext();
+        mappingContext.setSimpleTypeHolder(MongoCustomConversions.create(config -> { }).getSimpleTypeHolder());
+        when(mongoTemplate.getConverter())
+                .thenReturn(new MappingMongoConverter(NoOpDbRefResolver.INSTANCE, mappingContext));
+        bulk = mock(ReactiveBulkOperations.class);
+        when(mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, DistributionProgram.class)).thenReturn(bulk);
+        when(bulk.insert(anyList())).thenReturn(bulk);
+        repository = new BulkInsertRepository(mongoTemplate);
+    }
+
+    private static List<DistributionProgram> programs() {
+        return List.of(
+                DistributionProgram.builder().programCode("PRG001").build(),
+                DistributionProgram.builder().programCode("PRG002").build(),
+                DistributionProgram.builder().programCode("PRG003").build());
+    }
+
+    @Test
+    void insert_ShouldAssignIds_AndReportNothing_WhenAllInserted() {
+        List<DistributionProgram> programs = programs();
+        when(bulk.execute()).thenReturn(Mono.just(BulkWriteResult.unacknowledged()));
+
+        StepVerifier.create(repository.insert(DistributionProgram.class, programs))
+                .assertNext(rejected -> assertTrue(rejected.isEmpty()))
+                .verifyComplete();
+        programs.forEach(program -> assertNotNull(program.getId()));
+        verify(bulk, times(1)).execute();
+    }
+
+    @Test
+    void insert_ShouldReportRejectedDocumentsByPosition() {
+        MongoBulkWriteException failure = new MongoBulkWriteException(BulkWriteResult.unacknowledged(), List.of(
+                new BulkWriteError(11000, "E11000 duplicate key programCode", new BsonDocument(), 1),
+                new BulkWriteError(121, "Document failed validation", new BsonDocument(), 2)),
+                null, new ServerAddress());
+        // Spring traduce el fallo con algún 11000 a DuplicateKeyException, con el original como causa
+        when(bulk.execute()).thenReturn(Mono.error(new DuplicateKeyException("Bulk write failed", failure)));
+
+        StepVerifier.create(repository.insert(DistributionProgram.class, programs()))
+                .assertNext(rejected -> {
+                    assertEquals(2, rejected.size());
+                    assertEquals(409, rejected.get(1).getErrorMessage().getErrorCode());
+                    assertEquals(500, rejected.get(2).getErrorMessage().getErrorCode());
+                    assertFalse(rejected.containsKey(0));
+                })
+                .verifyComplete();
+    }
+}
@@ -0,0 +1,47 @@
+package pe.edu.vallegrande.msdistribution.infrastructure.repository;
+
+import org.bson.Document;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import pe.edu.vallegrande.msdistribution.domain.models.Fare;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.util.Date;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+/**
+ * Verifica la forma de la consulta de tarifa vigente: filtro por organización y estado,
+ * orden por effectiveDate descendente y límite 1.
+ */
+public class FareRepositoryCustomImplTest {
+
+    @Test
+    void findFareInForceAt_ShouldQuerySingleOrganizationWithLimitOne() {
+        ReactiveMongoTemplate mongoTemplate = mock(ReactiveMongoTemplate.class);
+        Fare fare = Fare.builder().id("f1").build();
+        when(mongoTemplate.findOne(any(Query.class), eq(Fare.class))).thenReturn(Mono.just(fare));
+        Date now = new Date();
+
+        StepVerifier.create(new FareRepositoryCustomImpl(mongoTemplate).findFareInForceAt("org-1", now))
+                .expectNext(fare)
+                .verifyComplete();
+
+        ArgumentCaptor<Query> captor = ArgumentCaptor.forClass(Query.class);
+        verify(mongoTemplate).findOne(captor.capture(), eq(Fare.class));
+        Query query = captor.getValue();
+        Document filter = query.getQueryObject();
+        assertEquals("org-1", filter.get("organizationId"));
+        assertEquals(List.of("ACTIVE", "INACTIVE"), ((Document) filter.get("status")).get("$in"));
+        assertEquals(now, ((Document) filter.get("effectiveDate")).get("$lte"));
+        assertEquals(-1, query.getSortObject().get("effectiveDate"));
+        assertEquals(1, query.getLimit());
+    }
+}
@@ -0,0 +1,138 @@
+package pe.edu.vallegrande.msdistribution.infrastructure.repository;
+
+import org.bson.Document;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.convert.MongoConverter;
+import org.springframework.data.mongodb.core.query.Query;
+import pe.edu.vallegrande.msdistribution.domain.enums.EntityType;
+import pe.edu.vallegrande.msdistribution.domain.models.DistributionRoute;
+import pe.edu.vallegrande.msdistribution.infrastructure.dto.request.CursorPageRequest;
+import pe.edu.vallegrande.msdistribution.infrastructure.exception.CustomException;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.time.Instant;
+import java.util.Date;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+/**
+ * Pruebas unitarias para KeysetPageRepository: límites, cursores y detección de página siguiente.
+ */
+public class KeysetPageRepositoryTest {
+
+    @Mock
+    private ReactiveMongoTemplate mongoTemplate;
+
+    @Mock
+    private MongoConverter converter;
+
+    private KeysetPageRepository pageRepository;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        pageRepository = new KeysetPageRepository(mongoTemplate, 2, 5);
+        when(mongoTemplate.getConverter()).thenReturn(converter);
+        when(converter.read(eq(DistributionRoute.class), any(Document.class)))
+                .thenAnswer(inv -> DistributionRoute.builder()
+                        .id(((Document) inv.getArgument(1)).getString("_id")).build());
+        when(mongoTemplate.estimatedCount("route")).thenReturn(Mono.just(3L));
+    }
+
+    private Document route(String id, Instant createdAt) {
+        return new Document("_id", id).append("createdAt", Date.from(createdAt));
+    }
+
+    @Test
+    void findPage_ShouldReturnCursor_WhenMoreRowsThanLimit() {
+        Instant now = Instant.parse("2024-05-01T10:00:00Z");
+        when(mongoTemplate.find(any(Query.class), eq(Document.class), eq("route")))
+                .thenReturn(Flux.just(route("r3", now), route("r2", now.minusSeconds(60)),
+                        route("r1", now.minusSeconds(120))));
+
+        StepVerifier.create(pageRepository.findPage(EntityType.ROUTE, DistributionRoute.class,
+                        CursorPageRequest.builder().build()))
+                .assertNext(page -> {
+                    assertEquals(2, page.getItems().size());
+                    assertEquals("r2", page.getItems().get(1).getId());
+                    assertTrue(page.isHasMore());
+                    assertNotNull(page.getNextCursor());
+                    assertEquals(3L, page.getEstimatedTotal());
+                    assertEquals("desc", page.getDirection());
+                })
+                .verifyComplete();
+
+        ArgumentCaptor<Query> query = ArgumentCaptor.forClass(Query.class);
+        verify(mongoTemplate).find(query.capture(), eq(Document.class), eq("route"));
+        assertEquals(3, query.getValue().getLimit()); // limit + 1
+    }
+
+    @Test
+    void findPage_ShouldNotReturnCursor_WhenLastPage() {
+        when(mongoTemplate.find(any(Query.class), eq(Document.class), eq("route")))
+                .thenReturn(Flux.just(route("r1", Instant.now())));
+
+        StepVerifier.create(pageRepository.findPage(EntityType.ROUTE, DistributionRoute.class,
+                        CursorPageRequest.builder().limit(50).build()))
+                .assertNext(page -> {
+                    assertFalse(page.isHasMore());
+                    assertNull(page.getNextCursor());
+                    assertEquals(5, page.getLimit()); // recortado a max-limit
+                })
+                .verifyComplete();
+    }
+
+    @Test
+    void findPage_ShouldReject_WhenProgramDateSortWithoutOrganization() {
+        StepVerifier.create(pageRepository.findPage(EntityType.PROGRAM, DistributionRoute.class,
+                        CursorPageRequest.builder().sort(KeysetPageRepository.SORT_PROGRAM_DATE).build()))
+                .expectError(CustomException.class)
+                .verify();
+
+        verify(mongoTemplate, never()).find(any(Query.class), eq(Document.class), any(String.class));
+    }
+
+    @Test
+    void cursor_ShouldRoundTrip() {
+        Date createdAt = Date.from(Instant.parse("2024-05-01T10:00:00Z"));
+        String token = KeysetPageRepository.encodeCursor("createdAt",
+                new Document("_id", "r2").append("createdAt", createdAt), "createdAt");
+
+        Document cursor = KeysetPageRepository.decodeCursor(token, "createdAt");
+
+        assertEquals("r2", cursor.get("i"));
+        assertEquals(createdAt, cursor.get("v"));
+    }
+
+    @Test
+    void decodeCursor_ShouldThrowBadRequest_WhenCursorIsInvalidOrForOtherSort() {
+        CustomException invalid = assertThrows(CustomException.class,
+                () -> KeysetPageRepository.decodeCursor("%%%", "createdAt"));
+        assertEquals(400, invalid.getErrorMessage().getErrorCode());
+
+        String token = KeysetPageRepository.encodeCursor("id", new Document("_id", "r2"), "_id");
+        assertThrows(CustomException.class, () -> KeysetPageRepository.decodeCursor(token, "createdAt"));
+    }
+
+    @Test
+    void afterCursor_ShouldSeekPastLastValueAndId() {
+        Document cursor = new Document("v", 10).append("i", "r2");
+
+        Document criteria = KeysetPageRepository.afterCursor(cursor, "createdAt", Sort.Direction.ASC)
+                .getCriteriaObject();
+
+        assertTrue(criteria.containsKey("$or"));
+        assertTrue(criteria.toJson().contains("\"$gt\": 10"));
+    }
+}
@@ -0,0 +1,88 @@
+package pe.edu.vallegrande.msdistribution.infrastructure.repository;
+
+import org.bson.Document;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.convert.MongoConverter;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import pe.edu.vallegrande.msdistribution.domain.enums.EntityType;
+import pe.edu.vallegrande.msdistribution.domain.models.Fare;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+/**
+ * Verifica que el cambio de estado sea un solo findAndModify condicionado y que solo se lea el
+ * documento cuando la condición no se cumple.
+ */
+public class StatusTransitionRepositoryTest {
+
+    private ReactiveMongoTemplate mongoTemplate;
+    private StatusTransitionRepository repository;
+
+    @BeforeEach
+    void setUp() {
+        mongoTemplate = mock(ReactiveMongoTemplate.class);
+        MongoConverter converter = mock(MongoConverter.class);
+        when(mongoTemplate.getConverter()).thenReturn(converter);
+        when(converter.read(eq(Fare.class), any(Document.class))).thenAnswer(inv -> {
+            Document document = inv.getArgument(1);
+            return Fare.builder().id(document.getString("_id")).status(document.getString("status")).build();
+        });
+        repository = new StatusTransitionRepository(mongoTemplate);
+    }
+
+    @Test
+    void transition_ShouldApplyConditionalUpdate_AndReturnNewStatus() {
+        when(mongoTemplate.findAndModify(any(Query.class), any(Update.class), any(FindAndModifyOptions.class),
+                eq(Document.class), eq("fare")))
+                .thenReturn(Mono.just(new Document("_id", "f1").append("status", "INACTIVE")));
+
+        StepVerifier.create(repository.transition(EntityType.FARE, Fare.class, "f1", "ACTIVE"))
+                .assertNext(transition -> {
+                    assertTrue(transition.isChanged());
+                    assertEquals("INACTIVE", transition.getPreviousStatus());
+                    assertEquals("ACTIVE", transition.getDocument().getStatus());
+                })
+                .verifyComplete();
+
+        ArgumentCaptor<Query> query = ArgumentCaptor.forClass(Query.class);
+        ArgumentCaptor<Update> update = ArgumentCaptor.forClass(Update.class);
+        verify(mongoTemplate).findAndModify(query.capture(), update.capture(), any(FindAndModifyOptions.class),
+                eq(Document.class), eq("fare"));
+        assertEquals("f1", query.getValue().getQueryObject().get("_id"));
+        assertEquals(new Document("$ne", "ACTIVE"), query.getValue().getQueryObject().get("status"));
+        Document set = (Document) update.getValue().getUpdateObject().get("$set");
+        assertEquals("ACTIVE", set.get("status"));
+        assertNotNull(set.get("updatedAt"));
+        assertEquals(new Document("version", 1), update.getValue().getUpdateObject().get("$inc"));
+        verify(mongoTemplate, never()).findOne(any(Query.class), eq(Document.class), anyString());
+    }
+
+    @Test
+    void transition_ShouldReportUnchanged_WhenAlreadyInStatus_AndEmpty_WhenMissing() {
+        when(mongoTemplate.findAndModify(any(Query.class), any(Update.class), any(FindAndModifyOptions.class),
+                eq(Document.class), eq("fare")))
+                .thenReturn(Mono.empty());
+        when(mongoTemplate.findOne(any(Query.class), eq(Document.class), eq("fare")))
+                .thenReturn(Mono.just(new Document("_id", "f1").append("status", "ACTIVE")))
+                .thenReturn(Mono.empty());
+
+        StepVerifier.create(repository.transition(EntityType.FARE, Fare.class, "f1", "ACTIVE"))
+                .assertNext(transition -> {
+                    assertFalse(transition.isChanged());
+                    assertEquals("ACTIVE", transition.getDocument().getStatus());
+                })
+                .verifyComplete();
+        StepVerifier.create(repository.transition(EntityType.FARE, Fare.class, "missing", "ACTIVE"))
+                .verifyComplete();
+    }
+}
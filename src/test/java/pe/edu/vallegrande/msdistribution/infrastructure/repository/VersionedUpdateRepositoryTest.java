@@ -0,0 +1,104 @@
+package pe.edu.vallegrande.msdistribution.infrastructure.repository;
+
+import org.bson.Document;
+import org.bson.conversions.Bson;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.convert.MongoConverter;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import pe.edu.vallegrande.msdistribution.domain.enums.EntityType;
+import pe.edu.vallegrande.msdistribution.domain.models.Fare;
+import pe.edu.vallegrande.msdistribution.infrastructure.exception.CustomException;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+/**
+ * Verifica que la actualización sea un solo $set condicionado por versión y que un If-Match
+ * obsoleto responda 412 sin escribir.
+ */
+public class VersionedUpdateRepositoryTest {
+
+    private static final List<String> FIELDS = List.of("fareName");
+
+    private ReactiveMongoTemplate mongoTemplate;
+    private VersionedUpdateRepository repository;
+
+    @BeforeEach
+    void setUp() {
+        mongoTemplate = mock(ReactiveMongoTemplate.class);
+        MongoConverter converter = mock(MongoConverter.class);
+        when(mongoTemplate.getConverter()).thenReturn(converter);
+        doAnswer(inv -> {
+            Fare fare = inv.getArgument(0);
+            ((Document) inv.getArgument(1)).put("fareName", fare.getFareName());
+            return null;
+        }).when(converter).write(any(), any(Bson.class));
+        when(converter.read(eq(Fare.class), any(Document.class))).thenAnswer(inv -> {
+            Document document = inv.getArgument(1);
+            Number version = (Number) document.get("version");
+            return Fare.builder().id(document.getString("_id")).fareName(document.getString("fareName"))
+                    .version(version != null ? version.longValue() : null).build();
+        });
+        repository = new VersionedUpdateRepository(mongoTemplate);
+    }
+
+    @Test
+    void update_ShouldSetOnlyListedFields_AndIncrementVersion() {
+        when(mongoTemplate.findAndModify(any(Query.class), any(Update.class), any(FindAndModifyOptions.class),
+                eq(Document.class), eq("fare")))
+                .thenReturn(Mono.just(new Document("_id", "f1").append("fareName", "Antes")));
+
+        StepVerifier.create(repository.update(EntityType.FARE, Fare.class, "f1", 0L,
+                        Fare.builder().fareName("Después").build(), FIELDS))
+                .assertNext(change -> {
+                    assertEquals("Antes", change.getPrevious().getFareName());
+                    assertEquals("Después", change.getCurrent().getFareName());
+                    assertEquals(1L, change.getCurrent().getVersion());
+                })
+                .verifyComplete();
+
+        ArgumentCaptor<Query> query = ArgumentCaptor.forClass(Query.class);
+        ArgumentCaptor<Update> update = ArgumentCaptor.forClass(Update.class);
+        verify(mongoTemplate).findAndModify(query.capture(), update.capture(), any(FindAndModifyOptions.class),
+                eq(Document.class), eq("fare"));
+        // sin campo version el documento cuenta como versión 0
+        assertEquals(new Document("$in", Arrays.asList(0L, null)), query.getValue().getQueryObject().get("version"));
+        Document set = (Document) update.getValue().getUpdateObject().get("$set");
+        assertEquals("Después", set.get("fareName"));
+        assertNotNull(set.get("updatedAt"));
+        assertEquals(2, set.size());
+        assertEquals(new Document("version", 1), update.getValue().getUpdateObject().get("$inc"));
+    }
+
+    @Test
+    void update_ShouldFailWith412_WhenVersionChanged_AndCompleteEmpty_WhenMissing() {
+        when(mongoTemplate.findAndModify(any(Query.class), any(Update.class), any(FindAndModifyOptions.class),
+                eq(Document.class), eq("fare")))
+                .thenReturn(Mono.empty());
+        when(mongoTemplate.exists(any(Query.class), eq("fare")))
+                .thenReturn(Mono.just(true))
+                .thenReturn(Mono.just(false));
+        Fare changes = Fare.builder().fareName("Después").build();
+
+        StepVerifier.create(repository.update(EntityType.FARE, Fare.class, "f1", 4L, changes, FIELDS))
+                .expectErrorSatisfies(err -> {
+                    assertTrue(err instanceof CustomException);
+                    assertEquals(412, ((CustomException) err).getErrorMessage().getErrorCode());
+                })
+                .verify();
+        StepVerifier.create(repository.update(EntityType.FARE, Fare.class, "missing", 4L, changes, FIELDS))
+                .verifyComplete();
+    }
+}
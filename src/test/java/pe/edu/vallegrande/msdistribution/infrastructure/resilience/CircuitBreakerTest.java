@@ -0,0 +1,128 @@
+package pe.edu.vallegrande.msdistribution.infrastructure.resilience;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+import reactor.test.StepVerifier;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Pruebas unitarias para CircuitBreaker y Bulkhead.
+ */
+public class CircuitBreakerTest {
+
+    private final AtomicLong now = new AtomicLong();
+    private final AtomicInteger calls = new AtomicInteger();
+    private SimpleMeterRegistry registry;
+    private CircuitBreaker breaker;
+
+    @BeforeEach
+    void setUp() {
+        registry = new SimpleMeterRegistry();
+        breaker = new CircuitBreaker("ms-users", 4, 4, 50, Duration.ofSeconds(10), 2, registry, now::get);
+    }
+
+    private Mono<String> ok() {
+        return Mono.fromSupplier(() -> {
+            calls.incrementAndGet();
+            return "ok";
+        });
+    }
+
+    private Mono<String> failure() {
+        return Mono.defer(() -> {
+            calls.incrementAndGet();
+            return Mono.error(new IllegalStateException("connection refused"));
+        });
+    }
+
+    private void run(Mono<String> call) {
+        breaker.execute(call).onErrorResume(e -> Mono.empty()).block();
+    }
+
+    private void openCircuit() {
+        run(ok());
+        run(ok());
+        run(failure());
+        run(failure());
+    }
+
+    @Test
+    void execute_ShouldOpen_WhenFailureRateReachesThreshold() {
+        openCircuit();
+
+        assertEquals(CircuitBreaker.State.OPEN, breaker.getState());
+        StepVerifier.create(breaker.execute(ok()))
+                .expectError(DownstreamUnavailableException.class)
+                .verify();
+        assertEquals(4, calls.get());
+        assertEquals(1.0, registry.counter("circuitbreaker.transitions",
+                "name", "ms-users", "from", "CLOSED", "to", "OPEN").count());
+    }
+
+    @Test
+    void execute_ShouldStayClosed_BelowMinimumCalls() {
+        run(failure());
+        run(failure());
+        run(failure());
+
+        assertEquals(CircuitBreaker.State.CLOSED, breaker.getState());
+    }
+
+    @Test
+    void execute_ShouldNotCountClientErrorsAsFailures() {
+        for (int i = 0; i < 4; i++) {
+            run(Mono.error(WebClientResponseException.create(HttpStatus.BAD_REQUEST.value(), "Bad Request", null, null, null)));
+        }
+
+        assertEquals(CircuitBreaker.State.CLOSED, breaker.getState());
+    }
+
+    @Test
+    void execute_ShouldClose_AfterSuccessfulProbesInHalfOpen() {
+        openCircuit();
+        now.addAndGet(Duration.ofSeconds(11).toNanos());
+
+        StepVerifier.create(breaker.execute(ok())).expectNext("ok").verifyComplete();
+        assertEquals(CircuitBreaker.State.HALF_OPEN, breaker.getState());
+        StepVerifier.create(breaker.execute(ok())).expectNext("ok").verifyComplete();
+
+        assertEquals(CircuitBreaker.State.CLOSED, breaker.getState());
+    }
+
+    @Test
+    void execute_ShouldReopen_WhenProbeFails() {
+        openCircuit();
+        now.addAndGet(Duration.ofSeconds(11).toNanos());
+
+        run(failure());
+
+        assertEquals(CircuitBreaker.State.OPEN, breaker.getState());
+    }
+
+    @Test
+    void bulkhead_ShouldRejectBeyondMaxConcurrentCalls_AndReleaseOnCompletion() {
+        Bulkhead bulkhead = new Bulkhead("ms-users", 1, registry);
+        Sinks.One<String> pending = Sinks.one();
+
+        StepVerifier.create(bulkhead.execute(pending.asMono()))
+                .then(() -> StepVerifier.create(bulkhead.execute(ok()))
+                        .expectError(DownstreamUnavailableException.class)
+                        .verify())
+                .then(() -> pending.tryEmitValue("done"))
+                .expectNext("done")
+                .verifyComplete();
+
+        StepVerifier.create(bulkhead.execute(ok())).expectNext("ok").verifyComplete();
+        assertEquals(0, bulkhead.activeCalls());
+    }
+}
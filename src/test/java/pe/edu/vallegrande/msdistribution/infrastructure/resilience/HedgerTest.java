@@ -0,0 +1,151 @@
+package pe.edu.vallegrande.msdistribution.infrastructure.resilience;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.netty.DisposableServer;
+import reactor.netty.http.server.HttpServer;
+import reactor.test.StepVerifier;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Pruebas de Hedger contra un servidor local que demora la primera respuesta: respaldo ganador,
+ * umbral adaptativo y límite de tasa.
+ */
+public class HedgerTest {
+
+    private DisposableServer server;
+    private WebClient client;
+    private final AtomicInteger received = new AtomicInteger();
+    private SimpleMeterRegistry registry;
+
+    @BeforeEach
+    void setUp() {
+        registry = new SimpleMeterRegistry();
+        // Solo la primera petición es lenta
+        server = HttpServer.create()
+                .port(0)
+                .route(routes -> routes.get("/users/{id}", (request, response) -> {
+                    Duration latency = received.incrementAndGet() == 1 ? Duration.ofSeconds(3) : Duration.ZERO;
+                    return response.sendString(Mono.delay(latency).map(tick -> request.param("id")));
+                }))
+                .bindNow();
+        client = WebClient.create("http://127.0.0.1:" + server.port());
+        // Calienta el cliente para que la primera petición llegue antes que el respaldo
+        received.set(1);
+        user("warm-up").block();
+        received.set(0);
+    }
+
+    @AfterEach
+    void tearDown() {
+        server.disposeNow();
+    }
+
+    private Hedger hedger(Duration initialDelay, double maxRate) {
+        return new Hedger("test", 95, initialDelay, Duration.ofMillis(1), maxRate, 100, registry);
+    }
+
+    private Mono<String> user(String id) {
+        return client.get().uri("/users/{id}", id)
+                .retrieve()
+                .bodyToMono(String.class);
+    }
+
+    private double count(String result) {
+        return registry.counter("hedge.requests", "name", "test", "result", result).count();
+    }
+
+    @Test
+    void execute_ShouldReturnHedgedResponse_WhenPrimaryIsSlow() {
+        Hedger hedger = hedger(Duration.ofMillis(100), 0.05);
+
+        StepVerifier.create(hedger.execute(user("u1")))
+                .expectNext("u1")
+                .expectComplete()
+                .verify(Duration.ofSeconds(1));
+
+        assertEquals(2, received.get());
+        assertEquals(1.0, count("sent"));
+        assertEquals(1.0, count("won"));
+    }
+
+    @Test
+    void execute_ShouldNotHedge_WhenResponseArrivesWithinThreshold() {
+        received.set(1);
+        Hedger hedger = hedger(Duration.ofMillis(500), 0.05);
+
+        StepVerifier.create(hedger.execute(user("u1")))
+                .expectNext("u1")
+                .verifyComplete();
+
+        assertEquals(2, received.get());
+        assertEquals(0.0, count("sent"));
+    }
+
+    @Test
+    void execute_ShouldCapHedgeRate() {
+        Hedger hedger = hedger(Duration.ofMillis(10), 0);
+        Mono<String> slow = Mono.delay(Duration.ofMillis(200)).map(tick -> "ok");
+
+        StepVerifier.create(Flux.range(0, 12).flatMap(i -> hedger.execute(slow)))
+                .expectNextCount(12)
+                .verifyComplete();
+
+        // Sin fichas nuevas (max-rate 0) solo se gasta la reserva inicial
+        assertEquals(10.0, count("sent"));
+        assertEquals(2.0, count("throttled"));
+    }
+
+    @Test
+    void threshold_ShouldFollowConfiguredPercentile() {
+        Hedger hedger = hedger(Duration.ofMillis(100), 0.05);
+        for (int millis = 1; millis <= 100; millis++) {
+            hedger.record(Duration.ofMillis(millis).toNanos());
+        }
+
+        assertEquals(Duration.ofMillis(95), hedger.threshold());
+    }
+
+    @Test
+    void threshold_ShouldMeasureHedgedResponsesFromTheOriginalRequest() {
+        Hedger hedger = hedger(Duration.ofMillis(20), 1);
+        AtomicInteger attempts = new AtomicInteger();
+        // La original tarda 200 ms y el respaldo responde al instante: gana siempre el respaldo
+        Mono<String> request = Mono.defer(() -> attempts.incrementAndGet() % 2 == 1
+                ? Mono.delay(Duration.ofMillis(200)).map(tick -> "primary")
+                : Mono.just("hedge"));
+
+        StepVerifier.create(Flux.range(0, 16).concatMap(i -> hedger.execute(request)))
+                .expectNextCount(16)
+                .verifyComplete();
+
+        // Medido desde el envío del respaldo el umbral caería al mínimo de 1 ms
+        assertEquals(16.0, count("won"));
+        assertTrue(hedger.threshold().compareTo(Duration.ofMillis(20)) >= 0);
+    }
+
+    @Test
+    void execute_ShouldIgnoreHedgeErrors() {
+        Hedger hedger = hedger(Duration.ofMillis(10), 1);
+        AtomicInteger attempts = new AtomicInteger();
+        Mono<String> request = Mono.defer(() -> attempts.incrementAndGet() == 1
+                ? Mono.delay(Duration.ofMillis(100)).map(tick -> "primary")
+                : Mono.<String>error(new IllegalStateException("hedge failed")));
+
+        StepVerifier.create(hedger.execute(request))
+                .expectNext("primary")
+                .verifyComplete();
+
+        assertEquals(0.0, count("won"));
+    }
+}
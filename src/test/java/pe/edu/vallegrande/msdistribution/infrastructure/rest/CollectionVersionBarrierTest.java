@@ -0,0 +1,94 @@
+package pe.edu.vallegrande.msdistribution.infrastructure.rest;
+
+import com.mongodb.client.result.UpdateResult;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.UpdateDefinition;
+import org.springframework.http.HttpStatus;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
+import pe.edu.vallegrande.msdistribution.application.services.impl.CollectionVersionServiceImpl;
+import pe.edu.vallegrande.msdistribution.domain.enums.EntityType;
+import pe.edu.vallegrande.msdistribution.domain.events.EntityChangedEvent;
+import pe.edu.vallegrande.msdistribution.domain.models.CollectionVersion;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+import reactor.test.StepVerifier;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+/**
+ * Escritura seguida de un GET condicional con el ETag anterior: la respuesta de la escritura
+ * no sale hasta que el contador de la colección avanzó, así el GET ya no puede recibir 304.
+ */
+public class CollectionVersionBarrierTest {
+
+    private final AtomicLong storedVersion = new AtomicLong(7);
+    private final Sinks.Empty<Void> incrementInFlight = Sinks.empty();
+
+    private CollectionVersionServiceImpl versions;
+    private ConditionalResponses conditional;
+    private CollectionVersionBarrier barrier;
+
+    @BeforeEach
+    void setUp() {
+        ReactiveMongoTemplate mongoTemplate = mock(ReactiveMongoTemplate.class);
+        when(mongoTemplate.findById("route", CollectionVersion.class)).thenAnswer(inv -> Mono.fromSupplier(() ->
+                CollectionVersion.builder().id("route").version(storedVersion.get()).since(Instant.EPOCH).build()));
+        when(mongoTemplate.upsert(any(Query.class), any(UpdateDefinition.class), eq(CollectionVersion.class)))
+                .thenReturn(incrementInFlight.asMono()
+                        .then(Mono.fromSupplier(() -> {
+                            storedVersion.incrementAndGet();
+                            return UpdateResult.acknowledged(1, 1L, null);
+                        })));
+        versions = new CollectionVersionServiceImpl(mongoTemplate);
+        conditional = new ConditionalResponses(versions);
+        barrier = new CollectionVersionBarrier(versions);
+    }
+
+    private HttpStatus conditionalGet(String eTag) {
+        MockServerWebExchange exchange = MockServerWebExchange.from(MockServerHttpRequest.get("/admin/route")
+                .ifNoneMatch(eTag));
+        return (HttpStatus) conditional.collection(exchange, EntityType.ROUTE, () -> Mono.just("rutas"))
+                .block()
+                .getStatusCode();
+    }
+
+    @Test
+    void write_ShouldHoldResponseUntilVersionMoves_SoTheNextConditionalGetIsNot304() {
+        String eTagBeforeWrite = ETags.of(versions.current(EntityType.ROUTE).block());
+        assertEquals(HttpStatus.NOT_MODIFIED, conditionalGet(eTagBeforeWrite));
+
+        MockServerWebExchange post = MockServerWebExchange.from(MockServerHttpRequest.post("/admin/route"));
+        Mono<Void> write = barrier.filter(post, exchange -> {
+            versions.onEntityChanged(EntityChangedEvent.created(EntityType.ROUTE, "r1", "org-1", "ACTIVE", null));
+            return exchange.getResponse().setComplete();
+        });
+
+        StepVerifier.create(write)
+                .expectSubscription()
+                .expectNoEvent(Duration.ofMillis(100))
+                .then(incrementInFlight::tryEmitEmpty)
+                .verifyComplete();
+        assertTrue(post.getResponse().isCommitted());
+        assertEquals(HttpStatus.OK, conditionalGet(eTagBeforeWrite));
+    }
+
+    @Test
+    void read_ShouldNotWaitForVersions() {
+        versions.onEntityChanged(EntityChangedEvent.created(EntityType.ROUTE, "r1", "org-1", "ACTIVE", null));
+        MockServerWebExchange get = MockServerWebExchange.from(MockServerHttpRequest.get("/admin/route"));
+
+        StepVerifier.create(barrier.filter(get, exchange -> exchange.getResponse().setComplete()))
+                .verifyComplete();
+    }
+}
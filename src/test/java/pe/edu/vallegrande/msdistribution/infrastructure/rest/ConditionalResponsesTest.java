@@ -0,0 +1,87 @@
+package pe.edu.vallegrande.msdistribution.infrastructure.rest;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
+import pe.edu.vallegrande.msdistribution.application.services.CollectionVersionService;
+import pe.edu.vallegrande.msdistribution.domain.enums.EntityType;
+import pe.edu.vallegrande.msdistribution.domain.models.CollectionVersion;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.time.Instant;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Verifica los 304 de ConditionalResponses: en los listados el dato no se consulta si el contador
+ * de la colección coincide con el ETag del cliente.
+ */
+public class ConditionalResponsesTest {
+
+    private static final Instant UPDATED_AT = Instant.parse("2025-11-01T10:00:00Z");
+
+    private final AtomicInteger queries = new AtomicInteger();
+    private ConditionalResponses conditional;
+    private String collectionETag;
+
+    @BeforeEach
+    void setUp() {
+        CollectionVersionService versions = mock(CollectionVersionService.class);
+        CollectionVersion version = CollectionVersion.builder()
+                .id("route").version(7).since(Instant.EPOCH).updatedAt(UPDATED_AT).build();
+        when(versions.current(EntityType.ROUTE)).thenReturn(Mono.just(version));
+        collectionETag = ETags.of(version);
+        conditional = new ConditionalResponses(versions);
+    }
+
+    private Mono<String> query() {
+        return Mono.fromSupplier(() -> "rutas-" + queries.incrementAndGet());
+    }
+
+    @Test
+    void collection_ShouldReturn304WithoutQuerying_WhenETagMatches() {
+        MockServerWebExchange exchange = MockServerWebExchange.from(MockServerHttpRequest.get("/admin/route")
+                .ifNoneMatch(collectionETag));
+
+        StepVerifier.create(conditional.collection(exchange, EntityType.ROUTE, this::query))
+                .assertNext(response -> {
+                    assertEquals(HttpStatus.NOT_MODIFIED, response.getStatusCode());
+                    assertNull(response.getBody());
+                })
+                .verifyComplete();
+        assertEquals(0, queries.get());
+    }
+
+    @Test
+    void collection_ShouldReturnBodyAndValidators_WhenClientIsStale() {
+        MockServerWebExchange exchange = MockServerWebExchange.from(MockServerHttpRequest.get("/admin/route")
+                .ifNoneMatch("W/\"route-0-6\""));
+
+        StepVerifier.create(conditional.collection(exchange, EntityType.ROUTE, this::query))
+                .assertNext(response -> {
+                    assertEquals(HttpStatus.OK, response.getStatusCode());
+                    assertEquals("rutas-1", response.getBody());
+                    assertEquals(collectionETag, response.getHeaders().getETag());
+                    assertEquals(UPDATED_AT.toEpochMilli(), response.getHeaders().getLastModified());
+                })
+                .verifyComplete();
+    }
+
+    @Test
+    void entity_ShouldHonourIfModifiedSince_AndPreferIfNoneMatch() {
+        MockServerWebExchange unchanged = MockServerWebExchange.from(MockServerHttpRequest.get("/admin/route/r1")
+                .ifModifiedSince(UPDATED_AT.toEpochMilli()));
+        assertEquals(HttpStatus.NOT_MODIFIED, conditional.entity(unchanged, 3L, UPDATED_AT, "ruta").getStatusCode());
+
+        // el ETag del cliente no coincide: se ignora If-Modified-Since y se responde completo
+        MockServerWebExchange stale = MockServerWebExchange.from(MockServerHttpRequest.get("/admin/route/r1")
+                .ifNoneMatch("\"2\"")
+                .ifModifiedSince(Instant.now().toEpochMilli()));
+        assertEquals(HttpStatus.OK, conditional.entity(stale, 3L, UPDATED_AT, "ruta").getStatusCode());
+    }
+}
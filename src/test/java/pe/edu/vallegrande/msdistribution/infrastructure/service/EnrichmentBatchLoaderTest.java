@@ -0,0 +1,275 @@
+package pe.edu.vallegrande.msdistribution.infrastructure.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import pe.edu.vallegrande.msdistribution.application.services.OrganizationDirectoryService;
+import pe.edu.vallegrande.msdistribution.domain.models.DistributionProgram;
+import pe.edu.vallegrande.msdistribution.domain.models.DistributionSchedule;
+import pe.edu.vallegrande.msdistribution.domain.models.Organization;
+import pe.edu.vallegrande.msdistribution.domain.models.User;
+import pe.edu.vallegrande.msdistribution.domain.models.Zone;
+import pe.edu.vallegrande.msdistribution.infrastructure.client.dto.ExternalOrganization;
+import pe.edu.vallegrande.msdistribution.infrastructure.client.dto.ExternalUser;
+import pe.edu.vallegrande.msdistribution.infrastructure.client.dto.ExternalZone;
+import pe.edu.vallegrande.msdistribution.infrastructure.repository.DistributionRouteRepository;
+import pe.edu.vallegrande.msdistribution.infrastructure.repository.DistributionScheduleRepository;
+import pe.edu.vallegrande.msdistribution.infrastructure.repository.UserRepository;
+import pe.edu.vallegrande.msdistribution.infrastructure.resilience.DownstreamUnavailableException;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyIterable;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+/**
+ * Pruebas unitarias para EnrichmentBatchLoader: deduplicación, orden, referencias embebidas,
+ * réplica local de usuarios, directorio de organizaciones y presupuesto de latencia.
+ */
+public class EnrichmentBatchLoaderTest {
+
+    @Mock
+    private ExternalServiceClient externalServiceClient;
+
+    @Mock
+    private DistributionScheduleRepository scheduleRepository;
+
+    @Mock
+    private DistributionRouteRepository routeRepository;
+
+    @Mock
+    private UserRepository userRepository;
+
+    @Mock
+    private OrganizationDirectoryService directory;
+
+    private SimpleMeterRegistry registry;
+    private EnrichmentBatchLoader loader;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        registry = new SimpleMeterRegistry();
+        loader = loader(3, 4, 1000);
+        when(externalServiceClient.findUserById(anyString())).thenAnswer(inv -> Mono.just(user(inv.getArgument(0), null)));
+        when(externalServiceClient.findOrganizationById(anyString())).thenAnswer(inv -> Mono.just(organization(inv.getArgument(0))));
+        when(externalServiceClient.findZoneById(anyString())).thenAnswer(inv -> Mono.just(zone(inv.getArgument(0))));
+        when(externalServiceClient.findStreetById(anyString())).thenReturn(Mono.empty());
+        when(scheduleRepository.findAllById(anyIterable())).thenAnswer(inv -> {
+            Iterable<String> ids = inv.getArgument(0);
+            return Flux.fromIterable(ids).map(id -> DistributionSchedule.builder().id(id).scheduleCode("HOR-" + id).build());
+        });
+        when(routeRepository.findAllById(anyIterable())).thenReturn(Flux.empty());
+        when(userRepository.findAllById(anyIterable())).thenReturn(Flux.empty());
+    }
+
+    private EnrichmentBatchLoader loader(int batchSize, int concurrency, long budgetMillis) {
+        return new EnrichmentBatchLoader(externalServiceClient, scheduleRepository, routeRepository, userRepository,
+                directory, registry, true, 60000, false, batchSize, 10, concurrency, budgetMillis);
+    }
+
+    private static DistributionProgram program(String id, String responsibleUserId, String organizationId) {
+        return DistributionProgram.builder().id(id).responsibleUserId(responsibleUserId).organizationId(organizationId).build();
+    }
+
+    private static EnrichmentBatchLoader.Keys keys(DistributionProgram program) {
+        return EnrichmentBatchLoader.Keys.builder()
+                .userId(program.getResponsibleUserId())
+                .organizationId(program.getOrganizationId())
+                .scheduleId(program.getScheduleId())
+                .routeId(program.getRouteId())
+                .zoneId(program.getZoneId())
+                .streetId(program.getStreetId())
+                .build();
+    }
+
+    private static ExternalUser user(String id, ExternalOrganization organization) {
+        ExternalUser user = new ExternalUser();
+        user.setId(id);
+        user.setOrganization(organization);
+        return user;
+    }
+
+    private static ExternalOrganization organization(String id) {
+        ExternalOrganization organization = new ExternalOrganization();
+        organization.setOrganizationId(id);
+        return organization;
+    }
+
+    private static ExternalZone zone(String id) {
+        ExternalZone zone = new ExternalZone();
+        zone.setZoneId(id);
+        return zone;
+    }
+
+    private Flux<String> enrich(Flux<DistributionProgram> programs) {
+        return loader.enrich(programs, EnrichmentBatchLoaderTest::keys,
+                (program, resolved) -> program.getId() + ":"
+                        + (resolved.user() != null ? resolved.user().getId() : "-") + ":"
+                        + (resolved.organization() != null ? resolved.organization().getOrganizationId() : "-")
+                        + (resolved.degraded() ? ":degraded" : ""));
+    }
+
+    @Test
+    void enrich_ShouldFetchEachIdOnce_AndKeepOrder() {
+        Flux<DistributionProgram> programs = Flux.just(
+                program("p1", "u1", "o1"),
+                program("p2", "u2", "o1"),
+                program("p3", "u1", "o2"),
+                program("p4", "u2", "o1"),
+                program("p5", null, null));
+
+        StepVerifier.create(enrich(programs))
+                .expectNext("p1:u1:o1", "p2:u2:o1", "p3:u1:o2", "p4:u2:o1", "p5:-:-")
+                .verifyComplete();
+
+        verify(externalServiceClient, times(1)).findUserById("u1");
+        verify(externalServiceClient, times(1)).findUserById("u2");
+        verify(externalServiceClient, times(1)).findOrganizationById("o1");
+        verify(externalServiceClient, times(1)).findOrganizationById("o2");
+    }
+
+    @Test
+    void enrich_ShouldUseReferencesEmbeddedInUser() {
+        ExternalUser user = user("u1", organization("o1"));
+        user.setZone(zone("z1"));
+        when(externalServiceClient.findUserById("u1")).thenReturn(Mono.just(user));
+        DistributionProgram program = program("p1", "u1", "o1");
+        program.setZoneId("z1");
+
+        StepVerifier.create(enrich(Flux.just(program)))
+                .expectNext("p1:u1:o1")
+                .verifyComplete();
+
+        verify(externalServiceClient, never()).findOrganizationById(anyString());
+        verify(externalServiceClient, never()).findZoneById(anyString());
+    }
+
+    @Test
+    void enrich_ShouldReadFreshUsersFromReplica_AndFetchOnlyMisses() {
+        User fresh = User.builder().id("u1").organizationId("o1").zoneId("z1").syncedAt(Instant.now()).build();
+        User expired = User.builder().id("u2").organizationId("o1").syncedAt(Instant.now().minusSeconds(3600)).build();
+        when(userRepository.findAllById(anyIterable())).thenReturn(Flux.just(fresh, expired));
+
+        StepVerifier.create(loader.enrich(Flux.just(program("p1", "u1", null), program("p2", "u2", null)),
+                        EnrichmentBatchLoaderTest::keys,
+                        (program, resolved) -> resolved.user().getId() + ":"
+                                + (resolved.user().getOrganization() != null ? resolved.user().getOrganization().getOrganizationId() : "-") + ":"
+                                + (resolved.user().getZone() != null ? resolved.user().getZone().getZoneId() : "-")))
+                .expectNext("u1:o1:z1", "u2:-:-")
+                .verifyComplete();
+
+        verify(externalServiceClient, never()).findUserById("u1");
+        verify(externalServiceClient, times(1)).findUserById("u2");
+        verify(externalServiceClient, times(1)).findOrganizationById("o1");
+        verify(externalServiceClient, times(1)).findZoneById("z1");
+    }
+
+    @Test
+    void enrich_ShouldResolveNamesFromDirectory_WithoutRemoteCalls() {
+        when(directory.isLoaded()).thenReturn(true);
+        when(directory.organization("o1")).thenReturn(Optional.of(Organization.builder().id("o1").organizationName("JASS").build()));
+        when(directory.zone("z1")).thenReturn(Optional.of(Zone.builder().id("z1").zoneName("Zona 1").build()));
+        DistributionProgram known = program("p1", null, "o1");
+        known.setZoneId("z1");
+        DistributionProgram unknown = program("p2", null, "o9");
+
+        StepVerifier.create(loader.enrich(Flux.just(known, unknown), EnrichmentBatchLoaderTest::keys,
+                        (program, resolved) -> (resolved.organization() != null ? resolved.organization().getOrganizationName() : "-")
+                                + ":" + (resolved.zone() != null ? resolved.zone().getZoneName() : "-")
+                                + (resolved.degraded() ? ":degraded" : "")))
+                .expectNext("JASS:Zona 1", "-:-")
+                .verifyComplete();
+
+        verify(externalServiceClient, never()).findOrganizationById(anyString());
+        verify(externalServiceClient, never()).findZoneById(anyString());
+    }
+
+    @Test
+    void enrich_ShouldLoadSchedulesAndRoutesInOneQueryPerBatch() {
+        DistributionProgram first = program("p1", null, null);
+        first.setScheduleId("s1");
+        first.setRouteId("r1");
+        DistributionProgram second = program("p2", null, null);
+        second.setScheduleId("s1");
+        second.setRouteId("r1");
+
+        StepVerifier.create(loader.enrich(Flux.just(first, second), EnrichmentBatchLoaderTest::keys,
+                        (program, resolved) -> resolved.schedule().getScheduleCode() + ":" + (resolved.route() == null)))
+                .expectNext("HOR-s1:true", "HOR-s1:true")
+                .verifyComplete();
+
+        verify(scheduleRepository, times(1)).findAllById(anyIterable());
+        verify(routeRepository, times(1)).findAllById(anyIterable());
+    }
+
+    @Test
+    void enrich_ShouldNotFlagMissingReferencesAsDegraded() {
+        when(externalServiceClient.findUserById("gone")).thenReturn(Mono.empty());
+
+        StepVerifier.create(enrich(Flux.just(program("p1", "gone", "o1"))))
+                .expectNext("p1:-:o1")
+                .verifyComplete();
+    }
+
+    @Test
+    void enrich_ShouldFlagFailedLookupsAsDegraded_AndRetryThemInLaterBatches() {
+        loader = loader(1, 4, 1000);
+        when(externalServiceClient.findOrganizationById("o1"))
+                .thenReturn(Mono.error(new DownstreamUnavailableException("ms-users",
+                        DownstreamUnavailableException.Reason.CIRCUIT_OPEN)))
+                .thenAnswer(inv -> Mono.just(organization("o1")));
+
+        StepVerifier.create(enrich(Flux.just(program("p1", "u1", "o1"), program("p2", "u2", "o1"))))
+                .expectNext("p1:u1:-:degraded", "p2:u2:o1")
+                .verifyComplete();
+
+        verify(externalServiceClient, times(2)).findOrganizationById("o1");
+        assertEquals(1.0, registry.counter("enrichment.degraded").count());
+    }
+
+    @Test
+    void enrich_ShouldReturnPartialResults_WhenBudgetIsExceeded() {
+        loader = loader(3, 4, 100);
+        when(externalServiceClient.findOrganizationById("slow"))
+                .thenReturn(Mono.delay(Duration.ofSeconds(5)).map(tick -> organization("slow")));
+
+        StepVerifier.create(enrich(Flux.just(program("p1", "u1", "slow"), program("p2", "u2", "slow"))))
+                .expectNext("p1:u1:-:degraded", "p2:u2:-:degraded")
+                .expectComplete()
+                .verify(Duration.ofSeconds(2));
+
+        assertEquals(1.0, registry.counter("enrichment.degraded").count());
+    }
+
+    @Test
+    void enrich_ShouldBoundConcurrentLookups() {
+        AtomicInteger active = new AtomicInteger();
+        AtomicInteger peak = new AtomicInteger();
+        when(externalServiceClient.findUserById(anyString())).thenAnswer(inv -> Mono.defer(() -> {
+            peak.accumulateAndGet(active.incrementAndGet(), Math::max);
+            return Mono.delay(Duration.ofMillis(20))
+                    .doOnNext(tick -> active.decrementAndGet())
+                    .map(tick -> user(inv.getArgument(0), null));
+        }));
+        loader = loader(20, 2, 5000);
+
+        Flux<DistributionProgram> programs = Flux.range(1, 10).map(i -> program("p" + i, "u" + i, null));
+
+        StepVerifier.create(enrich(programs))
+                .expectNextCount(10)
+                .verifyComplete();
+        assertTrue(peak.get() <= 2, "peak=" + peak.get());
+    }
+}
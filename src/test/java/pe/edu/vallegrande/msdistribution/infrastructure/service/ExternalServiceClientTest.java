@@ -0,0 +1,148 @@
+package pe.edu.vallegrande.msdistribution.infrastructure.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.web.reactive.function.client.ClientResponse;
+import org.springframework.web.reactive.function.client.WebClient;
+import pe.edu.vallegrande.msdistribution.infrastructure.config.HttpClientProperties;
+import pe.edu.vallegrande.msdistribution.infrastructure.resilience.DownstreamUnavailableException;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Pruebas unitarias para ExternalServiceClient contra un ms-users simulado: caché, peticiones
+ * compartidas, organizaciones tomadas de las respuestas de usuarios y circuit breaker.
+ */
+public class ExternalServiceClientTest {
+
+    private static final String ORGANIZATION = "{\"organizationId\":\"org-1\",\"organizationName\":\"JASS Centro\"}";
+    private static final String USER = "{\"id\":\"u1\",\"firstName\":\"Ana\",\"organization\":" + ORGANIZATION + "}";
+
+    private final List<String> requests = new CopyOnWriteArrayList<>();
+    private final AtomicBoolean failing = new AtomicBoolean();
+    private ExternalServiceClient client;
+
+    @BeforeEach
+    void setUp() {
+        client = client(60_000);
+    }
+
+    private ExternalServiceClient client(long ttlMillis) {
+        WebClient users = WebClient.builder()
+                .exchangeFunction(request -> {
+                    String path = request.url().getPath();
+                    requests.add(path);
+                    if (failing.get()) {
+                        return Mono.just(ClientResponse.create(HttpStatus.SERVICE_UNAVAILABLE).build());
+                    }
+                    if (path.equals("/api/users/u1")) {
+                        return json("{\"status\":true,\"data\":" + USER + "}");
+                    }
+                    if (path.equals("/internal/organizations/org-2/admins")) {
+                        return json("{\"success\":true,\"data\":[{\"id\":\"a1\",\"organization\":"
+                                + "{\"organizationId\":\"org-2\",\"organizationName\":\"JASS Norte\"}}]}");
+                    }
+                    return Mono.just(ClientResponse.create(HttpStatus.NOT_FOUND).build());
+                })
+                .build();
+        HttpClientProperties properties = new HttpClientProperties();
+        properties.getUsers().getBreaker().setWindowSize(4);
+        properties.getUsers().getBreaker().setMinimumCalls(2);
+        properties.getUsers().getBreaker().setOpenMs(60_000);
+        return new ExternalServiceClient(users, WebClient.create(), properties, new SimpleMeterRegistry(),
+                ttlMillis, 0, 60_000, 100);
+    }
+
+    private static Mono<ClientResponse> json(String body) {
+        return Mono.just(ClientResponse.create(HttpStatus.OK)
+                .header(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON_VALUE)
+                .body(body)
+                .build());
+    }
+
+    @Test
+    void getUserById_ShouldCallServiceOnce_ForRepeatedLookups() {
+        StepVerifier.create(client.getUserById("u1"))
+                .expectNextMatches(user -> "Ana".equals(user.getFirstName()))
+                .verifyComplete();
+        StepVerifier.create(client.getUserById("u1")).expectNextCount(1).verifyComplete();
+
+        assertEquals(List.of("/api/users/u1"), requests);
+    }
+
+    @Test
+    void getOrganizationById_ShouldUseOrganizationEmbeddedInUser() {
+        client.getUserById("u1").block();
+
+        StepVerifier.create(client.getOrganizationById("org-1"))
+                .expectNextMatches(organization -> "JASS Centro".equals(organization.getOrganizationName()))
+                .verifyComplete();
+
+        assertEquals(1, requests.size());
+    }
+
+    @Test
+    void getOrganizationById_ShouldFetchAdminsOnce_AndCacheAdminsAsUsers() {
+        StepVerifier.create(client.getOrganizationById("org-2"))
+                .expectNextMatches(organization -> "JASS Norte".equals(organization.getOrganizationName()))
+                .verifyComplete();
+        StepVerifier.create(client.getAdminsByOrganization("org-2")).expectNextCount(1).verifyComplete();
+        StepVerifier.create(client.getUserById("a1")).expectNextCount(1).verifyComplete();
+
+        assertEquals(List.of("/internal/organizations/org-2/admins"), requests);
+    }
+
+    @Test
+    void getUserById_ShouldCacheNotFound() {
+        StepVerifier.create(client.getUserById("missing")).verifyComplete();
+        StepVerifier.create(client.getUserById("missing")).verifyComplete();
+
+        assertEquals(1, requests.size());
+    }
+
+    @Test
+    void getUserById_ShouldFailFast_WhenCircuitIsOpen() {
+        client.getUserById("u1").block();
+        failing.set(true);
+
+        StepVerifier.create(client.getUserById("x1")).verifyComplete();
+        StepVerifier.create(client.getUserById("x2")).verifyComplete();
+        int callsWhenOpened = requests.size();
+        StepVerifier.create(client.getUserById("x3")).verifyComplete();
+
+        assertEquals(callsWhenOpened, requests.size());
+    }
+
+    @Test
+    void findUserById_ShouldReportFailure_InsteadOfEmpty_WhenCircuitIsOpen() {
+        failing.set(true);
+        client.getUserById("x1").block();
+        client.getUserById("x2").block();
+
+        StepVerifier.create(client.findUserById("x3"))
+                .expectError(DownstreamUnavailableException.class)
+                .verify();
+    }
+
+    @Test
+    void getUserById_ShouldServeLastKnownGood_WhenServiceFails() {
+        client = client(0);
+        client.getUserById("u1").block();
+        failing.set(true);
+
+        StepVerifier.create(client.getUserById("u1"))
+                .expectNextMatches(user -> "Ana".equals(user.getFirstName()))
+                .verifyComplete();
+        assertEquals(2, requests.size());
+    }
+}
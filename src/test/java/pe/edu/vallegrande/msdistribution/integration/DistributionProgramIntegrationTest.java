@@ -52,6 +52,8 @@ public class DistributionProgramIntegrationTest {
         
         when(externalServiceClient.getOrganizationById("org-123"))
             .thenReturn(Mono.just(org));
+        when(externalServiceClient.findOrganizationById("org-123"))
+            .thenReturn(Mono.just(org));
         
         // Clean database before each test
         distributionProgramRepository.deleteAll().block();
@@ -54,6 +54,8 @@ public class DistributionRouteIntegrationTest {
         
         when(externalServiceClient.getOrganizationById("org-123"))
             .thenReturn(Mono.just(org));
+        when(externalServiceClient.findOrganizationById("org-123"))
+            .thenReturn(Mono.just(org));
         
         // Clean database before each test
         distributionRouteRepository.deleteAll().block();
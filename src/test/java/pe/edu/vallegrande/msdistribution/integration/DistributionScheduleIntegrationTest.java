@@ -49,6 +49,8 @@ public class DistributionScheduleIntegrationTest {
         // Mock external service calls
         when(externalServiceClient.getOrganizationById("org-123"))
             .thenReturn(Mono.just(new pe.edu.vallegrande.msdistribution.infrastructure.client.dto.ExternalOrganization()));
+        when(externalServiceClient.findOrganizationById("org-123"))
+            .thenReturn(Mono.just(new pe.edu.vallegrande.msdistribution.infrastructure.client.dto.ExternalOrganization()));
         
         // Clean database before each test
         distributionScheduleRepository.deleteAll().block();
@@ -55,6 +55,8 @@ public class FareIntegrationTest {
         
         when(externalServiceClient.getOrganizationById("org-123"))
             .thenReturn(Mono.just(org));
+        when(externalServiceClient.findOrganizationById("org-123"))
+            .thenReturn(Mono.just(org));
         
         // Clean database before each test
         fareRepository.deleteAll().block();